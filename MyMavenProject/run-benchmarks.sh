@@ -0,0 +1,37 @@
+#!/bin/bash
+
+# Запуск JMH-бенчмарков горячих путей движка (без окна и OpenGL).
+# Дополнительные аргументы передаются JMH, например: ./run-benchmarks.sh Camera
+# Результаты сравниваются с закоммиченной базой src/jmh/baseline.json
+
+# Компиляция проекта вместе с бенчмарками
+echo "Сборка бенчмарков..."
+mvn -Pbenchmark clean package -DskipTests
+
+# Проверка успешности сборки Maven
+if [ $? -ne 0 ]; then
+    echo "Ошибка при сборке бенчмарков!"
+    exit 1
+fi
+
+# Сборка нативной библиотеки (нужна для бенчмарков JNI)
+echo "Сборка нативной библиотеки..."
+mkdir -p src/main/native/build
+(cd src/main/native/build && cmake .. && make)
+
+if [ $? -ne 0 ]; then
+    echo "Ошибка при сборке нативной библиотеки!"
+    exit 1
+fi
+
+mkdir -p target/natives
+cp src/main/native/build/lib/libphysics.so target/natives/
+
+# Запуск с профилировщиком GC: ns/op и B/op (gc.alloc.rate.norm)
+java -Djava.awt.headless=true -Djava.library.path=target/natives \
+    -cp target/MyMavenProject-1.0-SNAPSHOT-fat.jar \
+    org.openjdk.jmh.Main -prof gc -rf json -rff target/jmh-result.json "$@"
+
+echo ""
+echo "Результаты: target/jmh-result.json"
+echo "База для сравнения: src/jmh/baseline.json"
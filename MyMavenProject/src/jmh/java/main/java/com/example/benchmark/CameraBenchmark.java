@@ -0,0 +1,51 @@
+package main.java.com.example.benchmark;
+
+import main.java.com.example.render.Camera;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость и выделение памяти в операциях камеры
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CameraBenchmark {
+    private Camera camera;
+    private float mouseX;
+
+    @Setup
+    public void setup() {
+        camera = new Camera(new Vector3f(0.0f, 2.0f, 5.0f), new Vector3f(0.0f, 0.0f, -1.0f));
+    }
+
+    @Benchmark
+    public Matrix4f getViewMatrix() {
+        return camera.getViewMatrix();
+    }
+
+    /**
+     * Событие мыши со смещением на один пиксель
+     */
+    @Benchmark
+    public Vector3f processMouseMovement() {
+        mouseX += 1.0f;
+        camera.processMouseMovement(mouseX, 300.0f);
+        return camera.getFront();
+    }
+}
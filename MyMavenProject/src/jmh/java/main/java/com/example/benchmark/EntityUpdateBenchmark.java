@@ -0,0 +1,108 @@
+package main.java.com.example.benchmark;
+
+import main.java.com.example.entity.EntityStore;
+import main.java.com.example.entity.MovementSystem;
+import main.java.com.example.entity.PlayerControlSystem;
+import org.joml.Vector3f;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Обновление всех сущностей за шаг: хранилище в виде структуры массивов
+ * против прежней объектной модели (позиция и скорость - отдельные Vector3f в куче)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EntityUpdateBenchmark {
+    private static final float DELTA_TIME = 1.0f / 60.0f;
+
+    /**
+     * Сущность прежней объектной модели
+     */
+    private static final class ObjectEntity {
+        final Vector3f position;
+        final Vector3f velocity;
+        final boolean playerControlled;
+
+        ObjectEntity(Vector3f position, Vector3f velocity, boolean playerControlled) {
+            this.position = position;
+            this.velocity = velocity;
+            this.playerControlled = playerControlled;
+        }
+    }
+
+    @Param({"10000", "100000", "1000000"})
+    public int count;
+
+    private EntityStore store;
+    private final MovementSystem movement = new MovementSystem();
+    private final PlayerControlSystem playerControl = new PlayerControlSystem();
+
+    private ObjectEntity[] objects;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        store = new EntityStore(count);
+        List<ObjectEntity> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            float x = random.nextFloat() * 200.0f - 100.0f;
+            float z = random.nextFloat() * 200.0f - 100.0f;
+            float vx = random.nextFloat() * 2.0f - 1.0f;
+            float vz = random.nextFloat() * 2.0f - 1.0f;
+            boolean playerControlled = i % 100 == 0;
+
+            int index = store.indexOf(store.create(x, 0.5f, z));
+            store.setVelocity(index, vx, 0.0f, vz);
+            if (playerControlled) {
+                store.setFlags(index, EntityStore.FLAG_PLAYER_CONTROLLED);
+            }
+
+            list.add(new ObjectEntity(new Vector3f(x, 0.5f, z), new Vector3f(vx, 0.0f, vz), playerControlled));
+        }
+
+        // В долгоживущей куче объекты сущностей не лежат в порядке обхода
+        Collections.shuffle(list, random);
+        objects = list.toArray(new ObjectEntity[0]);
+    }
+
+    @Benchmark
+    public EntityStore entityStore() {
+        movement.update(store, DELTA_TIME);
+        playerControl.update(store, DELTA_TIME);
+        return store;
+    }
+
+    @Benchmark
+    public ObjectEntity[] objectModel() {
+        for (ObjectEntity entity : objects) {
+            entity.position.fma(DELTA_TIME, entity.velocity);
+            if (entity.playerControlled) {
+                entity.velocity.x *= 0.9f;
+                entity.velocity.z *= 0.9f;
+                entity.position.y = 0.5f;
+                entity.velocity.y = 0.0f;
+            }
+        }
+        return objects;
+    }
+}
@@ -0,0 +1,106 @@
+package main.java.com.example.benchmark;
+
+import main.java.com.example.entity.Player;
+import main.java.com.example.physics.PhysicsEngine;
+import main.java.com.example.render.Camera;
+import main.java.com.example.sim.Simulation;
+import main.java.com.example.sim.SimulationInput;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Кадр игрового цикла без рендеринга: ввод, шаг симуляции, мышь и матрица вида.
+ * После прогрева кадр не должен выделять память; это проверяется в конце
+ * каждой итерации, и бенчмарк завершается ошибкой, если выделения появились.
+ * Требует libphysics.so в java.library.path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FrameAllocationBenchmark {
+    // Количество кадров в проверке выделений
+    private static final int CHECK_FRAMES = 10_000;
+
+    private PhysicsEngine physicsEngine;
+    private Simulation simulation;
+    private SimulationInput input;
+    private Camera camera;
+    private float mouseX;
+    private int frame;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        physicsEngine = PhysicsEngine.create();
+        physicsEngine.init();
+        simulation = new Simulation(physicsEngine, new Player(new Vector3f(0.0f, 0.5f, 0.0f)));
+        input = new SimulationInput();
+        camera = new Camera(new Vector3f(0.0f, 2.0f, 5.0f), new Vector3f(0.0f, 0.0f, -1.0f));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        physicsEngine.cleanup();
+    }
+
+    /**
+     * Один кадр
+     */
+    @Benchmark
+    public Matrix4f frame() {
+        // Клавиши меняются от кадра к кадру, чтобы пройти все ветви движения
+        frame++;
+        input.setKeys(frame & 0xF);
+
+        mouseX += 1.0f;
+        camera.processMouseMovement(mouseX, 300.0f);
+        input.setLook(camera.getYaw(), camera.getPitch());
+
+        simulation.tick(1.0f / 60.0f, input);
+
+        Vector3f position = simulation.getPlayer().getPosition();
+        camera.setPosition(position.x, position.y + Simulation.EYE_HEIGHT, position.z);
+        return camera.getViewMatrix();
+    }
+
+    /**
+     * Проверка: после прогрева кадры не выделяют память
+     */
+    @TearDown(Level.Iteration)
+    public void assertNoAllocation() {
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        // Стоимость самого замера вычитается
+        long overheadStart = threads.getCurrentThreadAllocatedBytes();
+        long overhead = threads.getCurrentThreadAllocatedBytes() - overheadStart;
+
+        long start = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < CHECK_FRAMES; i++) {
+            frame();
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - start - overhead;
+
+        if (allocated > 0) {
+            throw new IllegalStateException(
+                "Кадр выделяет память: " + allocated + " байт за " + CHECK_FRAMES + " кадров");
+        }
+    }
+}
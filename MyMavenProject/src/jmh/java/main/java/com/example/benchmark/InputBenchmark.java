@@ -0,0 +1,66 @@
+package main.java.com.example.benchmark;
+
+import main.java.com.example.input.InputState;
+import main.java.com.example.render.Camera;
+import org.joml.Vector3f;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Движения мыши за кадр: обновление камеры на каждое событие (прежний обратный
+ * вызов) против очереди событий с одним обновлением камеры на кадр.
+ * 8 событий - мышь 1000 Гц при 125 кадрах/с, 64 - мышь 8000 Гц.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InputBenchmark {
+    @Param({"1", "8", "64"})
+    public int eventsPerFrame;
+
+    private Camera camera;
+    private InputState input;
+    private double mouseX;
+
+    @Setup
+    public void setup() {
+        camera = new Camera(new Vector3f(0.0f, 2.0f, 5.0f), new Vector3f(0.0f, 0.0f, -1.0f));
+        input = new InputState(1024);
+    }
+
+    @Benchmark
+    public Vector3f perEvent() {
+        for (int i = 0; i < eventsPerFrame; i++) {
+            mouseX += 1.0;
+            camera.processMouseMovement((float) mouseX, 300.0f);
+        }
+        return camera.getFront();
+    }
+
+    @Benchmark
+    public Vector3f queued() {
+        for (int i = 0; i < eventsPerFrame; i++) {
+            mouseX += 1.0;
+            input.onCursor(mouseX, 300.0);
+        }
+        input.drain();
+        if (input.hasCursorMoved()) {
+            camera.processMouseMovement((float) input.getCursorX(), (float) input.getCursorY());
+        }
+        return camera.getFront();
+    }
+}
@@ -0,0 +1,74 @@
+package main.java.com.example.benchmark;
+
+import main.java.com.example.physics.BodyBuffer;
+import main.java.com.example.physics.PhysicsEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость вызовов нативного физического движка через JNI.
+ * Требует libphysics.so в java.library.path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PhysicsJniBenchmark {
+    private PhysicsEngine physicsEngine;
+    private BodyBuffer bodies;
+    private int body;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        physicsEngine = PhysicsEngine.create("jni");
+        physicsEngine.init();
+        bodies = physicsEngine.createBodies(1);
+        body = bodies.add(0.0f, 0.5f, 0.0f);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        physicsEngine.cleanup();
+    }
+
+    /**
+     * Обновление игрока с возвратом нового массива позиции
+     */
+    @Benchmark
+    public float[] updatePlayerPosition() {
+        return physicsEngine.updatePlayerPosition(0.0f, 0.5f, 0.0f, 1.0f, 0.0f, 1.0f, 1.0f / 60.0f);
+    }
+
+    /**
+     * Проверка коллизии с землей
+     */
+    @Benchmark
+    public boolean isColliding() {
+        return physicsEngine.isColliding(0.0f, 0.4f, 0.0f);
+    }
+
+    /**
+     * Тот же шаг игрока через общий блок памяти
+     */
+    @Benchmark
+    public float stepSharedBuffer() {
+        bodies.setPosition(body, 0.0f, 0.5f, 0.0f);
+        bodies.setVelocity(body, 1.0f, 0.0f, 1.0f);
+        physicsEngine.step(1.0f / 60.0f);
+        return bodies.getPositionX(body);
+    }
+}
@@ -0,0 +1,68 @@
+package main.java.com.example.benchmark;
+
+import main.java.com.example.physics.BodyBuffer;
+import main.java.com.example.physics.PhysicsEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Шаг мира нативным движком и движком на Java при разном количестве тел:
+ * показывает, с какого размера мира переход в нативный код окупается.
+ * Требует libphysics.so в java.library.path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Thread)
+public class PhysicsStepBenchmark {
+    @Param({"jni", "java"})
+    private String backend;
+
+    @Param({"16", "1024", "65536"})
+    private int bodyCount;
+
+    private PhysicsEngine physicsEngine;
+    private BodyBuffer bodies;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        physicsEngine = PhysicsEngine.create(backend);
+        physicsEngine.init();
+        bodies = physicsEngine.createBodies(bodyCount);
+
+        // Тела на сетке с шагом 1.5: без контактов между собой, но с землей
+        int side = (int) Math.ceil(Math.sqrt(bodyCount));
+        for (int i = 0; i < bodyCount; i++) {
+            bodies.add((i % side) * 1.5f, 0.5f, (i / side) * 1.5f);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        physicsEngine.cleanup();
+    }
+
+    /**
+     * Шаг всех тел с разрешением столкновений
+     */
+    @Benchmark
+    public float step() {
+        physicsEngine.step(1.0f / 60.0f);
+        return bodies.getPositionY(0);
+    }
+}
@@ -0,0 +1,56 @@
+package main.java.com.example.benchmark;
+
+import main.java.com.example.entity.Player;
+import main.java.com.example.render.Camera;
+import org.joml.Vector3f;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость и выделение памяти при перемещении игрока
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PlayerBenchmark {
+    private Player player;
+    private Camera camera;
+
+    @Setup
+    public void setup() {
+        player = new Player(new Vector3f(0.0f, 0.5f, 0.0f));
+        camera = new Camera(new Vector3f(0.0f, 2.0f, 5.0f), new Vector3f(0.0f, 0.0f, -1.0f));
+        camera.setDirection(-60.0f, -10.0f);
+    }
+
+    @Benchmark
+    public Vector3f moveForward() {
+        player.moveForward(1.0f / 60.0f, camera);
+        return player.getVelocity();
+    }
+
+    @Benchmark
+    public Vector3f moveLeft() {
+        player.moveLeft(1.0f / 60.0f, camera);
+        return player.getVelocity();
+    }
+
+    @Benchmark
+    public Vector3f update() {
+        player.update(1.0f / 60.0f);
+        return player.getPosition();
+    }
+}
@@ -0,0 +1,146 @@
+package main.java.com.example.benchmark;
+
+import main.java.com.example.entity.EntityStore;
+import main.java.com.example.entity.MovementSystem;
+import main.java.com.example.net.Protocol;
+import main.java.com.example.net.QuantizedSnapshot;
+import main.java.com.example.net.SnapshotCodec;
+import main.java.com.example.net.WorldState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Кодирование и разбор состояния мира на шаг: дельта относительно предыдущего
+ * шага и состояние целиком. Двигается заданная доля сущностей, у каждой сотой
+ * меняется направление взгляда. Размер кодировки (байт на сущность, вместе
+ * с заголовками частей) выводится при подготовке, время - на весь шаг.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SnapshotCodecBenchmark {
+    private static final float DELTA_TIME = 1.0f / 60.0f;
+
+    // Место под сущности в одной датаграмме
+    private static final int PART_BYTES = Protocol.MAX_PACKET_BYTES - Protocol.STATE_HEADER_BYTES;
+
+    @Param({"1000", "10000"})
+    public int count;
+
+    @Param({"10", "100"})
+    public int movingPercent;
+
+    private final SnapshotCodec codec = new SnapshotCodec();
+    private final QuantizedSnapshot baseline = new QuantizedSnapshot();
+    private final QuantizedSnapshot current = new QuantizedSnapshot();
+    private final QuantizedSnapshot decoded = new QuantizedSnapshot();
+
+    private ByteBuffer buffer;
+    private int[] parts;
+    private ByteBuffer delta;
+    private int[] deltaParts;
+    private int deltaPartCount;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        EntityStore store = new EntityStore(count);
+        for (int i = 0; i < count; i++) {
+            int index = store.indexOf(store.create(random.nextFloat() * 400.0f - 200.0f, 0.5f,
+                random.nextFloat() * 400.0f - 200.0f));
+            if (random.nextInt(100) < movingPercent) {
+                store.setVelocity(index, random.nextFloat() * 10.0f - 5.0f, 0.0f, random.nextFloat() * 10.0f - 5.0f);
+            }
+        }
+
+        WorldState state = new WorldState();
+        state.capture(1, store);
+        look(state, 0.0f);
+        codec.quantize(state, baseline);
+
+        new MovementSystem().update(store, DELTA_TIME);
+        state.capture(2, store);
+        look(state, 1.5f);
+        codec.quantize(state, current);
+
+        // Кодировка целиком занимает больше всего места
+        buffer = ByteBuffer.allocateDirect(count * SnapshotCodec.MAX_ENTITY_BYTES + 2 * Protocol.MAX_PACKET_BYTES)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        delta = ByteBuffer.allocateDirect(buffer.capacity()).order(ByteOrder.LITTLE_ENDIAN);
+        parts = new int[count + 2];
+        deltaParts = new int[count + 2];
+        deltaPartCount = encodeParts(baseline, delta, deltaParts);
+        int deltaBytes = delta.position();
+        int fullBytes = encodeParts(null, buffer, parts) * Protocol.STATE_HEADER_BYTES + buffer.position();
+
+        System.out.printf("%nБайт на сущность (%d сущностей, движется %d%%): дельта %.2f, целиком %.2f, без кодека %d%n",
+            count, movingPercent,
+            (deltaBytes + deltaPartCount * Protocol.STATE_HEADER_BYTES) / (double) count,
+            fullBytes / (double) count,
+            4 + 6 * Float.BYTES + 2 * Float.BYTES);
+    }
+
+    /**
+     * Направление взгляда у каждой сотой сущности (игроки)
+     */
+    private void look(WorldState state, float turn) {
+        for (int i = 0; i < state.getCount(); i += 100) {
+            state.setLook(i, -90.0f + i + turn, 10.0f - turn);
+        }
+    }
+
+    /**
+     * Кодирование шага по частям подряд в буфер, возвращает количество частей
+     */
+    private int encodeParts(QuantizedSnapshot base, ByteBuffer dest, int[] offsets) {
+        dest.clear();
+        int partCount = 0;
+        int slot = 0;
+        do {
+            offsets[partCount++] = dest.position();
+            slot = codec.encodePart(current, base, slot, dest, PART_BYTES);
+        } while (slot < current.getSlotCount());
+        offsets[partCount] = dest.position();
+        return partCount;
+    }
+
+    @Benchmark
+    public ByteBuffer encodeDelta() {
+        encodeParts(baseline, buffer, parts);
+        return buffer;
+    }
+
+    @Benchmark
+    public ByteBuffer encodeFull() {
+        encodeParts(null, buffer, parts);
+        return buffer;
+    }
+
+    @Benchmark
+    public QuantizedSnapshot decodeDelta() {
+        for (int part = 0; part < deltaPartCount; part++) {
+            delta.limit(deltaParts[part + 1]).position(deltaParts[part]);
+            codec.decodePart(current.getTick(), delta, baseline, decoded);
+        }
+        delta.clear();
+        return decoded;
+    }
+}
@@ -2,8 +2,21 @@ package main.java.com.example;
 
 import main.java.com.example.render.Renderer;
 import main.java.com.example.render.Camera;
+import main.java.com.example.render.ShaderCache;
 import main.java.com.example.entity.Player;
+import main.java.com.example.input.InputState;
+import main.java.com.example.net.BotClients;
+import main.java.com.example.net.GameServer;
 import main.java.com.example.physics.PhysicsEngine;
+import main.java.com.example.profiling.FrameProfiler;
+import main.java.com.example.profiling.ProfileDumper;
+import main.java.com.example.sim.FixedStepLoop;
+import main.java.com.example.sim.FrameSnapshot;
+import main.java.com.example.sim.InputRecorder;
+import main.java.com.example.sim.Simulation;
+import main.java.com.example.sim.SimulationInput;
+import main.java.com.example.sim.WorldSnapshot;
+import org.joml.Matrix4f;
 import org.joml.Vector3f;
 import org.lwjgl.glfw.GLFW;
 import org.lwjgl.glfw.GLFWErrorCallback;
@@ -11,6 +24,9 @@ import org.lwjgl.opengl.GL;
 import org.lwjgl.opengl.GL11;
 import org.lwjgl.system.MemoryUtil;
 
+import java.io.IOException;
+import java.nio.file.Path;
+
 /**
  * Основной класс игры, который управляет игровым циклом и инициализацией
  */
@@ -23,17 +39,72 @@ public class Game {
     // Компоненты игры
     private long window;
     private Renderer renderer;
+    // Камера окна только накапливает направление взгляда от мыши;
+    // камера для рендеринга приходит из снимка симуляции
     private Camera camera;
     private Player player;
     private PhysicsEngine physicsEngine;
 
+    // Симуляция с фиксированным шагом в отдельном потоке
+    private static final int PHYSICS_HZ = Integer.getInteger("physics.hz", 60);
+    private static final int MAX_STEPS_PER_WAKE = 5;
+    private Simulation simulation;
+    private SimulationInput simulationInput;
+    private FixedStepLoop simulationLoop;
+
+    // Ввод окна: обратные вызовы GLFW пишут события в очередь, кадр разбирает ее
+    private static final int INPUT_QUEUE_CAPACITY = Integer.getInteger("input.queue.capacity", 1024);
+    private final InputState input = new InputState(INPUT_QUEUE_CAPACITY);
+
+    // Журнал ввода шагов для воспроизведения без окна (HeadlessGame, headless.replay)
+    private static final String INPUT_RECORD = System.getProperty("input.record");
+    private static final int CHECKSUM_INTERVAL = Integer.getInteger("input.checksum.interval", 60);
+    private InputRecorder inputRecorder;
+
+    // Файл снимка мира: F5 - сохранение, F9 - загрузка (между шагами симуляции)
+    private static final Path WORLD_SNAPSHOT = Path.of(System.getProperty("world.snapshot", "world" + WorldSnapshot.EXTENSION));
+
+    // Профилировщик этапов кадра и периодический вывод его статистики в файл
+    private static final String PROFILE_OUTPUT = System.getProperty("profiling.output");
+    private static final long PROFILE_INTERVAL_MILLIS = Long.getLong("profiling.interval", 5000L);
+    private final FrameProfiler profiler = new FrameProfiler();
+    private ProfileDumper profileDumper;
+
+    // Интерполированные позиции игрока и камеры и матрица вида для рендеринга
+    private final Vector3f renderPlayerPosition = new Vector3f();
+    private final Vector3f renderCameraPosition = new Vector3f();
+    private final Matrix4f renderViewMatrix = new Matrix4f();
+
+    // Буфер заголовка окна со статистикой, переиспользуется
+    private final StringBuilder title = new StringBuilder(256);
+
+    // Момент запуска для замера времени до первого кадра
+    private long startNanos;
+
     // Состояние игры
     private boolean running = false;
 
     /**
-     * Точка входа в приложение
+     * Точка входа в приложение.
+     * С аргументом --headless симуляция запускается без окна (см. HeadlessGame),
+     * с --server - авторитетный сервер (GameServer), с --bots - боты для его нагрузки (BotClients).
      */
     public static void main(String[] args) {
+        for (String arg : args) {
+            if (arg.equals("--headless")) {
+                HeadlessGame.main(args);
+                return;
+            }
+            if (arg.equals("--server")) {
+                GameServer.main(args);
+                return;
+            }
+            if (arg.equals("--bots")) {
+                BotClients.main(args);
+                return;
+            }
+        }
+
         Game game = new Game();
         game.start();
     }
@@ -42,6 +113,7 @@ public class Game {
      * Запуск игры
      */
     public void start() {
+        startNanos = System.nanoTime();
         init();
         gameLoop();
         cleanup();
@@ -70,16 +142,14 @@ public class Game {
             throw new RuntimeException("Не удалось создать окно GLFW");
         }
 
-        // Настройка обратных вызовов
-        GLFW.glfwSetKeyCallback(window, (window, key, scancode, action, mods) -> {
-            if (key == GLFW.GLFW_KEY_ESCAPE && action == GLFW.GLFW_RELEASE) {
-                GLFW.glfwSetWindowShouldClose(window, true);
-            }
-        });
+        // Обратные вызовы клавиш и мыши только записывают события, разбор - в processInput
+        GLFW.glfwSetKeyCallback(window, (window, key, scancode, action, mods) -> input.onKey(key, action));
+        GLFW.glfwSetCursorPosCallback(window, (window, xpos, ypos) -> input.onCursor(xpos, ypos));
 
-        // Настройка обратного вызова для движения мыши
-        GLFW.glfwSetCursorPosCallback(window, (window, xpos, ypos) -> {
-            camera.processMouseMovement((float) xpos, (float) ypos);
+        // Изменение размера окна: область вывода и проекция
+        GLFW.glfwSetFramebufferSizeCallback(window, (window, width, height) -> {
+            GL11.glViewport(0, 0, width, height);
+            renderer.resize(width, height);
         });
 
         // Отключение видимости курсора и его захват
@@ -108,15 +178,43 @@ public class Game {
         GL11.glClearColor(0.2f, 0.3f, 0.4f, 1.0f);
         GL11.glEnable(GL11.GL_DEPTH_TEST);
 
-        // Инициализация компонентов игры
+        // Инициализация компонентов игры; время создания шейдеров зависит от кэша программ
+        long rendererStart = System.nanoTime();
         renderer = new Renderer();
+        ShaderCache shaderCache = ShaderCache.shared();
+        System.out.printf("Рендерер создан за %.1f мс, шейдерных программ: %d из кэша, %d скомпилировано (%.1f мс)%n",
+            (System.nanoTime() - rendererStart) / 1e6,
+            shaderCache.getHits(), shaderCache.getMisses(), shaderCache.getLinkNanos() / 1e6);
         camera = new Camera(new Vector3f(0, 2, 5), new Vector3f(0, 0, -1));
         player = new Player(new Vector3f(0, 0, 0));
-        physicsEngine = new PhysicsEngine();
+        physicsEngine = PhysicsEngine.create();
+        physicsEngine.setProfiler(profiler);
 
         // Инициализация физического движка
         physicsEngine.init();
 
+        // Симуляция выполняется в своем потоке с фиксированной частотой
+        simulationInput = new SimulationInput();
+        simulationInput.setLook(camera.getYaw(), camera.getPitch());
+        simulation = new Simulation(physicsEngine, player);
+        simulationLoop = new FixedStepLoop(simulation, simulationInput, PHYSICS_HZ, MAX_STEPS_PER_WAKE);
+        simulationLoop.setProfiler(profiler);
+        if (INPUT_RECORD != null) {
+            try {
+                inputRecorder = new InputRecorder(Path.of(INPUT_RECORD), PHYSICS_HZ, CHECKSUM_INTERVAL, 0, 0);
+            } catch (IOException e) {
+                throw new RuntimeException("Не удалось создать журнал ввода: " + INPUT_RECORD, e);
+            }
+            simulationLoop.setRecorder(inputRecorder);
+        }
+        simulationLoop.start();
+
+        // Статистика профилировщика выводится в файл, если он задан
+        if (PROFILE_OUTPUT != null) {
+            profileDumper = new ProfileDumper(profiler, Path.of(PROFILE_OUTPUT), PROFILE_INTERVAL_MILLIS);
+            profileDumper.start();
+        }
+
         running = true;
     }
 
@@ -124,76 +222,119 @@ public class Game {
      * Основной игровой цикл
      */
     private void gameLoop() {
-        float deltaTime;
-        float lastFrame = 0;
+        float lastStatsUpdate = 0;
 
         // Цикл выполняется, пока окно не должно быть закрыто
         while (running && !GLFW.glfwWindowShouldClose(window)) {
-            // Расчет времени кадра
             float currentFrame = (float) GLFW.glfwGetTime();
-            deltaTime = currentFrame - lastFrame;
-            lastFrame = currentFrame;
-
-            // Обработка ввода
-            processInput(deltaTime);
+            long frameStart = System.nanoTime();
 
-            // Обновление физики
-            physicsEngine.update(deltaTime);
+            // Обработка ввода (передается в поток симуляции)
+            processInput();
+            long stageStart = profiler.mark(FrameProfiler.Stage.INPUT, frameStart);
 
-            // Обновление игровой логики
-            update(deltaTime);
+            // Обновление состояния для рендеринга
+            update();
+            stageStart = profiler.mark(FrameProfiler.Stage.LOGIC, stageStart);
 
             // Рендеринг
             render();
+            stageStart = profiler.mark(FrameProfiler.Stage.RENDER, stageStart);
 
             // Обмен буферами и опрос событий
             GLFW.glfwSwapBuffers(window);
+            stageStart = profiler.mark(FrameProfiler.Stage.SWAP, stageStart);
+            if (input.getOldestEventNanos() != 0L) {
+                profiler.record(FrameProfiler.Stage.INPUT_LATENCY, stageStart - input.getOldestEventNanos());
+            }
             GLFW.glfwPollEvents();
+            stageStart = profiler.mark(FrameProfiler.Stage.EVENTS, stageStart);
+
+            profiler.endFrame(frameStart, stageStart);
+
+            if (startNanos != 0) {
+                System.out.printf("Первый кадр через %.1f мс после запуска%n", (stageStart - startNanos) / 1e6);
+                startNanos = 0;
+            }
+
+            // Раз в секунду выводим счетчики вызовов OpenGL в заголовок окна
+            if (currentFrame - lastStatsUpdate >= 1.0f) {
+                lastStatsUpdate = currentFrame;
+                title.setLength(0);
+                title.append(TITLE)
+                    .append(" | GL вызовов за кадр: ").append(renderer.getStats().getGlCalls())
+                    .append(", отрисовок: ").append(renderer.getStats().getDrawCalls())
+                    .append(", смен состояния: ").append(renderer.getStats().getStateChanges())
+                    .append(" (пропущено ").append(renderer.getStats().getStateSkipped()).append(")")
+                    .append(" | чанков: ").append(renderer.getStats().getChunksDrawn())
+                    .append("/").append(renderer.getStats().getChunksTested())
+                    .append(" | кадр p99: ").append(profiler.getHistogram(FrameProfiler.Stage.FRAME).getPercentile(0.99) / 1000).append(" мкс")
+                    .append(", ввод->кадр p99: ").append(profiler.getHistogram(FrameProfiler.Stage.INPUT_LATENCY).getPercentile(0.99) / 1000).append(" мкс")
+                    .append(" (отброшено событий: ").append(input.getDroppedEvents()).append(")")
+                    .append(" | шагов физики: ").append(simulationLoop.getTicks())
+                    .append(", догнано: ").append(simulationLoop.getCaughtUpTicks())
+                    .append(", пропущено: ").append(simulationLoop.getDroppedTicks())
+                    .append(" | снимок: ").append(profiler.getHistogram(FrameProfiler.Stage.SNAPSHOT_AGE).getPercentile(0.5) / 1000).append(" мкс")
+                    .append(", не показано: ").append(simulationLoop.getSkippedSnapshots())
+                    .append(", повторов: ").append(simulationLoop.getRepeatedFrames())
+                    .append(" | пар: ").append(simulation.getBodies().getPairCount())
+                    .append(", спит тел: ").append(simulation.getBodies().getSleepingCount())
+                    .append(", широкая фаза: ").append(simulation.getBodies().getBroadphaseNanos() / 1000).append(" мкс");
+                GLFW.glfwSetWindowTitle(window, title);
+            }
         }
     }
 
     /**
-     * Обработка пользовательского ввода
+     * Обработка пользовательского ввода: события, накопленные за прошлый кадр
      */
-    private void processInput(float deltaTime) {
+    private void processInput() {
+        input.drain();
+        if (input.wasReleased(GLFW.GLFW_KEY_ESCAPE)) {
+            GLFW.glfwSetWindowShouldClose(window, true);
+        }
+        if (input.wasReleased(GLFW.GLFW_KEY_F5)) {
+            simulationLoop.requestSave(WORLD_SNAPSHOT);
+        }
+        if (input.wasReleased(GLFW.GLFW_KEY_F9)) {
+            simulationLoop.requestLoad(WORLD_SNAPSHOT);
+        }
+
+        // Все движения мыши за кадр - одно обновление камеры по последней позиции курсора
+        if (input.hasCursorMoved()) {
+            camera.processMouseMovement((float) input.getCursorX(), (float) input.getCursorY());
+            simulationInput.setLook(camera.getYaw(), camera.getPitch());
+        }
+
         // Перемещение игрока относительно камеры
-        if (GLFW.glfwGetKey(window, GLFW.GLFW_KEY_W) == GLFW.GLFW_PRESS) {
-            player.moveForward(deltaTime, camera);
+        int keys = 0;
+        if (input.isDown(GLFW.GLFW_KEY_W)) {
+            keys |= SimulationInput.KEY_FORWARD;
         }
-        if (GLFW.glfwGetKey(window, GLFW.GLFW_KEY_S) == GLFW.GLFW_PRESS) {
-            player.moveBackward(deltaTime, camera);
+        if (input.isDown(GLFW.GLFW_KEY_S)) {
+            keys |= SimulationInput.KEY_BACKWARD;
         }
-        if (GLFW.glfwGetKey(window, GLFW.GLFW_KEY_A) == GLFW.GLFW_PRESS) {
-            player.moveLeft(deltaTime, camera);
+        if (input.isDown(GLFW.GLFW_KEY_A)) {
+            keys |= SimulationInput.KEY_LEFT;
         }
-        if (GLFW.glfwGetKey(window, GLFW.GLFW_KEY_D) == GLFW.GLFW_PRESS) {
-            player.moveRight(deltaTime, camera);
+        if (input.isDown(GLFW.GLFW_KEY_D)) {
+            keys |= SimulationInput.KEY_RIGHT;
         }
+        simulationInput.setKeys(keys);
     }
 
     /**
-     * Обновление игровой логики
+     * Обновление состояния для рендеринга из последнего снимка симуляции
      */
-    private void update(float deltaTime) {
-        // Обновление позиции игрока с учетом физики
-        Vector3f playerPos = player.getPosition();
-        float[] newPos = physicsEngine.updatePlayerPosition(
-            playerPos.x, playerPos.y, playerPos.z,
-            player.getVelocity().x, player.getVelocity().y, player.getVelocity().z,
-            deltaTime
-        );
-        player.setPosition(new Vector3f(newPos[0], newPos[1], newPos[2]));
-
-        // Обновление игрока
-        player.update(deltaTime);
-
-        // Обновление камеры для следования за игроком
-        // Камера находится на высоте глаз игрока
-        camera.setPosition(new Vector3f(
-            player.getPosition().x,
-            player.getPosition().y + 1.8f, // Высота глаз
-            player.getPosition().z
-        ));
+    private void update() {
+        FrameSnapshot snapshot = simulationLoop.acquireSnapshot();
+        long now = System.nanoTime();
+        profiler.record(FrameProfiler.Stage.SNAPSHOT_AGE, now - snapshot.getTimeNanos());
+
+        // Позиция игрока интерполируется внутри шага, камера следует за ней на высоте глаз
+        simulationLoop.interpolatePlayerPosition(snapshot, now, renderPlayerPosition);
+        FixedStepLoop.interpolateViewMatrix(snapshot, renderPlayerPosition, renderViewMatrix);
+        renderCameraPosition.set(renderPlayerPosition).add(0.0f, Simulation.EYE_HEIGHT, 0.0f);
     }
 
     /**
@@ -203,13 +344,38 @@ public class Game {
         GL11.glClear(GL11.GL_COLOR_BUFFER_BIT | GL11.GL_DEPTH_BUFFER_BIT);
 
         // Рендеринг сцены
-        renderer.render(camera, player);
+        renderer.render(renderViewMatrix, renderCameraPosition, renderPlayerPosition);
+    }
+
+    /**
+     * Закрытие журнала ввода с выводом количества записанных шагов
+     */
+    static void closeInputRecorder(InputRecorder recorder) {
+        try {
+            recorder.close();
+            System.out.printf("Журнал ввода: записано шагов %d%n", recorder.getCount());
+        } catch (IOException e) {
+            System.err.println("Не удалось закрыть журнал ввода: " + e.getMessage());
+        }
     }
 
     /**
      * Освобождение ресурсов
      */
     private void cleanup() {
+        // Остановка потока симуляции до освобождения физического движка
+        simulationLoop.stop();
+
+        // Журнал ввода закрывается после последнего шага
+        if (inputRecorder != null) {
+            closeInputRecorder(inputRecorder);
+        }
+
+        // Последний интервал профиля записывается при остановке
+        if (profileDumper != null) {
+            profileDumper.stop();
+        }
+
         // Освобождение ресурсов рендерера
         renderer.cleanup();
 
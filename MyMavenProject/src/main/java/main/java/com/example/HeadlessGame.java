@@ -0,0 +1,370 @@
+package main.java.com.example;
+
+import main.java.com.example.entity.EntityStore;
+import main.java.com.example.entity.Player;
+import main.java.com.example.physics.BodyBuffer;
+import main.java.com.example.physics.PhysicsEngine;
+import main.java.com.example.profiling.FrameProfiler;
+import main.java.com.example.profiling.LatencyHistogram;
+import main.java.com.example.profiling.ProfileDumper;
+import main.java.com.example.sim.InputRecorder;
+import main.java.com.example.sim.InputReplay;
+import main.java.com.example.sim.InputSource;
+import main.java.com.example.sim.ScriptedInput;
+import main.java.com.example.sim.Simulation;
+import main.java.com.example.sim.SimulationInput;
+import main.java.com.example.sim.WorldSnapshot;
+import org.joml.Vector3f;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Запуск симуляции без окна и OpenGL для серверов и нагрузочного тестирования.
+ * GLFW и рендерер не загружаются; шаги выполняются подряд без ограничения частоты.
+ *
+ * Параметры задаются системными свойствами:
+ * <ul>
+ *   <li>headless.ticks - количество шагов (по умолчанию 20000)</li>
+ *   <li>headless.bodies - количество дополнительных тел в мире (по умолчанию 0)</li>
+ *   <li>headless.entities - количество дополнительных сущностей в хранилище (по умолчанию 0)</li>
+ *   <li>headless.script - файл сценария ввода (по умолчанию встроенный сценарий)</li>
+ *   <li>headless.replay - журнал ввода для воспроизведения; частота, количество тел,
+ *       сущностей и шагов берутся из журнала, состояние сверяется с контрольными суммами</li>
+ *   <li>input.record - файл журнала ввода для записи</li>
+ *   <li>headless.restore - снимок мира, с которого начинается симуляция; вместимость
+ *       блока тел берется из снимка, headless.ticks шагов выполняется от шага снимка</li>
+ *   <li>headless.snapshot - файл снимка мира, сохраняемого после последнего шага</li>
+ *   <li>headless.snapshot.interval - интервал сохранения снимка в шагах (по умолчанию 0 - только в конце)</li>
+ *   <li>input.checksum.interval - интервал контрольных сумм состояния в журнале (по умолчанию 60)</li>
+ *   <li>physics.hz - частота симуляции, задает длительность шага (по умолчанию 60)</li>
+ *   <li>profiling.output - файл периодического вывода профиля (CSV или JSON)</li>
+ * </ul>
+ */
+public class HeadlessGame {
+    private static final int PHYSICS_HZ = Integer.getInteger("physics.hz", 60);
+    private static final int TICKS = Integer.getInteger("headless.ticks", 20_000);
+    private static final int BODIES = Integer.getInteger("headless.bodies", 0);
+    private static final int ENTITIES = Integer.getInteger("headless.entities", 0);
+    private static final String SCRIPT = System.getProperty("headless.script");
+    private static final String REPLAY = System.getProperty("headless.replay");
+    private static final String INPUT_RECORD = System.getProperty("input.record");
+    private static final int CHECKSUM_INTERVAL = Integer.getInteger("input.checksum.interval", 60);
+    private static final String RESTORE = System.getProperty("headless.restore");
+    private static final String SNAPSHOT = System.getProperty("headless.snapshot");
+    private static final int SNAPSHOT_INTERVAL = Integer.getInteger("headless.snapshot.interval", 0);
+    private static final String PROFILE_OUTPUT = System.getProperty("profiling.output");
+    private static final long PROFILE_INTERVAL_MILLIS = Long.getLong("profiling.interval", 5000L);
+
+    // Интервал вывода промежуточной статистики
+    private static final long REPORT_INTERVAL_NANOS = 1_000_000_000L;
+
+    private PhysicsEngine physicsEngine;
+    private Simulation simulation;
+    private SimulationInput simulationInput;
+    private InputSource inputSource;
+
+    // Параметры запуска: из свойств или из воспроизводимого журнала
+    private int hz = PHYSICS_HZ;
+    private int ticks = TICKS;
+    private int bodies = BODIES;
+    private int entities = ENTITIES;
+
+    // Воспроизводимый журнал (null - сценарий) и количество расхождений с записью
+    private InputReplay replay;
+    private int checksumMismatches;
+    private long firstMismatchTick = -1;
+
+    // Журнал ввода для записи (null - без записи)
+    private InputRecorder recorder;
+
+    // Снимки мира, длительности их сохранения и размер последнего снимка
+    private final WorldSnapshot worldSnapshot = new WorldSnapshot();
+    private final LatencyHistogram snapshotSaves = new LatencyHistogram();
+    private long snapshotBytes;
+
+    // Длительности шагов и вызовов JNI
+    private final FrameProfiler profiler = new FrameProfiler();
+    private ProfileDumper profileDumper;
+
+    /**
+     * Точка входа в режим без окна
+     */
+    public static void main(String[] args) {
+        HeadlessGame game = new HeadlessGame();
+        game.start();
+    }
+
+    /**
+     * Запуск симуляции
+     */
+    public void start() {
+        init();
+        try {
+            loop();
+        } finally {
+            cleanup();
+        }
+        report();
+    }
+
+    /**
+     * Инициализация физики, игрока и источника ввода
+     */
+    private void init() {
+        if (REPLAY != null) {
+            try {
+                replay = InputReplay.open(Path.of(REPLAY));
+            } catch (IOException e) {
+                throw new RuntimeException("Не удалось открыть журнал ввода: " + REPLAY, e);
+            }
+            hz = replay.getHz();
+            ticks = replay.getCount();
+            bodies = replay.getBodies();
+            entities = replay.getEntities();
+        }
+        if (ticks <= 0) {
+            throw new IllegalArgumentException("headless.ticks должно быть положительным: " + ticks);
+        }
+
+        physicsEngine = PhysicsEngine.create();
+        physicsEngine.setProfiler(profiler);
+        physicsEngine.init();
+
+        // Игрок и дополнительные сущности в одном хранилище
+        EntityStore store = new EntityStore(entities + 1);
+        Player player = new Player(store, new Vector3f(0, 0, 0));
+        spawnEntities(store, entities);
+
+        // Игрок занимает одно место в блоке тел
+        int capacity = Math.max(Simulation.MAX_BODIES, bodies + 1);
+        if (RESTORE != null) {
+            try {
+                capacity = Math.max(capacity, worldSnapshot.readBodyCount(Path.of(RESTORE)));
+            } catch (IOException e) {
+                throw new RuntimeException("Не удалось прочитать снимок мира: " + RESTORE, e);
+            }
+        }
+        simulation = new Simulation(physicsEngine, player, capacity);
+        spawnBodies(simulation.getBodies(), bodies);
+
+        // Снимок заменяет созданные тела и сущности целиком
+        if (RESTORE != null) {
+            long start = System.nanoTime();
+            try {
+                worldSnapshot.load(simulation, Path.of(RESTORE));
+            } catch (IOException e) {
+                throw new RuntimeException("Не удалось загрузить снимок мира: " + RESTORE, e);
+            }
+            System.out.printf("Снимок мира загружен: шаг %d, %d тел, %d сущностей за %.2f мс%n",
+                simulation.getTick(), simulation.getBodies().getCount(), simulation.getEntities().getCount(),
+                (System.nanoTime() - start) / 1e6);
+        }
+        if (replay != null) {
+            // Журнал воспроизводится от шага снимка до конца
+            ticks = replay.getCount() - (int) simulation.getTick();
+            if (ticks <= 0) {
+                throw new IllegalArgumentException("Снимок мира сделан после конца журнала ввода: шаг " + simulation.getTick());
+            }
+        }
+
+        simulationInput = new SimulationInput();
+        inputSource = replay != null ? replay : loadInputSource();
+
+        if (INPUT_RECORD != null) {
+            try {
+                recorder = new InputRecorder(Path.of(INPUT_RECORD), hz, CHECKSUM_INTERVAL, bodies, entities);
+            } catch (IOException e) {
+                throw new RuntimeException("Не удалось создать журнал ввода: " + INPUT_RECORD, e);
+            }
+        }
+
+        if (PROFILE_OUTPUT != null) {
+            profileDumper = new ProfileDumper(profiler, Path.of(PROFILE_OUTPUT), PROFILE_INTERVAL_MILLIS);
+            profileDumper.start();
+        }
+
+        System.out.printf("Симуляция без окна%s: %d шагов, %d тел, %d сущностей, шаг %.2f мс%n",
+            replay != null ? " (воспроизведение " + REPLAY + ")" : "",
+            ticks, bodies, entities, 1000.0f / hz);
+    }
+
+    /**
+     * Сценарий ввода из файла или встроенный
+     */
+    private static InputSource loadInputSource() {
+        if (SCRIPT == null) {
+            return ScriptedInput.walkAround();
+        }
+        try {
+            return ScriptedInput.load(Path.of(SCRIPT));
+        } catch (IOException e) {
+            throw new RuntimeException("Не удалось прочитать сценарий ввода: " + SCRIPT, e);
+        }
+    }
+
+    /**
+     * Размещение тел сеткой над землей со случайными скоростями (и для сервера)
+     */
+    public static void spawnBodies(BodyBuffer bodies, int count) {
+        // Фиксированное зерно, чтобы запуски были сравнимы
+        Random random = new Random(42);
+        int side = (int) Math.ceil(Math.cbrt(count));
+        for (int i = 0; i < count; i++) {
+            int x = i % side;
+            int y = (i / side) % side;
+            int z = i / (side * side);
+            int index = bodies.add(
+                (x - side * 0.5f) * 1.5f,
+                1.0f + y * 1.5f,
+                (z - side * 0.5f) * 1.5f
+            );
+            bodies.setVelocity(
+                index,
+                random.nextFloat() * 2.0f - 1.0f,
+                0.0f,
+                random.nextFloat() * 2.0f - 1.0f
+            );
+        }
+    }
+
+    /**
+     * Сущности со случайными позициями и скоростями (и для сервера)
+     */
+    public static void spawnEntities(EntityStore entities, int count) {
+        Random random = new Random(7);
+        for (int i = 0; i < count; i++) {
+            int index = entities.indexOf(entities.create(
+                random.nextFloat() * 200.0f - 100.0f,
+                0.5f,
+                random.nextFloat() * 200.0f - 100.0f
+            ));
+            entities.setVelocity(index, random.nextFloat() * 2.0f - 1.0f, 0.0f, random.nextFloat() * 2.0f - 1.0f);
+        }
+    }
+
+    /**
+     * Шаги симуляции подряд без ожидания
+     */
+    private void loop() {
+        float deltaTime = 1.0f / hz;
+        long lastReport = System.nanoTime();
+        long lastReportTick = 0;
+
+        for (int i = 0; i < ticks; i++) {
+            long tick = simulation.getTick();
+            inputSource.apply(tick, simulationInput);
+            float stepSeconds = replay != null ? replay.getDeltaTime(tick) : deltaTime;
+
+            long start = System.nanoTime();
+            simulation.tick(stepSeconds, simulationInput);
+            long end = profiler.mark(FrameProfiler.Stage.TICK, start);
+
+            // Сверка с записью и запись журнала - вне замера шага
+            if (replay != null && replay.hasChecksum(tick)) {
+                verifyChecksum(tick);
+            }
+            if (recorder != null) {
+                recorder.append(simulationInput, stepSeconds, recorder.isChecksumDue() ? simulation.checksum() : 0L);
+            }
+            if (SNAPSHOT != null && (i + 1 == ticks || SNAPSHOT_INTERVAL > 0 && (i + 1) % SNAPSHOT_INTERVAL == 0)) {
+                saveSnapshot();
+            }
+
+            // Раз в секунду выводим текущую производительность
+            if (end - lastReport >= REPORT_INTERVAL_NANOS) {
+                long ticks = i + 1 - lastReportTick;
+                System.out.printf("шагов/с: %.0f, пар: %d, контактов: %d, тел бодрствует: %d, спит: %d, островов: %d%n",
+                    ticks * 1e9 / (end - lastReport),
+                    simulation.getBodies().getPairCount(),
+                    simulation.getBodies().getContactCount(),
+                    simulation.getBodies().getAwakeCount(),
+                    simulation.getBodies().getSleepingCount(),
+                    simulation.getBodies().getIslandCount());
+                lastReport = end;
+                lastReportTick = i + 1;
+            }
+        }
+    }
+
+    /**
+     * Сохранение снимка мира с замером длительности
+     */
+    private void saveSnapshot() {
+        long start = System.nanoTime();
+        try {
+            snapshotBytes = worldSnapshot.save(simulation, Path.of(SNAPSHOT));
+        } catch (IOException e) {
+            throw new RuntimeException("Не удалось сохранить снимок мира: " + SNAPSHOT, e);
+        }
+        snapshotSaves.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Сравнение состояния после шага с контрольной суммой из журнала
+     */
+    private void verifyChecksum(long tick) {
+        if (simulation.checksum() == replay.getChecksum(tick)) {
+            return;
+        }
+        if (checksumMismatches == 0) {
+            firstMismatchTick = tick;
+            System.out.printf("Состояние расходится с записью на шаге %d%n", tick);
+        }
+        checksumMismatches++;
+    }
+
+    /**
+     * Итоговая статистика: шагов в секунду и перцентили длительности шага
+     */
+    private void report() {
+        LatencyHistogram ticks = profiler.getHistogram(FrameProfiler.Stage.TICK);
+        double total = ticks.getMean() * ticks.getCount();
+
+        Vector3f position = simulation.getPlayer().getPosition();
+        System.out.printf("Выполнено шагов: %d за %.3f с, шагов/с: %.0f%n",
+            ticks.getCount(), total / 1e9, ticks.getCount() * 1e9 / total);
+        printPercentiles("Длительность шага", ticks);
+        printPercentiles("Шаг мира в движке (" + physicsEngine.getBackend() + ")", profiler.getHistogram(FrameProfiler.Stage.JNI_STEP));
+        System.out.printf("Позиция игрока: (%.2f, %.2f, %.2f)%n", position.x, position.y, position.z);
+        System.out.printf("Шаг %d, контрольная сумма состояния: %016x%n", simulation.getTick(), simulation.checksum());
+        if (snapshotSaves.getCount() > 0) {
+            System.out.printf("Снимков мира сохранено: %d, размер %d байт%n", snapshotSaves.getCount(), snapshotBytes);
+            printPercentiles("Сохранение снимка мира", snapshotSaves);
+        }
+        if (replay != null) {
+            if (checksumMismatches == 0) {
+                System.out.println("Воспроизведение совпадает с записью по всем контрольным суммам");
+            } else {
+                System.out.printf("Расхождений с записью: %d, первое на шаге %d%n", checksumMismatches, firstMismatchTick);
+            }
+        }
+    }
+
+    /**
+     * Вывод перцентилей гистограммы в микросекундах
+     */
+    private static void printPercentiles(String name, LatencyHistogram histogram) {
+        System.out.printf("%s, мкс: p50 %.1f, p90 %.1f, p99 %.1f, p99.9 %.1f, max %.1f%n",
+            name,
+            histogram.getPercentile(0.50) / 1000.0,
+            histogram.getPercentile(0.90) / 1000.0,
+            histogram.getPercentile(0.99) / 1000.0,
+            histogram.getPercentile(0.999) / 1000.0,
+            histogram.getMax() / 1000.0);
+    }
+
+    /**
+     * Освобождение ресурсов
+     */
+    private void cleanup() {
+        if (profileDumper != null) {
+            profileDumper.stop();
+        }
+        if (recorder != null) {
+            Game.closeInputRecorder(recorder);
+        }
+        physicsEngine.cleanup();
+    }
+}
@@ -3,50 +3,93 @@ package main.java.com.example.entity;
 import org.joml.Vector3f;
 
 /**
- * Базовый класс для игровых сущностей
+ * Базовый класс для игровых сущностей.
+ * Состояние хранится в EntityStore; объект сущности - только представление
+ * над ним по стабильному идентификатору.
  */
 public abstract class Entity {
-    protected Vector3f position;
-    protected Vector3f velocity;
-    protected float speed;
-    
+    protected final EntityStore store;
+    protected final int id;
+
+    // Копии компонентов для getPosition/getVelocity, переиспользуются
+    private final Vector3f positionView = new Vector3f();
+    private final Vector3f velocityView = new Vector3f();
+
+    /**
+     * Конструктор: создание сущности в хранилище
+     */
+    public Entity(EntityStore store, Vector3f position) {
+        this.store = store;
+        this.id = store.create(position.x, position.y, position.z);
+    }
+
     /**
-     * Конструктор
+     * Хранилище сущности
      */
-    public Entity(Vector3f position) {
-        this.position = position;
-        this.velocity = new Vector3f(0.0f, 0.0f, 0.0f);
-        this.speed = 5.0f;
+    public EntityStore getStore() {
+        return store;
     }
-    
+
+    /**
+     * Идентификатор сущности в хранилище
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Плотный индекс сущности в хранилище
+     */
+    protected int index() {
+        return store.indexOf(id);
+    }
+
     /**
-     * Получение позиции
+     * Получение позиции. Возвращается копия, обновляемая при каждом вызове;
+     * для изменения позиции используется setPosition.
      */
     public Vector3f getPosition() {
-        return position;
+        int index = index();
+        return positionView.set(store.posX[index], store.posY[index], store.posZ[index]);
     }
-    
+
+    /**
+     * Установка позиции
+     */
+    public void setPosition(float x, float y, float z) {
+        store.setPosition(index(), x, y, z);
+    }
+
     /**
      * Установка позиции
      */
     public void setPosition(Vector3f position) {
-        this.position = position;
+        setPosition(position.x, position.y, position.z);
     }
-    
+
     /**
-     * Получение скорости
+     * Получение скорости. Возвращается копия, обновляемая при каждом вызове;
+     * для изменения скорости используется setVelocity.
      */
     public Vector3f getVelocity() {
-        return velocity;
+        int index = index();
+        return velocityView.set(store.velX[index], store.velY[index], store.velZ[index]);
     }
-    
+
+    /**
+     * Установка скорости
+     */
+    public void setVelocity(float x, float y, float z) {
+        store.setVelocity(index(), x, y, z);
+    }
+
     /**
      * Установка скорости
      */
     public void setVelocity(Vector3f velocity) {
-        this.velocity = velocity;
+        setVelocity(velocity.x, velocity.y, velocity.z);
     }
-    
+
     /**
      * Обновление сущности
      */
@@ -0,0 +1,392 @@
+package main.java.com.example.entity;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Хранилище сущностей в виде структуры массивов: компоненты всех сущностей
+ * лежат подряд в примитивных массивах, системы проходят по ним линейно.
+ *
+ * Сущности адресуются стабильными идентификаторами. Плотный индекс сущности
+ * может меняться при удалении других сущностей (на место удаленной переезжает
+ * последняя), идентификатор - нет. Идентификатор содержит поколение слота,
+ * поэтому идентификатор удаленной сущности не совпадет с новой в том же слоте.
+ */
+public class EntityStore {
+    // Флаги сущности
+    public static final int FLAG_PLAYER_CONTROLLED = 1; // управляется вводом игрока
+
+    // Нет сущности
+    public static final int NO_ENTITY = -1;
+
+    // Разбиение идентификатора: младшие биты - слот, старшие - поколение
+    private static final int SLOT_BITS = 20;
+    private static final int SLOT_MASK = (1 << SLOT_BITS) - 1;
+    private static final int GENERATION_MASK = (1 << (31 - SLOT_BITS)) - 1;
+
+    // Компоненты по плотному индексу [0, count)
+    float[] posX;
+    float[] posY;
+    float[] posZ;
+    float[] velX;
+    float[] velY;
+    float[] velZ;
+    float[] speed;
+    int[] flags;
+    int count;
+
+    // Плотный индекс -> слот идентификатора
+    private int[] indexToSlot;
+
+    // Слот -> плотный индекс (или следующий свободный слот) и поколение слота
+    private int[] slotToIndex;
+    private int[] slotGeneration;
+    private int slotCount;
+    private int freeSlot = NO_ENTITY;
+
+    /**
+     * Конструктор
+     *
+     * @param initialCapacity начальная вместимость (массивы растут по мере необходимости)
+     */
+    public EntityStore(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        posX = new float[capacity];
+        posY = new float[capacity];
+        posZ = new float[capacity];
+        velX = new float[capacity];
+        velY = new float[capacity];
+        velZ = new float[capacity];
+        speed = new float[capacity];
+        flags = new int[capacity];
+        indexToSlot = new int[capacity];
+        slotToIndex = new int[capacity];
+        slotGeneration = new int[capacity];
+    }
+
+    /**
+     * Создание сущности в заданной позиции, возвращает ее идентификатор
+     */
+    public int create(float x, float y, float z) {
+        if (count == posX.length) {
+            grow();
+        }
+
+        // Слот берется из списка свободных или добавляется новый
+        int slot;
+        if (freeSlot != NO_ENTITY) {
+            slot = freeSlot;
+            freeSlot = slotToIndex[slot];
+        } else {
+            if (slotCount > SLOT_MASK) {
+                throw new IllegalStateException("Превышено количество сущностей: " + (SLOT_MASK + 1));
+            }
+            if (slotCount == slotToIndex.length) {
+                slotToIndex = Arrays.copyOf(slotToIndex, slotCount * 2);
+                slotGeneration = Arrays.copyOf(slotGeneration, slotCount * 2);
+            }
+            slot = slotCount++;
+        }
+
+        int index = count++;
+        slotToIndex[slot] = index;
+        indexToSlot[index] = slot;
+
+        posX[index] = x;
+        posY[index] = y;
+        posZ[index] = z;
+        velX[index] = 0.0f;
+        velY[index] = 0.0f;
+        velZ[index] = 0.0f;
+        speed[index] = 5.0f;
+        flags[index] = 0;
+
+        return (slotGeneration[slot] << SLOT_BITS) | slot;
+    }
+
+    /**
+     * Удаление сущности (последняя сущность переезжает на ее место)
+     */
+    public void destroy(int id) {
+        int index = indexOf(id);
+        int slot = id & SLOT_MASK;
+        int last = --count;
+
+        if (index != last) {
+            posX[index] = posX[last];
+            posY[index] = posY[last];
+            posZ[index] = posZ[last];
+            velX[index] = velX[last];
+            velY[index] = velY[last];
+            velZ[index] = velZ[last];
+            speed[index] = speed[last];
+            flags[index] = flags[last];
+
+            int movedSlot = indexToSlot[last];
+            indexToSlot[index] = movedSlot;
+            slotToIndex[movedSlot] = index;
+        }
+
+        // Новое поколение делает старый идентификатор недействительным
+        slotGeneration[slot] = (slotGeneration[slot] + 1) & GENERATION_MASK;
+        slotToIndex[slot] = freeSlot;
+        freeSlot = slot;
+    }
+
+    /**
+     * Проверка, существует ли сущность
+     */
+    public boolean isAlive(int id) {
+        if (id < 0) {
+            return false;
+        }
+        int slot = id & SLOT_MASK;
+        if (slot >= slotCount || slotGeneration[slot] != (id >>> SLOT_BITS)) {
+            return false;
+        }
+        // У свободного слота вместо индекса хранится ссылка на следующий свободный
+        int index = slotToIndex[slot];
+        return index >= 0 && index < count && indexToSlot[index] == slot;
+    }
+
+    /**
+     * Плотный индекс сущности (действителен до следующего удаления)
+     */
+    public int indexOf(int id) {
+        if (!isAlive(id)) {
+            throw new IllegalArgumentException("Сущность не существует: " + id);
+        }
+        return slotToIndex[id & SLOT_MASK];
+    }
+
+    /**
+     * Идентификатор сущности по плотному индексу
+     */
+    public int idAt(int index) {
+        int slot = indexToSlot[index];
+        return (slotGeneration[slot] << SLOT_BITS) | slot;
+    }
+
+    /**
+     * Слот идентификатора: у живых сущностей слоты различны и не превышают
+     * количества когда-либо занятых слотов
+     */
+    public static int slotOf(int id) {
+        return id & SLOT_MASK;
+    }
+
+    /**
+     * Увеличение вместимости массивов компонентов в два раза
+     */
+    private void grow() {
+        int capacity = posX.length * 2;
+        posX = Arrays.copyOf(posX, capacity);
+        posY = Arrays.copyOf(posY, capacity);
+        posZ = Arrays.copyOf(posZ, capacity);
+        velX = Arrays.copyOf(velX, capacity);
+        velY = Arrays.copyOf(velY, capacity);
+        velZ = Arrays.copyOf(velZ, capacity);
+        speed = Arrays.copyOf(speed, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        indexToSlot = Arrays.copyOf(indexToSlot, capacity);
+    }
+
+    /**
+     * Количество сущностей
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Установка позиции по плотному индексу
+     */
+    public void setPosition(int index, float x, float y, float z) {
+        posX[index] = x;
+        posY[index] = y;
+        posZ[index] = z;
+    }
+
+    /**
+     * Установка скорости по плотному индексу
+     */
+    public void setVelocity(int index, float x, float y, float z) {
+        velX[index] = x;
+        velY[index] = y;
+        velZ[index] = z;
+    }
+
+    /**
+     * Координата X позиции
+     */
+    public float getPositionX(int index) {
+        return posX[index];
+    }
+
+    /**
+     * Координата Y позиции
+     */
+    public float getPositionY(int index) {
+        return posY[index];
+    }
+
+    /**
+     * Координата Z позиции
+     */
+    public float getPositionZ(int index) {
+        return posZ[index];
+    }
+
+    /**
+     * Составляющая X скорости
+     */
+    public float getVelocityX(int index) {
+        return velX[index];
+    }
+
+    /**
+     * Составляющая Y скорости
+     */
+    public float getVelocityY(int index) {
+        return velY[index];
+    }
+
+    /**
+     * Составляющая Z скорости
+     */
+    public float getVelocityZ(int index) {
+        return velZ[index];
+    }
+
+    /**
+     * Скорость перемещения
+     */
+    public float getSpeed(int index) {
+        return speed[index];
+    }
+
+    /**
+     * Установка скорости перемещения
+     */
+    public void setSpeed(int index, float value) {
+        speed[index] = value;
+    }
+
+    /**
+     * Флаги сущности
+     */
+    public int getFlags(int index) {
+        return flags[index];
+    }
+
+    /**
+     * Установка флагов сущности
+     */
+    public void setFlags(int index, int value) {
+        flags[index] = value;
+    }
+
+    /**
+     * Размер снимка хранилища в байтах (writeSnapshot)
+     */
+    public int snapshotSize() {
+        return (int) snapshotSize(count, slotCount);
+    }
+
+    private static long snapshotSize(int count, int slotCount) {
+        return 3L * Integer.BYTES + (long) count * 9 * Float.BYTES + (long) slotCount * 2 * Integer.BYTES;
+    }
+
+    /**
+     * Проверка снимка хранилища в src (с текущей позиции, позиция не меняется):
+     * счетчики допустимы и блок занимает ровно size байт. Хранилище не затрагивается.
+     */
+    public static void checkSnapshot(ByteBuffer src, int size) {
+        if (size < 3 * Integer.BYTES || src.remaining() < size) {
+            throw new IllegalArgumentException("Поврежденный снимок хранилища сущностей");
+        }
+        int start = src.position();
+        int newCount = src.getInt(start);
+        int newSlotCount = src.getInt(start + Integer.BYTES);
+        int newFreeSlot = src.getInt(start + 2 * Integer.BYTES);
+        if (newCount < 0 || newSlotCount < newCount || newSlotCount > SLOT_MASK + 1
+            || newFreeSlot < NO_ENTITY || newFreeSlot >= newSlotCount
+            || snapshotSize(newCount, newSlotCount) != size) {
+            throw new IllegalArgumentException("Поврежденный снимок хранилища сущностей");
+        }
+    }
+
+    /**
+     * Запись компонентов и таблиц идентификаторов в буфер (порядок байт буфера).
+     * Массивы копируются целиком, без поэлементной записи.
+     */
+    public void writeSnapshot(ByteBuffer dest) {
+        dest.putInt(count).putInt(slotCount).putInt(freeSlot);
+        putFloats(dest, posX, count);
+        putFloats(dest, posY, count);
+        putFloats(dest, posZ, count);
+        putFloats(dest, velX, count);
+        putFloats(dest, velY, count);
+        putFloats(dest, velZ, count);
+        putFloats(dest, speed, count);
+        putInts(dest, flags, count);
+        putInts(dest, indexToSlot, count);
+        putInts(dest, slotToIndex, slotCount);
+        putInts(dest, slotGeneration, slotCount);
+    }
+
+    /**
+     * Замена содержимого хранилища снимком, записанным writeSnapshot (все оставшиеся
+     * байты src). Снимок проверяется до изменений: поврежденный не меняет хранилище.
+     * Идентификаторы сущностей снимка остаются действительными.
+     */
+    public void readSnapshot(ByteBuffer src) {
+        checkSnapshot(src, src.remaining());
+        int newCount = src.getInt();
+        int newSlotCount = src.getInt();
+        int newFreeSlot = src.getInt();
+
+        while (posX.length < newCount) {
+            grow();
+        }
+        if (slotToIndex.length < newSlotCount) {
+            slotToIndex = Arrays.copyOf(slotToIndex, newSlotCount);
+            slotGeneration = Arrays.copyOf(slotGeneration, newSlotCount);
+        }
+
+        count = newCount;
+        slotCount = newSlotCount;
+        freeSlot = newFreeSlot;
+        getFloats(src, posX, count);
+        getFloats(src, posY, count);
+        getFloats(src, posZ, count);
+        getFloats(src, velX, count);
+        getFloats(src, velY, count);
+        getFloats(src, velZ, count);
+        getFloats(src, speed, count);
+        getInts(src, flags, count);
+        getInts(src, indexToSlot, count);
+        getInts(src, slotToIndex, slotCount);
+        getInts(src, slotGeneration, slotCount);
+    }
+
+    private static void putFloats(ByteBuffer dest, float[] values, int length) {
+        dest.asFloatBuffer().put(values, 0, length);
+        dest.position(dest.position() + length * Float.BYTES);
+    }
+
+    private static void putInts(ByteBuffer dest, int[] values, int length) {
+        dest.asIntBuffer().put(values, 0, length);
+        dest.position(dest.position() + length * Integer.BYTES);
+    }
+
+    private static void getFloats(ByteBuffer src, float[] values, int length) {
+        src.asFloatBuffer().get(values, 0, length);
+        src.position(src.position() + length * Float.BYTES);
+    }
+
+    private static void getInts(ByteBuffer src, int[] values, int length) {
+        src.asIntBuffer().get(values, 0, length);
+        src.position(src.position() + length * Integer.BYTES);
+    }
+}
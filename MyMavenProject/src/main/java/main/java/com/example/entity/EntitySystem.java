@@ -0,0 +1,11 @@
+package main.java.com.example.entity;
+
+/**
+ * Система: обработка компонентов всех сущностей хранилища за один шаг
+ */
+public interface EntitySystem {
+    /**
+     * Обновление сущностей хранилища
+     */
+    void update(EntityStore store, float deltaTime);
+}
@@ -0,0 +1,24 @@
+package main.java.com.example.entity;
+
+/**
+ * Перемещение всех сущностей по их скорости
+ */
+public class MovementSystem implements EntitySystem {
+    @Override
+    public void update(EntityStore store, float deltaTime) {
+        float[] posX = store.posX;
+        float[] posY = store.posY;
+        float[] posZ = store.posZ;
+        float[] velX = store.velX;
+        float[] velY = store.velY;
+        float[] velZ = store.velZ;
+        int count = store.count;
+
+        // Линейный проход по массивам без ветвлений
+        for (int i = 0; i < count; i++) {
+            posX[i] += velX[i] * deltaTime;
+            posY[i] += velY[i] * deltaTime;
+            posZ[i] += velZ[i] * deltaTime;
+        }
+    }
+}
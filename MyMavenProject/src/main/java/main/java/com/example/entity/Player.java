@@ -4,79 +4,97 @@ import main.java.com.example.render.Camera;
 import org.joml.Vector3f;
 
 /**
- * Класс игрока
+ * Класс игрока: представление над управляемой игроком сущностью хранилища
  */
 public class Player extends Entity {
     /**
-     * Конструктор
+     * Конструктор: игрок в собственном хранилище
      */
     public Player(Vector3f position) {
-        super(position);
-        this.speed = 5.0f;
+        this(new EntityStore(1), position);
     }
 
     /**
-     * Обновление игрока
+     * Конструктор: игрок в общем хранилище сущностей
+     */
+    public Player(EntityStore store, Vector3f position) {
+        super(store, position);
+        int index = index();
+        store.setSpeed(index, 5.0f);
+        store.setFlags(index, store.getFlags(index) | EntityStore.FLAG_PLAYER_CONTROLLED);
+    }
+
+    /**
+     * Обновление только этого игрока. При обновлении всего хранилища
+     * то же самое делают MovementSystem и PlayerControlSystem.
      */
     @Override
     public void update(float deltaTime) {
-        // Обновление позиции на основе скорости
-        position.add(new Vector3f(velocity).mul(deltaTime));
+        int index = index();
 
-        // Сброс горизонтальной скорости (трение)
-        velocity.x *= 0.9f;
-        velocity.z *= 0.9f;
+        // Обновление позиции на основе скорости
+        store.posX[index] += store.velX[index] * deltaTime;
+        store.posY[index] += store.velY[index] * deltaTime;
+        store.posZ[index] += store.velZ[index] * deltaTime;
 
-        // Фиксируем высоту игрока (убрали прыжок)
-        position.y = 0.5f; // Половина высоты игрока
-        velocity.y = 0.0f; // Нет вертикальной скорости
+        // Трение и фиксированная высота (убрали прыжок)
+        PlayerControlSystem.apply(store, index);
     }
 
     /**
      * Движение вперед относительно камеры
      */
     public void moveForward(float deltaTime, Camera camera) {
-        // Получаем вектор направления камеры (без вертикальной составляющей)
-        Vector3f direction = new Vector3f(camera.getFront());
-        direction.y = 0; // Игнорируем вертикальную составляющую для движения по горизонтали
-        direction.normalize();
-
-        // Добавляем скорость в направлении камеры
-        velocity.add(new Vector3f(direction).mul(speed * deltaTime));
+        moveHorizontal(deltaTime, camera.getFront(), 1.0f);
     }
 
     /**
      * Движение назад относительно камеры
      */
     public void moveBackward(float deltaTime, Camera camera) {
-        // Получаем вектор направления камеры (без вертикальной составляющей)
-        Vector3f direction = new Vector3f(camera.getFront());
-        direction.y = 0; // Игнорируем вертикальную составляющую для движения по горизонтали
-        direction.normalize();
-
-        // Добавляем скорость в направлении, противоположном камере
-        velocity.add(new Vector3f(direction).mul(-speed * deltaTime));
+        moveHorizontal(deltaTime, camera.getFront(), -1.0f);
     }
 
     /**
      * Движение влево относительно камеры
      */
     public void moveLeft(float deltaTime, Camera camera) {
-        // Получаем вектор "вправо" камеры
-        Vector3f right = new Vector3f(camera.getRight());
-
-        // Добавляем скорость в направлении, противоположном "вправо"
-        velocity.add(new Vector3f(right).mul(-speed * deltaTime));
+        // Добавляем скорость в направлении, противоположном вектору "вправо" камеры
+        accelerate(deltaTime, camera.getRight(), -1.0f);
     }
 
     /**
      * Движение вправо относительно камеры
      */
     public void moveRight(float deltaTime, Camera camera) {
-        // Получаем вектор "вправо" камеры
-        Vector3f right = new Vector3f(camera.getRight());
+        // Добавляем скорость в направлении вектора "вправо" камеры
+        accelerate(deltaTime, camera.getRight(), 1.0f);
+    }
+
+    /**
+     * Ускорение вдоль направления камеры без вертикальной составляющей
+     */
+    private void moveHorizontal(float deltaTime, Vector3f front, float sign) {
+        // Игнорируем вертикальную составляющую для движения по горизонтали
+        float length = (float) Math.sqrt(front.x * front.x + front.z * front.z);
+        if (length == 0.0f) {
+            return;
+        }
 
-        // Добавляем скорость в направлении "вправо"
-        velocity.add(new Vector3f(right).mul(speed * deltaTime));
+        int index = index();
+        float amount = sign * store.speed[index] * deltaTime / length;
+        store.velX[index] += front.x * amount;
+        store.velZ[index] += front.z * amount;
+    }
+
+    /**
+     * Ускорение вдоль заданного направления
+     */
+    private void accelerate(float deltaTime, Vector3f direction, float sign) {
+        int index = index();
+        float amount = sign * store.speed[index] * deltaTime;
+        store.velX[index] += direction.x * amount;
+        store.velY[index] += direction.y * amount;
+        store.velZ[index] += direction.z * amount;
     }
 }
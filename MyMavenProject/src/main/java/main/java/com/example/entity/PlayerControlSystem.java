@@ -0,0 +1,37 @@
+package main.java.com.example.entity;
+
+/**
+ * Правила движения управляемых игроком сущностей: трение по горизонтали
+ * и фиксированная высота (прыжка нет). Выполняется после MovementSystem.
+ */
+public class PlayerControlSystem implements EntitySystem {
+    // Коэффициент сохранения горизонтальной скорости за шаг
+    static final float FRICTION = 0.9f;
+
+    // Высота позиции игрока (половина его роста)
+    static final float HEIGHT = 0.5f;
+
+    @Override
+    public void update(EntityStore store, float deltaTime) {
+        int[] flags = store.flags;
+        int count = store.count;
+        for (int i = 0; i < count; i++) {
+            if ((flags[i] & EntityStore.FLAG_PLAYER_CONTROLLED) != 0) {
+                apply(store, i);
+            }
+        }
+    }
+
+    /**
+     * Применение правил к одной сущности по плотному индексу
+     */
+    static void apply(EntityStore store, int index) {
+        // Сброс горизонтальной скорости (трение)
+        store.velX[index] *= FRICTION;
+        store.velZ[index] *= FRICTION;
+
+        // Фиксируем высоту игрока
+        store.posY[index] = HEIGHT;
+        store.velY[index] = 0.0f;
+    }
+}
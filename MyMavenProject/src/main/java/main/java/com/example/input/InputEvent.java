@@ -0,0 +1,16 @@
+package main.java.com.example.input;
+
+/**
+ * Событие ввода, прочитанное из очереди (переиспользуемый объект читателя)
+ */
+final class InputEvent {
+    int type;
+    // Клавиша и действие GLFW для KEY
+    int code;
+    int action;
+    // Позиция курсора для CURSOR
+    double x;
+    double y;
+    // Момент получения события (System.nanoTime)
+    long timeNanos;
+}
@@ -0,0 +1,148 @@
+package main.java.com.example.input;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Кольцевая очередь событий ввода без блокировок для одного писателя
+ * (обратные вызовы GLFW) и одного читателя (игровой цикл). События
+ * фиксированного размера лежат в заранее выделенных массивах,
+ * запись и чтение не выделяют память.
+ *
+ * Движения курсора подряд сводятся на стороне писателя: если последнее записанное
+ * событие - еще не прочитанный CURSOR, новая позиция записывается в него (время
+ * остается временем первого движения). Поэтому мышь с высокой частотой опроса
+ * занимает одно место, пока за ней не придет клавиша, и не вытесняет события
+ * клавиш даже при долгой задержке кадра. Читатель захватывает место перед чтением,
+ * писатель - перед перезаписью, так что одно место никогда не читается и не
+ * пишется одновременно. Переполненная очередь не ждет: новое событие
+ * отбрасывается и учитывается.
+ */
+final class InputEventQueue {
+    // Типы событий
+    static final int KEY = 1;
+    static final int CURSOR = 2;
+
+    private final int mask;
+
+    // Поля событий по индексу в кольце
+    private final int[] types;
+    private final int[] codes;
+    private final int[] actions;
+    private final double[] xs;
+    private final double[] ys;
+    private final long[] times;
+
+    // Состояние каждого места: перезапись курсора и чтение захватывают его через CAS
+    private static final int FREE = 0;
+    private static final int PUBLISHED = 1;
+    private static final int WRITING = 2;
+    private static final int READING = 3;
+    private final AtomicIntegerArray states;
+
+    // Номер следующего события для чтения и для записи; каждый меняет только своя сторона
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    // Последние увиденные значения чужого номера: лишний раз не читать общую переменную
+    private long cachedHead;
+    private long cachedTail;
+
+    // Номер последнего записанного события CURSOR (только писатель)
+    private long lastCursor = -1;
+
+    // Отброшенные события (пишет только писатель)
+    private volatile long dropped;
+
+    /**
+     * Конструктор
+     *
+     * @param capacity вместимость (степень двойки)
+     */
+    InputEventQueue(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Вместимость очереди ввода должна быть степенью двойки: " + capacity);
+        }
+        mask = capacity - 1;
+        types = new int[capacity];
+        codes = new int[capacity];
+        actions = new int[capacity];
+        xs = new double[capacity];
+        ys = new double[capacity];
+        times = new long[capacity];
+        states = new AtomicIntegerArray(capacity);
+    }
+
+    /**
+     * Запись события (поток писателя). Возвращает false, если очередь заполнена.
+     */
+    boolean offer(int type, int code, int action, double x, double y, long timeNanos) {
+        long t = tail.get();
+        if (type == CURSOR && lastCursor == t - 1) {
+            // Последнее событие - движение курсора: перезапись, если читатель его еще не взял
+            int last = (int) lastCursor & mask;
+            if (states.compareAndSet(last, PUBLISHED, WRITING)) {
+                xs[last] = x;
+                ys[last] = y;
+                states.setRelease(last, PUBLISHED);
+                return true;
+            }
+        }
+        if (t - cachedHead > mask) {
+            cachedHead = head.getAcquire();
+            if (t - cachedHead > mask) {
+                dropped++;
+                return false;
+            }
+        }
+        int i = (int) t & mask;
+        types[i] = type;
+        codes[i] = code;
+        actions[i] = action;
+        xs[i] = x;
+        ys[i] = y;
+        times[i] = timeNanos;
+        states.setPlain(i, PUBLISHED);
+        if (type == CURSOR) {
+            lastCursor = t;
+        }
+        // Публикация после записи полей
+        tail.setRelease(t + 1);
+        return true;
+    }
+
+    /**
+     * Чтение следующего события в dest (поток читателя). Возвращает false, если очередь пуста.
+     */
+    boolean poll(InputEvent dest) {
+        long h = head.get();
+        if (h == cachedTail) {
+            cachedTail = tail.getAcquire();
+            if (h == cachedTail) {
+                return false;
+            }
+        }
+        int i = (int) h & mask;
+        // Писатель может как раз перезаписывать это движение курсора: ждем конца записи
+        while (!states.compareAndSet(i, PUBLISHED, READING)) {
+            Thread.onSpinWait();
+        }
+        dest.type = types[i];
+        dest.code = codes[i];
+        dest.action = actions[i];
+        dest.x = xs[i];
+        dest.y = ys[i];
+        dest.timeNanos = times[i];
+        states.set(i, FREE);
+        // Место освобождается после чтения полей
+        head.setRelease(h + 1);
+        return true;
+    }
+
+    /**
+     * Количество отброшенных событий
+     */
+    long getDropped() {
+        return dropped;
+    }
+}
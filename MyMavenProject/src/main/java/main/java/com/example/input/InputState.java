@@ -0,0 +1,137 @@
+package main.java.com.example.input;
+
+import org.lwjgl.glfw.GLFW;
+
+/**
+ * Ввод окна по кадрам. Обратные вызовы GLFW только записывают события
+ * в очередь (onKey, onCursor); игровой цикл раз в кадр разбирает ее (drain):
+ * состояние клавиш хранится в битовом наборе, движения курсора за кадр
+ * сводятся к последней позиции - одно обновление камеры на кадр при любой
+ * частоте опроса мыши. Движения подряд сводятся уже в очереди, поэтому
+ * задержка кадра с быстрой мышью не вытесняет события клавиш. Время самого раннего события кадра позволяет измерить
+ * задержку от события до кадра.
+ */
+public final class InputState {
+    private static final int KEY_WORDS = (GLFW.GLFW_KEY_LAST >> 6) + 1;
+
+    private final InputEventQueue queue;
+    private final InputEvent event = new InputEvent();
+
+    // Нажатые клавиши и клавиши, отпущенные за последний кадр
+    private final long[] down = new long[KEY_WORDS];
+    private final long[] released = new long[KEY_WORDS];
+
+    // Последняя позиция курсора и было ли движение за кадр
+    private double cursorX;
+    private double cursorY;
+    private boolean cursorMoved;
+
+    // Самое раннее событие последнего кадра (0 - событий не было)
+    private long oldestEventNanos;
+
+    /**
+     * Конструктор
+     *
+     * @param capacity вместимость очереди событий (степень двойки)
+     */
+    public InputState(int capacity) {
+        queue = new InputEventQueue(capacity);
+    }
+
+    /**
+     * Обратный вызов клавиши (поток опроса событий GLFW)
+     */
+    public void onKey(int key, int action) {
+        queue.offer(InputEventQueue.KEY, key, action, 0.0, 0.0, System.nanoTime());
+    }
+
+    /**
+     * Обратный вызов движения курсора (поток опроса событий GLFW)
+     */
+    public void onCursor(double x, double y) {
+        queue.offer(InputEventQueue.CURSOR, 0, 0, x, y, System.nanoTime());
+    }
+
+    /**
+     * Разбор всех событий, накопленных с прошлого кадра (игровой цикл).
+     * Возвращает количество событий.
+     */
+    public int drain() {
+        for (int i = 0; i < KEY_WORDS; i++) {
+            released[i] = 0L;
+        }
+        cursorMoved = false;
+        oldestEventNanos = 0L;
+
+        int events = 0;
+        while (queue.poll(event)) {
+            if (events++ == 0) {
+                oldestEventNanos = event.timeNanos;
+            }
+            if (event.type == InputEventQueue.CURSOR) {
+                cursorX = event.x;
+                cursorY = event.y;
+                cursorMoved = true;
+            } else if (event.code >= 0 && event.code <= GLFW.GLFW_KEY_LAST) {
+                long bit = 1L << event.code;
+                int word = event.code >> 6;
+                if (event.action == GLFW.GLFW_PRESS) {
+                    down[word] |= bit;
+                } else if (event.action == GLFW.GLFW_RELEASE) {
+                    down[word] &= ~bit;
+                    released[word] |= bit;
+                }
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Нажата ли клавиша GLFW
+     */
+    public boolean isDown(int key) {
+        return (down[key >> 6] & (1L << key)) != 0;
+    }
+
+    /**
+     * Отпущена ли клавиша GLFW за последний кадр
+     */
+    public boolean wasReleased(int key) {
+        return (released[key >> 6] & (1L << key)) != 0;
+    }
+
+    /**
+     * Двигался ли курсор за последний кадр
+     */
+    public boolean hasCursorMoved() {
+        return cursorMoved;
+    }
+
+    /**
+     * Последняя позиция курсора по X
+     */
+    public double getCursorX() {
+        return cursorX;
+    }
+
+    /**
+     * Последняя позиция курсора по Y
+     */
+    public double getCursorY() {
+        return cursorY;
+    }
+
+    /**
+     * Время самого раннего события последнего кадра (System.nanoTime) или 0
+     */
+    public long getOldestEventNanos() {
+        return oldestEventNanos;
+    }
+
+    /**
+     * Событий, отброшенных из-за переполнения очереди
+     */
+    public long getDroppedEvents() {
+        return queue.getDropped();
+    }
+}
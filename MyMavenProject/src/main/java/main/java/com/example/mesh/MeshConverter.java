@@ -0,0 +1,133 @@
+package main.java.com.example.mesh;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Офлайн-конвертер сеток из Wavefront OBJ в двоичный формат .imesh.
+ *
+ * Читаются вершины "v x y z [r g b]" (цвет вершины - распространенное
+ * расширение OBJ, по умолчанию серый) и грани "f" с любым числом вершин,
+ * которые разбиваются на треугольники веером. Текстурные координаты
+ * и нормали граней игнорируются. Результат - формат вершины рендерера:
+ * позиция (3 float) и цвет (3 float).
+ *
+ * Использование: MeshConverter input.obj [output.imesh]
+ */
+public final class MeshConverter {
+    // Атрибуты результата: позиция и цвет
+    private static final int[] COMPONENTS = {3, 3};
+    private static final int VERTEX_FLOATS = 6;
+    private static final float DEFAULT_COLOR = 0.5f;
+
+    private MeshConverter() {
+    }
+
+    /**
+     * Точка входа конвертера
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Использование: MeshConverter input.obj [output" + MeshFile.EXTENSION + "]");
+            System.exit(2);
+        }
+        Path input = Path.of(args[0]);
+        Path output = args.length > 1 ? Path.of(args[1]) : replaceExtension(input);
+
+        long start = System.nanoTime();
+        int[] counts = convert(input, output);
+        System.out.printf("%s -> %s: %d вершин, %d треугольников, %d байт, %.1f мс%n",
+            input, output, counts[0], counts[1] / 3, Files.size(output), (System.nanoTime() - start) / 1e6);
+    }
+
+    /**
+     * Конвертация файла OBJ. Возвращает количество вершин и индексов.
+     */
+    public static int[] convert(Path input, Path output) throws IOException {
+        float[] vertices = new float[VERTEX_FLOATS * 64];
+        int[] indices = new int[192];
+        int vertexCount = 0;
+        int indexCount = 0;
+        int[] face = new int[16];
+
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String[] tokens = line.trim().split("\\s+");
+                try {
+                    if (tokens[0].equals("v")) {
+                        if (tokens.length < 4) {
+                            throw new IllegalArgumentException("у вершины меньше трех координат");
+                        }
+                        if ((vertexCount + 1) * VERTEX_FLOATS > vertices.length) {
+                            vertices = Arrays.copyOf(vertices, vertices.length * 2);
+                        }
+                        int offset = vertexCount * VERTEX_FLOATS;
+                        for (int i = 0; i < VERTEX_FLOATS; i++) {
+                            vertices[offset + i] = i < 3 || tokens.length >= 7
+                                ? Float.parseFloat(tokens[1 + i])
+                                : DEFAULT_COLOR;
+                        }
+                        vertexCount++;
+                    } else if (tokens[0].equals("f")) {
+                        int corners = tokens.length - 1;
+                        if (corners < 3) {
+                            throw new IllegalArgumentException("у грани меньше трех вершин");
+                        }
+                        if (corners > face.length) {
+                            face = new int[corners];
+                        }
+                        for (int i = 0; i < corners; i++) {
+                            face[i] = resolveIndex(tokens[1 + i], vertexCount);
+                        }
+
+                        // Веер треугольников из первой вершины грани
+                        int added = (corners - 2) * 3;
+                        if (indexCount + added > indices.length) {
+                            indices = Arrays.copyOf(indices, Math.max(indices.length * 2, indexCount + added));
+                        }
+                        for (int i = 1; i < corners - 1; i++) {
+                            indices[indexCount++] = face[0];
+                            indices[indexCount++] = face[i];
+                            indices[indexCount++] = face[i + 1];
+                        }
+                    }
+                } catch (IllegalArgumentException e) {
+                    throw new IOException(input + ":" + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+        }
+
+        MeshFile.write(output,
+            Arrays.copyOf(vertices, vertexCount * VERTEX_FLOATS),
+            Arrays.copyOf(indices, indexCount),
+            COMPONENTS);
+        return new int[] {vertexCount, indexCount};
+    }
+
+    /**
+     * Номер вершины из элемента грани "v", "v/vt", "v//vn" или "v/vt/vn".
+     * Отрицательные номера отсчитываются от последней прочитанной вершины.
+     */
+    private static int resolveIndex(String token, int vertexCount) {
+        int slash = token.indexOf('/');
+        int index = Integer.parseInt(slash >= 0 ? token.substring(0, slash) : token);
+        int resolved = index < 0 ? vertexCount + index : index - 1;
+        if (resolved < 0 || resolved >= vertexCount) {
+            throw new IllegalArgumentException("номер вершины вне диапазона: " + index);
+        }
+        return resolved;
+    }
+
+    private static Path replaceExtension(Path input) {
+        String name = input.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return input.resolveSibling((dot > 0 ? name.substring(0, dot) : name) + MeshFile.EXTENSION);
+    }
+}
@@ -0,0 +1,161 @@
+package main.java.com.example.mesh;
+
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Сетка в прямой памяти: блок вершин, блок индексов (uint32), описание
+ * атрибутов вершины и ограничивающий объем. Блоки либо отображены из файла
+ * (MeshFile.map), либо выделены вне кучи (fromArrays) и передаются
+ * в glBufferData/glBufferSubData без промежуточного копирования.
+ */
+public class MeshData {
+    private final ByteBuffer vertices;
+    private final ByteBuffer indices;
+    private final int vertexCount;
+    private final int indexCount;
+
+    // Количество компонент float каждого атрибута; номер атрибута - позиция в массиве
+    private final int[] components;
+    private final int strideBytes;
+
+    // Ограничивающий объем: min xyz, max xyz
+    private final float[] bounds;
+
+    // Блоки выделены через MemoryUtil и освобождаются в free()
+    private final boolean owned;
+
+    MeshData(ByteBuffer vertices, ByteBuffer indices, int vertexCount, int indexCount,
+             int[] components, float[] bounds, boolean owned) {
+        this.vertices = vertices;
+        this.indices = indices;
+        this.vertexCount = vertexCount;
+        this.indexCount = indexCount;
+        this.components = components;
+        this.bounds = bounds;
+        this.owned = owned;
+
+        int floats = 0;
+        for (int count : components) {
+            floats += count;
+        }
+        this.strideBytes = floats * Float.BYTES;
+    }
+
+    /**
+     * Сетка из массивов: вершины по sum(components) значений, позиция - первые три
+     */
+    public static MeshData fromArrays(float[] vertices, int[] indices, int... components) {
+        int strideFloats = strideFloats(components);
+        if (strideFloats < 3 || vertices.length % strideFloats != 0) {
+            throw new IllegalArgumentException("Размер массива вершин не кратен " + strideFloats);
+        }
+
+        ByteBuffer vertexBlock = MemoryUtil.memAlloc(vertices.length * Float.BYTES);
+        vertexBlock.asFloatBuffer().put(vertices);
+        ByteBuffer indexBlock = MemoryUtil.memAlloc(indices.length * Integer.BYTES);
+        indexBlock.asIntBuffer().put(indices);
+
+        return new MeshData(vertexBlock, indexBlock, vertices.length / strideFloats, indices.length,
+            components.clone(), computeBounds(vertices, strideFloats), true);
+    }
+
+    /**
+     * Количество значений float на вершину
+     */
+    static int strideFloats(int[] components) {
+        int floats = 0;
+        for (int count : components) {
+            if (count < 1 || count > 4) {
+                throw new IllegalArgumentException("Недопустимое число компонент атрибута: " + count);
+            }
+            floats += count;
+        }
+        return floats;
+    }
+
+    /**
+     * Ограничивающий объем позиций (первые три значения вершины)
+     */
+    static float[] computeBounds(float[] vertices, int strideFloats) {
+        float[] bounds = {
+            Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE,
+            -Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE
+        };
+        for (int i = 0; i < vertices.length; i += strideFloats) {
+            for (int axis = 0; axis < 3; axis++) {
+                bounds[axis] = Math.min(bounds[axis], vertices[i + axis]);
+                bounds[axis + 3] = Math.max(bounds[axis + 3], vertices[i + axis]);
+            }
+        }
+        return bounds;
+    }
+
+    /**
+     * Блок вершин (позиция 0, предел - размер блока)
+     */
+    public ByteBuffer getVertices() {
+        return vertices;
+    }
+
+    /**
+     * Блок индексов uint32 (позиция 0, предел - размер блока)
+     */
+    public ByteBuffer getIndices() {
+        return indices;
+    }
+
+    /**
+     * Количество вершин
+     */
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * Количество индексов
+     */
+    public int getIndexCount() {
+        return indexCount;
+    }
+
+    /**
+     * Количество атрибутов вершины
+     */
+    public int getAttributeCount() {
+        return components.length;
+    }
+
+    /**
+     * Количество компонент float атрибута
+     */
+    public int getComponents(int attribute) {
+        return components[attribute];
+    }
+
+    /**
+     * Размер вершины в байтах
+     */
+    public int getStrideBytes() {
+        return strideBytes;
+    }
+
+    /**
+     * Ограничивающий объем: min xyz, max xyz
+     */
+    public float getBound(int i) {
+        return bounds[i];
+    }
+
+    /**
+     * Освобождение блоков, выделенных fromArrays. Отображенные из файла
+     * блоки освобождаются сборщиком мусора вместе с отображением.
+     */
+    public void free() {
+        if (owned) {
+            MemoryUtil.memFree(vertices);
+            MemoryUtil.memFree(indices);
+        }
+    }
+}
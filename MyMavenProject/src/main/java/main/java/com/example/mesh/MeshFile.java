@@ -0,0 +1,163 @@
+package main.java.com.example.mesh;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Двоичный формат сетки (.imesh) и его чтение через отображение файла в память.
+ *
+ * Все числа little-endian:
+ * <pre>
+ *  0  int     сигнатура "IMSH"
+ *  4  int     версия формата
+ *  8  int     количество вершин
+ * 12  int     количество индексов
+ * 16  int     количество атрибутов
+ * 20  int     размер вершины в байтах
+ * 24  float[6] ограничивающий объем: min xyz, max xyz
+ * 48  int[]   количество компонент float каждого атрибута
+ *     ...     выравнивание до 16 байт
+ *     float[] блок вершин
+ *     int[]   блок индексов uint32
+ * </pre>
+ * Блоки лежат в файле в том виде, в котором их принимает OpenGL, поэтому
+ * отображенная область передается в буфер на GPU без разбора и копирования.
+ */
+public final class MeshFile {
+    public static final String EXTENSION = ".imesh";
+
+    private static final int MAGIC = 0x48534D49; // "IMSH"
+    private static final int VERSION = 1;
+    private static final int FIXED_HEADER_BYTES = 48;
+    private static final int BLOCK_ALIGNMENT = 16;
+
+    private MeshFile() {
+    }
+
+    /**
+     * Отображение файла сетки в память. Данные вершин и индексов не копируются
+     * в кучу: страницы файла подгружаются системой при загрузке на GPU.
+     */
+    public static MeshData map(Path file) throws IOException {
+        if (ByteOrder.nativeOrder() != ByteOrder.LITTLE_ENDIAN) {
+            throw new IllegalStateException("Формат сетки рассчитан на little-endian платформу");
+        }
+
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // Отображение остается действительным после закрытия канала
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (mapped.capacity() < FIXED_HEADER_BYTES || mapped.getInt(0) != MAGIC) {
+            throw new IOException("Файл не является сеткой: " + file);
+        }
+        if (mapped.getInt(4) != VERSION) {
+            throw new IOException("Неподдерживаемая версия формата сетки " + mapped.getInt(4) + ": " + file);
+        }
+
+        int vertexCount = mapped.getInt(8);
+        int indexCount = mapped.getInt(12);
+        int attributeCount = mapped.getInt(16);
+        int strideBytes = mapped.getInt(20);
+        if (vertexCount < 0 || indexCount < 0 || attributeCount <= 0 || attributeCount > 16) {
+            throw new IOException("Поврежденный заголовок сетки: " + file);
+        }
+
+        float[] bounds = new float[6];
+        for (int i = 0; i < bounds.length; i++) {
+            bounds[i] = mapped.getFloat(24 + i * Float.BYTES);
+        }
+        int[] components = new int[attributeCount];
+        int strideFloats = 0;
+        for (int i = 0; i < attributeCount; i++) {
+            components[i] = mapped.getInt(FIXED_HEADER_BYTES + i * Integer.BYTES);
+            if (components[i] < 1 || components[i] > 4) {
+                throw new IOException("Недопустимое число компонент атрибута " + components[i] + ": " + file);
+            }
+            strideFloats += components[i];
+        }
+        if (strideFloats < 3 || strideFloats * Float.BYTES != strideBytes) {
+            throw new IOException("Размер вершины не совпадает с описанием атрибутов: " + file);
+        }
+
+        long vertexOffset = vertexOffset(attributeCount);
+        long vertexBytes = (long) vertexCount * strideBytes;
+        long indexBytes = (long) indexCount * Integer.BYTES;
+        if (vertexOffset + vertexBytes + indexBytes != mapped.capacity()) {
+            throw new IOException("Размер файла сетки не совпадает с заголовком: " + file);
+        }
+
+        ByteBuffer vertices = mapped.slice((int) vertexOffset, (int) vertexBytes).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer indices = mapped.slice((int) (vertexOffset + vertexBytes), (int) indexBytes).order(ByteOrder.LITTLE_ENDIAN);
+
+        // Индекс за пределами вершин заставит GPU читать чужую память: проверяем,
+        // как при записи (uint32 сравнивается без знака)
+        for (int i = 0; i < indexCount; i++) {
+            int index = indices.getInt(i * Integer.BYTES);
+            if (Integer.compareUnsigned(index, vertexCount) >= 0) {
+                throw new IOException("Индекс вне диапазона вершин " + Integer.toUnsignedString(index) + ": " + file);
+            }
+        }
+        return new MeshData(vertices, indices, vertexCount, indexCount, components, bounds, false);
+    }
+
+    /**
+     * Запись сетки: вершины по sum(components) значений, позиция - первые три.
+     * Файл пишется во временный и переименовывается.
+     */
+    public static void write(Path file, float[] vertices, int[] indices, int... components) throws IOException {
+        int strideFloats = MeshData.strideFloats(components);
+        if (strideFloats < 3 || vertices.length % strideFloats != 0) {
+            throw new IllegalArgumentException("Размер массива вершин не кратен " + strideFloats);
+        }
+        int vertexCount = vertices.length / strideFloats;
+        for (int index : indices) {
+            if (index < 0 || index >= vertexCount) {
+                throw new IllegalArgumentException("Индекс вне диапазона вершин: " + index);
+            }
+        }
+
+        int vertexOffset = vertexOffset(components.length);
+        ByteBuffer buffer = ByteBuffer.allocate(vertexOffset + (vertices.length + indices.length) * 4)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC)
+            .putInt(VERSION)
+            .putInt(vertexCount)
+            .putInt(indices.length)
+            .putInt(components.length)
+            .putInt(strideFloats * Float.BYTES);
+        for (float bound : MeshData.computeBounds(vertices, strideFloats)) {
+            buffer.putFloat(bound);
+        }
+        for (int count : components) {
+            buffer.putInt(count);
+        }
+        buffer.position(vertexOffset);
+        buffer.asFloatBuffer().put(vertices);
+        buffer.position(vertexOffset + vertices.length * Float.BYTES);
+        buffer.asIntBuffer().put(indices);
+
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        Files.write(temp, buffer.array());
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Смещение блока вершин: заголовок с описанием атрибутов, выровненный до 16 байт
+     */
+    private static int vertexOffset(int attributeCount) {
+        int header = FIXED_HEADER_BYTES + attributeCount * Integer.BYTES;
+        return (header + BLOCK_ALIGNMENT - 1) & -BLOCK_ALIGNMENT;
+    }
+}
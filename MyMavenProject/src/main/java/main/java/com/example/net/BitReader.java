@@ -0,0 +1,82 @@
+package main.java.com.example.net;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Чтение битовых полей, записанных BitWriter, без выделения памяти
+ */
+final class BitReader {
+    private ByteBuffer buffer;
+    private long bits;
+    private int count;
+
+    /**
+     * Начало чтения с текущей позиции буфера до его предела
+     */
+    void reset(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.bits = 0L;
+        this.count = 0;
+    }
+
+    /**
+     * Чтение n бит (n от 1 до 32)
+     */
+    int read(int n) {
+        if (count < n) {
+            refill();
+            if (count < n) {
+                throw new IllegalArgumentException("Пакет состояния обрезан");
+            }
+        }
+        int value = (int) (bits & (0xFFFFFFFFL >>> (32 - n)));
+        bits >>>= n;
+        count -= n;
+        return value;
+    }
+
+    /**
+     * Чтение значения кода переменной длины BitWriter.writeVarUnsigned
+     */
+    int readVarUnsigned() {
+        if (read(1) == 0) {
+            return 0;
+        }
+        if (read(1) == 0) {
+            return read(4) + 1;
+        }
+        if (read(1) == 0) {
+            return read(8) + 17;
+        }
+        if (read(1) == 0) {
+            return read(12) + 273;
+        }
+        if (read(1) == 0) {
+            return read(20) + 4369;
+        }
+        return read(32);
+    }
+
+    /**
+     * Чтение знакового значения BitWriter.writeVarSigned
+     */
+    int readVarSigned() {
+        int value = readVarUnsigned();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Подгрузка в аккумулятор 32 бит или остатка буфера побайтно
+     */
+    private void refill() {
+        if (buffer.remaining() >= 4) {
+            bits |= (buffer.getInt() & 0xFFFFFFFFL) << count;
+            count += 32;
+            return;
+        }
+        while (count <= 56 && buffer.hasRemaining()) {
+            bits |= (buffer.get() & 0xFFL) << count;
+            count += 8;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package main.java.com.example.net;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Запись битовых полей в байтовый буфер без выделения памяти. Биты копятся
+ * в 64-битном аккумуляторе и уходят в буфер по 32 (little-endian),
+ * младшие биты поля пишутся первыми.
+ */
+final class BitWriter {
+    private ByteBuffer buffer;
+    private int start;
+    private long bits;
+    private int count;
+
+    // Отметка для отката последней записи
+    private int markPosition;
+    private long markBits;
+    private int markCount;
+
+    /**
+     * Начало записи в буфер с его текущей позиции
+     */
+    void reset(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.start = buffer.position();
+        this.bits = 0L;
+        this.count = 0;
+    }
+
+    /**
+     * Запись младших n бит значения (n от 1 до 32)
+     */
+    void write(int value, int n) {
+        bits |= (value & (0xFFFFFFFFL >>> (32 - n))) << count;
+        count += n;
+        if (count >= 32) {
+            buffer.putInt((int) bits);
+            bits >>>= 32;
+            count -= 32;
+        }
+    }
+
+    /**
+     * Запись беззнакового значения кодом переменной длины:
+     * 0 - ноль, 10 + 4 бита, 110 + 8 бит, 1110 + 12 бит, 11110 + 20 бит, 11111 + 32 бита
+     */
+    void writeVarUnsigned(int value) {
+        if (value == 0) {
+            write(0, 1);
+        } else if (Integer.compareUnsigned(value, 16) <= 0) {
+            write(0b01 | ((value - 1) << 2), 6);
+        } else if (Integer.compareUnsigned(value, 272) <= 0) {
+            write(0b011 | ((value - 17) << 3), 11);
+        } else if (Integer.compareUnsigned(value, 4368) <= 0) {
+            write(0b0111 | ((value - 273) << 4), 16);
+        } else if (Integer.compareUnsigned(value, 1052944) <= 0) {
+            write(0b01111 | ((value - 4369) << 5), 25);
+        } else {
+            write(0b11111, 5);
+            write(value, 32);
+        }
+    }
+
+    /**
+     * Запись знакового значения: зигзаг переводит малые по модулю числа в малые беззнаковые
+     */
+    void writeVarSigned(int value) {
+        writeVarUnsigned((value << 1) ^ (value >> 31));
+    }
+
+    /**
+     * Количество записанных бит
+     */
+    int bitCount() {
+        return (buffer.position() - start) * 8 + count;
+    }
+
+    /**
+     * Отметка текущего места записи
+     */
+    void mark() {
+        markPosition = buffer.position();
+        markBits = bits;
+        markCount = count;
+    }
+
+    /**
+     * Откат к отметке: записанное после нее отбрасывается
+     */
+    void rollback() {
+        buffer.position(markPosition);
+        bits = markBits;
+        count = markCount;
+    }
+
+    /**
+     * Дописывание неполных байтов; позиция буфера - за последним байтом
+     */
+    void finish() {
+        while (count > 0) {
+            buffer.put((byte) bits);
+            bits >>>= 8;
+            count -= 8;
+        }
+        bits = 0L;
+        count = 0;
+    }
+}
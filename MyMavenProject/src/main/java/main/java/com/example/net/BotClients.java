@@ -0,0 +1,338 @@
+package main.java.com.example.net;
+
+import main.java.com.example.profiling.LatencyHistogram;
+import main.java.com.example.sim.ScriptedInput;
+import main.java.com.example.sim.SimulationInput;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.PortUnreachableException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+
+/**
+ * Синтетические клиенты для нагрузочного тестирования сервера: каждый бот -
+ * отдельный UDP-сокет, все боты обслуживаются одним потоком с селектором.
+ * Боты ходят по встроенному сценарию ввода со сдвигом по времени, отправляют
+ * ввод с частотой клиента и считают полученное состояние, потерянные шаги
+ * и задержку от отправки ввода до состояния, в котором он применен. Каждый бот
+ * собирает снимки из частей, как настоящий клиент, и подтверждает во вводе
+ * последний целиком принятый шаг - базу следующих дельт сервера.
+ *
+ * Параметры задаются системными свойствами:
+ * <ul>
+ *   <li>bots.count - количество ботов (по умолчанию 100)</li>
+ *   <li>bots.host, bots.port - адрес сервера (по умолчанию 127.0.0.1:27015)</li>
+ *   <li>bots.hz - частота отправки ввода (по умолчанию 60)</li>
+ *   <li>bots.duration - время работы в секундах (по умолчанию 30)</li>
+ * </ul>
+ */
+public class BotClients {
+    private static final int COUNT = Integer.getInteger("bots.count", 100);
+    private static final String HOST = System.getProperty("bots.host", "127.0.0.1");
+    private static final int PORT = Integer.getInteger("bots.port", Protocol.DEFAULT_PORT);
+    private static final int HZ = Integer.getInteger("bots.hz", 60);
+    private static final int DURATION_SECONDS = Integer.getInteger("bots.duration", 30);
+
+    // Повтор HELLO, пока сервер не создал игрока
+    private static final long HELLO_INTERVAL_NANOS = 500_000_000L;
+    private static final long REPORT_INTERVAL_NANOS = 1_000_000_000L;
+
+    /**
+     * Состояние одного бота
+     */
+    private static final class Bot {
+        final DatagramChannel channel;
+        final int offset;
+        int sequence;
+        int entityId = -1;
+        long lastHelloNanos;
+        int lastAck = -1;
+        long lastStateTick = -1;
+
+        // Снимки последних шагов по tick % BASELINE_WINDOW и принятые части каждого
+        final QuantizedSnapshot[] snapshots = new QuantizedSnapshot[Protocol.BASELINE_WINDOW];
+        final int[] partsReceived = new int[Protocol.BASELINE_WINDOW];
+        final int[] partsTotal = new int[Protocol.BASELINE_WINDOW];
+        long completeTick = -1;
+
+        Bot(DatagramChannel channel, int offset) {
+            this.channel = channel;
+            this.offset = offset;
+            for (int i = 0; i < snapshots.length; i++) {
+                snapshots[i] = new QuantizedSnapshot();
+            }
+        }
+
+        /**
+         * Целиком принятый снимок шага или null
+         */
+        QuantizedSnapshot complete(long tick) {
+            int index = (int) (tick % snapshots.length);
+            QuantizedSnapshot snapshot = snapshots[index];
+            return snapshot.getTick() == tick && partsReceived[index] == partsTotal[index] ? snapshot : null;
+        }
+    }
+
+    private final Bot[] bots = new Bot[COUNT];
+    private final ScriptedInput script = ScriptedInput.walkAround();
+    private final SimulationInput input = new SimulationInput();
+    private final ByteBuffer sendBuffer = ByteBuffer.allocateDirect(Protocol.MAX_PACKET_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private final ByteBuffer receiveBuffer = ByteBuffer.allocateDirect(Protocol.MAX_PACKET_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private final SnapshotCodec codec = new SnapshotCodec();
+    private Selector selector;
+
+    // Задержка от отправки ввода до первого состояния, где он применен
+    private final LatencyHistogram inputLatency = new LatencyHistogram();
+
+    // Счетчики
+    private long frame;
+    private long statesReceived;
+    private long bytesReceived;
+    private long lostTicks;
+    private long statesComplete;
+    private long entitiesReceived;
+    private long undecodedParts;
+
+    /**
+     * Точка входа генератора нагрузки
+     */
+    public static void main(String[] args) {
+        BotClients clients = new BotClients();
+        clients.start();
+    }
+
+    /**
+     * Подключение ботов, работа в течение bots.duration и итоговая статистика
+     */
+    public void start() {
+        if (COUNT <= 0 || HZ <= 0) {
+            throw new IllegalArgumentException("bots.count и bots.hz должны быть положительными");
+        }
+        InetSocketAddress server = new InetSocketAddress(HOST, PORT);
+        try {
+            selector = Selector.open();
+            for (int i = 0; i < COUNT; i++) {
+                DatagramChannel channel = DatagramChannel.open();
+                channel.connect(server);
+                channel.configureBlocking(false);
+                bots[i] = new Bot(channel, i * 37);
+                channel.register(selector, SelectionKey.OP_READ, bots[i]);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Не удалось открыть сокеты ботов для " + server, e);
+        }
+        System.out.printf("Ботов: %d, сервер %s, ввод %d раз/с, %d с%n", COUNT, server, HZ, DURATION_SECONDS);
+
+        try {
+            loop();
+        } catch (IOException e) {
+            throw new RuntimeException("Ошибка сети ботов", e);
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Отправка ввода с частотой bots.hz и прием состояния между отправками
+     */
+    private void loop() throws IOException {
+        long periodNanos = 1_000_000_000L / HZ;
+        long start = System.nanoTime();
+        long deadline = start + DURATION_SECONDS * 1_000_000_000L;
+        long nextSend = start;
+        long nextReport = start + REPORT_INTERVAL_NANOS;
+        long lastStates = 0;
+        long lastBytes = 0;
+
+        while (true) {
+            long now = System.nanoTime();
+            if (now >= deadline) {
+                break;
+            }
+            if (now >= nextSend) {
+                sendInputs(now);
+                nextSend += periodNanos;
+                if (now - nextSend > periodNanos) {
+                    nextSend = now + periodNanos;
+                }
+            }
+            if (now >= nextReport) {
+                double seconds = (now - nextReport + REPORT_INTERVAL_NANOS) / 1e9;
+                int connected = 0;
+                for (Bot bot : bots) {
+                    if (bot.entityId >= 0) {
+                        connected++;
+                    }
+                }
+                System.out.printf("ботов подключено: %d, состояний/с на бота: %.1f, входящий трафик на бота: %.1f КБ/с, "
+                        + "задержка ввода мс p50 %.2f p99 %.2f, потеряно шагов: %d, неразобранных частей: %d%n",
+                    connected,
+                    (statesReceived - lastStates) / seconds / COUNT,
+                    (bytesReceived - lastBytes) / 1024.0 / seconds / COUNT,
+                    inputLatency.getPercentile(0.50) / 1e6, inputLatency.getPercentile(0.99) / 1e6,
+                    lostTicks, undecodedParts);
+                lastStates = statesReceived;
+                lastBytes = bytesReceived;
+                nextReport = now + REPORT_INTERVAL_NANOS;
+            }
+
+            long waitMillis = Math.max(1L, (nextSend - System.nanoTime()) / 1_000_000L);
+            if (selector.select(waitMillis) > 0) {
+                for (SelectionKey key : selector.selectedKeys()) {
+                    receive((Bot) key.attachment());
+                }
+                selector.selectedKeys().clear();
+            }
+        }
+
+        System.out.printf("Итого: состояний %d (собрано целиком %d), получено %.1f МБ, %.2f Б на сущность, "
+                + "потеряно шагов %d, неразобранных частей %d%n",
+            statesReceived, statesComplete, bytesReceived / 1048576.0,
+            entitiesReceived > 0 ? (double) bytesReceived / entitiesReceived : 0.0, lostTicks, undecodedParts);
+        System.out.printf("Задержка ввода, мс: p50 %.2f, p90 %.2f, p99 %.2f, max %.2f%n",
+            inputLatency.getPercentile(0.50) / 1e6, inputLatency.getPercentile(0.90) / 1e6,
+            inputLatency.getPercentile(0.99) / 1e6, inputLatency.getMax() / 1e6);
+    }
+
+    /**
+     * Ввод всех ботов за кадр; до создания игрока бот повторяет HELLO
+     */
+    private void sendInputs(long now) throws IOException {
+        for (Bot bot : bots) {
+            ByteBuffer packet = sendBuffer.clear();
+            if (bot.entityId < 0) {
+                if (now - bot.lastHelloNanos < HELLO_INTERVAL_NANOS) {
+                    continue;
+                }
+                bot.lastHelloNanos = now;
+                packet.put(Protocol.HELLO).putInt(Protocol.VERSION);
+            } else {
+                script.apply(frame + bot.offset, input);
+                packet.put(Protocol.INPUT)
+                    .putInt(++bot.sequence)
+                    .putLong(now)
+                    .putInt(input.getKeys())
+                    .putFloat(input.getYaw())
+                    .putFloat(input.getPitch())
+                    .putLong(bot.completeTick);
+            }
+            packet.flip();
+            try {
+                bot.channel.write(packet);
+            } catch (PortUnreachableException e) {
+                // Сервер еще не запущен: HELLO повторится
+            }
+        }
+        frame++;
+    }
+
+    /**
+     * Прием всех ожидающих частей состояния бота
+     */
+    private void receive(Bot bot) throws IOException {
+        ByteBuffer packet = receiveBuffer;
+        while (read(bot, packet) > 0) {
+            packet.flip();
+            bytesReceived += packet.remaining();
+            if (packet.remaining() < Protocol.STATE_HEADER_BYTES || packet.get(0) != Protocol.STATE) {
+                continue;
+            }
+            long tick = packet.getLong(1);
+            bot.entityId = packet.getInt(Protocol.STATE_ENTITY_OFFSET);
+            int ack = packet.getInt(Protocol.STATE_ACK_OFFSET);
+            if (ack > bot.lastAck) {
+                // Первое состояние, в котором применен новый ввод
+                inputLatency.record(System.nanoTime() - packet.getLong(Protocol.STATE_ECHO_OFFSET));
+                bot.lastAck = ack;
+            }
+
+            // Части состояния считаются по первой
+            if (packet.getShort(Protocol.STATE_PART_OFFSET) == 0) {
+                statesReceived++;
+                if (bot.lastStateTick >= 0 && tick > bot.lastStateTick + 1) {
+                    lostTicks += tick - bot.lastStateTick - 1;
+                }
+                bot.lastStateTick = Math.max(bot.lastStateTick, tick);
+            }
+            decode(bot, tick, packet);
+        }
+    }
+
+    /**
+     * Разбор части состояния в снимок шага. Часть, чья база уже не хранится
+     * или не собрана, и поврежденная часть отбрасываются.
+     */
+    private void decode(Bot bot, long tick, ByteBuffer packet) {
+        if (tick <= bot.lastStateTick - Protocol.BASELINE_WINDOW) {
+            return;
+        }
+        long baselineTick = packet.getLong(Protocol.STATE_BASELINE_OFFSET);
+        QuantizedSnapshot baseline = null;
+        if (baselineTick >= 0) {
+            baseline = tick - baselineTick < Protocol.BASELINE_WINDOW ? bot.complete(baselineTick) : null;
+            if (baseline == null) {
+                undecodedParts++;
+                return;
+            }
+        }
+
+        int index = (int) (tick % bot.snapshots.length);
+        QuantizedSnapshot snapshot = bot.snapshots[index];
+        if (snapshot.getTick() != tick) {
+            bot.partsReceived[index] = 0;
+            bot.partsTotal[index] = packet.getShort(Protocol.STATE_PARTS_OFFSET);
+        }
+        try {
+            codec.decodePart(tick, packet.position(Protocol.STATE_HEADER_BYTES), baseline, snapshot);
+        } catch (IllegalArgumentException e) {
+            undecodedParts++;
+            return;
+        }
+        if (++bot.partsReceived[index] == bot.partsTotal[index]) {
+            statesComplete++;
+            entitiesReceived += snapshot.getEntityCount();
+            bot.completeTick = Math.max(bot.completeTick, tick);
+        }
+    }
+
+    /**
+     * Чтение датаграммы; недоступность сервера (ICMP) - как отсутствие данных
+     */
+    private static int read(Bot bot, ByteBuffer packet) throws IOException {
+        try {
+            return bot.channel.read(packet.clear());
+        } catch (PortUnreachableException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Отключение ботов от сервера и закрытие сокетов
+     */
+    private void close() {
+        for (Bot bot : bots) {
+            if (bot == null) {
+                continue;
+            }
+            try {
+                if (bot.channel.isConnected()) {
+                    bot.channel.write(sendBuffer.clear().put(Protocol.BYE).flip());
+                }
+                bot.channel.close();
+            } catch (IOException e) {
+                // Сервер узнает об отключении по таймауту
+            }
+        }
+        try {
+            if (selector != null) {
+                selector.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Не удалось закрыть селектор ботов: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package main.java.com.example.net;
+
+import main.java.com.example.entity.EntityStore;
+import main.java.com.example.sim.PlayerController;
+import main.java.com.example.sim.SimulationInput;
+
+import java.net.SocketAddress;
+
+/**
+ * Клиент сервера. Поля разделены по потокам: ввод и учет трафика пишет
+ * сетевой поток, игрока и примененный ввод - поток шагов. Примененный ввод
+ * и сущность игрока попадают в сетевой поток только вместе с состоянием шага (WorldState).
+ */
+final class ClientSession {
+    final SocketAddress address;
+
+    // Последний полученный ввод: пишет сетевой поток, читает поток шагов в начале шага
+    final SimulationInput input = new SimulationInput();
+    volatile int inputSequence = -1;
+    volatile long inputClientNanos;
+
+    // Игрок клиента и ввод, примененный последним шагом (только поток шагов)
+    PlayerController controller;
+    int appliedSequence = -1;
+    long appliedClientNanos;
+
+    // Клиент отключен (пишет сетевой поток до постановки в очередь отключений):
+    // подключение, обработанное позже отключения, не создает игрока
+    volatile boolean disconnected;
+
+    // Учет сетевого потока; последний шаг состояния, целиком принятый клиентом (база дельт)
+    long lastHeardNanos;
+    long ackedTick = -1;
+    long bytesSent;
+
+    // Поля заголовка STATE из рассылаемого состояния (только сетевой поток):
+    // действительны, если stateTick совпадает с шагом состояния
+    long stateTick = -1;
+    int stateEntityId = EntityStore.NO_ENTITY;
+    int stateSequence = -1;
+    long stateClientNanos;
+
+    ClientSession(SocketAddress address, long nowNanos) {
+        this.address = address;
+        this.lastHeardNanos = nowNanos;
+    }
+}
@@ -0,0 +1,702 @@
+package main.java.com.example.net;
+
+import main.java.com.example.HeadlessGame;
+import main.java.com.example.entity.EntityStore;
+import main.java.com.example.entity.EntitySystem;
+import main.java.com.example.entity.MovementSystem;
+import main.java.com.example.entity.Player;
+import main.java.com.example.entity.PlayerControlSystem;
+import main.java.com.example.physics.BodyBuffer;
+import main.java.com.example.physics.PhysicsEngine;
+import main.java.com.example.profiling.LatencyHistogram;
+import main.java.com.example.render.Camera;
+import main.java.com.example.sim.PlayerController;
+import main.java.com.example.sim.TripleBuffer;
+import org.joml.Vector3f;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Авторитетный сервер без окна: мир (физика и системы сущностей) выполняется
+ * с фиксированной частотой, клиенты присылают ввод и получают состояние мира
+ * после каждого шага по UDP.
+ *
+ * Потоки:
+ * <ul>
+ *   <li>сетевой - один селектор над неблокирующим DatagramChannel: прием ввода,
+ *       подключение и отключение клиентов, рассылка состояния</li>
+ *   <li>поток шагов - ввод клиентов, шаг физики и систем сущностей; интегрирование
+ *       тел делят между собой рабочие потоки движка (physics.threads)</li>
+ *   <li>основной - вывод метрик раз в секунду</li>
+ * </ul>
+ * Состояние после шага публикуется сетевому потоку через тройной буфер без блокировок,
+ * подключения и отключения передаются потоку шагов через очереди. Сетевой поток
+ * квантует состояние и кодирует его дельтами относительно шага, подтвержденного
+ * клиентом (SnapshotCodec); клиенты с одной базой получают одну и ту же кодировку.
+ *
+ * Параметры задаются системными свойствами:
+ * <ul>
+ *   <li>server.port - порт UDP (по умолчанию 27015)</li>
+ *   <li>server.hz - частота шагов (по умолчанию physics.hz или 60)</li>
+ *   <li>server.max.clients - наибольшее количество клиентов (по умолчанию 1024)</li>
+ *   <li>server.timeout - отключение клиента без пакетов, мс (по умолчанию 5000)</li>
+ *   <li>server.duration - время работы в секундах (по умолчанию 0 - до остановки процесса)</li>
+ *   <li>server.bodies - количество дополнительных тел в мире (по умолчанию 0)</li>
+ *   <li>server.entities - количество дополнительных сущностей (по умолчанию 0)</li>
+ * </ul>
+ */
+public class GameServer {
+    private static final int PORT = Integer.getInteger("server.port", Protocol.DEFAULT_PORT);
+    private static final int HZ = Integer.getInteger("server.hz", Integer.getInteger("physics.hz", 60));
+    private static final int MAX_CLIENTS = Integer.getInteger("server.max.clients", 1024);
+    private static final long TIMEOUT_NANOS = Long.getLong("server.timeout", 5000L) * 1_000_000L;
+    private static final int DURATION_SECONDS = Integer.getInteger("server.duration", 0);
+    private static final int BODIES = Integer.getInteger("server.bodies", 0);
+    private static final int ENTITIES = Integer.getInteger("server.entities", 0);
+
+    // Интервал вывода метрик и проверки молчащих клиентов
+    private static final long REPORT_INTERVAL_NANOS = 1_000_000_000L;
+    private static final long TIMEOUT_CHECK_NANOS = 100_000_000L;
+
+    // Буфер отправки ядра: состояние для сотен клиентов уходит пачкой за шаг
+    private static final int SEND_BUFFER_BYTES = 4 << 20;
+
+    // Кодировок состояния с разными базами за шаг, хранимых для повторной отправки
+    private static final int ENCODING_SLOTS = 4;
+
+    private final long stepNanos = 1_000_000_000L / HZ;
+    private final float stepSeconds = 1.0f / HZ;
+
+    // Мир (только поток шагов)
+    private PhysicsEngine physicsEngine;
+    private EntityStore entities;
+    private BodyBuffer bodies;
+    private final EntitySystem[] systems = {new MovementSystem(), new PlayerControlSystem()};
+    private final List<ClientSession> players = new ArrayList<>();
+    private final List<ClientSession> pendingJoins = new ArrayList<>();
+    private int[] freeBodies = new int[16];
+    private int freeBodyCount;
+
+    // Сеть (только сетевой поток, кроме селектора для wakeup)
+    private DatagramChannel channel;
+    private Selector selector;
+    private final Map<SocketAddress, ClientSession> sessions = new HashMap<>();
+    private final List<ClientSession> clients = new ArrayList<>();
+    private final ByteBuffer receiveBuffer = ByteBuffer.allocateDirect(Protocol.MAX_PACKET_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+    // Кодирование состояния (только сетевой поток): снимки последних шагов как базы и кодировки шага
+    private final SnapshotCodec codec = new SnapshotCodec();
+    private final QuantizedSnapshot[] history = new QuantizedSnapshot[Protocol.BASELINE_WINDOW];
+    private final StateEncoding[] encodings = new StateEncoding[ENCODING_SLOTS];
+    private int nextEncoding;
+
+    /**
+     * Состояние шага, закодированное относительно одной базы: части подряд в буфере
+     */
+    private static final class StateEncoding {
+        long tick = -1;
+        long baselineTick;
+        ByteBuffer data = ByteBuffer.allocateDirect(16 * Protocol.MAX_PACKET_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        int[] partOffsets = new int[17];
+        int parts;
+    }
+
+    // Подключения и отключения: сетевой поток передает потоку шагов
+    private final ConcurrentLinkedQueue<ClientSession> joins = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<ClientSession> leaves = new ConcurrentLinkedQueue<>();
+
+    // Состояние после шага: пишет поток шагов, рассылает сетевой поток
+    private final TripleBuffer<WorldState> states = new TripleBuffer<>(WorldState::new);
+
+    // Длительности шага и рассылки (пишет каждую свой поток)
+    private final LatencyHistogram tickTimes = new LatencyHistogram();
+    private final LatencyHistogram broadcastTimes = new LatencyHistogram();
+
+    // Счетчики (каждый пишет один поток)
+    private volatile long ticks;
+    private volatile long droppedTicks;
+    private volatile long failedTicks;
+    private volatile int clientCount;
+    private volatile long packetsReceived;
+    private volatile long bytesReceived;
+    private volatile long bytesSent;
+    private volatile long sendDrops;
+
+    private volatile boolean running;
+    private Thread tickThread;
+    private Thread networkThread;
+
+    /**
+     * Точка входа в режим сервера
+     */
+    public static void main(String[] args) {
+        GameServer server = new GameServer();
+        server.start();
+    }
+
+    /**
+     * Запуск сервера и вывод метрик до истечения server.duration
+     */
+    public void start() {
+        for (int i = 0; i < history.length; i++) {
+            history[i] = new QuantizedSnapshot();
+        }
+        for (int i = 0; i < encodings.length; i++) {
+            encodings[i] = new StateEncoding();
+        }
+        init();
+        running = true;
+        networkThread = new Thread(this::runNetwork, "server-network");
+        tickThread = new Thread(this::runTicks, "server-tick");
+        networkThread.start();
+        tickThread.start();
+        try {
+            report();
+        } finally {
+            stop();
+            cleanup();
+        }
+    }
+
+    /**
+     * Инициализация мира и сокета
+     */
+    private void init() {
+        if (HZ <= 0) {
+            throw new IllegalArgumentException("Частота сервера должна быть положительной: " + HZ);
+        }
+
+        physicsEngine = PhysicsEngine.create();
+        physicsEngine.init();
+
+        entities = new EntityStore(MAX_CLIENTS + ENTITIES);
+        HeadlessGame.spawnEntities(entities, ENTITIES);
+        bodies = physicsEngine.createBodies(MAX_CLIENTS + BODIES);
+        HeadlessGame.spawnBodies(bodies, BODIES);
+
+        try {
+            channel = DatagramChannel.open();
+            channel.setOption(StandardSocketOptions.SO_SNDBUF, SEND_BUFFER_BYTES);
+            channel.setOption(StandardSocketOptions.SO_RCVBUF, SEND_BUFFER_BYTES);
+            channel.bind(new InetSocketAddress(PORT));
+            channel.configureBlocking(false);
+            selector = Selector.open();
+            channel.register(selector, SelectionKey.OP_READ);
+        } catch (IOException e) {
+            throw new RuntimeException("Не удалось открыть UDP-порт сервера: " + PORT, e);
+        }
+
+        System.out.printf("Сервер (%s): порт %d, %d шагов/с, до %d клиентов, %d тел, %d сущностей%n",
+            physicsEngine.getBackend(), PORT, HZ, MAX_CLIENTS, BODIES, ENTITIES);
+    }
+
+    /**
+     * Поток шагов: шаги с фиксированной частотой. При отставании больше
+     * чем на шаг пропущенные шаги не догоняются, а считаются. Ошибка шага
+     * выводится и считается, сервер продолжает работу со следующего шага.
+     */
+    private void runTicks() {
+        long nextTick = System.nanoTime() + stepNanos;
+        while (running) {
+            long now = System.nanoTime();
+            if (now < nextTick) {
+                LockSupport.parkNanos(nextTick - now);
+                continue;
+            }
+
+            try {
+                tick();
+            } catch (RuntimeException e) {
+                failedTicks++;
+                System.err.println("Ошибка шага сервера " + (ticks + 1) + ": " + e);
+                e.printStackTrace();
+            }
+            nextTick += stepNanos;
+
+            long behind = System.nanoTime() - nextTick;
+            if (behind >= stepNanos) {
+                long skipped = behind / stepNanos;
+                droppedTicks += skipped;
+                nextTick += skipped * stepNanos;
+            }
+        }
+    }
+
+    /**
+     * Один шаг мира: подключения, ввод клиентов, физика, системы сущностей и публикация состояния
+     */
+    private void tick() {
+        long start = System.nanoTime();
+
+        // Подключения забираются до отключений, а обрабатываются после них: отключение,
+        // освободившее место подключившемуся клиенту, поставлено в очередь раньше него,
+        // поэтому его тело уже свободно к моменту addPlayer
+        ClientSession session;
+        while ((session = joins.poll()) != null) {
+            pendingJoins.add(session);
+        }
+        while ((session = leaves.poll()) != null) {
+            removePlayer(session);
+        }
+        for (int i = 0; i < pendingJoins.size(); i++) {
+            addPlayer(pendingJoins.get(i));
+        }
+        pendingJoins.clear();
+
+        // Каждый клиент управляет своим игроком последним полученным вводом
+        for (int i = 0; i < players.size(); i++) {
+            ClientSession player = players.get(i);
+            player.appliedClientNanos = player.inputClientNanos;
+            player.appliedSequence = player.inputSequence;
+            player.controller.applyInput(stepSeconds, player.input);
+        }
+        physicsEngine.step(stepSeconds);
+        for (int i = 0; i < players.size(); i++) {
+            players.get(i).controller.readBody();
+        }
+        for (EntitySystem system : systems) {
+            system.update(entities, stepSeconds);
+        }
+        long tick = ticks + 1;
+
+        WorldState state = states.getBack();
+        state.capture(tick, entities);
+        for (int i = 0; i < players.size(); i++) {
+            ClientSession player = players.get(i);
+            PlayerController controller = player.controller;
+            Camera camera = controller.getCamera();
+            int entityId = controller.getPlayer().getId();
+            state.setLook(entities.indexOf(entityId), camera.getYaw(), camera.getPitch());
+            state.addPlayer(player, entityId, player.appliedSequence, player.appliedClientNanos);
+        }
+        states.publish();
+        selector.wakeup();
+
+        ticks = tick;
+        tickTimes.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Игрок нового клиента: сущность в хранилище и тело из свободных или новое.
+     * Клиент, отключившийся до своего первого шага, игрока не получает.
+     */
+    private void addPlayer(ClientSession session) {
+        if (session.disconnected) {
+            return;
+        }
+
+        // Игроки появляются по кругу, чтобы не начинать в одной точке
+        float angle = players.size() * 2.39996f;
+        float radius = 2.0f + (float) Math.sqrt(players.size()) * 1.5f;
+        Vector3f position = new Vector3f((float) Math.cos(angle) * radius, 0.0f, (float) Math.sin(angle) * radius);
+
+        Player player = new Player(entities, position);
+        int body;
+        if (freeBodyCount > 0) {
+            body = freeBodies[--freeBodyCount];
+            bodies.setPosition(body, position.x, position.y, position.z);
+            bodies.setVelocity(body, 0.0f, 0.0f, 0.0f);
+            bodies.setFlags(body, BodyBuffer.FLAG_ACTIVE);
+        } else {
+            body = bodies.add(position.x, position.y, position.z);
+        }
+
+        Camera camera = new Camera(new Vector3f(position), new Vector3f(0, 0, -1));
+        session.controller = new PlayerController(player, camera, bodies, body);
+        players.add(session);
+    }
+
+    /**
+     * Удаление игрока отключившегося клиента; его тело выключается и переиспользуется
+     */
+    private void removePlayer(ClientSession session) {
+        if (session.controller == null) {
+            return;
+        }
+        entities.destroy(session.controller.getPlayer().getId());
+        int body = session.controller.getBody();
+        bodies.setFlags(body, 0);
+        if (freeBodyCount == freeBodies.length) {
+            freeBodies = Arrays.copyOf(freeBodies, freeBodyCount * 2);
+        }
+        freeBodies[freeBodyCount++] = body;
+        players.remove(session);
+        session.controller = null;
+    }
+
+    /**
+     * Сетевой поток: прием пакетов, рассылка опубликованного состояния
+     * и отключение молчащих клиентов. Поток шагов будит селектор после каждого шага.
+     */
+    private void runNetwork() {
+        long lastTimeoutCheck = System.nanoTime();
+        try {
+            while (running) {
+                selector.select(TIMEOUT_CHECK_NANOS / 1_000_000L);
+                selector.selectedKeys().clear();
+
+                long now = System.nanoTime();
+                receivePackets(now);
+                if (states.update()) {
+                    broadcast(states.getFront());
+                }
+                if (now - lastTimeoutCheck >= TIMEOUT_CHECK_NANOS) {
+                    dropSilentClients(now);
+                    lastTimeoutCheck = now;
+                }
+            }
+        } catch (IOException e) {
+            if (running) {
+                throw new RuntimeException("Ошибка сети сервера", e);
+            }
+        }
+    }
+
+    /**
+     * Прием всех ожидающих датаграмм без блокировки
+     */
+    private void receivePackets(long now) throws IOException {
+        ByteBuffer packet = receiveBuffer;
+        long packets = 0;
+        long bytes = 0;
+        SocketAddress from;
+        while ((from = channel.receive(packet.clear())) != null) {
+            packet.flip();
+            packets++;
+            bytes += packet.remaining();
+            if (packet.hasRemaining()) {
+                handlePacket(from, packet, now);
+            }
+        }
+        if (packets > 0) {
+            packetsReceived += packets;
+            bytesReceived += bytes;
+        }
+    }
+
+    /**
+     * Разбор пакета клиента; неизвестные и короткие пакеты отбрасываются
+     */
+    private void handlePacket(SocketAddress from, ByteBuffer packet, long now) {
+        ClientSession session = sessions.get(from);
+        switch (packet.get(0)) {
+            case Protocol.HELLO:
+                if (session == null && packet.remaining() >= Protocol.HELLO_BYTES
+                    && packet.getInt(1) == Protocol.VERSION && sessions.size() < MAX_CLIENTS) {
+                    session = new ClientSession(from, now);
+                    sessions.put(from, session);
+                    clients.add(session);
+                    clientCount = clients.size();
+                    joins.add(session);
+                }
+                break;
+            case Protocol.INPUT:
+                if (session == null || packet.remaining() < Protocol.INPUT_BYTES) {
+                    return;
+                }
+                // Ввод, пришедший позже более нового, не применяется
+                int sequence = packet.getInt(1);
+                if (sequence > session.inputSequence) {
+                    session.input.setKeys(packet.getInt(13));
+                    session.input.setLook(packet.getFloat(17), packet.getFloat(21));
+                    session.inputClientNanos = packet.getLong(5);
+                    session.inputSequence = sequence;
+                    session.ackedTick = Math.max(session.ackedTick, packet.getLong(Protocol.INPUT_ACK_OFFSET));
+                }
+                break;
+            case Protocol.BYE:
+                if (session != null) {
+                    disconnect(session);
+                }
+                return;
+            default:
+                return;
+        }
+        if (session != null) {
+            session.lastHeardNanos = now;
+        }
+    }
+
+    /**
+     * Отключение клиента: его игрок удаляется на следующем шаге
+     */
+    private void disconnect(ClientSession session) {
+        session.disconnected = true;
+        sessions.remove(session.address);
+        clients.remove(session);
+        clientCount = clients.size();
+        leaves.add(session);
+    }
+
+    /**
+     * Отключение клиентов, от которых нет пакетов дольше server.timeout
+     */
+    private void dropSilentClients(long now) {
+        for (int i = clients.size() - 1; i >= 0; i--) {
+            ClientSession session = clients.get(i);
+            if (now - session.lastHeardNanos > TIMEOUT_NANOS) {
+                disconnect(session);
+            }
+        }
+    }
+
+    /**
+     * Рассылка состояния всем клиентам: каждому - относительно подтвержденного им шага.
+     * Кодировка для одной базы делается один раз за шаг, для каждого клиента
+     * дописываются только его поля заголовка. Датаграмма, не поместившаяся
+     * в буфер отправки, не ждет, а отбрасывается.
+     */
+    private void broadcast(WorldState state) throws IOException {
+        if (clients.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        QuantizedSnapshot current = history[(int) (state.tick % history.length)];
+        codec.quantize(state, current);
+        long sent = 0;
+        long drops = 0;
+
+        // Поля клиентов из того же шага, что и состояние
+        for (int i = 0; i < state.playerCount; i++) {
+            ClientSession player = state.playerSessions[i];
+            player.stateTick = state.tick;
+            player.stateEntityId = state.playerEntities[i];
+            player.stateSequence = state.playerSequences[i];
+            player.stateClientNanos = state.playerClientNanos[i];
+        }
+
+        for (int i = 0; i < clients.size(); i++) {
+            ClientSession session = clients.get(i);
+            StateEncoding encoding = encodingFor(current, baselineFor(session, current.tick));
+            ByteBuffer data = encoding.data;
+
+            // Клиент, у которого на этом шаге еще нет игрока, получает состояние без своих полей
+            boolean player = session.stateTick == state.tick;
+            int entityId = player ? session.stateEntityId : EntityStore.NO_ENTITY;
+            int sequence = player ? session.stateSequence : -1;
+            long clientNanos = player ? session.stateClientNanos : 0L;
+            for (int part = 0; part < encoding.parts; part++) {
+                int offset = encoding.partOffsets[part];
+                data.putInt(offset + Protocol.STATE_ENTITY_OFFSET, entityId)
+                    .putInt(offset + Protocol.STATE_ACK_OFFSET, sequence)
+                    .putLong(offset + Protocol.STATE_ECHO_OFFSET, clientNanos);
+                data.limit(encoding.partOffsets[part + 1]).position(offset);
+                int bytes = channel.send(data, session.address);
+                data.clear();
+                if (bytes == 0) {
+                    drops++;
+                }
+                session.bytesSent += bytes;
+                sent += bytes;
+            }
+        }
+
+        bytesSent += sent;
+        sendDrops += drops;
+        broadcastTimes.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Базовый снимок клиента: подтвержденный им шаг, если он еще хранится
+     */
+    private QuantizedSnapshot baselineFor(ClientSession session, long tick) {
+        long acked = session.ackedTick;
+        if (acked < 0 || acked >= tick || tick - acked >= history.length) {
+            return null;
+        }
+        QuantizedSnapshot baseline = history[(int) (acked % history.length)];
+        return baseline.getTick() == acked ? baseline : null;
+    }
+
+    /**
+     * Кодировка шага относительно базы: готовая с тем же шагом и базой
+     * или новая на месте самой старой
+     */
+    private StateEncoding encodingFor(QuantizedSnapshot current, QuantizedSnapshot baseline) {
+        long baselineTick = baseline != null ? baseline.getTick() : -1L;
+        for (StateEncoding encoding : encodings) {
+            if (encoding.tick == current.getTick() && encoding.baselineTick == baselineTick) {
+                return encoding;
+            }
+        }
+        StateEncoding encoding = encodings[nextEncoding];
+        nextEncoding = (nextEncoding + 1) % encodings.length;
+        encode(current, baseline, encoding);
+        return encoding;
+    }
+
+    /**
+     * Кодирование шага по частям: у каждой части свой заголовок STATE,
+     * поля клиента заполняются при отправке
+     */
+    private void encode(QuantizedSnapshot current, QuantizedSnapshot baseline, StateEncoding encoding) {
+        long baselineTick = baseline != null ? baseline.getTick() : -1L;
+        encoding.tick = current.getTick();
+        encoding.baselineTick = baselineTick;
+        encoding.parts = 0;
+
+        ByteBuffer data = encoding.data.clear();
+        int slot = 0;
+        do {
+            // Места на еще одну часть: буфер и таблица частей растут вдвое
+            if (data.remaining() < Protocol.MAX_PACKET_BYTES + SnapshotCodec.MAX_ENTITY_BYTES) {
+                ByteBuffer larger = ByteBuffer.allocateDirect(data.capacity() * 2).order(ByteOrder.LITTLE_ENDIAN);
+                data.flip();
+                larger.put(data);
+                encoding.data = data = larger;
+            }
+            if (encoding.parts + 1 == encoding.partOffsets.length) {
+                encoding.partOffsets = Arrays.copyOf(encoding.partOffsets, encoding.partOffsets.length * 2);
+            }
+
+            encoding.partOffsets[encoding.parts] = data.position();
+            data.put(Protocol.STATE)
+                .putLong(current.getTick())
+                .putInt(EntityStore.NO_ENTITY)
+                .putInt(-1)
+                .putLong(0L)
+                .putLong(baselineTick)
+                .putShort((short) encoding.parts)
+                .putShort((short) 0);
+            slot = codec.encodePart(current, baseline, slot, data, Protocol.MAX_PACKET_BYTES - Protocol.STATE_HEADER_BYTES);
+            encoding.parts++;
+        } while (slot < current.getSlotCount());
+
+        encoding.partOffsets[encoding.parts] = data.position();
+        for (int part = 0; part < encoding.parts; part++) {
+            data.putShort(encoding.partOffsets[part] + Protocol.STATE_PARTS_OFFSET, (short) encoding.parts);
+        }
+        data.clear();
+    }
+
+    /**
+     * Вывод метрик раз в секунду: длительность и загрузка шага, рассылка,
+     * трафик на клиента. Возвращается по истечении server.duration.
+     */
+    private void report() {
+        LatencyHistogram tickSnapshot = new LatencyHistogram();
+        LatencyHistogram tickCurrent = new LatencyHistogram();
+        LatencyHistogram tickInterval = new LatencyHistogram();
+        LatencyHistogram broadcastSnapshot = new LatencyHistogram();
+        LatencyHistogram broadcastCurrent = new LatencyHistogram();
+        LatencyHistogram broadcastInterval = new LatencyHistogram();
+
+        long startNanos = System.nanoTime();
+        long lastNanos = startNanos;
+        long lastTicks = 0;
+        long lastBytesSent = 0;
+        long lastPackets = 0;
+        long deadline = DURATION_SECONDS > 0 ? startNanos + DURATION_SECONDS * 1_000_000_000L : Long.MAX_VALUE;
+
+        while (System.nanoTime() < deadline) {
+            LockSupport.parkNanos(Math.min(REPORT_INTERVAL_NANOS, deadline - System.nanoTime()));
+            long now = System.nanoTime();
+            double seconds = (now - lastNanos) / 1e9;
+
+            tickCurrent.copyFrom(tickTimes);
+            tickInterval.setDifference(tickCurrent, tickSnapshot);
+            tickSnapshot.copyFrom(tickCurrent);
+            broadcastCurrent.copyFrom(broadcastTimes);
+            broadcastInterval.setDifference(broadcastCurrent, broadcastSnapshot);
+            broadcastSnapshot.copyFrom(broadcastCurrent);
+
+            long tickCount = ticks - lastTicks;
+            long sent = bytesSent - lastBytesSent;
+            long packets = packetsReceived - lastPackets;
+            int clientsNow = clientCount;
+            double busy = tickInterval.getMean() * tickInterval.getCount() / 1e9 / seconds;
+
+            System.out.printf("шагов/с: %.0f, клиентов: %d, шаг мкс p50 %.1f p99 %.1f (загрузка %.0f%%), "
+                    + "рассылка мкс p50 %.1f p99 %.1f, на клиента: %.1f КБ/с, %d Б/шаг, входящих пакетов/с: %.0f, "
+                    + "пропущено шагов: %d, не отправлено: %d%n",
+                tickCount / seconds, clientsNow,
+                tickInterval.getPercentile(0.50) / 1000.0, tickInterval.getPercentile(0.99) / 1000.0, busy * 100.0,
+                broadcastInterval.getPercentile(0.50) / 1000.0, broadcastInterval.getPercentile(0.99) / 1000.0,
+                clientsNow > 0 ? sent / 1024.0 / seconds / clientsNow : 0.0,
+                clientsNow > 0 && tickCount > 0 ? sent / clientsNow / tickCount : 0L,
+                packets / seconds, droppedTicks, sendDrops);
+
+            lastNanos = now;
+            lastTicks += tickCount;
+            lastBytesSent += sent;
+            lastPackets += packets;
+        }
+
+        double total = (System.nanoTime() - startNanos) / 1e9;
+        System.out.printf("Сервер остановлен: %d шагов за %.1f с, ошибок шага: %d, отправлено %.1f МБ, принято %.1f МБ%n",
+            ticks, total, failedTicks, bytesSent / 1048576.0, bytesReceived / 1048576.0);
+        printPercentiles("Шаг сервера", tickTimes);
+        printPercentiles("Рассылка состояния", broadcastTimes);
+    }
+
+    /**
+     * Вывод перцентилей гистограммы в микросекундах
+     */
+    private static void printPercentiles(String name, LatencyHistogram histogram) {
+        System.out.printf("%s, мкс: p50 %.1f, p90 %.1f, p99 %.1f, p99.9 %.1f, max %.1f%n",
+            name,
+            histogram.getPercentile(0.50) / 1000.0,
+            histogram.getPercentile(0.90) / 1000.0,
+            histogram.getPercentile(0.99) / 1000.0,
+            histogram.getPercentile(0.999) / 1000.0,
+            histogram.getMax() / 1000.0);
+    }
+
+    /**
+     * Остановка потоков с ожиданием их завершения
+     */
+    private void stop() {
+        running = false;
+        if (selector != null) {
+            selector.wakeup();
+        }
+        join(tickThread);
+        join(networkThread);
+    }
+
+    private static void join(Thread thread) {
+        if (thread == null) {
+            return;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Освобождение сокета и движка
+     */
+    private void cleanup() {
+        try {
+            if (selector != null) {
+                selector.close();
+            }
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Не удалось закрыть сокет сервера: " + e.getMessage());
+        }
+        if (physicsEngine != null) {
+            physicsEngine.cleanup();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package main.java.com.example.net;
+
+/**
+ * Протокол обмена сервера и клиентов поверх UDP. Один пакет - одна датаграмма,
+ * первый байт - тип пакета. Все числа little-endian.
+ *
+ * Клиент серверу:
+ * <pre>
+ * HELLO  byte тип, int версия протокола
+ * INPUT  byte тип, int номер ввода, long время клиента (нс),
+ *        int клавиши, float yaw, float pitch, long последний целиком принятый шаг состояния
+ * BYE    byte тип
+ * </pre>
+ * Сервер клиенту (состояние мира после шага, по частям не больше MAX_PACKET_BYTES):
+ * <pre>
+ * STATE  byte тип, long номер шага, int сущность клиента (-1 - еще не создана),
+ *        int номер последнего примененного ввода, long время клиента из этого ввода,
+ *        long базовый шаг (-1 - без базы), short номер части, short количество частей,
+ *        часть снимка SnapshotCodec
+ * </pre>
+ * Клиент отправляет ввод каждый свой кадр; сервер применяет последний полученный
+ * ввод на каждом шаге, а по эхо времени клиента тот измеряет задержку до ответа.
+ * Состояние кодируется дельтами относительно шага, который клиент подтвердил
+ * во вводе, если этот шаг не старше BASELINE_WINDOW; иначе - целиком.
+ */
+public final class Protocol {
+    public static final int VERSION = 2;
+
+    // Порт сервера по умолчанию
+    public static final int DEFAULT_PORT = 27015;
+
+    // Типы пакетов
+    public static final byte HELLO = 1;
+    public static final byte INPUT = 2;
+    public static final byte BYE = 3;
+    public static final byte STATE = 16;
+
+    // Наибольший размер датаграммы: без фрагментации IP на типичном MTU
+    public static final int MAX_PACKET_BYTES = 1200;
+
+    // Размеры пакетов и их частей
+    public static final int HELLO_BYTES = 5;
+    public static final int INPUT_BYTES = 33;
+    public static final int STATE_HEADER_BYTES = 37;
+
+    // Смещения полей заголовка STATE (сущность, ввод и эхо сервер дописывает для каждого клиента)
+    static final int STATE_ENTITY_OFFSET = 9;
+    static final int STATE_ACK_OFFSET = 13;
+    static final int STATE_ECHO_OFFSET = 17;
+    static final int STATE_BASELINE_OFFSET = 25;
+    static final int STATE_PART_OFFSET = 33;
+    static final int STATE_PARTS_OFFSET = 35;
+
+    // Смещение подтвержденного шага в INPUT
+    static final int INPUT_ACK_OFFSET = 25;
+
+    // Сколько последних шагов клиент хранит как возможные базы
+    public static final int BASELINE_WINDOW = 16;
+
+    private Protocol() {
+    }
+}
@@ -0,0 +1,82 @@
+package main.java.com.example.net;
+
+import main.java.com.example.entity.EntityStore;
+
+import java.util.Arrays;
+
+/**
+ * Квантованное состояние сущностей на шаге: целые значения позиции, скорости
+ * и направления взгляда по слоту идентификатора сущности. Слоты стабильны,
+ * поэтому сущность находится в базовом снимке без поиска. Такие снимки
+ * сервер хранит как базы для дельт, а клиент собирает из принятых частей.
+ */
+public final class QuantizedSnapshot {
+    long tick = -1;
+    int slotCount;
+
+    // По слоту: идентификатор (NO_ENTITY - слот пуст) и квантованные значения
+    int[] ids = new int[0];
+    int[] posX = new int[0];
+    int[] posY = new int[0];
+    int[] posZ = new int[0];
+    int[] velX = new int[0];
+    int[] velY = new int[0];
+    int[] velZ = new int[0];
+    int[] yaw = new int[0];
+    int[] pitch = new int[0];
+
+    /**
+     * Номер шага снимка (-1 - снимок пуст)
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Граница занятых слотов
+     */
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    /**
+     * Количество сущностей в снимке
+     */
+    public int getEntityCount() {
+        int entities = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (ids[slot] != EntityStore.NO_ENTITY) {
+                entities++;
+            }
+        }
+        return entities;
+    }
+
+    /**
+     * Новый шаг: все слоты пусты до slotCount, массивы растут по мере надобности
+     */
+    void reset(long tick, int slotCount) {
+        this.tick = tick;
+        if (ids.length < slotCount) {
+            int capacity = Math.max(slotCount, ids.length * 2);
+            ids = Arrays.copyOf(ids, capacity);
+            posX = Arrays.copyOf(posX, capacity);
+            posY = Arrays.copyOf(posY, capacity);
+            posZ = Arrays.copyOf(posZ, capacity);
+            velX = Arrays.copyOf(velX, capacity);
+            velY = Arrays.copyOf(velY, capacity);
+            velZ = Arrays.copyOf(velZ, capacity);
+            yaw = Arrays.copyOf(yaw, capacity);
+            pitch = Arrays.copyOf(pitch, capacity);
+        }
+        Arrays.fill(ids, 0, slotCount, EntityStore.NO_ENTITY);
+        this.slotCount = slotCount;
+    }
+
+    /**
+     * Есть ли в слоте сущность с этим идентификатором
+     */
+    boolean contains(int slot, int id) {
+        return slot < slotCount && ids[slot] == id;
+    }
+}
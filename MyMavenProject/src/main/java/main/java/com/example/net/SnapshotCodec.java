@@ -0,0 +1,288 @@
+package main.java.com.example.net;
+
+import main.java.com.example.entity.EntityStore;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Кодек состояния мира: квантование и битовая упаковка дельт относительно
+ * базового снимка, подтвержденного клиентом.
+ *
+ * Позиция и скорость квантуются в целые шаги 1/scale, направление взгляда -
+ * в angleBits бит на оборот. Сущности части идут по возрастанию слота:
+ * <pre>
+ * int первый слот, int слот за последним, int граница слотов снимка, short сущностей,
+ * далее биты по сущностям:
+ *   пропуск слотов (код переменной длины),
+ *   1 - та же сущность есть в базе: бит изменения (0 - значения как в базе, дальше не пишутся),
+ *   0 - сущности в базе нет: 32 бита идентификатора, база - нули,
+ *   дельты позиции, скорости, yaw и pitch (зигзаг и код переменной длины)
+ * </pre>
+ * Слоты части без записей пусты: удаленные сущности отдельно не передаются.
+ * Кодирование и разбор не выделяют память; буферы должны быть little-endian.
+ * Сервер и клиенты должны использовать одинаковые параметры квантования.
+ *
+ * Параметры по умолчанию задаются системными свойствами:
+ * <ul>
+ *   <li>snapshot.position.scale - шагов позиции на метр (по умолчанию 512, около 2 мм)</li>
+ *   <li>snapshot.velocity.scale - шагов скорости на м/с (по умолчанию 256)</li>
+ *   <li>snapshot.angle.bits - бит на оборот направления взгляда (по умолчанию 16)</li>
+ * </ul>
+ */
+public final class SnapshotCodec {
+    // Заголовок части: первый слот, слот за последним, граница слотов, количество сущностей
+    public static final int PART_HEADER_BYTES = 14;
+
+    // Наибольший размер записи одной сущности: пропуск, флаги, идентификатор, 8 дельт
+    public static final int MAX_ENTITY_BYTES = (37 + 2 + 32 + 8 * 37 + 7) / 8;
+
+    private final float positionScale;
+    private final float velocityScale;
+    private final int angleBits;
+    private final int angleMask;
+    private final float angleScale;
+
+    private final BitWriter writer = new BitWriter();
+    private final BitReader reader = new BitReader();
+
+    /**
+     * Кодек с параметрами из системных свойств
+     */
+    public SnapshotCodec() {
+        this(Integer.getInteger("snapshot.position.scale", 512),
+            Integer.getInteger("snapshot.velocity.scale", 256),
+            Integer.getInteger("snapshot.angle.bits", 16));
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param positionScale шагов позиции на метр
+     * @param velocityScale шагов скорости на м/с
+     * @param angleBits бит на оборот направления взгляда (от 2 до 31)
+     */
+    public SnapshotCodec(int positionScale, int velocityScale, int angleBits) {
+        if (positionScale <= 0 || velocityScale <= 0) {
+            throw new IllegalArgumentException("Масштаб квантования должен быть положительным");
+        }
+        if (angleBits < 2 || angleBits > 31) {
+            throw new IllegalArgumentException("Бит на угол должно быть от 2 до 31: " + angleBits);
+        }
+        this.positionScale = positionScale;
+        this.velocityScale = velocityScale;
+        this.angleBits = angleBits;
+        this.angleMask = (1 << angleBits) - 1;
+        this.angleScale = (1 << angleBits) / 360.0f;
+    }
+
+    /**
+     * Квантование состояния мира в снимок по слотам
+     */
+    public void quantize(WorldState state, QuantizedSnapshot dest) {
+        int slotCount = 0;
+        for (int i = 0; i < state.count; i++) {
+            slotCount = Math.max(slotCount, EntityStore.slotOf(state.ids[i]) + 1);
+        }
+        dest.reset(state.tick, slotCount);
+        for (int i = 0; i < state.count; i++) {
+            int slot = EntityStore.slotOf(state.ids[i]);
+            dest.ids[slot] = state.ids[i];
+            dest.posX[slot] = Math.round(state.posX[i] * positionScale);
+            dest.posY[slot] = Math.round(state.posY[i] * positionScale);
+            dest.posZ[slot] = Math.round(state.posZ[i] * positionScale);
+            dest.velX[slot] = Math.round(state.velX[i] * velocityScale);
+            dest.velY[slot] = Math.round(state.velY[i] * velocityScale);
+            dest.velZ[slot] = Math.round(state.velZ[i] * velocityScale);
+            // Угол по модулю оборота: накопленный yaw камеры не ограничен
+            dest.yaw[slot] = Math.round(state.yaw[i] * angleScale) & angleMask;
+            dest.pitch[slot] = Math.round(state.pitch[i] * angleScale) & angleMask;
+        }
+    }
+
+    /**
+     * Кодирование части снимка с позиции буфера: сущности со слота firstSlot,
+     * пока запись помещается в maxBytes. Буфер должен вмещать maxBytes
+     * и еще MAX_ENTITY_BYTES. Позиция буфера сдвигается за часть.
+     *
+     * @param baseline подтвержденный клиентом снимок или null - без базы
+     * @return слот, с которого кодируется следующая часть (равен границе слотов, если снимок закончен)
+     */
+    public int encodePart(QuantizedSnapshot current, QuantizedSnapshot baseline, int firstSlot,
+                          ByteBuffer dest, int maxBytes) {
+        checkOrder(dest);
+        if (maxBytes < PART_HEADER_BYTES + MAX_ENTITY_BYTES || dest.remaining() < maxBytes + MAX_ENTITY_BYTES) {
+            throw new IllegalArgumentException("Недостаточно места для части состояния: " + maxBytes);
+        }
+        int headerPosition = dest.position();
+        dest.position(headerPosition + PART_HEADER_BYTES);
+        writer.reset(dest);
+        int maxBits = (maxBytes - PART_HEADER_BYTES) * 8;
+
+        int slot = firstSlot;
+        int previous = firstSlot - 1;
+        int entities = 0;
+        for (; slot < current.slotCount; slot++) {
+            int id = current.ids[slot];
+            if (id == EntityStore.NO_ENTITY) {
+                continue;
+            }
+            writer.mark();
+            writeEntity(current, baseline, slot, slot - previous - 1);
+            if (writer.bitCount() > maxBits) {
+                // Сущность не поместилась: она начнет следующую часть
+                writer.rollback();
+                break;
+            }
+            previous = slot;
+            entities++;
+        }
+        writer.finish();
+
+        dest.putInt(headerPosition, firstSlot)
+            .putInt(headerPosition + 4, slot)
+            .putInt(headerPosition + 8, current.slotCount)
+            .putShort(headerPosition + 12, (short) entities);
+        return slot;
+    }
+
+    /**
+     * Запись сущности: пропуск слотов, признак базы, изменения и дельты
+     */
+    private void writeEntity(QuantizedSnapshot current, QuantizedSnapshot baseline, int slot, int skipped) {
+        writer.writeVarUnsigned(skipped);
+        int id = current.ids[slot];
+        if (baseline != null && baseline.contains(slot, id)) {
+            writer.write(1, 1);
+            if (current.posX[slot] == baseline.posX[slot]
+                && current.posY[slot] == baseline.posY[slot]
+                && current.posZ[slot] == baseline.posZ[slot]
+                && current.velX[slot] == baseline.velX[slot]
+                && current.velY[slot] == baseline.velY[slot]
+                && current.velZ[slot] == baseline.velZ[slot]
+                && current.yaw[slot] == baseline.yaw[slot]
+                && current.pitch[slot] == baseline.pitch[slot]) {
+                writer.write(0, 1);
+                return;
+            }
+            writer.write(1, 1);
+            writer.writeVarSigned(current.posX[slot] - baseline.posX[slot]);
+            writer.writeVarSigned(current.posY[slot] - baseline.posY[slot]);
+            writer.writeVarSigned(current.posZ[slot] - baseline.posZ[slot]);
+            writer.writeVarSigned(current.velX[slot] - baseline.velX[slot]);
+            writer.writeVarSigned(current.velY[slot] - baseline.velY[slot]);
+            writer.writeVarSigned(current.velZ[slot] - baseline.velZ[slot]);
+            writer.writeVarSigned(angleDelta(current.yaw[slot], baseline.yaw[slot]));
+            writer.writeVarSigned(angleDelta(current.pitch[slot], baseline.pitch[slot]));
+        } else {
+            writer.write(0, 1);
+            writer.write(id, 32);
+            writer.writeVarSigned(current.posX[slot]);
+            writer.writeVarSigned(current.posY[slot]);
+            writer.writeVarSigned(current.posZ[slot]);
+            writer.writeVarSigned(current.velX[slot]);
+            writer.writeVarSigned(current.velY[slot]);
+            writer.writeVarSigned(current.velZ[slot]);
+            writer.writeVarSigned(angleDelta(current.yaw[slot], 0));
+            writer.writeVarSigned(angleDelta(current.pitch[slot], 0));
+        }
+    }
+
+    /**
+     * Разбор части с позиции буфера до его предела в снимок dest. Первая часть
+     * шага (снимок dest другого шага) очищает его; слоты части без записей становятся пустыми.
+     *
+     * @param baseline снимок, относительно которого закодирована часть, или null
+     */
+    public void decodePart(long tick, ByteBuffer src, QuantizedSnapshot baseline, QuantizedSnapshot dest) {
+        checkOrder(src);
+        if (src.remaining() < PART_HEADER_BYTES) {
+            throw new IllegalArgumentException("Пакет состояния обрезан");
+        }
+        int firstSlot = src.getInt();
+        int endSlot = src.getInt();
+        int slotCount = src.getInt();
+        int entities = src.getShort() & 0xFFFF;
+        if (firstSlot < 0 || endSlot < firstSlot || slotCount < endSlot) {
+            throw new IllegalArgumentException("Неверный диапазон слотов части: " + firstSlot + ".." + endSlot);
+        }
+        if (dest.tick != tick || dest.slotCount != slotCount) {
+            dest.reset(tick, slotCount);
+        }
+        reader.reset(src);
+
+        int slot = firstSlot - 1;
+        for (int e = 0; e < entities; e++) {
+            int next = slot + 1 + reader.readVarUnsigned();
+            if (next < slot + 1 || next >= endSlot) {
+                throw new IllegalArgumentException("Слот сущности вне части: " + next);
+            }
+            for (slot++; slot < next; slot++) {
+                dest.ids[slot] = EntityStore.NO_ENTITY;
+            }
+            readEntity(baseline, dest, slot);
+        }
+        for (slot++; slot < endSlot; slot++) {
+            dest.ids[slot] = EntityStore.NO_ENTITY;
+        }
+    }
+
+    /**
+     * Чтение сущности: база - ее значения в baseline или нули
+     */
+    private void readEntity(QuantizedSnapshot baseline, QuantizedSnapshot dest, int slot) {
+        if (reader.read(1) == 1) {
+            if (baseline == null || slot >= baseline.slotCount || baseline.ids[slot] == EntityStore.NO_ENTITY) {
+                throw new IllegalArgumentException("Сущности слота " + slot + " нет в базовом снимке");
+            }
+            dest.ids[slot] = baseline.ids[slot];
+            if (reader.read(1) == 0) {
+                dest.posX[slot] = baseline.posX[slot];
+                dest.posY[slot] = baseline.posY[slot];
+                dest.posZ[slot] = baseline.posZ[slot];
+                dest.velX[slot] = baseline.velX[slot];
+                dest.velY[slot] = baseline.velY[slot];
+                dest.velZ[slot] = baseline.velZ[slot];
+                dest.yaw[slot] = baseline.yaw[slot];
+                dest.pitch[slot] = baseline.pitch[slot];
+                return;
+            }
+            dest.posX[slot] = baseline.posX[slot] + reader.readVarSigned();
+            dest.posY[slot] = baseline.posY[slot] + reader.readVarSigned();
+            dest.posZ[slot] = baseline.posZ[slot] + reader.readVarSigned();
+            dest.velX[slot] = baseline.velX[slot] + reader.readVarSigned();
+            dest.velY[slot] = baseline.velY[slot] + reader.readVarSigned();
+            dest.velZ[slot] = baseline.velZ[slot] + reader.readVarSigned();
+            dest.yaw[slot] = (baseline.yaw[slot] + reader.readVarSigned()) & angleMask;
+            dest.pitch[slot] = (baseline.pitch[slot] + reader.readVarSigned()) & angleMask;
+        } else {
+            int id = reader.read(32);
+            if (EntityStore.slotOf(id) != slot) {
+                throw new IllegalArgumentException("Идентификатор " + id + " не из слота " + slot);
+            }
+            dest.ids[slot] = id;
+            dest.posX[slot] = reader.readVarSigned();
+            dest.posY[slot] = reader.readVarSigned();
+            dest.posZ[slot] = reader.readVarSigned();
+            dest.velX[slot] = reader.readVarSigned();
+            dest.velY[slot] = reader.readVarSigned();
+            dest.velZ[slot] = reader.readVarSigned();
+            dest.yaw[slot] = reader.readVarSigned() & angleMask;
+            dest.pitch[slot] = reader.readVarSigned() & angleMask;
+        }
+    }
+
+    /**
+     * Кратчайшая разность углов по модулю оборота со знаком
+     */
+    private int angleDelta(int angle, int base) {
+        int shift = 32 - angleBits;
+        return ((angle - base) << shift) >> shift;
+    }
+
+    private static void checkOrder(ByteBuffer buffer) {
+        if (buffer.order() != ByteOrder.LITTLE_ENDIAN) {
+            throw new IllegalArgumentException("Буфер состояния должен быть little-endian");
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package main.java.com.example.net;
+
+import main.java.com.example.entity.EntityStore;
+
+import java.util.Arrays;
+
+/**
+ * Состояние сущностей мира после шага сервера: копия, которую поток шагов
+ * публикует через тройной буфер, а сетевой поток квантует и рассылает клиентам.
+ * Вместе с сущностями копируются игроки шага: сущность и примененный ввод
+ * каждого клиента, чтобы заголовок состояния относился к тому же шагу.
+ */
+public final class WorldState {
+    long tick;
+    int count;
+    int[] ids = new int[0];
+    float[] posX = new float[0];
+    float[] posY = new float[0];
+    float[] posZ = new float[0];
+    float[] velX = new float[0];
+    float[] velY = new float[0];
+    float[] velZ = new float[0];
+    float[] yaw = new float[0];
+    float[] pitch = new float[0];
+
+    // Игроки шага: клиент, сущность его игрока, номер и метка времени примененного ввода
+    int playerCount;
+    ClientSession[] playerSessions = new ClientSession[0];
+    int[] playerEntities = new int[0];
+    int[] playerSequences = new int[0];
+    long[] playerClientNanos = new long[0];
+
+    /**
+     * Копирование всех сущностей хранилища (массивы растут по мере надобности).
+     * Направление взгляда сбрасывается в ноль, игрокам его задает setLook;
+     * список игроков очищается, его заполняет addPlayer.
+     */
+    public void capture(long tick, EntityStore entities) {
+        this.tick = tick;
+        playerCount = 0;
+        count = entities.getCount();
+        if (ids.length < count) {
+            int capacity = Math.max(count, ids.length * 2);
+            ids = Arrays.copyOf(ids, capacity);
+            posX = Arrays.copyOf(posX, capacity);
+            posY = Arrays.copyOf(posY, capacity);
+            posZ = Arrays.copyOf(posZ, capacity);
+            velX = Arrays.copyOf(velX, capacity);
+            velY = Arrays.copyOf(velY, capacity);
+            velZ = Arrays.copyOf(velZ, capacity);
+            yaw = Arrays.copyOf(yaw, capacity);
+            pitch = Arrays.copyOf(pitch, capacity);
+        }
+        for (int i = 0; i < count; i++) {
+            ids[i] = entities.idAt(i);
+            posX[i] = entities.getPositionX(i);
+            posY[i] = entities.getPositionY(i);
+            posZ[i] = entities.getPositionZ(i);
+            velX[i] = entities.getVelocityX(i);
+            velY[i] = entities.getVelocityY(i);
+            velZ[i] = entities.getVelocityZ(i);
+            yaw[i] = 0.0f;
+            pitch[i] = 0.0f;
+        }
+    }
+
+    /**
+     * Направление взгляда сущности по плотному индексу хранилища на момент capture
+     */
+    public void setLook(int index, float yaw, float pitch) {
+        this.yaw[index] = yaw;
+        this.pitch[index] = pitch;
+    }
+
+    /**
+     * Игрок клиента на этом шаге: сущность и ввод, примененный шагом
+     */
+    void addPlayer(ClientSession session, int entityId, int sequence, long clientNanos) {
+        if (playerCount == playerSessions.length) {
+            int capacity = Math.max(16, playerCount * 2);
+            playerSessions = Arrays.copyOf(playerSessions, capacity);
+            playerEntities = Arrays.copyOf(playerEntities, capacity);
+            playerSequences = Arrays.copyOf(playerSequences, capacity);
+            playerClientNanos = Arrays.copyOf(playerClientNanos, capacity);
+        }
+        playerSessions[playerCount] = session;
+        playerEntities[playerCount] = entityId;
+        playerSequences[playerCount] = sequence;
+        playerClientNanos[playerCount] = clientNanos;
+        playerCount++;
+    }
+
+    /**
+     * Количество сущностей
+     */
+    public int getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,333 @@
+package main.java.com.example.physics;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.ScatteringByteChannel;
+
+/**
+ * Общий с нативным движком блок памяти с состоянием тел.
+ * Java читает и пишет позицию, скорость и флаги на месте, без копирования массивов.
+ * Раскладка должна совпадать с world.h.
+ */
+public class BodyBuffer {
+    // Размер заголовка в int
+    static final int HEADER_INTS = 16;
+
+    // Индексы полей заголовка
+    static final int HEADER_CAPACITY = 0;
+    static final int HEADER_COUNT = 1;
+    static final int HEADER_PAIR_COUNT = 2;
+    static final int HEADER_CONTACT_COUNT = 3;
+    static final int HEADER_BROADPHASE_NANOS = 4; // long
+    static final int HEADER_STEP_NANOS = 6;       // long
+    static final int HEADER_AWAKE_COUNT = 8;
+    static final int HEADER_SLEEPING_COUNT = 9;
+    static final int HEADER_ISLAND_COUNT = 10;
+
+    // Порядок массивов после заголовка
+    static final int POS_X = 0;
+    static final int POS_Y = 1;
+    static final int POS_Z = 2;
+    static final int VEL_X = 3;
+    static final int VEL_Y = 4;
+    static final int VEL_Z = 5;
+    static final int FLAGS = 6;
+    static final int REST_FRAMES = 7;  // шагов подряд в покое (ведет движок)
+    static final int SLEEP_ISLAND = 8; // спящий остров тела или NO_ISLAND (ведет движок)
+    static final int ARRAY_COUNT = 9;
+
+    // Тело не в спящем острове
+    static final int NO_ISLAND = -1;
+
+    // Флаги тела
+    public static final int FLAG_ACTIVE = 1;   // тело участвует в симуляции
+    public static final int FLAG_GROUNDED = 2; // тело касается земли (выставляется движком)
+    public static final int FLAG_SLEEPING = 4; // тело спит (выставляется движком, снимается при изменении тела)
+
+    private final ByteBuffer buffer;
+    private final int capacity;
+
+    /**
+     * Выделение блока памяти для заданного количества тел
+     */
+    public BodyBuffer(int capacity) {
+        this(capacity, true);
+    }
+
+    /**
+     * Выделение блока в прямой памяти (для нативного движка)
+     * или в куче поверх byte[] (для движка на Java)
+     */
+    BodyBuffer(int capacity, boolean direct) {
+        this.capacity = capacity;
+        int size = memorySize(capacity);
+        this.buffer = (direct ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size))
+            .order(ByteOrder.nativeOrder());
+        buffer.putInt(HEADER_CAPACITY * Integer.BYTES, capacity);
+    }
+
+    /**
+     * Размер блока в байтах для заданной вместимости (WORLD_MEMORY_SIZE в world.h)
+     */
+    static int memorySize(int capacity) {
+        return (HEADER_INTS + ARRAY_COUNT * capacity) * Integer.BYTES;
+    }
+
+    /**
+     * Добавление активного тела, возвращает его индекс
+     */
+    public int add(float posX, float posY, float posZ) {
+        int index = getCount();
+        if (index >= capacity) {
+            throw new IllegalStateException("Превышена вместимость буфера тел: " + capacity);
+        }
+        setPosition(index, posX, posY, posZ);
+        setVelocity(index, 0.0f, 0.0f, 0.0f);
+        setFlags(index, FLAG_ACTIVE);
+        buffer.putInt(offset(REST_FRAMES, index), 0);
+        buffer.putInt(offset(SLEEP_ISLAND, index), NO_ISLAND);
+        buffer.putInt(HEADER_COUNT * Integer.BYTES, index + 1);
+        return index;
+    }
+
+    /**
+     * Смещение элемента массива в байтах
+     */
+    int offset(int array, int index) {
+        return (HEADER_INTS + array * capacity + index) * Integer.BYTES;
+    }
+
+    /**
+     * Установка позиции тела (спящее тело просыпается вместе со своим островом)
+     */
+    public void setPosition(int index, float x, float y, float z) {
+        buffer.putFloat(offset(POS_X, index), x);
+        buffer.putFloat(offset(POS_Y, index), y);
+        buffer.putFloat(offset(POS_Z, index), z);
+        wake(index);
+    }
+
+    /**
+     * Установка скорости тела (спящее тело просыпается вместе со своим островом)
+     */
+    public void setVelocity(int index, float x, float y, float z) {
+        buffer.putFloat(offset(VEL_X, index), x);
+        buffer.putFloat(offset(VEL_Y, index), y);
+        buffer.putFloat(offset(VEL_Z, index), z);
+        wake(index);
+    }
+
+    /**
+     * Снятие флага сна: движок разбудит остров тела в начале следующего шага
+     */
+    public void wake(int index) {
+        int flags = offset(FLAGS, index);
+        buffer.putInt(flags, buffer.getInt(flags) & ~FLAG_SLEEPING);
+    }
+
+    /**
+     * Спит ли тело
+     */
+    public boolean isSleeping(int index) {
+        return (getFlags(index) & FLAG_SLEEPING) != 0;
+    }
+
+    /**
+     * Координата X позиции тела
+     */
+    public float getPositionX(int index) {
+        return buffer.getFloat(offset(POS_X, index));
+    }
+
+    /**
+     * Координата Y позиции тела
+     */
+    public float getPositionY(int index) {
+        return buffer.getFloat(offset(POS_Y, index));
+    }
+
+    /**
+     * Координата Z позиции тела
+     */
+    public float getPositionZ(int index) {
+        return buffer.getFloat(offset(POS_Z, index));
+    }
+
+    /**
+     * Составляющая X скорости тела
+     */
+    public float getVelocityX(int index) {
+        return buffer.getFloat(offset(VEL_X, index));
+    }
+
+    /**
+     * Составляющая Y скорости тела
+     */
+    public float getVelocityY(int index) {
+        return buffer.getFloat(offset(VEL_Y, index));
+    }
+
+    /**
+     * Составляющая Z скорости тела
+     */
+    public float getVelocityZ(int index) {
+        return buffer.getFloat(offset(VEL_Z, index));
+    }
+
+    /**
+     * Получение флагов тела
+     */
+    public int getFlags(int index) {
+        return buffer.getInt(offset(FLAGS, index));
+    }
+
+    /**
+     * Установка флагов тела
+     */
+    public void setFlags(int index, int flags) {
+        buffer.putInt(offset(FLAGS, index), flags);
+    }
+
+    /**
+     * Количество тел в буфере
+     */
+    public int getCount() {
+        return buffer.getInt(HEADER_COUNT * Integer.BYTES);
+    }
+
+    /**
+     * Количество пар-кандидатов широкой фазы за последний шаг
+     */
+    public int getPairCount() {
+        return buffer.getInt(HEADER_PAIR_COUNT * Integer.BYTES);
+    }
+
+    /**
+     * Количество пар тел в контакте за последний шаг
+     */
+    public int getContactCount() {
+        return buffer.getInt(HEADER_CONTACT_COUNT * Integer.BYTES);
+    }
+
+    /**
+     * Количество активных тел, не спящих после последнего шага
+     */
+    public int getAwakeCount() {
+        return buffer.getInt(HEADER_AWAKE_COUNT * Integer.BYTES);
+    }
+
+    /**
+     * Количество спящих тел после последнего шага
+     */
+    public int getSleepingCount() {
+        return buffer.getInt(HEADER_SLEEPING_COUNT * Integer.BYTES);
+    }
+
+    /**
+     * Количество островов из бодрствующих тел за последний шаг
+     */
+    public int getIslandCount() {
+        return buffer.getInt(HEADER_ISLAND_COUNT * Integer.BYTES);
+    }
+
+    /**
+     * Время широкой фазы за последний шаг в наносекундах
+     */
+    public long getBroadphaseNanos() {
+        return buffer.getLong(HEADER_BROADPHASE_NANOS * Integer.BYTES);
+    }
+
+    /**
+     * Время последнего шага в наносекундах
+     */
+    public long getStepNanos() {
+        return buffer.getLong(HEADER_STEP_NANOS * Integer.BYTES);
+    }
+
+    /**
+     * Размер снимка тел в байтах (writeSnapshot): заголовок и массивы
+     * только занятой части буфера
+     */
+    public long snapshotSize() {
+        return snapshotSize(getCount());
+    }
+
+    /**
+     * Размер снимка из count тел в байтах
+     */
+    public static long snapshotSize(int count) {
+        return (HEADER_INTS + (long) ARRAY_COUNT * count) * Integer.BYTES;
+    }
+
+    /**
+     * Запись заголовка и массивов занятых тел в канал одним сборным вызовом
+     * прямо из блока памяти, без копирования и поэлементного чтения.
+     * Порядок байт - порядок байт платформы.
+     */
+    public void writeSnapshot(GatheringByteChannel channel) throws IOException {
+        ByteBuffer[] parts = snapshotParts(getCount());
+        long remaining = snapshotSize();
+        while (remaining > 0) {
+            remaining -= channel.write(parts);
+        }
+    }
+
+    /**
+     * Замена состояния тел count телами из канала (запись writeSnapshot).
+     * Данные читаются прямо в блок памяти; после чтения движку нужен resetBodies().
+     */
+    public void readSnapshot(ScatteringByteChannel channel, int count) throws IOException {
+        if (count < 0 || count > capacity) {
+            throw new IllegalArgumentException("Снимок из " + count + " тел не помещается в буфер вместимостью " + capacity);
+        }
+        ByteBuffer[] parts = snapshotParts(count);
+        long remaining = snapshotSize(count);
+        while (remaining > 0) {
+            long read = channel.read(parts);
+            if (read < 0) {
+                throw new EOFException("Снимок тел обрывается, не прочитано байт: " + remaining);
+            }
+            remaining -= read;
+        }
+        // Заголовок снимка несет вместимость и счетчики записавшего буфера
+        buffer.putInt(HEADER_CAPACITY * Integer.BYTES, capacity);
+        buffer.putInt(HEADER_COUNT * Integer.BYTES, count);
+    }
+
+    /**
+     * Срезы блока для снимка: заголовок и по срезу из count элементов на массив
+     */
+    private ByteBuffer[] snapshotParts(int count) {
+        ByteBuffer[] parts = new ByteBuffer[1 + ARRAY_COUNT];
+        parts[0] = buffer.slice(0, HEADER_INTS * Integer.BYTES);
+        for (int array = 0; array < ARRAY_COUNT; array++) {
+            parts[1 + array] = buffer.slice(offset(array, 0), count * Integer.BYTES);
+        }
+        return parts;
+    }
+
+    /**
+     * Вместимость буфера
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Представление массива int блока (REST_FRAMES, SLEEP_ISLAND) для движка на Java
+     */
+    IntBuffer intArray(int array) {
+        return buffer.slice(offset(array, 0), capacity * Integer.BYTES).order(buffer.order()).asIntBuffer();
+    }
+
+    /**
+     * Прямой буфер, разделяемый с нативной стороной
+     */
+    ByteBuffer getBuffer() {
+        return buffer;
+    }
+}
@@ -0,0 +1,97 @@
+package main.java.com.example.physics;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Интегрирование тел общего блока на Java: гравитация, перемещение
+ * и столкновение с плоскостью земли. Повторяет скалярное ядро integrator.c,
+ * результаты совпадают до бита.
+ */
+class BodyIntegrator {
+    // Константы физики (совпадают с world.c)
+    static final float GRAVITY = 9.81f;
+    static final float MAX_FALL_SPEED = 50.0f;
+    static final float BODY_RADIUS = 0.5f;
+    static final float GROUND_HEIGHT = 0.0f;
+    static final float RESTITUTION = 0.3f;
+    static final float FRICTION = 0.8f;
+
+    // Порог квадрата касательной скорости, ниже которого трение не применяется
+    static final float TANGENT_EPSILON_SQUARED = 0.0001f * 0.0001f;
+
+    /**
+     * Векторное ядро, если модуль jdk.incubator.vector подключен, иначе скалярное
+     */
+    static BodyIntegrator create() {
+        try {
+            return new VectorBodyIntegrator();
+        } catch (NoClassDefFoundError e) {
+            System.out.println("Vector API недоступен (--add-modules jdk.incubator.vector), "
+                + "используется скалярное ядро");
+            return new BodyIntegrator();
+        }
+    }
+
+    /**
+     * Интегрирование бодрствующих тел [begin, end)
+     */
+    void integrate(BodyBuffer bodies, int begin, int end, float deltaTime) {
+        ByteBuffer buffer = bodies.getBuffer();
+        int posX = bodies.offset(BodyBuffer.POS_X, 0);
+        int posY = bodies.offset(BodyBuffer.POS_Y, 0);
+        int posZ = bodies.offset(BodyBuffer.POS_Z, 0);
+        int velX = bodies.offset(BodyBuffer.VEL_X, 0);
+        int velY = bodies.offset(BodyBuffer.VEL_Y, 0);
+        int velZ = bodies.offset(BodyBuffer.VEL_Z, 0);
+        int flags = bodies.offset(BodyBuffer.FLAGS, 0);
+
+        float gravityStep = GRAVITY * deltaTime;
+        float minVelocity = -MAX_FALL_SPEED;
+        float contactHeight = GROUND_HEIGHT + BODY_RADIUS;
+        float bounce = -(1.0f + RESTITUTION);
+        int awakeMask = BodyBuffer.FLAG_ACTIVE | BodyBuffer.FLAG_SLEEPING;
+
+        for (int i = begin; i < end; i++) {
+            int at = i * Float.BYTES;
+            int bodyFlags = buffer.getInt(flags + at);
+            if ((bodyFlags & awakeMask) != BodyBuffer.FLAG_ACTIVE) {
+                continue;
+            }
+
+            float vy = buffer.getFloat(velY + at) - gravityStep;
+            vy = vy < minVelocity ? minVelocity : vy;
+            float vx = buffer.getFloat(velX + at);
+            float vz = buffer.getFloat(velZ + at);
+
+            float px = buffer.getFloat(posX + at) + vx * deltaTime;
+            float py = buffer.getFloat(posY + at) + vy * deltaTime;
+            float pz = buffer.getFloat(posZ + at) + vz * deltaTime;
+
+            float distance = py - GROUND_HEIGHT;
+            boolean contact = distance < BODY_RADIUS;
+            boolean resting = contact && vy <= 0.0f;
+            boolean sliding = resting && (vx * vx + vz * vz) > TANGENT_EPSILON_SQUARED;
+
+            py = contact ? contactHeight : py;
+            vy = resting ? vy + bounce * vy : vy;
+            vx = sliding ? vx - vx * FRICTION : vx;
+            vz = sliding ? vz - vz * FRICTION : vz;
+
+            buffer.putFloat(posX + at, px);
+            buffer.putFloat(posY + at, py);
+            buffer.putFloat(posZ + at, pz);
+            buffer.putFloat(velX + at, vx);
+            buffer.putFloat(velY + at, vy);
+            buffer.putFloat(velZ + at, vz);
+            buffer.putInt(flags + at,
+                (bodyFlags & ~BodyBuffer.FLAG_GROUNDED) | (contact ? BodyBuffer.FLAG_GROUNDED : 0));
+        }
+    }
+
+    /**
+     * Имя ядра для вывода
+     */
+    String getName() {
+        return "scalar";
+    }
+}
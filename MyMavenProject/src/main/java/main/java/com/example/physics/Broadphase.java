@@ -0,0 +1,257 @@
+package main.java.com.example.physics;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Широкая фаза движка на Java: пространственный хэш, перестраиваемый каждый шаг.
+ * Активные тела сортируются подсчетом по ячейкам таблицы, позиции копируются
+ * в массивы в том же порядке; пары ищутся внутри ячейки и в 13 "следующих"
+ * соседних ячейках, как в broadphase.c, поэтому каждая пара находится один раз.
+ * Пары из двух спящих тел пропускаются; когда спящих тел больше, чем бодрствующих,
+ * пары ищутся только от бодрствующих тел, которые спящих соседей ищут также
+ * в 13 "предыдущих" ячейках. Найденные пары сортируются по (a, b): порядок
+ * разрешения контактов зависит только от набора пар, а не от раскладки
+ * таблицы, и совпадает с broadphase.c.
+ */
+final class Broadphase {
+    // Смещения соседних ячеек, лексикографически больших (0, 0, 0)
+    private static final int[][] FORWARD_NEIGHBORS = {
+        {1, -1, -1}, {1, -1, 0}, {1, -1, 1},
+        {1, 0, -1}, {1, 0, 0}, {1, 0, 1},
+        {1, 1, -1}, {1, 1, 0}, {1, 1, 1},
+        {0, 1, -1}, {0, 1, 0}, {0, 1, 1},
+        {0, 0, 1}
+    };
+
+    private final float cellSize;
+    private final int mask;
+
+    // Начало тел каждой ячейки таблицы в отсортированных массивах (последний элемент - их количество)
+    private final int[] slotStart;
+
+    // Ячейка таблицы каждого тела
+    private final int[] bodySlot;
+
+    // Отсортированные по ячейкам тела: индекс, ключ ячейки и позиция
+    private final int[] order;
+    private final long[] sortedKey;
+    private final float[] sortedX;
+    private final float[] sortedY;
+    private final float[] sortedZ;
+    private final boolean[] sortedSleeping;
+
+    // Найденные пары (a < b), упакованные для сортировки: a в старших 32 битах
+    private long[] packedPairs = new long[1024];
+    private int[] pairA = new int[1024];
+    private int[] pairB = new int[1024];
+
+    Broadphase(int capacity, float cellSize) {
+        this.cellSize = cellSize;
+
+        // Таблица в 2 раза больше количества тел, размер - степень двойки
+        int tableSize = 1024;
+        while (tableSize < capacity * 2) {
+            tableSize <<= 1;
+        }
+        this.mask = tableSize - 1;
+        this.slotStart = new int[tableSize + 1];
+        this.bodySlot = new int[capacity];
+        this.order = new int[capacity];
+        this.sortedKey = new long[capacity];
+        this.sortedX = new float[capacity];
+        this.sortedY = new float[capacity];
+        this.sortedZ = new float[capacity];
+        this.sortedSleeping = new boolean[capacity];
+    }
+
+    /**
+     * Упаковка координат ячейки в ключ (по 21 биту на ось, как в broadphase.c)
+     */
+    private static long packKey(int cx, int cy, int cz) {
+        return ((long) (cx & 0x1FFFFF) << 42)
+            | ((long) (cy & 0x1FFFFF) << 21)
+            | (long) (cz & 0x1FFFFF);
+    }
+
+    /**
+     * Восстановление знаковой координаты ячейки из 21 бита ключа
+     */
+    private static int unpackAxis(long bits) {
+        int value = (int) (bits & 0x1FFFFF);
+        return value >= 0x100000 ? value - 0x200000 : value;
+    }
+
+    /**
+     * Ячейка таблицы по ключу
+     */
+    private int slot(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+
+    /**
+     * Поиск пар-кандидатов среди активных тел [0, count), возвращает количество пар
+     */
+    int update(BodyBuffer bodies, int count, float radius) {
+        ByteBuffer buffer = bodies.getBuffer();
+        int posX = bodies.offset(BodyBuffer.POS_X, 0);
+        int posY = bodies.offset(BodyBuffer.POS_Y, 0);
+        int posZ = bodies.offset(BodyBuffer.POS_Z, 0);
+        int flags = bodies.offset(BodyBuffer.FLAGS, 0);
+        float inverseCell = 1.0f / cellSize;
+        int tableSize = mask + 1;
+
+        // Подсчет тел в ячейках таблицы
+        Arrays.fill(slotStart, 0);
+        int awakeCount = 0;
+        int sleepingCount = 0;
+        for (int i = 0; i < count; i++) {
+            int at = i * Float.BYTES;
+            int bodyFlags = buffer.getInt(flags + at);
+            if ((bodyFlags & BodyBuffer.FLAG_ACTIVE) == 0) {
+                bodySlot[i] = -1;
+                continue;
+            }
+            if ((bodyFlags & BodyBuffer.FLAG_SLEEPING) != 0) {
+                sleepingCount++;
+            } else {
+                awakeCount++;
+            }
+            int slot = slot(cellKey(buffer, posX + at, posY + at, posZ + at, inverseCell));
+            bodySlot[i] = slot;
+            slotStart[slot]++;
+        }
+        for (int s = 1; s <= tableSize; s++) {
+            slotStart[s] += slotStart[s - 1];
+        }
+
+        // Размещение с конца: после него slotStart[s] указывает на начало ячейки,
+        // а тела внутри ячейки идут по возрастанию индекса
+        for (int i = count - 1; i >= 0; i--) {
+            int slot = bodySlot[i];
+            if (slot < 0) {
+                continue;
+            }
+            int at = i * Float.BYTES;
+            int position = --slotStart[slot];
+            order[position] = i;
+            sortedX[position] = buffer.getFloat(posX + at);
+            sortedY[position] = buffer.getFloat(posY + at);
+            sortedZ[position] = buffer.getFloat(posZ + at);
+            sortedKey[position] = cellKey(buffer, posX + at, posY + at, posZ + at, inverseCell);
+            sortedSleeping[position] = (buffer.getInt(flags + at) & BodyBuffer.FLAG_SLEEPING) != 0;
+        }
+
+        boolean fromAwake = awakeCount < sleepingCount;
+        float extent = 2.0f * radius;
+        int active = slotStart[tableSize];
+        int pairCount = 0;
+        for (int p = 0; p < active; p++) {
+            boolean sleeping = sortedSleeping[p];
+            if (sleeping && fromAwake) {
+                continue;
+            }
+            long key = sortedKey[p];
+            float x = sortedX[p];
+            float y = sortedY[p];
+            float z = sortedZ[p];
+
+            // Пары внутри ячейки: с телами после p, а от бодрствующего p - и со спящими до p.
+            // В таблице рядом могут лежать тела других ячеек
+            int slot = slot(key);
+            int slotEnd = slotStart[slot + 1];
+            for (int q = fromAwake ? slotStart[slot] : p + 1; q < slotEnd; q++) {
+                if (q != p && sortedKey[q] == key
+                    && (q > p ? !(sleeping && sortedSleeping[q]) : sortedSleeping[q])
+                    && overlaps(q, x, y, z, extent)) {
+                    pairCount = addPair(pairCount, order[p], order[q]);
+                }
+            }
+
+            // Пары с соседними ячейками: в "предыдущих" - только бодрствующего p со спящими
+            int cx = unpackAxis(key >> 42);
+            int cy = unpackAxis(key >> 21);
+            int cz = unpackAxis(key);
+            for (int[] offset : FORWARD_NEIGHBORS) {
+                pairCount = addNeighborPairs(pairCount, p,
+                    packKey(cx + offset[0], cy + offset[1], cz + offset[2]), false, extent);
+                if (fromAwake) {
+                    pairCount = addNeighborPairs(pairCount, p,
+                        packKey(cx - offset[0], cy - offset[1], cz - offset[2]), true, extent);
+                }
+            }
+        }
+
+        // Индексы неотрицательны, поэтому порядок упакованных пар - порядок (a, b)
+        Arrays.sort(packedPairs, 0, pairCount);
+        if (pairA.length < packedPairs.length) {
+            pairA = new int[packedPairs.length];
+            pairB = new int[packedPairs.length];
+        }
+        for (int i = 0; i < pairCount; i++) {
+            pairA[i] = (int) (packedPairs[i] >>> 32);
+            pairB[i] = (int) packedPairs[i];
+        }
+        return pairCount;
+    }
+
+    /**
+     * Пары тела p с телами соседней ячейки: из "предыдущей" (backward) - только со спящими,
+     * из "следующей" - кроме пар двух спящих тел
+     */
+    private int addNeighborPairs(int pairCount, int p, long neighbor, boolean backward, float extent) {
+        float x = sortedX[p];
+        float y = sortedY[p];
+        float z = sortedZ[p];
+        boolean sleeping = sortedSleeping[p];
+        int slot = slot(neighbor);
+        int end = slotStart[slot + 1];
+        for (int q = slotStart[slot]; q < end; q++) {
+            if (sortedKey[q] == neighbor && (backward ? sortedSleeping[q] : !(sleeping && sortedSleeping[q]))
+                && overlaps(q, x, y, z, extent)) {
+                pairCount = addPair(pairCount, order[p], order[q]);
+            }
+        }
+        return pairCount;
+    }
+
+    private static long cellKey(ByteBuffer buffer, int x, int y, int z, float inverseCell) {
+        return packKey(
+            (int) Math.floor(buffer.getFloat(x) * inverseCell),
+            (int) Math.floor(buffer.getFloat(y) * inverseCell),
+            (int) Math.floor(buffer.getFloat(z) * inverseCell)
+        );
+    }
+
+    private boolean overlaps(int q, float x, float y, float z, float extent) {
+        return Math.abs(sortedX[q] - x) < extent
+            && Math.abs(sortedY[q] - y) < extent
+            && Math.abs(sortedZ[q] - z) < extent;
+    }
+
+    private int addPair(int count, int a, int b) {
+        if (count == packedPairs.length) {
+            packedPairs = Arrays.copyOf(packedPairs, count * 2);
+        }
+        packedPairs[count] = ((long) Math.min(a, b) << 32) | Math.max(a, b);
+        return count + 1;
+    }
+
+    /**
+     * Первые тела найденных пар (действительны до следующего update)
+     */
+    int[] getPairA() {
+        return pairA;
+    }
+
+    /**
+     * Вторые тела найденных пар
+     */
+    int[] getPairB() {
+        return pairB;
+    }
+}
@@ -0,0 +1,211 @@
+package main.java.com.example.physics;
+
+import jdk.incubator.foreign.CLinker;
+import jdk.incubator.foreign.FunctionDescriptor;
+import jdk.incubator.foreign.MemoryAccess;
+import jdk.incubator.foreign.MemoryAddress;
+import jdk.incubator.foreign.MemorySegment;
+import jdk.incubator.foreign.ResourceScope;
+import jdk.incubator.foreign.SymbolLookup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+
+import static jdk.incubator.foreign.CLinker.C_FLOAT;
+import static jdk.incubator.foreign.CLinker.C_INT;
+import static jdk.incubator.foreign.CLinker.C_POINTER;
+
+/**
+ * Привязка к нативному движку через Foreign Function & Memory API (JDK 17: jdk.incubator.foreign).
+ * Вызываются обычные функции C из physics.h и world.h, без JNI-оберток;
+ * позиция игрока возвращается через заранее выделенный сегмент, без создания массивов.
+ *
+ * Требует запуска с --add-modules jdk.incubator.foreign --enable-native-access=ALL-UNNAMED.
+ */
+final class FfmPhysicsBinding implements PhysicsBinding {
+    private final MethodHandle initPhysics;
+    private final MethodHandle cleanupPhysics;
+    private final MethodHandle updatePhysics;
+    private final MethodHandle updatePlayerPhysics;
+    private final MethodHandle checkCollision;
+    private final MethodHandle registerWorld;
+    private final MethodHandle stepWorld;
+    private final MethodHandle resetWorld;
+    private final MethodHandle configureIntegrator;
+
+    // Сегмент для позиции игрока, живет до освобождения движка
+    private final ResourceScope scope = ResourceScope.newSharedScope();
+    private final MemorySegment playerPosition = MemorySegment.allocateNative(3 * Float.BYTES, scope);
+
+    // Адрес сегмента получается один раз: address() создает новый объект на каждый вызов
+    private final MemoryAddress playerPositionAddress = playerPosition.address();
+
+    /**
+     * Загрузка библиотеки и создание дескрипторов вызовов
+     */
+    FfmPhysicsBinding() {
+        PhysicsLibrary.load();
+        CLinker linker = CLinker.getInstance();
+        SymbolLookup lookup = SymbolLookup.loaderLookup();
+
+        initPhysics = downcall(linker, lookup, "initPhysics",
+            MethodType.methodType(void.class), FunctionDescriptor.ofVoid());
+        cleanupPhysics = downcall(linker, lookup, "cleanupPhysics",
+            MethodType.methodType(void.class), FunctionDescriptor.ofVoid());
+        updatePhysics = downcall(linker, lookup, "updatePhysics",
+            MethodType.methodType(void.class, float.class), FunctionDescriptor.ofVoid(C_FLOAT));
+        updatePlayerPhysics = downcall(linker, lookup, "updatePlayerPhysics",
+            MethodType.methodType(void.class,
+                float.class, float.class, float.class,
+                float.class, float.class, float.class,
+                float.class, MemoryAddress.class),
+            FunctionDescriptor.ofVoid(
+                C_FLOAT, C_FLOAT, C_FLOAT,
+                C_FLOAT, C_FLOAT, C_FLOAT,
+                C_FLOAT, C_POINTER));
+        checkCollision = downcall(linker, lookup, "checkCollision",
+            MethodType.methodType(int.class, float.class, float.class, float.class),
+            FunctionDescriptor.of(C_INT, C_FLOAT, C_FLOAT, C_FLOAT));
+        registerWorld = downcall(linker, lookup, "registerWorld",
+            MethodType.methodType(int.class, MemoryAddress.class, int.class),
+            FunctionDescriptor.of(C_INT, C_POINTER, C_INT));
+        stepWorld = downcall(linker, lookup, "stepWorld",
+            MethodType.methodType(int.class, float.class), FunctionDescriptor.of(C_INT, C_FLOAT));
+        resetWorld = downcall(linker, lookup, "resetWorld",
+            MethodType.methodType(void.class), FunctionDescriptor.ofVoid());
+        configureIntegrator = downcall(linker, lookup, "configureIntegrator",
+            MethodType.methodType(int.class, int.class), FunctionDescriptor.of(C_INT, C_INT));
+    }
+
+    private static MethodHandle downcall(CLinker linker, SymbolLookup lookup, String name,
+                                         MethodType type, FunctionDescriptor descriptor) {
+        MemoryAddress symbol = lookup.lookup(name)
+            .orElseThrow(() -> new IllegalStateException("Функция не найдена в libphysics: " + name));
+        return linker.downcallHandle(symbol, type, descriptor);
+    }
+
+    /**
+     * Ошибки нативного вызова не проверяются компилятором: оборачиваем их
+     */
+    private static RuntimeException rethrow(Throwable e) {
+        if (e instanceof RuntimeException) {
+            return (RuntimeException) e;
+        }
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+        return new RuntimeException("Ошибка вызова нативного движка", e);
+    }
+
+    @Override
+    public void initPhysics() {
+        try {
+            initPhysics.invokeExact();
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    @Override
+    public void cleanupPhysics() {
+        try {
+            cleanupPhysics.invokeExact();
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+        scope.close();
+    }
+
+    @Override
+    public void updatePhysics(float deltaTime) {
+        try {
+            updatePhysics.invokeExact(deltaTime);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    @Override
+    public void updatePlayerPhysics(
+        float posX, float posY, float posZ,
+        float velX, float velY, float velZ,
+        float deltaTime,
+        float[] dest
+    ) {
+        try {
+            updatePlayerPhysics.invokeExact(posX, posY, posZ, velX, velY, velZ, deltaTime,
+                playerPositionAddress);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+        dest[0] = MemoryAccess.getFloatAtIndex(playerPosition, 0);
+        dest[1] = MemoryAccess.getFloatAtIndex(playerPosition, 1);
+        dest[2] = MemoryAccess.getFloatAtIndex(playerPosition, 2);
+    }
+
+    @Override
+    public boolean checkCollision(float posX, float posY, float posZ) {
+        try {
+            return (int) checkCollision.invokeExact(posX, posY, posZ) != 0;
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    @Override
+    public void registerBodies(ByteBuffer buffer, int capacity) {
+        // Проверки, которые в JNI-обертке выполняет нативная сторона
+        if (!buffer.isDirect()) {
+            throw new IllegalArgumentException("Ожидается прямой ByteBuffer");
+        }
+        if (buffer.capacity() < BodyBuffer.memorySize(capacity)) {
+            throw new IllegalArgumentException("Размер буфера меньше требуемого для заданной вместимости");
+        }
+        int registered;
+        try {
+            registered = (int) registerWorld.invokeExact(MemorySegment.ofByteBuffer(buffer).address(), capacity);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+        if (registered == 0) {
+            throw new IllegalStateException("Не удалось выделить память для широкой фазы и островов");
+        }
+    }
+
+    @Override
+    public void stepBodies(float deltaTime) {
+        int stepped;
+        try {
+            stepped = (int) stepWorld.invokeExact(deltaTime);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+        if (stepped == 0) {
+            throw new IllegalStateException("Не удалось выделить память для широкой фазы");
+        }
+    }
+
+    @Override
+    public void resetBodies() {
+        try {
+            resetWorld.invokeExact();
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    @Override
+    public int setIntegratorThreads(int threads) {
+        try {
+            return (int) configureIntegrator.invokeExact(threads);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "ffm";
+    }
+}
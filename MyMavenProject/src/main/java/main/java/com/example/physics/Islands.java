@@ -0,0 +1,249 @@
+package main.java.com.example.physics;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * Засыпание тел и острова контактов движка на Java (повторяет islands.c).
+ * Тело готово уснуть, когда его энергия движения (v^2) ниже SLEEP_ENERGY
+ * SLEEP_FRAMES шагов подряд; остров из тел, связанных контактами за шаг,
+ * засыпает, когда готовы все его тела, и просыпается целиком.
+ */
+final class Islands {
+    // Порог энергии движения на единицу массы, м^2/с^2
+    static final float SLEEP_ENERGY = 0.01f;
+
+    // Количество шагов подряд ниже порога до засыпания
+    static final int SLEEP_FRAMES = 30;
+
+    // Нет тела / тело вне острова
+    private static final int NO_BODY = BodyBuffer.NO_ISLAND;
+
+    // Родитель в системе непересекающихся множеств (NO_BODY - тело не участвует в шаге)
+    private final int[] parent;
+
+    // Шагов подряд с энергией ниже порога (массив блока тел)
+    private final IntBuffer restFrames;
+
+    // Наименьшее restFrames среди тел острова (по корню)
+    private final int[] islandRestFrames;
+
+    // Спящий остров тела (корень на момент засыпания, массив блока тел) и список тел острова
+    private final IntBuffer sleepIsland;
+    private final int[] islandHead;
+    private final int[] islandNext;
+
+    // Счетчики последнего шага
+    private int awakeCount;
+    private int sleepingCount;
+    private int islandCount;
+
+    /**
+     * Конструктор: шаги покоя и спящие острова хранятся в блоке тел
+     * и сохраняются вместе с ним
+     */
+    Islands(BodyBuffer bodies) {
+        int capacity = bodies.getCapacity();
+        parent = new int[capacity];
+        restFrames = bodies.intArray(BodyBuffer.REST_FRAMES);
+        islandRestFrames = new int[capacity];
+        sleepIsland = bodies.intArray(BodyBuffer.SLEEP_ISLAND);
+        islandHead = new int[capacity];
+        islandNext = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            restFrames.put(i, 0);
+            sleepIsland.put(i, NO_BODY);
+        }
+        reset(0);
+    }
+
+    /**
+     * Восстановление списков спящих островов по массиву спящих островов
+     * после замены состояния count тел извне
+     */
+    void reset(int count) {
+        Arrays.fill(parent, NO_BODY);
+        Arrays.fill(islandHead, NO_BODY);
+        Arrays.fill(islandNext, NO_BODY);
+
+        // Списки строятся в том же порядке, что и при засыпании в endStep
+        for (int i = 0; i < parent.length; i++) {
+            int root = sleepIsland.get(i);
+            if (i >= count || root < 0 || root >= count) {
+                sleepIsland.put(i, NO_BODY);
+                continue;
+            }
+            islandNext[i] = islandHead[root];
+            islandHead[root] = i;
+        }
+    }
+
+    /**
+     * Корень множества со сжатием пути делением пополам
+     */
+    private int findRoot(int body) {
+        while (parent[body] != body) {
+            parent[body] = parent[parent[body]];
+            body = parent[body];
+        }
+        return body;
+    }
+
+    /**
+     * Пробуждение всех тел спящего острова
+     */
+    private void wakeIsland(BodyBuffer bodies, int island) {
+        int body = islandHead[island];
+        while (body != NO_BODY) {
+            int next = islandNext[body];
+            int flags = bodies.getFlags(body) & ~BodyBuffer.FLAG_SLEEPING;
+            bodies.setFlags(body, flags);
+            parent[body] = (flags & BodyBuffer.FLAG_ACTIVE) != 0 ? body : NO_BODY;
+            restFrames.put(body, 0);
+            sleepIsland.put(body, NO_BODY);
+            islandNext[body] = NO_BODY;
+            body = next;
+        }
+    }
+
+    /**
+     * Начало шага: будит острова, с тел которых флаг сна снят извне,
+     * и делает каждое бодрствующее тело отдельным островом
+     */
+    void beginStep(BodyBuffer bodies, int count) {
+        for (int i = 0; i < count; i++) {
+            if (sleepIsland.get(i) != NO_BODY && !bodies.isSleeping(i)) {
+                wakeIsland(bodies, sleepIsland.get(i));
+            }
+        }
+
+        int awakeMask = BodyBuffer.FLAG_ACTIVE | BodyBuffer.FLAG_SLEEPING;
+        for (int i = 0; i < count; i++) {
+            boolean awake = (bodies.getFlags(i) & awakeMask) == BodyBuffer.FLAG_ACTIVE;
+            parent[i] = awake ? i : NO_BODY;
+        }
+    }
+
+    /**
+     * Пробуждение тела вместе с его островом (тело в контакте с бодрствующим)
+     */
+    void wake(BodyBuffer bodies, int body) {
+        int flags = bodies.getFlags(body);
+        if ((flags & BodyBuffer.FLAG_SLEEPING) == 0) {
+            return;
+        }
+        if (sleepIsland.get(body) != NO_BODY) {
+            wakeIsland(bodies, sleepIsland.get(body));
+            return;
+        }
+        // Флаг сна выставлен извне, без острова
+        bodies.setFlags(body, flags & ~BodyBuffer.FLAG_SLEEPING);
+        parent[body] = (flags & BodyBuffer.FLAG_ACTIVE) != 0 ? body : NO_BODY;
+        restFrames.put(body, 0);
+    }
+
+    /**
+     * Объединение островов двух тел в контакте
+     */
+    void addContact(int a, int b) {
+        if (parent[a] == NO_BODY || parent[b] == NO_BODY) {
+            return;
+        }
+        int rootA = findRoot(a);
+        int rootB = findRoot(b);
+        if (rootA == rootB) {
+            return;
+        }
+        // Корнем становится меньший индекс: острова не зависят от порядка пар
+        if (rootA < rootB) {
+            parent[rootB] = rootA;
+        } else {
+            parent[rootA] = rootB;
+        }
+    }
+
+    /**
+     * Конец шага: счетчики шагов покоя и засыпание островов,
+     * у спящих тел скорость обнуляется
+     */
+    void endStep(BodyBuffer bodies, int count) {
+        awakeCount = 0;
+        sleepingCount = 0;
+        islandCount = 0;
+
+        // Шаги покоя каждого бодрствующего тела
+        for (int i = 0; i < count; i++) {
+            if (parent[i] == NO_BODY) {
+                int flags = bodies.getFlags(i);
+                if ((flags & BodyBuffer.FLAG_ACTIVE) != 0 && (flags & BodyBuffer.FLAG_SLEEPING) != 0) {
+                    sleepingCount++;
+                }
+                continue;
+            }
+            float vx = bodies.getVelocityX(i);
+            float vy = bodies.getVelocityY(i);
+            float vz = bodies.getVelocityZ(i);
+            float energy = vx * vx + vy * vy + vz * vz;
+            restFrames.put(i, energy < SLEEP_ENERGY ? restFrames.get(i) + 1 : 0);
+            islandRestFrames[i] = Integer.MAX_VALUE;
+            islandHead[i] = NO_BODY;
+        }
+
+        // Остров готов ко сну, когда готово его наименее спокойное тело
+        for (int i = 0; i < count; i++) {
+            if (parent[i] == NO_BODY) {
+                continue;
+            }
+            int root = findRoot(i);
+            parent[i] = root;
+            if (root == i) {
+                islandCount++;
+            }
+            islandRestFrames[root] = Math.min(islandRestFrames[root], restFrames.get(i));
+        }
+
+        // Засыпание готовых островов: тела собираются в список по корню.
+        // Скорость записывается напрямую, чтобы не снять только что выставленный флаг сна
+        ByteBuffer buffer = bodies.getBuffer();
+        for (int i = 0; i < count; i++) {
+            int root = parent[i];
+            if (root == NO_BODY) {
+                continue;
+            }
+            if (islandRestFrames[root] < SLEEP_FRAMES) {
+                awakeCount++;
+                continue;
+            }
+            bodies.setFlags(i, bodies.getFlags(i) | BodyBuffer.FLAG_SLEEPING);
+            buffer.putFloat(bodies.offset(BodyBuffer.VEL_X, i), 0.0f);
+            buffer.putFloat(bodies.offset(BodyBuffer.VEL_Y, i), 0.0f);
+            buffer.putFloat(bodies.offset(BodyBuffer.VEL_Z, i), 0.0f);
+            sleepIsland.put(i, root);
+            islandNext[i] = islandHead[root];
+            islandHead[root] = i;
+            sleepingCount++;
+        }
+    }
+
+    /**
+     * Активные тела, не спящие после последнего шага
+     */
+    int getAwakeCount() {
+        return awakeCount;
+    }
+
+    /**
+     * Спящие тела после последнего шага
+     */
+    int getSleepingCount() {
+        return sleepingCount;
+    }
+
+    /**
+     * Острова из бодрствующих тел за последний шаг
+     */
+    int getIslandCount() {
+        return islandCount;
+    }
+}
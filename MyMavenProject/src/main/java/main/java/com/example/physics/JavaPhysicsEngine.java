@@ -0,0 +1,350 @@
+package main.java.com.example.physics;
+
+import main.java.com.example.profiling.FrameProfiler;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Физический движок на Java, повторяющий physics.c и world.c.
+ * Не требует нативной библиотеки и не платит за переход в нативный код;
+ * тела интегрируются через Vector API, если модуль jdk.incubator.vector подключен.
+ */
+public class JavaPhysicsEngine implements PhysicsEngine {
+    private static final float EPSILON = 0.0001f;
+
+    // Параметры игрока (совпадают с initPhysics в physics.c)
+    private static final float PLAYER_RESTITUTION = 0.3f;
+    private static final float PLAYER_FRICTION = 0.8f;
+
+    // Плоскость земли: нормаль и расстояние от начала координат
+    private static final float GROUND_NORMAL_X = 0.0f;
+    private static final float GROUND_NORMAL_Y = 1.0f;
+    private static final float GROUND_NORMAL_Z = 0.0f;
+    private static final float GROUND_DISTANCE = 0.0f;
+
+    // Состояние игрока
+    private float positionX;
+    private float positionY;
+    private float positionZ;
+    private float velocityX;
+    private float velocityY;
+    private float velocityZ;
+
+    private final BodyIntegrator integrator = BodyIntegrator.create();
+
+    // Блок тел в куче, широкая фаза и острова для него
+    private BodyBuffer bodies;
+    private Broadphase broadphase;
+    private Islands islands;
+
+    // Профилировщик вызовов движка (null - без замеров)
+    private FrameProfiler profiler;
+
+    @Override
+    public void init() {
+        positionX = 0.0f;
+        positionY = 1.0f;
+        positionZ = 0.0f;
+        velocityX = 0.0f;
+        velocityY = 0.0f;
+        velocityZ = 0.0f;
+        System.out.println("Физический движок на Java инициализирован, ядро: " + integrator.getName());
+    }
+
+    @Override
+    public String getBackend() {
+        return "java";
+    }
+
+    @Override
+    public void setProfiler(FrameProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * Применение гравитации к игроку
+     */
+    private void applyGravity(float deltaTime) {
+        // v = v0 + a * t
+        velocityY += -BodyIntegrator.GRAVITY * deltaTime;
+
+        // Ограничение максимальной скорости падения
+        if (velocityY < -BodyIntegrator.MAX_FALL_SPEED) {
+            velocityY = -BodyIntegrator.MAX_FALL_SPEED;
+        }
+    }
+
+    /**
+     * Проверка коллизии с плоскостью земли: глубина проникновения или 0
+     */
+    private static float checkPlaneCollision(float posX, float posY, float posZ) {
+        // Расстояние от объекта до плоскости
+        float distance = posX * GROUND_NORMAL_X + posY * GROUND_NORMAL_Y + posZ * GROUND_NORMAL_Z
+            - GROUND_DISTANCE;
+
+        // Если расстояние меньше радиуса объекта, то есть коллизия
+        if (distance < BodyIntegrator.BODY_RADIUS) {
+            return BodyIntegrator.BODY_RADIUS - distance;
+        }
+        return 0.0f;
+    }
+
+    /**
+     * Разрешение коллизии игрока с плоскостью земли
+     */
+    private void resolveCollision(float penetration) {
+        // Корректировка позиции
+        positionX += GROUND_NORMAL_X * penetration;
+        positionY += GROUND_NORMAL_Y * penetration;
+        positionZ += GROUND_NORMAL_Z * penetration;
+
+        // Если объекты уже разлетаются, не применяем импульс
+        float velocityAlongNormal = dot(velocityX, velocityY, velocityZ);
+        if (velocityAlongNormal > 0) {
+            return;
+        }
+
+        // Импульс с учетом коэффициента упругости
+        float j = -(1.0f + PLAYER_RESTITUTION) * velocityAlongNormal;
+        velocityX += GROUND_NORMAL_X * j;
+        velocityY += GROUND_NORMAL_Y * j;
+        velocityZ += GROUND_NORMAL_Z * j;
+
+        // Тангенциальная составляющая скорости
+        float vDotN = dot(velocityX, velocityY, velocityZ);
+        float tangentX = velocityX - GROUND_NORMAL_X * vDotN;
+        float tangentY = velocityY - GROUND_NORMAL_Y * vDotN;
+        float tangentZ = velocityZ - GROUND_NORMAL_Z * vDotN;
+
+        float tangentLength = (float) Math.sqrt(
+            tangentX * tangentX + tangentY * tangentY + tangentZ * tangentZ);
+
+        if (tangentLength > EPSILON) {
+            tangentX /= tangentLength;
+            tangentY /= tangentLength;
+            tangentZ /= tangentLength;
+
+            // Применение трения
+            float frictionMagnitude =
+                -(velocityX * tangentX + velocityY * tangentY + velocityZ * tangentZ) * PLAYER_FRICTION;
+            velocityX += tangentX * frictionMagnitude;
+            velocityY += tangentY * frictionMagnitude;
+            velocityZ += tangentZ * frictionMagnitude;
+        }
+    }
+
+    /**
+     * Скалярное произведение с нормалью земли
+     */
+    private static float dot(float x, float y, float z) {
+        return x * GROUND_NORMAL_X + y * GROUND_NORMAL_Y + z * GROUND_NORMAL_Z;
+    }
+
+    private void updatePlayer(float deltaTime) {
+        applyGravity(deltaTime);
+
+        positionX += velocityX * deltaTime;
+        positionY += velocityY * deltaTime;
+        positionZ += velocityZ * deltaTime;
+
+        float penetration = checkPlaneCollision(positionX, positionY, positionZ);
+        if (penetration > 0.0f) {
+            resolveCollision(penetration);
+        }
+    }
+
+    @Override
+    public void update(float deltaTime) {
+        if (profiler == null) {
+            updatePlayer(deltaTime);
+            return;
+        }
+        long start = System.nanoTime();
+        updatePlayer(deltaTime);
+        profiler.mark(FrameProfiler.Stage.JNI_UPDATE, start);
+    }
+
+    @Override
+    public void updatePlayerPosition(
+        float posX, float posY, float posZ,
+        float velX, float velY, float velZ,
+        float deltaTime,
+        float[] dest
+    ) {
+        long start = profiler != null ? System.nanoTime() : 0L;
+
+        positionX = posX;
+        positionY = posY;
+        positionZ = posZ;
+        velocityX = velX;
+        velocityY = velY;
+        velocityZ = velZ;
+
+        updatePlayer(deltaTime);
+
+        dest[0] = positionX;
+        dest[1] = positionY;
+        dest[2] = positionZ;
+
+        if (profiler != null) {
+            profiler.mark(FrameProfiler.Stage.JNI_PLAYER, start);
+        }
+    }
+
+    @Override
+    public boolean isColliding(float posX, float posY, float posZ) {
+        if (profiler == null) {
+            return checkPlaneCollision(posX, posY, posZ) > 0.0f;
+        }
+        long start = System.nanoTime();
+        boolean result = checkPlaneCollision(posX, posY, posZ) > 0.0f;
+        profiler.mark(FrameProfiler.Stage.JNI_COLLISION, start);
+        return result;
+    }
+
+    /**
+     * Создание блока тел в куче: векторное ядро читает и пишет его byte[] напрямую
+     */
+    @Override
+    public BodyBuffer createBodies(int capacity) {
+        bodies = new BodyBuffer(capacity, false);
+        // Размер ячейки сетки равен диаметру тела
+        broadphase = new Broadphase(capacity, 2.0f * BodyIntegrator.BODY_RADIUS);
+        islands = new Islands(bodies);
+        return bodies;
+    }
+
+    @Override
+    public void step(float deltaTime) {
+        if (bodies == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        stepBodies(deltaTime, start);
+        if (profiler != null) {
+            profiler.mark(FrameProfiler.Stage.JNI_STEP, start);
+        }
+    }
+
+    @Override
+    public void resetBodies() {
+        // Сетка широкой фазы перестраивается каждый шаг, восстанавливаются только списки островов
+        if (islands != null) {
+            islands.reset(bodies.getCount());
+        }
+    }
+
+    /**
+     * Шаг всех тел, как stepWorld в world.c: интегрирование бодрствующих тел,
+     * широкая фаза, столкновения тел-сфер, засыпание островов и счетчики в заголовке блока
+     */
+    private void stepBodies(float deltaTime, long stepStart) {
+        ByteBuffer buffer = bodies.getBuffer();
+        int count = Math.min(bodies.getCount(), bodies.getCapacity());
+
+        // Тела, разбуженные через BodyBuffer, будят свои острова
+        islands.beginStep(bodies, count);
+
+        integrator.integrate(bodies, 0, count, deltaTime);
+
+        long broadphaseStart = System.nanoTime();
+        int pairCount = broadphase.update(bodies, count, BodyIntegrator.BODY_RADIUS);
+        long broadphaseEnd = System.nanoTime();
+
+        int[] pairA = broadphase.getPairA();
+        int[] pairB = broadphase.getPairB();
+        int contactCount = 0;
+        for (int i = 0; i < pairCount; i++) {
+            contactCount += resolveBodyContact(buffer, pairA[i], pairB[i]);
+        }
+
+        // Засыпание островов, остававшихся в покое Islands.SLEEP_FRAMES шагов
+        islands.endStep(bodies, count);
+
+        buffer.putInt(BodyBuffer.HEADER_PAIR_COUNT * Integer.BYTES, pairCount);
+        buffer.putInt(BodyBuffer.HEADER_CONTACT_COUNT * Integer.BYTES, contactCount);
+        buffer.putInt(BodyBuffer.HEADER_AWAKE_COUNT * Integer.BYTES, islands.getAwakeCount());
+        buffer.putInt(BodyBuffer.HEADER_SLEEPING_COUNT * Integer.BYTES, islands.getSleepingCount());
+        buffer.putInt(BodyBuffer.HEADER_ISLAND_COUNT * Integer.BYTES, islands.getIslandCount());
+        buffer.putLong(BodyBuffer.HEADER_BROADPHASE_NANOS * Integer.BYTES, broadphaseEnd - broadphaseStart);
+        buffer.putLong(BodyBuffer.HEADER_STEP_NANOS * Integer.BYTES, System.nanoTime() - stepStart);
+    }
+
+    /**
+     * Разрешение столкновения двух тел-сфер одинаковой массы, возвращает 1 при контакте
+     */
+    private int resolveBodyContact(ByteBuffer buffer, int a, int b) {
+        int posX = bodies.offset(BodyBuffer.POS_X, 0);
+        int posY = bodies.offset(BodyBuffer.POS_Y, 0);
+        int posZ = bodies.offset(BodyBuffer.POS_Z, 0);
+        int velX = bodies.offset(BodyBuffer.VEL_X, 0);
+        int velY = bodies.offset(BodyBuffer.VEL_Y, 0);
+        int velZ = bodies.offset(BodyBuffer.VEL_Z, 0);
+        int atA = a * Float.BYTES;
+        int atB = b * Float.BYTES;
+
+        float dx = buffer.getFloat(posX + atB) - buffer.getFloat(posX + atA);
+        float dy = buffer.getFloat(posY + atB) - buffer.getFloat(posY + atA);
+        float dz = buffer.getFloat(posZ + atB) - buffer.getFloat(posZ + atA);
+        float distanceSquared = dx * dx + dy * dy + dz * dz;
+        float minDistance = 2.0f * BodyIntegrator.BODY_RADIUS;
+
+        if (distanceSquared >= minDistance * minDistance) {
+            return 0;
+        }
+
+        // Бодрствующее тело будит спящее вместе с его островом
+        islands.wake(bodies, a);
+        islands.wake(bodies, b);
+        islands.addContact(a, b);
+
+        // Нормаль контакта от a к b
+        float distance = (float) Math.sqrt(distanceSquared);
+        float nx = 0.0f;
+        float ny = 1.0f;
+        float nz = 0.0f;
+        if (distance > EPSILON) {
+            nx = dx / distance;
+            ny = dy / distance;
+            nz = dz / distance;
+        }
+
+        // Разведение тел поровну
+        float correction = (minDistance - distance) * 0.5f;
+        add(buffer, posX + atA, -nx * correction);
+        add(buffer, posY + atA, -ny * correction);
+        add(buffer, posZ + atA, -nz * correction);
+        add(buffer, posX + atB, nx * correction);
+        add(buffer, posY + atB, ny * correction);
+        add(buffer, posZ + atB, nz * correction);
+
+        // Импульс, если тела сближаются
+        float relativeVelocity =
+            (buffer.getFloat(velX + atB) - buffer.getFloat(velX + atA)) * nx
+            + (buffer.getFloat(velY + atB) - buffer.getFloat(velY + atA)) * ny
+            + (buffer.getFloat(velZ + atB) - buffer.getFloat(velZ + atA)) * nz;
+        if (relativeVelocity < 0.0f) {
+            float j = -(1.0f + BodyIntegrator.RESTITUTION) * relativeVelocity * 0.5f;
+            add(buffer, velX + atA, -nx * j);
+            add(buffer, velY + atA, -ny * j);
+            add(buffer, velZ + atA, -nz * j);
+            add(buffer, velX + atB, nx * j);
+            add(buffer, velY + atB, ny * j);
+            add(buffer, velZ + atB, nz * j);
+        }
+
+        return 1;
+    }
+
+    private static void add(ByteBuffer buffer, int offset, float value) {
+        buffer.putFloat(offset, buffer.getFloat(offset) + value);
+    }
+
+    @Override
+    public void cleanup() {
+        bodies = null;
+        broadphase = null;
+        islands = null;
+        System.out.println("Физический движок на Java освобожден");
+    }
+}
@@ -0,0 +1,86 @@
+package main.java.com.example.physics;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Привязка к нативному движку через JNI (заголовок main_java_com_example_physics_JniPhysicsBinding.h)
+ */
+final class JniPhysicsBinding implements PhysicsBinding {
+    static {
+        PhysicsLibrary.load();
+    }
+
+    // Нативные методы
+    private native void initNative();
+    private native void cleanupNative();
+    private native void updateNative(float deltaTime);
+    private native float[] updatePlayerNative(
+        float posX, float posY, float posZ,
+        float velX, float velY, float velZ,
+        float deltaTime
+    );
+    private native boolean checkCollisionNative(float posX, float posY, float posZ);
+    private native void registerBodiesNative(ByteBuffer buffer, int capacity);
+    private native void stepBodiesNative(float deltaTime);
+    private native void resetBodiesNative();
+    private native int setIntegratorThreadsNative(int threads);
+
+    @Override
+    public void initPhysics() {
+        initNative();
+    }
+
+    @Override
+    public void cleanupPhysics() {
+        cleanupNative();
+    }
+
+    @Override
+    public void updatePhysics(float deltaTime) {
+        updateNative(deltaTime);
+    }
+
+    @Override
+    public void updatePlayerPhysics(
+        float posX, float posY, float posZ,
+        float velX, float velY, float velZ,
+        float deltaTime,
+        float[] dest
+    ) {
+        // Нативная сторона возвращает новый массив на каждый вызов
+        float[] result = updatePlayerNative(posX, posY, posZ, velX, velY, velZ, deltaTime);
+        dest[0] = result[0];
+        dest[1] = result[1];
+        dest[2] = result[2];
+    }
+
+    @Override
+    public boolean checkCollision(float posX, float posY, float posZ) {
+        return checkCollisionNative(posX, posY, posZ);
+    }
+
+    @Override
+    public void registerBodies(ByteBuffer buffer, int capacity) {
+        registerBodiesNative(buffer, capacity);
+    }
+
+    @Override
+    public void stepBodies(float deltaTime) {
+        stepBodiesNative(deltaTime);
+    }
+
+    @Override
+    public void resetBodies() {
+        resetBodiesNative();
+    }
+
+    @Override
+    public int setIntegratorThreads(int threads) {
+        return setIntegratorThreadsNative(threads);
+    }
+
+    @Override
+    public String getName() {
+        return "jni";
+    }
+}
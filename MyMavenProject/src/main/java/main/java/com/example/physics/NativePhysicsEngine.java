@@ -0,0 +1,177 @@
+package main.java.com.example.physics;
+
+import main.java.com.example.profiling.FrameProfiler;
+
+/**
+ * Физический движок на C. Нативные функции вызываются
+ * через JNI или через Foreign Function & Memory API.
+ */
+public class NativePhysicsEngine implements PhysicsEngine {
+    // Количество потоков интегрирования тел в нативном движке
+    private static final int THREADS = Integer.getInteger("physics.threads", 1);
+
+    // Коды ошибок integratorSetThreads (integrator.h)
+    private static final int INTEGRATOR_ERROR_MEMORY = -1;
+    private static final int INTEGRATOR_ERROR_THREAD = -2;
+
+    private final PhysicsBinding binding;
+
+    // Общий с нативной стороной блок тел
+    private BodyBuffer bodies;
+
+    // Профилировщик вызовов нативного движка (null - без замеров)
+    private FrameProfiler profiler;
+
+    /**
+     * Конструктор с заданной привязкой: "jni" или "ffm"
+     */
+    public NativePhysicsEngine(String backend) {
+        // Без библиотеки первый же нативный вызов завершил бы игру
+        if (!PhysicsLibrary.load()) {
+            throw new IllegalStateException("Нативная библиотека физического движка не загружена");
+        }
+        this.binding = createBinding(backend);
+    }
+
+    /**
+     * Загружена ли нативная библиотека физического движка
+     */
+    public static boolean isAvailable() {
+        return PhysicsLibrary.load();
+    }
+
+    private static PhysicsBinding createBinding(String backend) {
+        switch (backend) {
+            case "jni":
+                return new JniPhysicsBinding();
+            case "ffm":
+                try {
+                    return new FfmPhysicsBinding();
+                } catch (NoClassDefFoundError | IllegalCallerException e) {
+                    // Модуль инкубатора не подключен или нативный доступ не разрешен
+                    throw new IllegalStateException("Привязка ffm требует запуска с "
+                        + "--add-modules jdk.incubator.foreign --enable-native-access=ALL-UNNAMED", e);
+                }
+            default:
+                throw new IllegalArgumentException("Неизвестная привязка физического движка: " + backend);
+        }
+    }
+
+    /**
+     * Инициализация физического движка
+     */
+    @Override
+    public void init() {
+        binding.initPhysics();
+        int applied = binding.setIntegratorThreads(THREADS);
+        // Движок продолжает работу с потоками, успевшими запуститься
+        if (applied == INTEGRATOR_ERROR_MEMORY) {
+            System.err.println("Не удалось выделить память для потоков интегрирования: запрошено " + THREADS);
+        } else if (applied == INTEGRATOR_ERROR_THREAD) {
+            System.err.println("Не удалось создать все потоки интегрирования: запрошено " + THREADS);
+        }
+    }
+
+    /**
+     * Имя привязки к нативному движку: "jni" или "ffm"
+     */
+    @Override
+    public String getBackend() {
+        return binding.getName();
+    }
+
+    /**
+     * Подключение профилировщика: длительность каждого вызова нативного
+     * движка записывается в его гистограммы (null отключает замеры)
+     */
+    @Override
+    public void setProfiler(FrameProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * Обновление физики
+     */
+    @Override
+    public void update(float deltaTime) {
+        if (profiler == null) {
+            binding.updatePhysics(deltaTime);
+            return;
+        }
+        long start = System.nanoTime();
+        binding.updatePhysics(deltaTime);
+        profiler.mark(FrameProfiler.Stage.JNI_UPDATE, start);
+    }
+
+    /**
+     * Обновление позиции игрока с учетом физики; позиция записывается в dest[0..2]
+     */
+    @Override
+    public void updatePlayerPosition(
+        float posX, float posY, float posZ,
+        float velX, float velY, float velZ,
+        float deltaTime,
+        float[] dest
+    ) {
+        if (profiler == null) {
+            binding.updatePlayerPhysics(posX, posY, posZ, velX, velY, velZ, deltaTime, dest);
+            return;
+        }
+        long start = System.nanoTime();
+        binding.updatePlayerPhysics(posX, posY, posZ, velX, velY, velZ, deltaTime, dest);
+        profiler.mark(FrameProfiler.Stage.JNI_PLAYER, start);
+    }
+
+    /**
+     * Проверка коллизии
+     */
+    @Override
+    public boolean isColliding(float posX, float posY, float posZ) {
+        if (profiler == null) {
+            return binding.checkCollision(posX, posY, posZ);
+        }
+        long start = System.nanoTime();
+        boolean result = binding.checkCollision(posX, posY, posZ);
+        profiler.mark(FrameProfiler.Stage.JNI_COLLISION, start);
+        return result;
+    }
+
+    /**
+     * Создание общего блока тел и его регистрация в нативном движке.
+     * После этого состояние тел читается и пишется на месте через BodyBuffer,
+     * а step() продвигает весь мир одним вызовом.
+     */
+    @Override
+    public BodyBuffer createBodies(int capacity) {
+        bodies = new BodyBuffer(capacity);
+        binding.registerBodies(bodies.getBuffer(), capacity);
+        return bodies;
+    }
+
+    /**
+     * Шаг симуляции всех тел общего блока
+     */
+    @Override
+    public void step(float deltaTime) {
+        if (profiler == null) {
+            binding.stepBodies(deltaTime);
+            return;
+        }
+        long start = System.nanoTime();
+        binding.stepBodies(deltaTime);
+        profiler.mark(FrameProfiler.Stage.JNI_STEP, start);
+    }
+
+    @Override
+    public void resetBodies() {
+        binding.resetBodies();
+    }
+
+    /**
+     * Освобождение ресурсов
+     */
+    @Override
+    public void cleanup() {
+        binding.cleanupPhysics();
+    }
+}
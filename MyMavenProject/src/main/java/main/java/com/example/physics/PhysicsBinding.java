@@ -0,0 +1,54 @@
+package main.java.com.example.physics;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Привязка к функциям нативного физического движка (physics.h, world.h, integrator.h).
+ * Реализации различаются только способом вызова: JNI или Foreign Function API.
+ */
+interface PhysicsBinding {
+    void initPhysics();
+
+    void cleanupPhysics();
+
+    void updatePhysics(float deltaTime);
+
+    /**
+     * Обновление игрока; новая позиция записывается в dest[0..2]
+     */
+    void updatePlayerPhysics(
+        float posX, float posY, float posZ,
+        float velX, float velY, float velZ,
+        float deltaTime,
+        float[] dest
+    );
+
+    boolean checkCollision(float posX, float posY, float posZ);
+
+    /**
+     * Регистрация общего блока тел (прямой буфер раскладки BodyBuffer);
+     * IllegalStateException, если движку не хватило памяти
+     */
+    void registerBodies(ByteBuffer buffer, int capacity);
+
+    /**
+     * Шаг общего блока тел; IllegalStateException, если движку не хватило памяти
+     */
+    void stepBodies(float deltaTime);
+
+    /**
+     * Сброс состояния движка после замены содержимого блока тел
+     */
+    void resetBodies();
+
+    /**
+     * Количество потоков интегрирования тел, возвращает установленное значение
+     * или отрицательный код ошибки (INTEGRATOR_ERROR_* в integrator.h)
+     */
+    int setIntegratorThreads(int threads);
+
+    /**
+     * Имя привязки для вывода
+     */
+    String getName();
+}
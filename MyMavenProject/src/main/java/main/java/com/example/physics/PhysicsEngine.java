@@ -1,76 +1,110 @@
 package main.java.com.example.physics;
 
+import main.java.com.example.profiling.FrameProfiler;
+
 /**
- * Класс для взаимодействия с физическим движком на C
+ * Физический движок: игрок, проверка коллизий и общий блок тел.
+ * Реализация выбирается свойством physics.backend:
+ * auto (по умолчанию), jni, ffm или java.
  */
-public class PhysicsEngine {
-    // Загрузка нативной библиотеки
-    static {
-        try {
-            // Сначала пробуем загрузить библиотеку по имени
-            System.loadLibrary("physics");
-        } catch (UnsatisfiedLinkError e1) {
-            try {
-                // Если не получилось, пробуем загрузить с полным путем
-                String userDir = System.getProperty("user.dir");
-                String libPath = userDir + "/target/natives/libphysics.so";
-                System.load(libPath);
-                System.out.println("Загружена библиотека: " + libPath);
-            } catch (UnsatisfiedLinkError e2) {
-                System.err.println("Не удалось загрузить нативную библиотеку: " + e2.getMessage());
-                System.err.println("java.library.path: " + System.getProperty("java.library.path"));
-                System.err.println("user.dir: " + System.getProperty("user.dir"));
-            }
-        }
+public interface PhysicsEngine {
+    /**
+     * Движок из свойства physics.backend
+     */
+    static PhysicsEngine create() {
+        return create(System.getProperty("physics.backend", "auto"));
     }
 
-    // Нативные методы
-    private native void initPhysics();
-    private native void cleanupPhysics();
-    private native float[] updatePhysics(float deltaTime);
-    private native float[] updatePlayerPhysics(
-        float posX, float posY, float posZ,
-        float velX, float velY, float velZ,
-        float deltaTime
-    );
-    private native boolean checkCollision(float posX, float posY, float posZ);
+    /**
+     * Движок по имени: "jni" или "ffm" - нативный, "java" - на Java,
+     * "auto" - нативный через JNI, а без нативной библиотеки - на Java
+     */
+    static PhysicsEngine create(String backend) {
+        switch (backend) {
+            case "auto":
+                if (NativePhysicsEngine.isAvailable()) {
+                    return new NativePhysicsEngine("jni");
+                }
+                System.out.println("Нативная библиотека недоступна, используется физический движок на Java");
+                return new JavaPhysicsEngine();
+            case "jni":
+            case "ffm":
+                return new NativePhysicsEngine(backend);
+            case "java":
+                return new JavaPhysicsEngine();
+            default:
+                throw new IllegalArgumentException("Неизвестная реализация физического движка: " + backend);
+        }
+    }
 
     /**
      * Инициализация физического движка
      */
-    public void init() {
-        initPhysics();
-    }
+    void init();
+
+    /**
+     * Имя реализации для вывода
+     */
+    String getBackend();
+
+    /**
+     * Подключение профилировщика: длительность каждого вызова
+     * движка записывается в его гистограммы (null отключает замеры)
+     */
+    void setProfiler(FrameProfiler profiler);
 
     /**
      * Обновление физики
      */
-    public void update(float deltaTime) {
-        updatePhysics(deltaTime);
-    }
+    void update(float deltaTime);
 
     /**
-     * Обновление позиции игрока с учетом физики
+     * Обновление позиции игрока с учетом физики (возвращает новый массив)
      */
-    public float[] updatePlayerPosition(
+    default float[] updatePlayerPosition(
         float posX, float posY, float posZ,
         float velX, float velY, float velZ,
         float deltaTime
     ) {
-        return updatePlayerPhysics(posX, posY, posZ, velX, velY, velZ, deltaTime);
+        float[] result = new float[3];
+        updatePlayerPosition(posX, posY, posZ, velX, velY, velZ, deltaTime, result);
+        return result;
     }
 
+    /**
+     * Обновление позиции игрока с учетом физики; позиция записывается в dest[0..2]
+     */
+    void updatePlayerPosition(
+        float posX, float posY, float posZ,
+        float velX, float velY, float velZ,
+        float deltaTime,
+        float[] dest
+    );
+
     /**
      * Проверка коллизии
      */
-    public boolean isColliding(float posX, float posY, float posZ) {
-        return checkCollision(posX, posY, posZ);
-    }
+    boolean isColliding(float posX, float posY, float posZ);
+
+    /**
+     * Создание общего блока тел. Состояние тел читается и пишется
+     * на месте через BodyBuffer, а step() продвигает весь мир.
+     */
+    BodyBuffer createBodies(int capacity);
+
+    /**
+     * Шаг симуляции всех тел общего блока
+     */
+    void step(float deltaTime);
+
+    /**
+     * Сброс внутреннего состояния движка (сетка широкой фазы, острова) после того,
+     * как содержимое блока тел заменено целиком, например при загрузке снимка
+     */
+    void resetBodies();
 
     /**
      * Освобождение ресурсов
      */
-    public void cleanup() {
-        cleanupPhysics();
-    }
+    void cleanup();
 }
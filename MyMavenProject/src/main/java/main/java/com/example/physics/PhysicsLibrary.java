@@ -0,0 +1,42 @@
+package main.java.com.example.physics;
+
+/**
+ * Загрузка нативной библиотеки физического движка (общая для всех привязок)
+ */
+final class PhysicsLibrary {
+    private static boolean attempted;
+    private static boolean loaded;
+
+    private PhysicsLibrary() {
+    }
+
+    /**
+     * Загрузка libphysics (повторные вызовы только возвращают результат первой попытки).
+     * Возвращает false, если библиотеку загрузить не удалось.
+     */
+    static synchronized boolean load() {
+        if (attempted) {
+            return loaded;
+        }
+        attempted = true;
+        try {
+            // Сначала пробуем загрузить библиотеку по имени
+            System.loadLibrary("physics");
+            loaded = true;
+        } catch (UnsatisfiedLinkError e1) {
+            try {
+                // Если не получилось, пробуем загрузить с полным путем
+                String userDir = System.getProperty("user.dir");
+                String libPath = userDir + "/target/natives/libphysics.so";
+                System.load(libPath);
+                loaded = true;
+                System.out.println("Загружена библиотека: " + libPath);
+            } catch (UnsatisfiedLinkError e2) {
+                System.err.println("Не удалось загрузить нативную библиотеку: " + e2.getMessage());
+                System.err.println("java.library.path: " + System.getProperty("java.library.path"));
+                System.err.println("user.dir: " + System.getProperty("user.dir"));
+            }
+        }
+        return loaded;
+    }
+}
@@ -0,0 +1,100 @@
+package main.java.com.example.physics;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Интегрирование тел через Vector API (JDK 17: jdk.incubator.vector)
+ * по FloatVector.SPECIES_PREFERRED тел за итерацию, как ядро AVX2 в integrator.c.
+ * Работает поверх byte[] блока в куче; прямой блок и хвост обрабатываются скалярно.
+ */
+final class VectorBodyIntegrator extends BodyIntegrator {
+    private static final VectorSpecies<Float> FLOATS = FloatVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final ByteOrder ORDER = ByteOrder.nativeOrder();
+
+    @Override
+    void integrate(BodyBuffer bodies, int begin, int end, float deltaTime) {
+        ByteBuffer buffer = bodies.getBuffer();
+        if (!buffer.hasArray() || FLOATS.length() != INTS.length()) {
+            super.integrate(bodies, begin, end, deltaTime);
+            return;
+        }
+
+        byte[] memory = buffer.array();
+        int base = buffer.arrayOffset();
+        int posX = base + bodies.offset(BodyBuffer.POS_X, 0);
+        int posY = base + bodies.offset(BodyBuffer.POS_Y, 0);
+        int posZ = base + bodies.offset(BodyBuffer.POS_Z, 0);
+        int velX = base + bodies.offset(BodyBuffer.VEL_X, 0);
+        int velY = base + bodies.offset(BodyBuffer.VEL_Y, 0);
+        int velZ = base + bodies.offset(BodyBuffer.VEL_Z, 0);
+        int flags = base + bodies.offset(BodyBuffer.FLAGS, 0);
+
+        float gravityStep = GRAVITY * deltaTime;
+        float minVelocity = -MAX_FALL_SPEED;
+        float contactHeight = GROUND_HEIGHT + BODY_RADIUS;
+        float bounce = -(1.0f + RESTITUTION);
+
+        int lanes = FLOATS.length();
+        int i = begin;
+        for (; i + lanes <= end; i += lanes) {
+            int at = i * Float.BYTES;
+
+            IntVector oldFlags = IntVector.fromByteArray(INTS, memory, flags + at, ORDER);
+            VectorMask<Integer> activeInts = oldFlags
+                .and(BodyBuffer.FLAG_ACTIVE | BodyBuffer.FLAG_SLEEPING)
+                .compare(VectorOperators.EQ, BodyBuffer.FLAG_ACTIVE);
+            VectorMask<Float> active = activeInts.cast(FLOATS);
+
+            FloatVector oldPx = FloatVector.fromByteArray(FLOATS, memory, posX + at, ORDER);
+            FloatVector oldPy = FloatVector.fromByteArray(FLOATS, memory, posY + at, ORDER);
+            FloatVector oldPz = FloatVector.fromByteArray(FLOATS, memory, posZ + at, ORDER);
+            FloatVector oldVx = FloatVector.fromByteArray(FLOATS, memory, velX + at, ORDER);
+            FloatVector oldVy = FloatVector.fromByteArray(FLOATS, memory, velY + at, ORDER);
+            FloatVector oldVz = FloatVector.fromByteArray(FLOATS, memory, velZ + at, ORDER);
+
+            FloatVector vy = oldVy.sub(gravityStep).max(minVelocity);
+            FloatVector px = oldPx.add(oldVx.mul(deltaTime));
+            FloatVector py = oldPy.add(vy.mul(deltaTime));
+            FloatVector pz = oldPz.add(oldVz.mul(deltaTime));
+
+            VectorMask<Float> contact = py.sub(GROUND_HEIGHT).compare(VectorOperators.LT, BODY_RADIUS);
+            VectorMask<Float> resting = contact.and(vy.compare(VectorOperators.LE, 0.0f));
+            FloatVector tangent = oldVx.mul(oldVx).add(oldVz.mul(oldVz));
+            VectorMask<Float> sliding = resting.and(tangent.compare(VectorOperators.GT, TANGENT_EPSILON_SQUARED));
+
+            py = py.blend(contactHeight, contact);
+            vy = vy.add(vy.mul(bounce), resting);
+            FloatVector vx = oldVx.sub(oldVx.mul(FRICTION), sliding);
+            FloatVector vz = oldVz.sub(oldVz.mul(FRICTION), sliding);
+
+            // Неактивные и спящие тела сохраняют прежние значения
+            oldPx.blend(px, active).intoByteArray(memory, posX + at, ORDER);
+            oldPy.blend(py, active).intoByteArray(memory, posY + at, ORDER);
+            oldPz.blend(pz, active).intoByteArray(memory, posZ + at, ORDER);
+            oldVx.blend(vx, active).intoByteArray(memory, velX + at, ORDER);
+            oldVy.blend(vy, active).intoByteArray(memory, velY + at, ORDER);
+            oldVz.blend(vz, active).intoByteArray(memory, velZ + at, ORDER);
+
+            IntVector cleared = oldFlags.and(~BodyBuffer.FLAG_GROUNDED);
+            oldFlags
+                .blend(cleared, activeInts)
+                .blend(cleared.or(BodyBuffer.FLAG_GROUNDED), contact.cast(INTS).and(activeInts))
+                .intoByteArray(memory, flags + at, ORDER);
+        }
+
+        super.integrate(bodies, i, end, deltaTime);
+    }
+
+    @Override
+    String getName() {
+        return "vector(" + FLOATS.length() + ")";
+    }
+}
@@ -0,0 +1,40 @@
+package main.java.com.example.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Событие JFR с длительностями этапов одного кадра
+ */
+@Name("main.java.com.example.Frame")
+@Label("Кадр")
+@Category({"Игра", "Кадр"})
+@Description("Длительности этапов игрового цикла за кадр")
+class FrameEvent extends jdk.jfr.Event {
+    @Label("Ввод")
+    @Timespan(Timespan.NANOSECONDS)
+    long input;
+
+    @Label("Логика")
+    @Timespan(Timespan.NANOSECONDS)
+    long logic;
+
+    @Label("Отправка рендеринга")
+    @Timespan(Timespan.NANOSECONDS)
+    long render;
+
+    @Label("Ожидание обмена буферов")
+    @Timespan(Timespan.NANOSECONDS)
+    long swap;
+
+    @Label("Опрос событий")
+    @Timespan(Timespan.NANOSECONDS)
+    long events;
+
+    @Label("Кадр целиком")
+    @Timespan(Timespan.NANOSECONDS)
+    long frame;
+}
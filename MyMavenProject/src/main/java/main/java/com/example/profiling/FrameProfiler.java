@@ -0,0 +1,108 @@
+package main.java.com.example.profiling;
+
+/**
+ * Профилировщик кадра: длительности этапов игрового цикла, шагов симуляции
+ * и вызовов нативного физического движка в гистограммах без выделения памяти.
+ *
+ * Каждый этап записывается одним потоком: этапы кадра - потоком окна,
+ * шаг симуляции и вызовы JNI - потоком симуляции.
+ */
+public class FrameProfiler {
+    /**
+     * Измеряемые этапы
+     */
+    public enum Stage {
+        // Этапы кадра (поток окна)
+        INPUT("input"),
+        LOGIC("logic"),
+        RENDER("render"),
+        SWAP("swap"),
+        EVENTS("events"),
+        FRAME("frame"),
+        // Возраст снимка симуляции в момент рендеринга (поток окна)
+        SNAPSHOT_AGE("snapshot.age"),
+        // От самого раннего события ввода кадра до обмена буферов (поток окна)
+        INPUT_LATENCY("input.latency"),
+        // Шаг симуляции (поток симуляции)
+        TICK("tick"),
+        // Вызовы нативного физического движка
+        JNI_UPDATE("jni.update"),
+        JNI_PLAYER("jni.updatePlayer"),
+        JNI_COLLISION("jni.checkCollision"),
+        JNI_STEP("jni.step");
+
+        private final String label;
+
+        Stage(String label) {
+            this.label = label;
+        }
+
+        /**
+         * Имя этапа в выводе
+         */
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    // Кэш значений перечисления (values() каждый раз создает новый массив)
+    static final Stage[] STAGES = Stage.values();
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[STAGES.length];
+
+    // Длительности этапов последнего кадра для события JFR
+    private final long[] lastNanos = new long[STAGES.length];
+
+    /**
+     * Конструктор
+     */
+    public FrameProfiler() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Запись длительности этапа
+     */
+    public void record(Stage stage, long nanos) {
+        histograms[stage.ordinal()].record(nanos);
+        lastNanos[stage.ordinal()] = nanos;
+    }
+
+    /**
+     * Запись этапа, начавшегося в startNanos и закончившегося сейчас.
+     * Возвращает текущее время - начало следующего этапа.
+     */
+    public long mark(Stage stage, long startNanos) {
+        long now = System.nanoTime();
+        record(stage, now - startNanos);
+        return now;
+    }
+
+    /**
+     * Завершение кадра: запись общей длительности и событие JFR с этапами
+     */
+    public void endFrame(long frameStartNanos, long frameEndNanos) {
+        record(Stage.FRAME, frameEndNanos - frameStartNanos);
+
+        // При выключенной записи JFR объект события устраняется компилятором
+        FrameEvent event = new FrameEvent();
+        if (event.shouldCommit()) {
+            event.input = lastNanos[Stage.INPUT.ordinal()];
+            event.logic = lastNanos[Stage.LOGIC.ordinal()];
+            event.render = lastNanos[Stage.RENDER.ordinal()];
+            event.swap = lastNanos[Stage.SWAP.ordinal()];
+            event.events = lastNanos[Stage.EVENTS.ordinal()];
+            event.frame = lastNanos[Stage.FRAME.ordinal()];
+            event.commit();
+        }
+    }
+
+    /**
+     * Гистограмма этапа (накопленная с начала работы)
+     */
+    public LatencyHistogram getHistogram(Stage stage) {
+        return histograms[stage.ordinal()];
+    }
+}
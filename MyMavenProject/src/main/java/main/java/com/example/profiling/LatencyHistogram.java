@@ -0,0 +1,146 @@
+package main.java.com.example.profiling;
+
+import java.util.Arrays;
+
+/**
+ * Гистограмма длительностей в наносекундах с логарифмически-линейными корзинами.
+ * Значения до 64 нс хранятся точно, дальше каждая степень двойки делится
+ * на 32 корзины (погрешность не больше ~3%). Запись не выделяет память.
+ *
+ * Писать в гистограмму должен один поток. Чтение из другого потока
+ * (для периодического вывода) допускается: отдельные счетчики могут
+ * отставать на несколько записей, что для статистики несущественно.
+ */
+public class LatencyHistogram {
+    // Точность: 2^SUB_BUCKET_BITS корзин в первой группе, половина - в остальных
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT / 2;
+
+    // Наибольшее различимое значение - 2^40 нс (около 18 минут), большие попадают в последнюю корзину
+    private static final int MAX_VALUE_BITS = 40;
+    private static final int GROUP_COUNT = MAX_VALUE_BITS - SUB_BUCKET_BITS + 2;
+    private static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (GROUP_COUNT - 1) * SUB_BUCKET_HALF;
+
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long totalCount;
+    private long sum;
+    private long max;
+
+    /**
+     * Запись длительности в наносекундах (отрицательные значения считаются нулем)
+     */
+    public void record(long nanos) {
+        long value = Math.max(0L, nanos);
+        counts[bucketIndex(value)]++;
+        totalCount++;
+        sum += value;
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * Индекс корзины для значения
+     */
+    private static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        // Группа g > 0 содержит значения [32 * 2^g, 64 * 2^g) с шагом 2^g
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int group = exponent - SUB_BUCKET_BITS + 1;
+        int index = SUB_BUCKET_COUNT + (group - 1) * SUB_BUCKET_HALF
+            + (int) (value >>> group) - SUB_BUCKET_HALF;
+        return Math.min(index, BUCKET_COUNT - 1);
+    }
+
+    /**
+     * Середина диапазона значений корзины
+     */
+    private static long bucketValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int group = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_HALF + 1;
+        long sub = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_HALF + SUB_BUCKET_HALF;
+        return (sub << group) + (1L << (group - 1));
+    }
+
+    /**
+     * Значение перцентиля в наносекундах (fraction от 0 до 1), 0 для пустой гистограммы
+     */
+    public long getPercentile(double fraction) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long target = Math.max(1L, (long) Math.ceil(fraction * totalCount));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(bucketValue(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Количество записей
+     */
+    public long getCount() {
+        return totalCount;
+    }
+
+    /**
+     * Наибольшее записанное значение в наносекундах
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Среднее значение в наносекундах
+     */
+    public double getMean() {
+        return totalCount == 0 ? 0.0 : (double) sum / totalCount;
+    }
+
+    /**
+     * Копирование состояния другой гистограммы
+     */
+    public void copyFrom(LatencyHistogram other) {
+        System.arraycopy(other.counts, 0, counts, 0, BUCKET_COUNT);
+        totalCount = other.totalCount;
+        sum = other.sum;
+        max = other.max;
+    }
+
+    /**
+     * Разность двух накопленных гистограмм (записи за интервал между снимками).
+     * Точный максимум интервала неизвестен и оценивается по старшей непустой корзине.
+     */
+    public void setDifference(LatencyHistogram current, LatencyHistogram previous) {
+        totalCount = 0;
+        max = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = Math.max(0L, current.counts[i] - previous.counts[i]);
+            counts[i] = count;
+            totalCount += count;
+            if (count > 0) {
+                max = Math.min(bucketValue(i), current.max);
+            }
+        }
+        sum = current.sum - previous.sum;
+    }
+
+    /**
+     * Сброс всех записей
+     */
+    public void reset() {
+        Arrays.fill(counts, 0L);
+        totalCount = 0;
+        sum = 0;
+        max = 0;
+    }
+}
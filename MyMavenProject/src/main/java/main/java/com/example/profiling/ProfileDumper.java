@@ -0,0 +1,154 @@
+package main.java.com.example.profiling;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Периодический вывод гистограмм профилировщика в файл в отдельном потоке.
+ * Каждая запись содержит статистику за интервал с предыдущего вывода.
+ * Формат определяется расширением: ".json" - JSON по объекту в строке, иначе CSV.
+ */
+public class ProfileDumper implements Runnable {
+    private final FrameProfiler profiler;
+    private final Path path;
+    private final long intervalNanos;
+    private final boolean json;
+
+    // Снимки накопленных гистограмм на момент предыдущего вывода и разность за интервал
+    private final LatencyHistogram[] snapshots = new LatencyHistogram[FrameProfiler.STAGES.length];
+    private final LatencyHistogram[] current = new LatencyHistogram[FrameProfiler.STAGES.length];
+    private final LatencyHistogram interval = new LatencyHistogram();
+
+    private BufferedWriter writer;
+    private volatile boolean running;
+    private Thread thread;
+
+    /**
+     * Конструктор
+     *
+     * @param intervalMillis интервал вывода в миллисекундах
+     */
+    public ProfileDumper(FrameProfiler profiler, Path path, long intervalMillis) {
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("Интервал вывода должен быть положительным: " + intervalMillis);
+        }
+        this.profiler = profiler;
+        this.path = path;
+        this.intervalNanos = intervalMillis * 1_000_000L;
+        this.json = path.getFileName().toString().endsWith(".json");
+        for (int i = 0; i < snapshots.length; i++) {
+            snapshots[i] = new LatencyHistogram();
+            current[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Открытие файла и запуск потока вывода
+     */
+    public void start() {
+        try {
+            writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            if (!json) {
+                writer.write("timeMillis,stage,count,meanMicros,p50Micros,p99Micros,p999Micros,maxMicros");
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Не удалось открыть файл профиля: " + path, e);
+        }
+
+        running = true;
+        thread = new Thread(this, "profile-dump");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Остановка потока с выводом последнего интервала и закрытием файла
+     */
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        long next = System.nanoTime() + intervalNanos;
+        try {
+            while (running) {
+                long now = System.nanoTime();
+                if (now < next) {
+                    LockSupport.parkNanos(next - now);
+                    continue;
+                }
+                dump();
+                next += intervalNanos;
+            }
+            dump();
+        } catch (IOException e) {
+            System.err.println("Ошибка записи профиля: " + e.getMessage());
+        } finally {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                System.err.println("Ошибка закрытия файла профиля: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Вывод статистики всех этапов за прошедший интервал
+     */
+    private void dump() throws IOException {
+        long timeMillis = System.currentTimeMillis();
+        for (FrameProfiler.Stage stage : FrameProfiler.STAGES) {
+            int i = stage.ordinal();
+
+            // Копия, чтобы все значения интервала были согласованы между собой
+            current[i].copyFrom(profiler.getHistogram(stage));
+            interval.setDifference(current[i], snapshots[i]);
+            snapshots[i].copyFrom(current[i]);
+
+            if (interval.getCount() == 0) {
+                continue;
+            }
+            writeLine(timeMillis, stage.getLabel(), interval);
+        }
+        writer.flush();
+    }
+
+    /**
+     * Запись строки статистики этапа
+     */
+    private void writeLine(long timeMillis, String stage, LatencyHistogram histogram) throws IOException {
+        double mean = histogram.getMean() / 1000.0;
+        double p50 = histogram.getPercentile(0.50) / 1000.0;
+        double p99 = histogram.getPercentile(0.99) / 1000.0;
+        double p999 = histogram.getPercentile(0.999) / 1000.0;
+        double max = histogram.getMax() / 1000.0;
+
+        if (json) {
+            writer.write(String.format(Locale.ROOT,
+                "{\"timeMillis\":%d,\"stage\":\"%s\",\"count\":%d,\"meanMicros\":%.1f,"
+                    + "\"p50Micros\":%.1f,\"p99Micros\":%.1f,\"p999Micros\":%.1f,\"maxMicros\":%.1f}",
+                timeMillis, stage, histogram.getCount(), mean, p50, p99, p999, max));
+        } else {
+            writer.write(String.format(Locale.ROOT, "%d,%s,%d,%.1f,%.1f,%.1f,%.1f,%.1f",
+                timeMillis, stage, histogram.getCount(), mean, p50, p99, p999, max));
+        }
+        writer.newLine();
+    }
+}
@@ -0,0 +1,27 @@
+package main.java.com.example.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Событие JFR для одного шага симуляции (длительность - время шага)
+ */
+@Name("main.java.com.example.SimulationTick")
+@Label("Шаг симуляции")
+@Category({"Игра", "Симуляция"})
+@Description("Шаг симуляции с фиксированной частотой")
+public class SimulationTickEvent extends jdk.jfr.Event {
+    @Label("Номер шага")
+    public long tick;
+
+    @Label("Пары широкой фазы")
+    public int pairs;
+
+    @Label("Контакты")
+    public int contacts;
+
+    @Label("Спящие тела")
+    public int sleeping;
+}
@@ -7,6 +7,9 @@ import org.joml.Vector3f;
  * Класс для управления камерой
  */
 public class Camera {
+    // Направление "вверх" в мире
+    private static final Vector3f WORLD_UP = new Vector3f(0.0f, 1.0f, 0.0f);
+
     private Vector3f position;
     private Vector3f front;
     private Vector3f up;
@@ -22,6 +25,10 @@ public class Camera {
     private float lastY;
     private boolean firstMouse;
 
+    // Матрица вида и точка взгляда переиспользуются между кадрами
+    private final Matrix4f viewMatrix = new Matrix4f();
+    private final Vector3f target = new Vector3f();
+
     /**
      * Конструктор
      */
@@ -42,12 +49,13 @@ public class Camera {
     }
 
     /**
-     * Получение матрицы вида
+     * Получение матрицы вида.
+     * Возвращается матрица, принадлежащая камере: она перезаписывается при следующем вызове.
      */
     public Matrix4f getViewMatrix() {
-        return new Matrix4f().lookAt(
+        return viewMatrix.setLookAt(
             position,
-            new Vector3f(position).add(front),
+            position.add(front, target),
             up
         );
     }
@@ -59,6 +67,13 @@ public class Camera {
         this.position = position;
     }
 
+    /**
+     * Установка позиции камеры без замены вектора
+     */
+    public void setPosition(float x, float y, float z) {
+        position.set(x, y, z);
+    }
+
     /**
      * Получение позиции камеры
      */
@@ -87,6 +102,20 @@ public class Camera {
         return up;
     }
 
+    /**
+     * Угол поворота камеры в градусах
+     */
+    public float getYaw() {
+        return yaw;
+    }
+
+    /**
+     * Угол наклона камеры в градусах
+     */
+    public float getPitch() {
+        return pitch;
+    }
+
     /**
      * Обработка движения мыши
      */
@@ -152,7 +181,7 @@ public class Camera {
         front.normalize();
 
         // Расчет векторов right и up
-        right = new Vector3f(front).cross(new Vector3f(0.0f, 1.0f, 0.0f)).normalize();
-        up = new Vector3f(right).cross(front).normalize();
+        front.cross(WORLD_UP, right).normalize();
+        right.cross(front, up).normalize();
     }
 }
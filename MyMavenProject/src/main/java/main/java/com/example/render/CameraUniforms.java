@@ -0,0 +1,74 @@
+package main.java.com.example.render;
+
+import org.joml.Matrix4f;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL31;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.FloatBuffer;
+
+/**
+ * Общий uniform-буфер с матрицами проекции и вида.
+ * Обновляется один раз за кадр и используется всеми шейдерными программами рендерера.
+ *
+ * Раскладка std140 в шейдере:
+ * layout (std140) uniform Camera { mat4 projection; mat4 view; };
+ */
+public class CameraUniforms {
+    // Имя uniform-блока в шейдерах и его точка привязки
+    public static final String BLOCK_NAME = "Camera";
+    public static final int BINDING_POINT = 0;
+
+    // Объявление блока для вставки в исходный код шейдеров
+    public static final String GLSL_BLOCK =
+        "layout (std140) uniform " + BLOCK_NAME + " {\n" +
+        "    mat4 projection;\n" +
+        "    mat4 view;\n" +
+        "};\n";
+
+    private static final int MATRIX_FLOATS = 16;
+
+    private final int uboId;
+    private final FloatBuffer data;
+
+    /**
+     * Конструктор: создание буфера и привязка к точке BINDING_POINT
+     */
+    public CameraUniforms() {
+        data = MemoryUtil.memAllocFloat(2 * MATRIX_FLOATS);
+
+        uboId = GL15.glGenBuffers();
+        GL15.glBindBuffer(GL31.GL_UNIFORM_BUFFER, uboId);
+        GL15.glBufferData(GL31.GL_UNIFORM_BUFFER, (long) data.capacity() * Float.BYTES, GL15.GL_DYNAMIC_DRAW);
+        GL15.glBindBuffer(GL31.GL_UNIFORM_BUFFER, 0);
+
+        GL30.glBindBufferBase(GL31.GL_UNIFORM_BUFFER, BINDING_POINT, uboId);
+    }
+
+    /**
+     * Подключение uniform-блока шейдерной программы к общему буферу
+     */
+    public void attach(ShaderProgram program) {
+        program.bindUniformBlock(BLOCK_NAME, BINDING_POINT);
+    }
+
+    /**
+     * Загрузка матриц кадра в буфер (два вызова OpenGL)
+     */
+    public void update(Matrix4f projection, Matrix4f view) {
+        projection.get(0, data);
+        view.get(MATRIX_FLOATS, data);
+
+        GL15.glBindBuffer(GL31.GL_UNIFORM_BUFFER, uboId);
+        GL15.glBufferSubData(GL31.GL_UNIFORM_BUFFER, 0, data);
+    }
+
+    /**
+     * Освобождение ресурсов
+     */
+    public void cleanup() {
+        GL15.glDeleteBuffers(uboId);
+        MemoryUtil.memFree(data);
+    }
+}
@@ -0,0 +1,119 @@
+package main.java.com.example.render;
+
+import org.joml.FrustumIntersection;
+
+/**
+ * Разбиение квадратной области мира на чанки с ограничивающими объемами.
+ * Чанки нумеруются построчно: index = z * chunksPerSide + x.
+ * Не зависит от OpenGL.
+ */
+public class ChunkGrid {
+    private final int chunksPerSide;
+    private final float chunkSize;
+
+    // Угол области с наименьшими координатами
+    private final float originX;
+    private final float originZ;
+
+    // Высота ограничивающих объемов по чанкам (XZ задаются сеткой)
+    private final float[] minY;
+    private final float[] maxY;
+
+    /**
+     * Конструктор
+     *
+     * @param worldSize размер квадратной области с центром в начале координат
+     * @param chunkSize размер стороны чанка
+     */
+    public ChunkGrid(float worldSize, float chunkSize) {
+        if (worldSize <= 0.0f || chunkSize <= 0.0f) {
+            throw new IllegalArgumentException("Размеры мира и чанка должны быть положительными");
+        }
+        this.chunksPerSide = Math.max(1, (int) Math.ceil(worldSize / chunkSize));
+        this.chunkSize = chunkSize;
+        this.originX = -chunksPerSide * chunkSize / 2.0f;
+        this.originZ = -chunksPerSide * chunkSize / 2.0f;
+        this.minY = new float[chunksPerSide * chunksPerSide];
+        this.maxY = new float[chunksPerSide * chunksPerSide];
+    }
+
+    /**
+     * Индекс чанка, содержащего точку (точки вне области относятся к крайним чанкам)
+     */
+    public int chunkIndexAt(float x, float z) {
+        int cx = clamp((int) Math.floor((x - originX) / chunkSize));
+        int cz = clamp((int) Math.floor((z - originZ) / chunkSize));
+        return cz * chunksPerSide + cx;
+    }
+
+    private int clamp(int cell) {
+        return Math.max(0, Math.min(cell, chunksPerSide - 1));
+    }
+
+    /**
+     * Расширение ограничивающего объема чанка по высоте
+     */
+    public void includeHeight(int chunk, float y) {
+        if (y < minY[chunk]) {
+            minY[chunk] = y;
+        }
+        if (y > maxY[chunk]) {
+            maxY[chunk] = y;
+        }
+    }
+
+    /**
+     * Отбор чанков, пересекающих пирамиду видимости.
+     * Индексы видимых чанков записываются в visible по возрастанию.
+     *
+     * @return количество видимых чанков
+     */
+    public int cull(FrustumIntersection frustum, int[] visible, RenderStats stats) {
+        int visibleCount = 0;
+        int chunkCount = getChunkCount();
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            float minX = getMinX(chunk);
+            float minZ = getMinZ(chunk);
+            if (frustum.testAab(minX, minY[chunk], minZ, minX + chunkSize, maxY[chunk], minZ + chunkSize)) {
+                visible[visibleCount++] = chunk;
+            }
+        }
+        stats.chunks(chunkCount, visibleCount);
+        return visibleCount;
+    }
+
+    /**
+     * Количество чанков
+     */
+    public int getChunkCount() {
+        return chunksPerSide * chunksPerSide;
+    }
+
+    /**
+     * Количество чанков вдоль стороны области
+     */
+    public int getChunksPerSide() {
+        return chunksPerSide;
+    }
+
+    /**
+     * Размер стороны чанка
+     */
+    public float getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Наименьшая координата X чанка
+     */
+    public float getMinX(int chunk) {
+        return originX + (chunk % chunksPerSide) * chunkSize;
+    }
+
+    /**
+     * Наименьшая координата Z чанка
+     */
+    public float getMinZ(int chunk) {
+        return originZ + (chunk / chunksPerSide) * chunkSize;
+    }
+}
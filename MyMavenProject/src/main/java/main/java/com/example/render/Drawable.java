@@ -0,0 +1,16 @@
+package main.java.com.example.render;
+
+/**
+ * Отрисовка, отправленная в очередь рендеринга. Программа, VAO, смешивание
+ * и тест глубины уже установлены очередью по ключу; draw выполняет
+ * только вызовы отрисовки и изменения, специфичные для элемента.
+ */
+public interface Drawable {
+    /**
+     * Выполнение отрисовки
+     *
+     * @param param значение, переданное при отправке в очередь
+     * @param state кэш состояния для привязки буферов
+     */
+    void draw(int param, GLStateCache state);
+}
@@ -0,0 +1,134 @@
+package main.java.com.example.render;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL40;
+
+/**
+ * Кэш состояния OpenGL: вызов выполняется, только если он меняет состояние.
+ * Верен, пока все изменения отслеживаемого состояния во время кадра проходят через него;
+ * после прямых вызовов OpenGL нужно вызвать invalidate().
+ */
+public class GLStateCache {
+    // Значение "состояние неизвестно": первый вызов всегда доходит до OpenGL
+    private static final int UNKNOWN = -1;
+
+    private final RenderStats stats;
+
+    private int program = UNKNOWN;
+    private int vertexArray = UNKNOWN;
+    private int arrayBuffer = UNKNOWN;
+    private int indirectBuffer = UNKNOWN;
+    private int blend = UNKNOWN;
+    private int depthTest = UNKNOWN;
+
+    /**
+     * Конструктор
+     */
+    public GLStateCache(RenderStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * Сброс кэша: следующие вызовы выполняются безусловно
+     */
+    public void invalidate() {
+        program = UNKNOWN;
+        vertexArray = UNKNOWN;
+        arrayBuffer = UNKNOWN;
+        indirectBuffer = UNKNOWN;
+        blend = UNKNOWN;
+        depthTest = UNKNOWN;
+    }
+
+    /**
+     * Установка текущей шейдерной программы
+     */
+    public void useProgram(int programId) {
+        if (program == programId) {
+            stats.stateSkipped();
+            return;
+        }
+        GL20.glUseProgram(programId);
+        program = programId;
+        stats.stateChange();
+    }
+
+    /**
+     * Привязка VAO. Буфер индексов - часть состояния VAO, а буфер вершин нет,
+     * поэтому кэш привязки GL_ARRAY_BUFFER не сбрасывается.
+     */
+    public void bindVertexArray(int vaoId) {
+        if (vertexArray == vaoId) {
+            stats.stateSkipped();
+            return;
+        }
+        GL30.glBindVertexArray(vaoId);
+        vertexArray = vaoId;
+        stats.stateChange();
+    }
+
+    /**
+     * Привязка буфера GL_ARRAY_BUFFER
+     */
+    public void bindArrayBuffer(int bufferId) {
+        if (arrayBuffer == bufferId) {
+            stats.stateSkipped();
+            return;
+        }
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, bufferId);
+        arrayBuffer = bufferId;
+        stats.stateChange();
+    }
+
+    /**
+     * Привязка буфера команд косвенной отрисовки
+     */
+    public void bindIndirectBuffer(int bufferId) {
+        if (indirectBuffer == bufferId) {
+            stats.stateSkipped();
+            return;
+        }
+        GL15.glBindBuffer(GL40.GL_DRAW_INDIRECT_BUFFER, bufferId);
+        indirectBuffer = bufferId;
+        stats.stateChange();
+    }
+
+    /**
+     * Включение или выключение смешивания (функция смешивания одна на всю сцену)
+     */
+    public void setBlend(boolean enabled) {
+        int value = enabled ? 1 : 0;
+        if (blend == value) {
+            stats.stateSkipped();
+            return;
+        }
+        if (enabled) {
+            GL11.glEnable(GL11.GL_BLEND);
+        } else {
+            GL11.glDisable(GL11.GL_BLEND);
+        }
+        blend = value;
+        stats.stateChange();
+    }
+
+    /**
+     * Включение или выключение теста глубины
+     */
+    public void setDepthTest(boolean enabled) {
+        int value = enabled ? 1 : 0;
+        if (depthTest == value) {
+            stats.stateSkipped();
+            return;
+        }
+        if (enabled) {
+            GL11.glEnable(GL11.GL_DEPTH_TEST);
+        } else {
+            GL11.glDisable(GL11.GL_DEPTH_TEST);
+        }
+        depthTest = value;
+        stats.stateChange();
+    }
+}
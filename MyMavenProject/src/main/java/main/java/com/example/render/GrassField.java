@@ -0,0 +1,120 @@
+package main.java.com.example.render;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Данные поля травы: позиция, высота и поворот каждой травинки.
+ * Не зависит от OpenGL, поэтому генерацию можно выполнять и измерять без контекста.
+ */
+public class GrassField {
+    // Раскладка данных одного экземпляра: x, y, z, высота, поворот вокруг Y
+    public static final int INSTANCE_FLOATS = 5;
+
+    private final float[] instanceData;
+    private final int count;
+
+    // Начало данных каждого чанка в травинках после partition (последний элемент - count)
+    private int[] chunkOffsets;
+
+    /**
+     * Генерация поля травы
+     *
+     * @param count количество травинок
+     * @param size  размер квадратной области с центром в начале координат
+     * @param random генератор случайных чисел
+     */
+    public GrassField(int count, float size, Random random) {
+        this.instanceData = new float[count * INSTANCE_FLOATS];
+
+        // Размер сетки для равномерного распределения травы
+        int gridSize = (int) Math.ceil(Math.sqrt(count));
+        float cellSize = size / gridSize;
+        float halfSize = size / 2.0f;
+
+        // Генерация позиций для травы в сетке с небольшим случайным смещением
+        int generated = 0;
+        for (int i = 0; i < gridSize && generated < count; i++) {
+            for (int j = 0; j < gridSize && generated < count; j++) {
+                // Базовая позиция в сетке
+                float baseX = (i * cellSize) - halfSize + (cellSize / 2);
+                float baseZ = (j * cellSize) - halfSize + (cellSize / 2);
+
+                // Добавляем небольшое случайное смещение
+                float x = baseX + (random.nextFloat() * cellSize * 0.8f) - (cellSize * 0.4f);
+                float z = baseZ + (random.nextFloat() * cellSize * 0.8f) - (cellSize * 0.4f);
+
+                // Случайная высота травы (0.1 до 0.5)
+                float height = 0.1f + random.nextFloat() * 0.4f;
+
+                // Случайный поворот, чтобы травинки не выглядели одинаково
+                float rotation = random.nextFloat() * (float) Math.PI;
+
+                int offset = generated * INSTANCE_FLOATS;
+                instanceData[offset] = x;
+                instanceData[offset + 1] = 0.0f;
+                instanceData[offset + 2] = z;
+                instanceData[offset + 3] = height;
+                instanceData[offset + 4] = rotation;
+                generated++;
+            }
+        }
+
+        this.count = generated;
+    }
+
+    /**
+     * Упорядочивание травинок по чанкам сетки (сортировка подсчетом).
+     * Травинки каждого чанка после этого лежат подряд, а чанки - по возрастанию индекса,
+     * поэтому соседние по индексу видимые чанки рисуются одним вызовом.
+     * Высота травинок расширяет ограничивающие объемы чанков.
+     */
+    public void partition(ChunkGrid grid) {
+        int chunkCount = grid.getChunkCount();
+        int[] chunkOfBlade = new int[count];
+        int[] offsets = new int[chunkCount + 1];
+
+        for (int i = 0; i < count; i++) {
+            int offset = i * INSTANCE_FLOATS;
+            int chunk = grid.chunkIndexAt(instanceData[offset], instanceData[offset + 2]);
+            chunkOfBlade[i] = chunk;
+            offsets[chunk + 1]++;
+            grid.includeHeight(chunk, instanceData[offset + 1] + instanceData[offset + 3]);
+        }
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            offsets[chunk + 1] += offsets[chunk];
+        }
+
+        // Перенос травинок на места своих чанков
+        float[] sorted = new float[count * INSTANCE_FLOATS];
+        int[] next = Arrays.copyOf(offsets, chunkCount);
+        for (int i = 0; i < count; i++) {
+            int target = next[chunkOfBlade[i]]++;
+            System.arraycopy(instanceData, i * INSTANCE_FLOATS, sorted, target * INSTANCE_FLOATS, INSTANCE_FLOATS);
+        }
+        System.arraycopy(sorted, 0, instanceData, 0, sorted.length);
+
+        chunkOffsets = offsets;
+    }
+
+    /**
+     * Начало данных каждого чанка в травинках (null до вызова partition)
+     */
+    public int[] getChunkOffsets() {
+        return chunkOffsets;
+    }
+
+    /**
+     * Количество травинок
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Данные экземпляров, по INSTANCE_FLOATS значений на травинку
+     */
+    public float[] getInstanceData() {
+        return instanceData;
+    }
+}
@@ -0,0 +1,237 @@
+package main.java.com.example.render;
+
+import org.joml.Vector3f;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL31;
+import org.lwjgl.opengl.GL33;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Инстансированный рендеринг травы по видимым чанкам.
+ * Общая сетка травинки и буфер экземпляров, упорядоченный по чанкам, загружаются
+ * на GPU один раз. За кадр рисуются только видимые чанки; подряд идущие видимые
+ * чанки объединяются в одну отрисовку в очереди рендеринга, поэтому число вызовов
+ * OpenGL не зависит от количества травинок.
+ */
+public class GrassRenderer implements Drawable {
+    // Сетка травинки: два перекрещенных прямоугольника единичной высоты
+    private static final float[] BLADE_VERTICES = {
+        // Позиции            // Цвета (зеленые оттенки)
+        -0.02f, 0.0f, 0.0f,   0.0f, 0.5f, 0.0f,  // Нижний левый угол
+         0.02f, 0.0f, 0.0f,   0.0f, 0.5f, 0.0f,  // Нижний правый угол
+         0.02f, 1.0f, 0.0f,   0.5f, 1.0f, 0.0f,  // Верхний правый угол
+        -0.02f, 1.0f, 0.0f,   0.5f, 1.0f, 0.0f,  // Верхний левый угол
+
+         0.0f, 0.0f, -0.02f,  0.0f, 0.5f, 0.0f,  // Второй прямоугольник, повернутый на 90 градусов
+         0.0f, 0.0f,  0.02f,  0.0f, 0.5f, 0.0f,
+         0.0f, 1.0f,  0.02f,  0.5f, 1.0f, 0.0f,
+         0.0f, 1.0f, -0.02f,  0.5f, 1.0f, 0.0f
+    };
+
+    private static final int[] BLADE_INDICES = {
+        0, 1, 2, 2, 3, 0,  // Первый прямоугольник
+        4, 5, 6, 6, 7, 4   // Второй прямоугольник
+    };
+
+    // Идентификаторы OpenGL объектов
+    private final int vaoId;
+    private final int vboId;
+    private final int eboId;
+    private final int instanceVboId;
+
+    private final ShaderProgram shaderProgram;
+    private final int instanceCount;
+    private final RenderStats stats;
+
+    // Начало данных каждого чанка в буфере экземпляров (в травинках)
+    private final int[] chunkOffsets;
+
+    // Серии подряд идущих видимых чанков текущего кадра: первая травинка и количество
+    private final int[] runStart;
+    private final int[] runInstances;
+
+    private static final int INSTANCE_STRIDE = GrassField.INSTANCE_FLOATS * Float.BYTES;
+
+    /**
+     * Конструктор: загрузка сетки травинки и данных экземпляров на GPU.
+     * Поле травы должно быть упорядочено по чанкам (GrassField.partition).
+     */
+    public GrassRenderer(GrassField field, CameraUniforms cameraUniforms, RenderStats stats) {
+        if (field.getChunkOffsets() == null) {
+            throw new IllegalArgumentException("Поле травы не разбито на чанки");
+        }
+        this.instanceCount = field.getCount();
+        this.chunkOffsets = field.getChunkOffsets();
+        this.runStart = new int[chunkOffsets.length - 1];
+        this.runInstances = new int[chunkOffsets.length - 1];
+        this.stats = stats;
+
+        // Шейдер масштабирует и поворачивает травинку по данным экземпляра
+        shaderProgram = new ShaderProgram();
+        shaderProgram.createVertexShader(
+            "#version 330 core\n" +
+            "layout (location = 0) in vec3 aPos;\n" +
+            "layout (location = 1) in vec3 aColor;\n" +
+            "layout (location = 2) in vec4 aInstance;\n" + // xyz - позиция, w - высота
+            "layout (location = 3) in float aRotation;\n" +
+            "out vec3 ourColor;\n" +
+            CameraUniforms.GLSL_BLOCK +
+            "void main() {\n" +
+            "    float c = cos(aRotation);\n" +
+            "    float s = sin(aRotation);\n" +
+            "    vec3 local = vec3(aPos.x * c + aPos.z * s, aPos.y * aInstance.w, aPos.z * c - aPos.x * s);\n" +
+            "    gl_Position = projection * view * vec4(aInstance.xyz + local, 1.0);\n" +
+            "    ourColor = aColor;\n" +
+            "}"
+        );
+        shaderProgram.createFragmentShader(
+            "#version 330 core\n" +
+            "in vec3 ourColor;\n" +
+            "out vec4 FragColor;\n" +
+            "void main() {\n" +
+            "    FragColor = vec4(ourColor, 1.0);\n" +
+            "}"
+        );
+        shaderProgram.link();
+        cameraUniforms.attach(shaderProgram);
+
+        // Создание VAO для травы
+        vaoId = GL30.glGenVertexArrays();
+        GL30.glBindVertexArray(vaoId);
+
+        // Создание VBO для вершин травинки
+        FloatBuffer vertexBuffer = MemoryUtil.memAllocFloat(BLADE_VERTICES.length);
+        vertexBuffer.put(BLADE_VERTICES).flip();
+
+        vboId = GL15.glGenBuffers();
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vboId);
+        GL15.glBufferData(GL15.GL_ARRAY_BUFFER, vertexBuffer, GL15.GL_STATIC_DRAW);
+
+        // Позиции вершин
+        GL20.glVertexAttribPointer(0, 3, GL11.GL_FLOAT, false, 6 * Float.BYTES, 0);
+        GL20.glEnableVertexAttribArray(0);
+
+        // Цвета вершин
+        GL20.glVertexAttribPointer(1, 3, GL11.GL_FLOAT, false, 6 * Float.BYTES, 3 * Float.BYTES);
+        GL20.glEnableVertexAttribArray(1);
+
+        // Создание VBO для данных экземпляров
+        FloatBuffer instanceBuffer = MemoryUtil.memAllocFloat(instanceCount * GrassField.INSTANCE_FLOATS);
+        instanceBuffer.put(field.getInstanceData(), 0, instanceCount * GrassField.INSTANCE_FLOATS).flip();
+
+        instanceVboId = GL15.glGenBuffers();
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, instanceVboId);
+        GL15.glBufferData(GL15.GL_ARRAY_BUFFER, instanceBuffer, GL15.GL_STATIC_DRAW);
+
+        // Позиция и высота травинки (одно значение на экземпляр)
+        GL20.glVertexAttribPointer(2, 4, GL11.GL_FLOAT, false, INSTANCE_STRIDE, 0);
+        GL20.glEnableVertexAttribArray(2);
+        GL33.glVertexAttribDivisor(2, 1);
+
+        // Поворот травинки
+        GL20.glVertexAttribPointer(3, 1, GL11.GL_FLOAT, false, INSTANCE_STRIDE, 4 * Float.BYTES);
+        GL20.glEnableVertexAttribArray(3);
+        GL33.glVertexAttribDivisor(3, 1);
+
+        // Создание EBO для индексов травинки
+        IntBuffer indexBuffer = MemoryUtil.memAllocInt(BLADE_INDICES.length);
+        indexBuffer.put(BLADE_INDICES).flip();
+
+        eboId = GL15.glGenBuffers();
+        GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, eboId);
+        GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, indexBuffer, GL15.GL_STATIC_DRAW);
+
+        // Освобождение буферов
+        MemoryUtil.memFree(vertexBuffer);
+        MemoryUtil.memFree(instanceBuffer);
+        MemoryUtil.memFree(indexBuffer);
+
+        // Отвязка VAO
+        GL30.glBindVertexArray(0);
+    }
+
+    /**
+     * Отправка видимых чанков травы в очередь рендеринга.
+     * Каждая серия подряд идущих чанков - одна отрисовка; ее глубина - расстояние
+     * от камеры до центра серии, чтобы полупрозрачная трава рисовалась от дальней к ближней.
+     *
+     * @param visibleChunks индексы видимых чанков по возрастанию
+     * @param visibleCount  количество видимых чанков
+     * @param maxDistance   расстояние, соответствующее глубине 1
+     */
+    public void submit(RenderQueue queue, int[] visibleChunks, int visibleCount,
+                       ChunkGrid grid, Vector3f cameraPosition, float maxDistance) {
+        int runCount = 0;
+        int i = 0;
+        while (i < visibleCount) {
+            // Серия подряд идущих чанков лежит в буфере непрерывно
+            int first = visibleChunks[i];
+            int last = first;
+            while (i + 1 < visibleCount && visibleChunks[i + 1] == last + 1) {
+                i++;
+                last++;
+            }
+            i++;
+
+            int start = chunkOffsets[first];
+            int instances = chunkOffsets[last + 1] - start;
+            if (instances == 0) {
+                continue;
+            }
+            runStart[runCount] = start;
+            runInstances[runCount] = instances;
+
+            // Центр серии: середина между центрами первого и последнего чанка
+            float half = grid.getChunkSize() * 0.5f;
+            float centerX = (grid.getMinX(first) + grid.getMinX(last)) * 0.5f + half;
+            float centerZ = (grid.getMinZ(first) + grid.getMinZ(last)) * 0.5f + half;
+            float dx = centerX - cameraPosition.x;
+            float dz = centerZ - cameraPosition.z;
+            float distance = (float) Math.sqrt(dx * dx + dz * dz);
+
+            // Смешивание включено для полупрозрачности
+            queue.submit(this, runCount, shaderProgram.getProgramId(), vaoId, true, true, distance / maxDistance);
+            runCount++;
+        }
+    }
+
+    /**
+     * Отрисовка серии чанков: атрибуты экземпляров указывают на ее начало
+     */
+    @Override
+    public void draw(int run, GLStateCache state) {
+        state.bindArrayBuffer(instanceVboId);
+
+        long offset = (long) runStart[run] * INSTANCE_STRIDE;
+        GL20.glVertexAttribPointer(2, 4, GL11.GL_FLOAT, false, INSTANCE_STRIDE, offset);
+        GL20.glVertexAttribPointer(3, 1, GL11.GL_FLOAT, false, INSTANCE_STRIDE, offset + 4 * Float.BYTES);
+        GL31.glDrawElementsInstanced(GL11.GL_TRIANGLES, BLADE_INDICES.length, GL11.GL_UNSIGNED_INT, 0, runInstances[run]);
+        stats.calls(2);
+        stats.draw();
+    }
+
+    /**
+     * Количество травинок
+     */
+    public int getInstanceCount() {
+        return instanceCount;
+    }
+
+    /**
+     * Освобождение ресурсов
+     */
+    public void cleanup() {
+        shaderProgram.cleanup();
+
+        GL15.glDeleteBuffers(vboId);
+        GL15.glDeleteBuffers(eboId);
+        GL15.glDeleteBuffers(instanceVboId);
+        GL30.glDeleteVertexArrays(vaoId);
+    }
+}
@@ -0,0 +1,173 @@
+package main.java.com.example.render;
+
+import java.util.Arrays;
+
+/**
+ * Очередь рендеринга кадра. Отрисовки отправляются в виде 64-битных ключей
+ * состояния (смешивание, тест глубины, программа, VAO, глубина) в массивы
+ * примитивов, сортируются поразрядно и выполняются через кэш состояния,
+ * поэтому одинаковые состояния идут подряд и не переключаются повторно.
+ *
+ * Раскладка ключа непрозрачной отрисовки (старшие биты первыми):
+ * [смешивание 1][тест глубины выключен 1][программа 12][VAO 12][глубина 16][номер 21]
+ * Полупрозрачные отрисовки идут после непрозрачных, от дальних к ближним:
+ * [смешивание 1][тест глубины выключен 1][обратная глубина 16][программа 12][VAO 12][номер 21]
+ */
+public class RenderQueue {
+    private static final int INDEX_BITS = 21;
+    private static final int DEPTH_BITS = 16;
+    private static final int ID_BITS = 12;
+
+    private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+    private static final long DEPTH_MASK = (1L << DEPTH_BITS) - 1;
+    private static final long ID_MASK = (1L << ID_BITS) - 1;
+
+    private static final int BLEND_SHIFT = 62;
+    private static final int DEPTH_TEST_SHIFT = 61;
+
+    // Максимум отрисовок за кадр
+    public static final int MAX_ITEMS = 1 << INDEX_BITS;
+
+    // Ключи и данные отрисовок (номер в ключе указывает на данные)
+    private long[] keys;
+    private long[] sortBuffer;
+    private Drawable[] drawables;
+    private int[] params;
+    private int[] programs;
+    private int[] vertexArrays;
+    private boolean[] blends;
+    private boolean[] depthTests;
+    private int count;
+
+    // Счетчики поразрядной сортировки (8 бит на проход)
+    private final int[] histogram = new int[256];
+
+    /**
+     * Конструктор
+     *
+     * @param initialCapacity начальная вместимость (растет по мере необходимости)
+     */
+    public RenderQueue(int initialCapacity) {
+        int capacity = Math.max(16, initialCapacity);
+        keys = new long[capacity];
+        sortBuffer = new long[capacity];
+        drawables = new Drawable[capacity];
+        params = new int[capacity];
+        programs = new int[capacity];
+        vertexArrays = new int[capacity];
+        blends = new boolean[capacity];
+        depthTests = new boolean[capacity];
+    }
+
+    /**
+     * Отправка отрисовки в очередь
+     *
+     * @param depth нормированное расстояние до камеры от 0 (близко) до 1 (далеко)
+     */
+    public void submit(Drawable drawable, int param, int programId, int vaoId,
+                       boolean blend, boolean depthTest, float depth) {
+        if (count == keys.length) {
+            grow();
+        }
+
+        long quantizedDepth = (long) (Math.max(0.0f, Math.min(depth, 1.0f)) * DEPTH_MASK);
+        long key = ((blend ? 1L : 0L) << BLEND_SHIFT) | ((depthTest ? 0L : 1L) << DEPTH_TEST_SHIFT);
+        long state = ((programId & ID_MASK) << ID_BITS) | (vaoId & ID_MASK);
+        if (blend) {
+            // Полупрозрачные - от дальних к ближним, затем по состоянию
+            key |= ((DEPTH_MASK - quantizedDepth) << (INDEX_BITS + 2 * ID_BITS)) | (state << INDEX_BITS);
+        } else {
+            // Непрозрачные - по состоянию, затем от ближних к дальним
+            key |= (state << (INDEX_BITS + DEPTH_BITS)) | (quantizedDepth << INDEX_BITS);
+        }
+        keys[count] = key | count;
+
+        drawables[count] = drawable;
+        params[count] = param;
+        programs[count] = programId;
+        vertexArrays[count] = vaoId;
+        blends[count] = blend;
+        depthTests[count] = depthTest;
+        count++;
+    }
+
+    /**
+     * Увеличение вместимости в два раза
+     */
+    private void grow() {
+        int capacity = keys.length * 2;
+        if (capacity > MAX_ITEMS) {
+            throw new IllegalStateException("Превышено количество отрисовок за кадр: " + MAX_ITEMS);
+        }
+        keys = Arrays.copyOf(keys, capacity);
+        sortBuffer = Arrays.copyOf(sortBuffer, capacity);
+        drawables = Arrays.copyOf(drawables, capacity);
+        params = Arrays.copyOf(params, capacity);
+        programs = Arrays.copyOf(programs, capacity);
+        vertexArrays = Arrays.copyOf(vertexArrays, capacity);
+        blends = Arrays.copyOf(blends, capacity);
+        depthTests = Arrays.copyOf(depthTests, capacity);
+    }
+
+    /**
+     * Сортировка и выполнение всех отрисовок кадра, после чего очередь очищается
+     */
+    public void execute(GLStateCache state) {
+        sort();
+        for (int i = 0; i < count; i++) {
+            int index = (int) (keys[i] & INDEX_MASK);
+            state.setBlend(blends[index]);
+            state.setDepthTest(depthTests[index]);
+            state.useProgram(programs[index]);
+            state.bindVertexArray(vertexArrays[index]);
+            drawables[index].draw(params[index], state);
+        }
+        count = 0;
+    }
+
+    /**
+     * Поразрядная сортировка ключей (младшие разряды первыми, по 8 бит).
+     * Проходы, в которых у всех ключей одинаковый байт, пропускаются.
+     */
+    private void sort() {
+        long[] source = keys;
+        long[] target = sortBuffer;
+        for (int shift = 0; shift < Long.SIZE; shift += 8) {
+            Arrays.fill(histogram, 0);
+            for (int i = 0; i < count; i++) {
+                histogram[(int) (source[i] >>> shift) & 0xFF]++;
+            }
+            if (count == 0 || histogram[(int) (source[0] >>> shift) & 0xFF] == count) {
+                continue;
+            }
+
+            // Начальные позиции корзин
+            int position = 0;
+            for (int digit = 0; digit < 256; digit++) {
+                int digitCount = histogram[digit];
+                histogram[digit] = position;
+                position += digitCount;
+            }
+            for (int i = 0; i < count; i++) {
+                long key = source[i];
+                target[histogram[(int) (key >>> shift) & 0xFF]++] = key;
+            }
+
+            long[] swap = source;
+            source = target;
+            target = swap;
+        }
+
+        // Результат должен оказаться в keys
+        if (source != keys) {
+            System.arraycopy(source, 0, keys, 0, count);
+        }
+    }
+
+    /**
+     * Количество отрисовок в очереди
+     */
+    public int size() {
+        return count;
+    }
+}
@@ -0,0 +1,134 @@
+package main.java.com.example.render;
+
+/**
+ * Счетчики вызовов OpenGL, смен состояния и отсечения чанков за кадр
+ */
+public class RenderStats {
+    // Счетчики текущего кадра
+    private int glCalls;
+    private int drawCalls;
+    private int chunksTested;
+    private int chunksDrawn;
+    private int stateChanges;
+    private int stateSkipped;
+
+    // Итоги последнего завершенного кадра
+    private int lastGlCalls;
+    private int lastDrawCalls;
+    private int lastChunksTested;
+    private int lastChunksDrawn;
+    private int lastStateChanges;
+    private int lastStateSkipped;
+
+    /**
+     * Начало нового кадра: итоги предыдущего кадра сохраняются, счетчики сбрасываются
+     */
+    public void beginFrame() {
+        lastGlCalls = glCalls;
+        lastDrawCalls = drawCalls;
+        lastChunksTested = chunksTested;
+        lastChunksDrawn = chunksDrawn;
+        lastStateChanges = stateChanges;
+        lastStateSkipped = stateSkipped;
+        glCalls = 0;
+        drawCalls = 0;
+        chunksTested = 0;
+        chunksDrawn = 0;
+        stateChanges = 0;
+        stateSkipped = 0;
+    }
+
+    /**
+     * Учет вызова OpenGL, изменяющего состояние
+     */
+    public void call() {
+        glCalls++;
+    }
+
+    /**
+     * Учет нескольких вызовов OpenGL
+     */
+    public void calls(int count) {
+        glCalls += count;
+    }
+
+    /**
+     * Учет вызова отрисовки
+     */
+    public void draw() {
+        glCalls++;
+        drawCalls++;
+    }
+
+    /**
+     * Учет смены состояния OpenGL (выполненный вызов)
+     */
+    public void stateChange() {
+        glCalls++;
+        stateChanges++;
+    }
+
+    /**
+     * Учет пропущенного вызова, не менявшего состояние
+     */
+    public void stateSkipped() {
+        stateSkipped++;
+    }
+
+    /**
+     * Учет проверки чанков на видимость
+     */
+    public void chunks(int tested, int drawn) {
+        chunksTested += tested;
+        chunksDrawn += drawn;
+    }
+
+    /**
+     * Количество вызовов OpenGL за последний кадр
+     */
+    public int getGlCalls() {
+        return lastGlCalls;
+    }
+
+    /**
+     * Количество вызовов отрисовки за последний кадр
+     */
+    public int getDrawCalls() {
+        return lastDrawCalls;
+    }
+
+    /**
+     * Количество чанков, проверенных на видимость за последний кадр
+     */
+    public int getChunksTested() {
+        return lastChunksTested;
+    }
+
+    /**
+     * Количество чанков, отброшенных отсечением за последний кадр
+     */
+    public int getChunksCulled() {
+        return lastChunksTested - lastChunksDrawn;
+    }
+
+    /**
+     * Количество видимых чанков, отправленных на отрисовку за последний кадр
+     */
+    public int getChunksDrawn() {
+        return lastChunksDrawn;
+    }
+
+    /**
+     * Количество смен состояния OpenGL за последний кадр
+     */
+    public int getStateChanges() {
+        return lastStateChanges;
+    }
+
+    /**
+     * Количество избыточных смен состояния, пропущенных кэшем за последний кадр
+     */
+    public int getStateSkipped() {
+        return lastStateSkipped;
+    }
+}
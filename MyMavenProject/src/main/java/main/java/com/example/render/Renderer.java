@@ -1,128 +1,112 @@
 package main.java.com.example.render;
 
-import main.java.com.example.entity.Player;
+import main.java.com.example.mesh.MeshData;
+import main.java.com.example.mesh.MeshFile;
+import org.joml.FrustumIntersection;
 import org.joml.Matrix4f;
 import org.joml.Vector3f;
 import org.lwjgl.opengl.GL11;
-import org.lwjgl.opengl.GL15;
-import org.lwjgl.opengl.GL20;
-import org.lwjgl.opengl.GL30;
-import org.lwjgl.system.MemoryUtil;
-
-import java.nio.FloatBuffer;
-import java.nio.IntBuffer;
-import java.util.ArrayList;
-import java.util.List;
+
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Random;
 
 /**
- * Класс для рендеринга 3D сцены
+ * Класс для рендеринга 3D сцены.
+ * Пол и трава разбиты на чанки; за кадр отрисовываются только чанки,
+ * пересекающие пирамиду видимости камеры. Пол, игрок и предметы
+ * рисуются одним пакетом статических сеток.
  */
 public class Renderer {
-    // Идентификаторы OpenGL объектов
-    private int vaoId;
-    private int vboId;
-    private int eboId;
-    private int floorVaoId;
-    private int floorVboId;
-    private int floorEboId;
-    private int grassVaoId;
-    private int grassVboId;
-
-    // Шейдерная программа
-    private ShaderProgram shaderProgram;
+    // Статическая геометрия (пол, предметы) и куб игрока в одном пакете
+    private final StaticMeshBatch meshBatch;
+    private int playerObject;
+
+    // Количество случайно расставленных предметов (ящиков) на уровне
+    private static final int PROP_COUNT = Integer.getInteger("world.props", 0);
+
+    // Файл сетки предметов (.imesh, см. MeshConverter); по умолчанию предметы - кубы
+    private static final String PROP_MESH = System.getProperty("world.propMesh");
+
+    // Общий uniform-буфер матриц камеры
+    private final CameraUniforms cameraUniforms;
+
+    // Размер мира (сторона квадрата пола) и чанков
+    private static final float WORLD_SIZE = Integer.getInteger("world.size", 20);
+    private static final float CHUNK_SIZE = 4.0f;
+    private final ChunkGrid chunkGrid;
 
     // Трава
-    private List<Vector3f> grassPositions;
-    private List<Float> grassHeights;
-    private static final int GRASS_COUNT = 300; // Количество травинок (уменьшено для производительности)
-    private Random random;
+    private static final float GRASS_DENSITY = 250.0f; // Травинок на единицу площади
+    private final GrassRenderer grassRenderer;
+
+    // Параметры проекции
+    private static final float FOV_DEGREES = 45.0f;
+    private static final float NEAR_PLANE = 0.1f;
+    private static final float FAR_PLANE = 100.0f;
+
+    // Отсечение по пирамиде видимости: обновляется раз за кадр
+    private final Matrix4f projectionView = new Matrix4f();
+    private final FrustumIntersection frustum = new FrustumIntersection();
+    private final int[] visibleChunks;
+    private int visibleCount;
+
+    // Счетчики вызовов OpenGL
+    private final RenderStats stats;
+
+    // Очередь отрисовок кадра и кэш состояния OpenGL
+    private final RenderQueue renderQueue = new RenderQueue(64);
+    private final GLStateCache stateCache;
+
+    // Матрицы переиспользуются между кадрами; проекция меняется только при изменении размера окна
+    private final Matrix4f projectionMatrix = new Matrix4f();
+    private final Matrix4f modelMatrix = new Matrix4f();
 
     /**
      * Конструктор
      */
     public Renderer() {
-        // Инициализация генератора случайных чисел
-        random = new Random();
-
-        // Инициализация списков для травы
-        grassPositions = new ArrayList<>();
-        grassHeights = new ArrayList<>();
-
-        // Генерация травы
-        generateGrass();
+        stats = new RenderStats();
+        cameraUniforms = new CameraUniforms();
+        chunkGrid = new ChunkGrid(WORLD_SIZE, CHUNK_SIZE);
+        visibleChunks = new int[chunkGrid.getChunkCount()];
+        resize(800, 600);
 
         // Инициализация рендерера
+        meshBatch = new StaticMeshBatch(cameraUniforms, stats);
         init();
+
+        // Генерация травы, разбиение по чанкам и загрузка на GPU
+        GrassField grassField = new GrassField((int) (GRASS_DENSITY * WORLD_SIZE * WORLD_SIZE), WORLD_SIZE, new Random());
+        grassField.partition(chunkGrid);
+        grassRenderer = new GrassRenderer(grassField, cameraUniforms, stats);
+
+        // Функция смешивания одна на всю сцену; включение смешивания - по ключу отрисовки
+        GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
+
+        // Кэш создается после инициализации: ее прямые вызовы OpenGL он не отслеживает
+        stateCache = new GLStateCache(stats);
     }
 
     /**
-     * Генерация травы
+     * Изменение размера области вывода: пересчет матрицы проекции
      */
-    private void generateGrass() {
-        // Очистка списков
-        grassPositions.clear();
-        grassHeights.clear();
-
-        // Размер сетки для равномерного распределения травы
-        int gridSize = (int) Math.sqrt(GRASS_COUNT);
-        float cellSize = 20.0f / gridSize;
-
-        // Генерация позиций для травы в сетке с небольшим случайным смещением
-        for (int i = 0; i < gridSize; i++) {
-            for (int j = 0; j < gridSize; j++) {
-                // Базовая позиция в сетке
-                float baseX = (i * cellSize) - 10.0f + (cellSize / 2);
-                float baseZ = (j * cellSize) - 10.0f + (cellSize / 2);
-
-                // Добавляем небольшое случайное смещение
-                float x = baseX + (random.nextFloat() * cellSize * 0.8f) - (cellSize * 0.4f);
-                float z = baseZ + (random.nextFloat() * cellSize * 0.8f) - (cellSize * 0.4f);
-
-                // Случайная высота травы (0.1 до 0.5)
-                float height = 0.1f + random.nextFloat() * 0.4f;
-
-                // Добавление в списки
-                grassPositions.add(new Vector3f(x, 0.0f, z));
-                grassHeights.add(height);
-
-                // Если достигли нужного количества травинок, выходим
-                if (grassPositions.size() >= GRASS_COUNT) {
-                    return;
-                }
-            }
+    public void resize(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            return;
         }
+        projectionMatrix.setPerspective(
+            (float) Math.toRadians(FOV_DEGREES),
+            (float) width / height,
+            NEAR_PLANE,
+            FAR_PLANE
+        );
     }
 
     /**
      * Инициализация рендерера
      */
     private void init() {
-        // Создание шейдерной программы
-        shaderProgram = new ShaderProgram();
-        shaderProgram.createVertexShader(
-            "#version 330 core\n" +
-            "layout (location = 0) in vec3 aPos;\n" +
-            "layout (location = 1) in vec3 aColor;\n" +
-            "out vec3 ourColor;\n" +
-            "uniform mat4 model;\n" +
-            "uniform mat4 view;\n" +
-            "uniform mat4 projection;\n" +
-            "void main() {\n" +
-            "    gl_Position = projection * view * model * vec4(aPos, 1.0);\n" +
-            "    ourColor = aColor;\n" +
-            "}"
-        );
-        shaderProgram.createFragmentShader(
-            "#version 330 core\n" +
-            "in vec3 ourColor;\n" +
-            "out vec4 FragColor;\n" +
-            "void main() {\n" +
-            "    FragColor = vec4(ourColor, 1.0);\n" +
-            "}"
-        );
-        shaderProgram.link();
-
         // Создание куба (игрок)
         float[] cubeVertices = {
             // Позиции            // Цвета
@@ -166,266 +150,116 @@ public class Renderer {
             20, 21, 22, 22, 23, 20  // Верхняя грань
         };
 
-        // Создание VAO для куба
-        vaoId = GL30.glGenVertexArrays();
-        GL30.glBindVertexArray(vaoId);
-
-        // Создание VBO для вершин куба
-        FloatBuffer vertexBuffer = MemoryUtil.memAllocFloat(cubeVertices.length);
-        vertexBuffer.put(cubeVertices).flip();
-
-        vboId = GL15.glGenBuffers();
-        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vboId);
-        GL15.glBufferData(GL15.GL_ARRAY_BUFFER, vertexBuffer, GL15.GL_STATIC_DRAW);
-
-        // Позиции вершин
-        GL20.glVertexAttribPointer(0, 3, GL11.GL_FLOAT, false, 6 * Float.BYTES, 0);
-        GL20.glEnableVertexAttribArray(0);
-
-        // Цвета вершин
-        GL20.glVertexAttribPointer(1, 3, GL11.GL_FLOAT, false, 6 * Float.BYTES, 3 * Float.BYTES);
-        GL20.glEnableVertexAttribArray(1);
-
-        // Создание EBO для индексов куба
-        IntBuffer indexBuffer = MemoryUtil.memAllocInt(cubeIndices.length);
-        indexBuffer.put(cubeIndices).flip();
-
-        eboId = GL15.glGenBuffers();
-        GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, eboId);
-        GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, indexBuffer, GL15.GL_STATIC_DRAW);
-
-        // Освобождение буферов
-        MemoryUtil.memFree(vertexBuffer);
-        MemoryUtil.memFree(indexBuffer);
-
-        // Создание пола
+        // Плитка пола размером с чанк; пол состоит из ее копий по одной на чанк
+        int chunkCount = chunkGrid.getChunkCount();
+        float chunkSize = chunkGrid.getChunkSize();
         float[] floorVertices = {
-            // Позиции            // Цвета
-            -10.0f, 0.0f, -10.0f,  0.5f, 0.5f, 0.5f,
-             10.0f, 0.0f, -10.0f,  0.5f, 0.5f, 0.5f,
-             10.0f, 0.0f,  10.0f,  0.5f, 0.5f, 0.5f,
-            -10.0f, 0.0f,  10.0f,  0.5f, 0.5f, 0.5f
+            // Позиции                      // Цвета
+            0.0f,      0.0f, 0.0f,       0.5f, 0.5f, 0.5f,
+            chunkSize, 0.0f, 0.0f,       0.5f, 0.5f, 0.5f,
+            chunkSize, 0.0f, chunkSize,  0.5f, 0.5f, 0.5f,
+            0.0f,      0.0f, chunkSize,  0.5f, 0.5f, 0.5f
         };
 
         int[] floorIndices = {
             0, 1, 2, 2, 3, 0
         };
 
-        // Создание VAO для пола
-        floorVaoId = GL30.glGenVertexArrays();
-        GL30.glBindVertexArray(floorVaoId);
-
-        // Создание VBO для вершин пола
-        FloatBuffer floorVertexBuffer = MemoryUtil.memAllocFloat(floorVertices.length);
-        floorVertexBuffer.put(floorVertices).flip();
-
-        floorVboId = GL15.glGenBuffers();
-        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, floorVboId);
-        GL15.glBufferData(GL15.GL_ARRAY_BUFFER, floorVertexBuffer, GL15.GL_STATIC_DRAW);
-
-        // Позиции вершин
-        GL20.glVertexAttribPointer(0, 3, GL11.GL_FLOAT, false, 6 * Float.BYTES, 0);
-        GL20.glEnableVertexAttribArray(0);
-
-        // Цвета вершин
-        GL20.glVertexAttribPointer(1, 3, GL11.GL_FLOAT, false, 6 * Float.BYTES, 3 * Float.BYTES);
-        GL20.glEnableVertexAttribArray(1);
-
-        // Создание EBO для индексов пола
-        IntBuffer floorIndexBuffer = MemoryUtil.memAllocInt(floorIndices.length);
-        floorIndexBuffer.put(floorIndices).flip();
+        // Все сетки в одном пакете: пол - по объекту на чанк, затем игрок и предметы
+        int floorMesh = meshBatch.addMesh(floorVertices, floorIndices);
+        int cubeMesh = meshBatch.addMesh(cubeVertices, cubeIndices);
 
-        floorEboId = GL15.glGenBuffers();
-        GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, floorEboId);
-        GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, floorIndexBuffer, GL15.GL_STATIC_DRAW);
-
-        // Освобождение буферов
-        MemoryUtil.memFree(floorVertexBuffer);
-        MemoryUtil.memFree(floorIndexBuffer);
+        Matrix4f transform = new Matrix4f();
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            meshBatch.addObject(floorMesh, transform.translation(chunkGrid.getMinX(chunk), 0.0f, chunkGrid.getMinZ(chunk)));
+        }
+        playerObject = meshBatch.addObject(cubeMesh, transform.identity());
+
+        int propMesh = PROP_MESH != null ? meshBatch.addMesh(mapMesh(Path.of(PROP_MESH))) : cubeMesh;
+
+        Random random = new Random(42);
+        float halfWorld = chunkGrid.getChunksPerSide() * chunkSize / 2.0f;
+        for (int i = 0; i < PROP_COUNT; i++) {
+            float scale = 0.3f + random.nextFloat() * 0.5f;
+            meshBatch.addObject(propMesh, transform.translation(
+                    random.nextFloat() * 2.0f * halfWorld - halfWorld,
+                    scale * 0.5f,
+                    random.nextFloat() * 2.0f * halfWorld - halfWorld)
+                .rotateY(random.nextFloat() * (float) Math.PI)
+                .scale(scale));
+        }
 
-        // Отвязка VAO
-        GL30.glBindVertexArray(0);
+        meshBatch.build();
     }
 
     /**
-     * Рендеринг сцены
+     * Отображение файла сетки в память
      */
-    public void render(Camera camera, Player player) {
-        shaderProgram.bind();
-
-        // Установка матриц преобразования
-        Matrix4f projectionMatrix = new Matrix4f().perspective(
-            (float) Math.toRadians(45.0f),
-            800.0f / 600.0f,
-            0.1f,
-            100.0f
-        );
+    private static MeshData mapMesh(Path file) {
+        long start = System.nanoTime();
+        try {
+            MeshData mesh = MeshFile.map(file);
+            System.out.printf("Сетка %s: %d вершин, %d индексов, отображена за %.2f мс%n",
+                file, mesh.getVertexCount(), mesh.getIndexCount(), (System.nanoTime() - start) / 1e6);
+            return mesh;
+        } catch (IOException e) {
+            throw new RuntimeException("Не удалось загрузить сетку: " + file, e);
+        }
+    }
 
-        Matrix4f viewMatrix = camera.getViewMatrix();
+    /**
+     * Рендеринг сцены по матрице вида и позициям камеры и игрока из снимка симуляции
+     */
+    public void render(Matrix4f viewMatrix, Vector3f cameraPosition, Vector3f playerPosition) {
+        stats.beginFrame();
 
-        shaderProgram.setUniform("projection", projectionMatrix);
-        shaderProgram.setUniform("view", viewMatrix);
+        // Матрицы камеры загружаются один раз за кадр для всех программ
+        cameraUniforms.update(projectionMatrix, viewMatrix);
+        stats.calls(2);
 
-        // Рендеринг пола
-        GL30.glBindVertexArray(floorVaoId);
-        Matrix4f floorModelMatrix = new Matrix4f().identity();
-        shaderProgram.setUniform("model", floorModelMatrix);
-        GL11.glDrawElements(GL11.GL_TRIANGLES, 6, GL11.GL_UNSIGNED_INT, 0);
+        // Пирамида видимости и список видимых чанков на этот кадр
+        frustum.set(projectionMatrix.mul(viewMatrix, projectionView), false);
+        visibleCount = chunkGrid.cull(frustum, visibleChunks, stats);
 
-        // Рендеринг игрока
-        GL30.glBindVertexArray(vaoId);
-        Matrix4f playerModelMatrix = new Matrix4f().identity()
-            .translate(player.getPosition());
-        shaderProgram.setUniform("model", playerModelMatrix);
-        GL11.glDrawElements(GL11.GL_TRIANGLES, 36, GL11.GL_UNSIGNED_INT, 0);
+        // Пол, игрок и предметы: видимые объекты пакета одной отрисовкой
+        meshBatch.setTransform(playerObject, modelMatrix.translation(playerPosition));
+        meshBatch.cull(frustum);
+        meshBatch.submit(renderQueue);
 
-        // Рендеринг травы
-        renderGrass(viewMatrix, projectionMatrix);
+        // Видимые чанки травы
+        grassRenderer.submit(renderQueue, visibleChunks, visibleCount, chunkGrid, cameraPosition, FAR_PLANE);
 
-        // Отвязка VAO и шейдерной программы
-        GL30.glBindVertexArray(0);
-        shaderProgram.unbind();
+        // Сортировка по состоянию и выполнение без избыточных переключений
+        renderQueue.execute(stateCache);
     }
 
     /**
-     * Рендеринг травы
+     * Пакет статических сеток
      */
-    private void renderGrass(Matrix4f viewMatrix, Matrix4f projectionMatrix) {
-        // Включаем смешивание для полупрозрачности
-        GL11.glEnable(GL11.GL_BLEND);
-        GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
-
-        // Отрисовка каждой травинки
-        for (int i = 0; i < grassPositions.size(); i++) {
-            Vector3f position = grassPositions.get(i);
-            float height = grassHeights.get(i);
-
-            // Создаем модельную матрицу для травинки
-            Matrix4f modelMatrix = new Matrix4f().identity()
-                .translate(position);
-
-            // Создаем вертикальный прямоугольник для травинки
-            float[] grassVertices = {
-                // Позиции            // Цвета (зеленые оттенки)
-                -0.02f, 0.0f, 0.0f,   0.0f, 0.5f, 0.0f,  // Нижний левый угол
-                 0.02f, 0.0f, 0.0f,   0.0f, 0.5f, 0.0f,  // Нижний правый угол
-                 0.02f, height, 0.0f, 0.5f, 1.0f, 0.0f,  // Верхний правый угол
-                -0.02f, height, 0.0f, 0.5f, 1.0f, 0.0f   // Верхний левый угол
-            };
-
-            int[] grassIndices = {
-                0, 1, 2,  // Первый треугольник
-                2, 3, 0   // Второй треугольник
-            };
-
-            // Создаем временные буферы для травинки
-            int grassVaoId = GL30.glGenVertexArrays();
-            GL30.glBindVertexArray(grassVaoId);
-
-            // Создаем VBO для вершин травинки
-            FloatBuffer vertexBuffer = MemoryUtil.memAllocFloat(grassVertices.length);
-            vertexBuffer.put(grassVertices).flip();
-
-            int grassVboId = GL15.glGenBuffers();
-            GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, grassVboId);
-            GL15.glBufferData(GL15.GL_ARRAY_BUFFER, vertexBuffer, GL15.GL_STATIC_DRAW);
-
-            // Позиции вершин
-            GL20.glVertexAttribPointer(0, 3, GL11.GL_FLOAT, false, 6 * Float.BYTES, 0);
-            GL20.glEnableVertexAttribArray(0);
-
-            // Цвета вершин
-            GL20.glVertexAttribPointer(1, 3, GL11.GL_FLOAT, false, 6 * Float.BYTES, 3 * Float.BYTES);
-            GL20.glEnableVertexAttribArray(1);
-
-            // Создаем EBO для индексов травинки
-            IntBuffer indexBuffer = MemoryUtil.memAllocInt(grassIndices.length);
-            indexBuffer.put(grassIndices).flip();
-
-            int grassEboId = GL15.glGenBuffers();
-            GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, grassEboId);
-            GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, indexBuffer, GL15.GL_STATIC_DRAW);
-
-            // Устанавливаем матрицы для шейдера
-            shaderProgram.setUniform("model", modelMatrix);
-
-            // Рисуем травинку
-            GL11.glDrawElements(GL11.GL_TRIANGLES, 6, GL11.GL_UNSIGNED_INT, 0);
-
-            // Освобождаем ресурсы
-            MemoryUtil.memFree(vertexBuffer);
-            MemoryUtil.memFree(indexBuffer);
-            GL15.glDeleteBuffers(grassVboId);
-            GL15.glDeleteBuffers(grassEboId);
-            GL30.glDeleteVertexArrays(grassVaoId);
-
-            // Создаем еще одну травинку под углом для объема
-            modelMatrix = new Matrix4f().identity()
-                .translate(position)
-                .rotate((float) Math.toRadians(90), 0, 1, 0); // Поворот на 90 градусов
-
-            // Создаем временные буферы для второй травинки
-            grassVaoId = GL30.glGenVertexArrays();
-            GL30.glBindVertexArray(grassVaoId);
-
-            // Создаем VBO для вершин второй травинки
-            vertexBuffer = MemoryUtil.memAllocFloat(grassVertices.length);
-            vertexBuffer.put(grassVertices).flip();
-
-            grassVboId = GL15.glGenBuffers();
-            GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, grassVboId);
-            GL15.glBufferData(GL15.GL_ARRAY_BUFFER, vertexBuffer, GL15.GL_STATIC_DRAW);
-
-            // Позиции вершин
-            GL20.glVertexAttribPointer(0, 3, GL11.GL_FLOAT, false, 6 * Float.BYTES, 0);
-            GL20.glEnableVertexAttribArray(0);
-
-            // Цвета вершин
-            GL20.glVertexAttribPointer(1, 3, GL11.GL_FLOAT, false, 6 * Float.BYTES, 3 * Float.BYTES);
-            GL20.glEnableVertexAttribArray(1);
-
-            // Создаем EBO для индексов второй травинки
-            indexBuffer = MemoryUtil.memAllocInt(grassIndices.length);
-            indexBuffer.put(grassIndices).flip();
-
-            grassEboId = GL15.glGenBuffers();
-            GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, grassEboId);
-            GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, indexBuffer, GL15.GL_STATIC_DRAW);
-
-            // Устанавливаем матрицы для шейдера
-            shaderProgram.setUniform("model", modelMatrix);
-
-            // Рисуем вторую травинку
-            GL11.glDrawElements(GL11.GL_TRIANGLES, 6, GL11.GL_UNSIGNED_INT, 0);
-
-            // Освобождаем ресурсы
-            MemoryUtil.memFree(vertexBuffer);
-            MemoryUtil.memFree(indexBuffer);
-            GL15.glDeleteBuffers(grassVboId);
-            GL15.glDeleteBuffers(grassEboId);
-            GL30.glDeleteVertexArrays(grassVaoId);
-        }
+    public StaticMeshBatch getMeshBatch() {
+        return meshBatch;
+    }
 
-        // Отвязка VAO
-        GL30.glBindVertexArray(0);
+    /**
+     * Сетка чанков мира
+     */
+    public ChunkGrid getChunkGrid() {
+        return chunkGrid;
+    }
 
-        // Возвращаем настройки OpenGL
-        GL11.glDisable(GL11.GL_BLEND);
+    /**
+     * Счетчики вызовов OpenGL
+     */
+    public RenderStats getStats() {
+        return stats;
     }
 
     /**
      * Освобождение ресурсов
      */
     public void cleanup() {
-        shaderProgram.cleanup();
-
-        // Удаление VBO и VAO
-        GL15.glDeleteBuffers(vboId);
-        GL15.glDeleteBuffers(eboId);
-        GL30.glDeleteVertexArrays(vaoId);
-
-        GL15.glDeleteBuffers(floorVboId);
-        GL15.glDeleteBuffers(floorEboId);
-        GL30.glDeleteVertexArrays(floorVaoId);
+        meshBatch.cleanup();
+        grassRenderer.cleanup();
+        cameraUniforms.cleanup();
     }
 }
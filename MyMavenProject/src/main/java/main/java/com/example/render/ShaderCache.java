@@ -0,0 +1,218 @@
+package main.java.com.example.render;
+
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL41;
+import org.lwjgl.opengl.GLCapabilities;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Дисковый кэш двоичных образов слинкованных шейдерных программ.
+ * Ключ - SHA-256 исходников шейдеров вместе с производителем, моделью
+ * и версией драйвера OpenGL: при смене драйвера образы не подходят
+ * и программы компилируются заново.
+ *
+ * Параметры задаются системными свойствами:
+ * <ul>
+ *   <li>shader.cache - false отключает кэш (по умолчанию true)</li>
+ *   <li>shader.cache.dir - каталог кэша (по умолчанию ~/.intc/shader-cache)</li>
+ * </ul>
+ */
+public class ShaderCache {
+    // Заголовок файла кэша: сигнатура, формат образа, длина образа
+    private static final int MAGIC = 0x49534843; // "ISHC"
+    private static final int HEADER_BYTES = 12;
+
+    private static final ShaderCache SHARED = new ShaderCache(
+        Boolean.parseBoolean(System.getProperty("shader.cache", "true")),
+        Path.of(System.getProperty("shader.cache.dir",
+            System.getProperty("user.home") + "/.intc/shader-cache"))
+    );
+
+    private final boolean enabled;
+    private final Path directory;
+
+    // Описание драйвера для ключа; определяется при первом обращении (нужен контекст OpenGL)
+    private String driver;
+    private boolean supported;
+
+    // Статистика: программы из кэша, скомпилированные и суммарное время линковки
+    private int hits;
+    private int misses;
+    private long linkNanos;
+
+    /**
+     * Конструктор
+     */
+    public ShaderCache(boolean enabled, Path directory) {
+        this.enabled = enabled;
+        this.directory = directory;
+    }
+
+    /**
+     * Общий кэш программ, настроенный системными свойствами
+     */
+    public static ShaderCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Можно ли использовать кэш с текущим контекстом OpenGL
+     */
+    boolean isAvailable() {
+        if (!enabled) {
+            return false;
+        }
+        if (driver == null) {
+            GLCapabilities caps = GL.getCapabilities();
+            supported = (caps.OpenGL41 || caps.GL_ARB_get_program_binary)
+                && GL11.glGetInteger(GL41.GL_NUM_PROGRAM_BINARY_FORMATS) > 0;
+            driver = GL11.glGetString(GL11.GL_VENDOR) + '\n'
+                + GL11.glGetString(GL11.GL_RENDERER) + '\n'
+                + GL11.glGetString(GL11.GL_VERSION);
+        }
+        return supported;
+    }
+
+    /**
+     * Ключ программы: SHA-256 исходников и описания драйвера в шестнадцатеричном виде
+     */
+    String key(String... sources) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String source : sources) {
+                digest.update(source.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            digest.update(driver.getBytes(StandardCharsets.UTF_8));
+
+            StringBuilder hex = new StringBuilder(64);
+            for (byte b : digest.digest()) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+
+    /**
+     * Загрузка образа в программу. Возвращает false, если образа нет
+     * или драйвер его не принял - тогда программу нужно скомпилировать.
+     */
+    boolean load(String key, int programId) {
+        Path file = directory.resolve(key + ".bin");
+        if (!Files.isRegularFile(file)) {
+            return false;
+        }
+
+        byte[] data;
+        try {
+            data = Files.readAllBytes(file);
+        } catch (IOException e) {
+            System.err.println("Не удалось прочитать кэш шейдеров: " + file + ": " + e.getMessage());
+            return false;
+        }
+
+        ByteBuffer header = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        if (data.length < HEADER_BYTES || header.getInt(0) != MAGIC
+            || header.getInt(8) != data.length - HEADER_BYTES) {
+            System.err.println("Поврежденный файл кэша шейдеров: " + file);
+            return false;
+        }
+
+        ByteBuffer binary = MemoryUtil.memAlloc(data.length - HEADER_BYTES);
+        try {
+            binary.put(data, HEADER_BYTES, data.length - HEADER_BYTES).flip();
+            GL41.glProgramBinary(programId, header.getInt(4), binary);
+        } finally {
+            MemoryUtil.memFree(binary);
+        }
+
+        // Драйвер вправе отклонить образ (например, после обновления)
+        return GL20.glGetProgrami(programId, GL20.GL_LINK_STATUS) != 0;
+    }
+
+    /**
+     * Сохранение образа слинкованной программы.
+     * Файл пишется во временный и переименовывается, чтобы не оставить половину образа.
+     */
+    void store(String key, int programId) {
+        int length = GL20.glGetProgrami(programId, GL41.GL_PROGRAM_BINARY_LENGTH);
+        if (length <= 0) {
+            return;
+        }
+
+        byte[] data = new byte[HEADER_BYTES + length];
+        ByteBuffer binary = MemoryUtil.memAlloc(length);
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            IntBuffer written = stack.mallocInt(1);
+            IntBuffer format = stack.mallocInt(1);
+            GL41.glGetProgramBinary(programId, written, format, binary);
+            binary.get(data, HEADER_BYTES, written.get(0));
+
+            ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(MAGIC)
+                .putInt(format.get(0))
+                .putInt(written.get(0));
+            int size = HEADER_BYTES + written.get(0);
+
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, key, ".tmp");
+            Files.write(temp, size == data.length ? data : Arrays.copyOf(data, size));
+            Files.move(temp, directory.resolve(key + ".bin"),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Не удалось записать кэш шейдеров: " + directory + ": " + e.getMessage());
+        } finally {
+            MemoryUtil.memFree(binary);
+        }
+    }
+
+    /**
+     * Учет линковки программы
+     */
+    void record(boolean hit, long nanos) {
+        if (hit) {
+            hits++;
+        } else {
+            misses++;
+        }
+        linkNanos += nanos;
+    }
+
+    /**
+     * Количество программ, загруженных из кэша
+     */
+    public int getHits() {
+        return hits;
+    }
+
+    /**
+     * Количество скомпилированных программ
+     */
+    public int getMisses() {
+        return misses;
+    }
+
+    /**
+     * Суммарное время создания программ (компиляция и линковка или загрузка образа)
+     */
+    public long getLinkNanos() {
+        return linkNanos;
+    }
+}
@@ -1,42 +1,70 @@
 package main.java.com.example.render;
 
 import org.joml.Matrix4f;
+import org.joml.Vector3f;
 import org.lwjgl.opengl.GL11;
 import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL31;
+import org.lwjgl.opengl.GL41;
 import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
 
 import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
- * Класс для работы с шейдерными программами
+ * Класс для работы с шейдерными программами.
+ * Исходники шейдеров компилируются при линковке; если в кэше шейдеров
+ * есть образ программы для тех же исходников и драйвера, он загружается
+ * вместо компиляции.
  */
 public class ShaderProgram {
     private final int programId;
-    private int vertexShaderId;
-    private int fragmentShaderId;
+    private String vertexShaderCode;
+    private String fragmentShaderCode;
+
+    // Кэш двоичных образов программ
+    private final ShaderCache cache;
+
+    // Позиции uniform-переменных, определяемые один раз при линковке
+    private final Map<String, Integer> uniformLocations = new HashMap<>();
+
+    // Буфер для передачи матриц, выделяется один раз на программу
+    private final FloatBuffer matrixBuffer;
     
     /**
-     * Конструктор
+     * Конструктор с общим кэшем программ
      */
     public ShaderProgram() {
+        this(ShaderCache.shared());
+    }
+
+    /**
+     * Конструктор с заданным кэшем программ
+     */
+    public ShaderProgram(ShaderCache cache) {
+        this.cache = cache;
         programId = GL20.glCreateProgram();
         if (programId == 0) {
             throw new RuntimeException("Не удалось создать шейдерную программу");
         }
+        matrixBuffer = MemoryUtil.memAllocFloat(16);
     }
     
     /**
-     * Создание вершинного шейдера
+     * Создание вершинного шейдера (компилируется при линковке)
      */
     public void createVertexShader(String shaderCode) {
-        vertexShaderId = createShader(shaderCode, GL20.GL_VERTEX_SHADER);
+        vertexShaderCode = shaderCode;
     }
     
     /**
-     * Создание фрагментного шейдера
+     * Создание фрагментного шейдера (компилируется при линковке)
      */
     public void createFragmentShader(String shaderCode) {
-        fragmentShaderId = createShader(shaderCode, GL20.GL_FRAGMENT_SHADER);
+        fragmentShaderCode = shaderCode;
     }
     
     /**
@@ -61,26 +89,111 @@ public class ShaderProgram {
     }
     
     /**
-     * Линковка шейдерной программы
+     * Линковка шейдерной программы: загрузка образа из кэша
+     * или компиляция исходников с сохранением образа в кэш
      */
     public void link() {
+        if (vertexShaderCode == null || fragmentShaderCode == null) {
+            throw new IllegalStateException("Не заданы исходники вершинного и фрагментного шейдеров");
+        }
+
+        long start = System.nanoTime();
+        boolean useCache = cache.isAvailable();
+        String key = useCache ? cache.key(vertexShaderCode, fragmentShaderCode) : null;
+
+        boolean hit = useCache && cache.load(key, programId);
+        if (!hit) {
+            compileAndLink(useCache);
+            if (useCache) {
+                cache.store(key, programId);
+            }
+        }
+        cache.record(hit, System.nanoTime() - start);
+
+        cacheUniformLocations();
+    }
+
+    /**
+     * Компиляция шейдеров и линковка программы
+     */
+    private void compileAndLink(boolean retrievable) {
+        int vertexShaderId = createShader(vertexShaderCode, GL20.GL_VERTEX_SHADER);
+        int fragmentShaderId = createShader(fragmentShaderCode, GL20.GL_FRAGMENT_SHADER);
+
+        // Драйвер должен сохранить образ программы, чтобы его можно было получить
+        if (retrievable) {
+            GL41.glProgramParameteri(programId, GL41.GL_PROGRAM_BINARY_RETRIEVABLE_HINT, GL11.GL_TRUE);
+        }
+
         GL20.glLinkProgram(programId);
+        GL20.glDetachShader(programId, vertexShaderId);
+        GL20.glDetachShader(programId, fragmentShaderId);
+        GL20.glDeleteShader(vertexShaderId);
+        GL20.glDeleteShader(fragmentShaderId);
+
         if (GL20.glGetProgrami(programId, GL20.GL_LINK_STATUS) == 0) {
             throw new RuntimeException("Ошибка линковки шейдерной программы: " + GL20.glGetProgramInfoLog(programId, 1024));
         }
         
-        if (vertexShaderId != 0) {
-            GL20.glDetachShader(programId, vertexShaderId);
-        }
-        if (fragmentShaderId != 0) {
-            GL20.glDetachShader(programId, fragmentShaderId);
-        }
-        
         GL20.glValidateProgram(programId);
         if (GL20.glGetProgrami(programId, GL20.GL_VALIDATE_STATUS) == 0) {
             System.err.println("Предупреждение валидации шейдерной программы: " + GL20.glGetProgramInfoLog(programId, 1024));
         }
     }
+
+    /**
+     * Кэширование позиций всех активных uniform-переменных программы
+     */
+    private void cacheUniformLocations() {
+        uniformLocations.clear();
+
+        int uniformCount = GL20.glGetProgrami(programId, GL20.GL_ACTIVE_UNIFORMS);
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            IntBuffer size = stack.mallocInt(1);
+            IntBuffer type = stack.mallocInt(1);
+            for (int i = 0; i < uniformCount; i++) {
+                String name = GL20.glGetActiveUniform(programId, i, size, type);
+
+                // Для массивов драйвер возвращает имя вида "name[0]"
+                int bracket = name.indexOf('[');
+                if (bracket >= 0) {
+                    name = name.substring(0, bracket);
+                }
+
+                // Переменные из uniform-блоков не имеют позиции и пропускаются
+                int location = GL20.glGetUniformLocation(programId, name);
+                if (location != -1) {
+                    uniformLocations.put(name, location);
+                }
+            }
+        }
+    }
+
+    /**
+     * Получение позиции uniform-переменной из кэша (-1, если переменной нет)
+     */
+    public int getUniformLocation(String uniformName) {
+        Integer location = uniformLocations.get(uniformName);
+        return location != null ? location : -1;
+    }
+
+    /**
+     * Привязка uniform-блока программы к точке привязки
+     */
+    public void bindUniformBlock(String blockName, int bindingPoint) {
+        int blockIndex = GL31.glGetUniformBlockIndex(programId, blockName);
+        if (blockIndex == GL31.GL_INVALID_INDEX) {
+            throw new RuntimeException("Uniform-блок не найден: " + blockName);
+        }
+        GL31.glUniformBlockBinding(programId, blockIndex, bindingPoint);
+    }
+    
+    /**
+     * Идентификатор программы OpenGL
+     */
+    public int getProgramId() {
+        return programId;
+    }
     
     /**
      * Привязка шейдерной программы
@@ -100,13 +213,43 @@ public class ShaderProgram {
      * Установка uniform-переменной типа Matrix4f
      */
     public void setUniform(String uniformName, Matrix4f value) {
-        try (MemoryStack stack = MemoryStack.stackPush()) {
-            FloatBuffer fb = stack.mallocFloat(16);
-            value.get(fb);
-            int location = GL20.glGetUniformLocation(programId, uniformName);
-            if (location != -1) {
-                GL20.glUniformMatrix4fv(location, false, fb);
-            }
+        setUniform(getUniformLocation(uniformName), value);
+    }
+
+    /**
+     * Установка uniform-переменной типа Matrix4f по позиции
+     */
+    public void setUniform(int location, Matrix4f value) {
+        if (location != -1) {
+            value.get(matrixBuffer);
+            GL20.glUniformMatrix4fv(location, false, matrixBuffer);
+        }
+    }
+
+    /**
+     * Установка uniform-переменной типа Vector3f по позиции
+     */
+    public void setUniform(int location, Vector3f value) {
+        if (location != -1) {
+            GL20.glUniform3f(location, value.x, value.y, value.z);
+        }
+    }
+
+    /**
+     * Установка uniform-переменной типа float по позиции
+     */
+    public void setUniform(int location, float value) {
+        if (location != -1) {
+            GL20.glUniform1f(location, value);
+        }
+    }
+
+    /**
+     * Установка uniform-переменной типа int по позиции
+     */
+    public void setUniform(int location, int value) {
+        if (location != -1) {
+            GL20.glUniform1i(location, value);
         }
     }
     
@@ -118,5 +261,6 @@ public class ShaderProgram {
         if (programId != 0) {
             GL20.glDeleteProgram(programId);
         }
+        MemoryUtil.memFree(matrixBuffer);
     }
 }
@@ -0,0 +1,433 @@
+package main.java.com.example.render;
+
+import main.java.com.example.mesh.MeshData;
+import org.joml.FrustumIntersection;
+import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
+import org.joml.Vector3f;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL32;
+import org.lwjgl.opengl.GL33;
+import org.lwjgl.opengl.GL40;
+import org.lwjgl.opengl.GL43;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Пакет статических сеток: все сетки лежат в общем буфере вершин и индексов
+ * со смещениями для каждой сетки, матрицы объектов - в буфере экземпляров.
+ * Буфер команд косвенной отрисовки строится один раз, и все объекты рисуются
+ * одним вызовом glMultiDrawElementsIndirect (OpenGL 4.3). Без OpenGL 4.3
+ * используется запасной путь: по вызову glDrawElementsBaseVertex на объект.
+ *
+ * Порядок использования: addMesh/addObject, затем build; после build
+ * можно менять только матрицы объектов (setTransform) и видимость (cull).
+ * Пакет отправляется в очередь рендеринга одной отрисовкой (submit).
+ *
+ * Данные сеток загружаются в общие буферы прямо из их блоков в прямой памяти:
+ * сетка, отображенная из файла (MeshFile.map), попадает на GPU без копии в куче.
+ */
+public class StaticMeshBatch implements Drawable {
+    // Формат вершины: позиция и цвет
+    public static final int VERTEX_FLOATS = 6;
+
+    // Команда косвенной отрисовки: count, instanceCount, firstIndex, baseVertex, baseInstance
+    private static final int COMMAND_INTS = 5;
+    private static final int MATRIX_FLOATS = 16;
+    private static final int MATRIX_BYTES = MATRIX_FLOATS * Float.BYTES;
+
+    // Первый атрибут матрицы объекта (занимает четыре подряд)
+    private static final int MODEL_ATTRIBUTE = 2;
+
+    private final RenderStats stats;
+    private final ShaderProgram shaderProgram;
+
+    // Данные до загрузки на GPU
+    private final List<MeshData> meshes = new ArrayList<>();
+    private final List<Matrix4f> objectTransforms = new ArrayList<>();
+    private final List<Integer> objectMeshes = new ArrayList<>();
+
+    // Смещения сеток в общих буферах и их локальные ограничивающие объемы
+    private int[] meshBaseVertex;
+    private int[] meshFirstIndex;
+    private int[] meshIndexCount;
+    private float[] meshBounds;
+
+    // Объекты: сетка, ограничивающий объем в мире (min xyz, max xyz) и видимость
+    private int objectCount;
+    private int[] objectMesh;
+    private float[] objectBounds;
+    private boolean[] objectVisible;
+    private int visibleCount;
+
+    // Данные команд и матриц на стороне CPU; грязные части загружаются перед отрисовкой
+    private IntBuffer commands;
+    private FloatBuffer transforms;
+    private boolean commandsDirty;
+    private int dirtyFirstObject = Integer.MAX_VALUE;
+    private int dirtyLastObject = -1;
+
+    // Идентификаторы OpenGL объектов
+    private int vaoId;
+    private int vboId;
+    private int eboId;
+    private int instanceVboId;
+    private int commandBufferId;
+
+    private boolean indirect;
+    private boolean built;
+
+    private final Vector3f boundsMin = new Vector3f();
+    private final Vector3f boundsMax = new Vector3f();
+
+    /**
+     * Конструктор
+     */
+    public StaticMeshBatch(CameraUniforms cameraUniforms, RenderStats stats) {
+        this.stats = stats;
+
+        // Матрица объекта приходит атрибутом экземпляра
+        shaderProgram = new ShaderProgram();
+        shaderProgram.createVertexShader(
+            "#version 330 core\n" +
+            "layout (location = 0) in vec3 aPos;\n" +
+            "layout (location = 1) in vec3 aColor;\n" +
+            "layout (location = 2) in mat4 aModel;\n" +
+            "out vec3 ourColor;\n" +
+            CameraUniforms.GLSL_BLOCK +
+            "void main() {\n" +
+            "    gl_Position = projection * view * aModel * vec4(aPos, 1.0);\n" +
+            "    ourColor = aColor;\n" +
+            "}"
+        );
+        shaderProgram.createFragmentShader(
+            "#version 330 core\n" +
+            "in vec3 ourColor;\n" +
+            "out vec4 FragColor;\n" +
+            "void main() {\n" +
+            "    FragColor = vec4(ourColor, 1.0);\n" +
+            "}"
+        );
+        shaderProgram.link();
+        cameraUniforms.attach(shaderProgram);
+    }
+
+    /**
+     * Добавление сетки (по VERTEX_FLOATS значений на вершину), возвращает ее номер
+     */
+    public int addMesh(float[] vertices, int[] indices) {
+        checkNotBuilt();
+        return addMesh(MeshData.fromArrays(vertices, indices, 3, 3));
+    }
+
+    /**
+     * Добавление сетки из прямой памяти (например, отображенной из файла),
+     * возвращает ее номер. Формат вершины - позиция и цвет по три float.
+     * Сетка освобождается после загрузки на GPU (build).
+     */
+    public int addMesh(MeshData mesh) {
+        checkNotBuilt();
+        if (mesh.getAttributeCount() != 2 || mesh.getComponents(0) != 3 || mesh.getComponents(1) != 3) {
+            throw new IllegalArgumentException("Формат вершины сетки должен быть: позиция (3 float), цвет (3 float)");
+        }
+        meshes.add(mesh);
+        return meshes.size() - 1;
+    }
+
+    /**
+     * Добавление объекта с сеткой mesh и матрицей transform, возвращает номер объекта
+     */
+    public int addObject(int mesh, Matrix4fc transform) {
+        checkNotBuilt();
+        if (mesh < 0 || mesh >= meshes.size()) {
+            throw new IllegalArgumentException("Неизвестная сетка: " + mesh);
+        }
+        objectMeshes.add(mesh);
+        objectTransforms.add(new Matrix4f(transform));
+        return objectTransforms.size() - 1;
+    }
+
+    private void checkNotBuilt() {
+        if (built) {
+            throw new IllegalStateException("Пакет сеток уже загружен на GPU");
+        }
+    }
+
+    /**
+     * Упаковка сеток и объектов в общие буферы и загрузка на GPU
+     */
+    public void build() {
+        checkNotBuilt();
+        built = true;
+        indirect = GL.getCapabilities().OpenGL43;
+
+        // Смещения сеток в общем буфере
+        int meshCount = meshes.size();
+        meshBaseVertex = new int[meshCount];
+        meshFirstIndex = new int[meshCount];
+        meshIndexCount = new int[meshCount];
+        meshBounds = new float[meshCount * 6];
+        int totalVertices = 0;
+        int totalIndices = 0;
+        for (int mesh = 0; mesh < meshCount; mesh++) {
+            MeshData data = meshes.get(mesh);
+            meshBaseVertex[mesh] = totalVertices;
+            meshFirstIndex[mesh] = totalIndices;
+            meshIndexCount[mesh] = data.getIndexCount();
+            totalVertices += data.getVertexCount();
+            totalIndices += data.getIndexCount();
+            for (int i = 0; i < 6; i++) {
+                meshBounds[mesh * 6 + i] = data.getBound(i);
+            }
+        }
+
+        // Объекты, их матрицы и команды отрисовки (по команде на объект)
+        objectCount = objectTransforms.size();
+        objectMesh = new int[objectCount];
+        objectBounds = new float[objectCount * 6];
+        objectVisible = new boolean[objectCount];
+        transforms = MemoryUtil.memAllocFloat(Math.max(1, objectCount) * MATRIX_FLOATS);
+        commands = MemoryUtil.memAllocInt(Math.max(1, objectCount) * COMMAND_INTS);
+        for (int object = 0; object < objectCount; object++) {
+            int mesh = objectMeshes.get(object);
+            objectMesh[object] = mesh;
+            objectVisible[object] = true;
+            objectTransforms.get(object).get(object * MATRIX_FLOATS, transforms);
+            updateObjectBounds(object, objectTransforms.get(object));
+
+            int offset = object * COMMAND_INTS;
+            commands.put(offset, meshIndexCount[mesh]);
+            commands.put(offset + 1, 1);
+            commands.put(offset + 2, meshFirstIndex[mesh]);
+            commands.put(offset + 3, meshBaseVertex[mesh]);
+            commands.put(offset + 4, object);
+        }
+        visibleCount = objectCount;
+
+        // Создание VAO с общими буферами
+        vaoId = GL30.glGenVertexArrays();
+        GL30.glBindVertexArray(vaoId);
+
+        // Блоки сеток копируются драйвером прямо из их памяти по смещениям сеток
+        vboId = GL15.glGenBuffers();
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vboId);
+        GL15.glBufferData(GL15.GL_ARRAY_BUFFER, (long) totalVertices * VERTEX_FLOATS * Float.BYTES, GL15.GL_STATIC_DRAW);
+        for (int mesh = 0; mesh < meshCount; mesh++) {
+            GL15.glBufferSubData(GL15.GL_ARRAY_BUFFER,
+                (long) meshBaseVertex[mesh] * VERTEX_FLOATS * Float.BYTES, meshes.get(mesh).getVertices());
+        }
+
+        // Позиции и цвета вершин
+        GL20.glVertexAttribPointer(0, 3, GL11.GL_FLOAT, false, VERTEX_FLOATS * Float.BYTES, 0);
+        GL20.glEnableVertexAttribArray(0);
+        GL20.glVertexAttribPointer(1, 3, GL11.GL_FLOAT, false, VERTEX_FLOATS * Float.BYTES, 3 * Float.BYTES);
+        GL20.glEnableVertexAttribArray(1);
+
+        // Матрицы объектов: mat4 занимает четыре атрибута, по одному значению на экземпляр
+        instanceVboId = GL15.glGenBuffers();
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, instanceVboId);
+        GL15.glBufferData(GL15.GL_ARRAY_BUFFER, transforms, GL15.GL_DYNAMIC_DRAW);
+        pointModelAttributes(0);
+        for (int column = 0; column < 4; column++) {
+            GL20.glEnableVertexAttribArray(MODEL_ATTRIBUTE + column);
+            GL33.glVertexAttribDivisor(MODEL_ATTRIBUTE + column, 1);
+        }
+
+        eboId = GL15.glGenBuffers();
+        GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, eboId);
+        GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, (long) totalIndices * Integer.BYTES, GL15.GL_STATIC_DRAW);
+        for (int mesh = 0; mesh < meshCount; mesh++) {
+            // Индексы остаются локальными: смещение вершин задает baseVertex команды
+            GL15.glBufferSubData(GL15.GL_ELEMENT_ARRAY_BUFFER,
+                (long) meshFirstIndex[mesh] * Integer.BYTES, meshes.get(mesh).getIndices());
+        }
+
+        GL30.glBindVertexArray(0);
+
+        // Буфер команд косвенной отрисовки
+        if (indirect) {
+            commandBufferId = GL15.glGenBuffers();
+            GL15.glBindBuffer(GL40.GL_DRAW_INDIRECT_BUFFER, commandBufferId);
+            GL15.glBufferData(GL40.GL_DRAW_INDIRECT_BUFFER, commands, GL15.GL_DYNAMIC_DRAW);
+            GL15.glBindBuffer(GL40.GL_DRAW_INDIRECT_BUFFER, 0);
+        }
+
+        // Исходные данные больше не нужны
+        for (MeshData mesh : meshes) {
+            mesh.free();
+        }
+        meshes.clear();
+        objectTransforms.clear();
+        objectMeshes.clear();
+    }
+
+    /**
+     * Указатели атрибутов матрицы на объект firstObject в буфере экземпляров
+     */
+    private void pointModelAttributes(int firstObject) {
+        long offset = (long) firstObject * MATRIX_BYTES;
+        for (int column = 0; column < 4; column++) {
+            GL20.glVertexAttribPointer(MODEL_ATTRIBUTE + column, 4, GL11.GL_FLOAT, false,
+                MATRIX_BYTES, offset + (long) column * 4 * Float.BYTES);
+        }
+    }
+
+    /**
+     * Ограничивающий объем объекта в мире по его матрице
+     */
+    private void updateObjectBounds(int object, Matrix4fc transform) {
+        int mesh = objectMesh[object] * 6;
+        transform.transformAab(
+            meshBounds[mesh], meshBounds[mesh + 1], meshBounds[mesh + 2],
+            meshBounds[mesh + 3], meshBounds[mesh + 4], meshBounds[mesh + 5],
+            boundsMin, boundsMax
+        );
+        int offset = object * 6;
+        objectBounds[offset] = boundsMin.x;
+        objectBounds[offset + 1] = boundsMin.y;
+        objectBounds[offset + 2] = boundsMin.z;
+        objectBounds[offset + 3] = boundsMax.x;
+        objectBounds[offset + 4] = boundsMax.y;
+        objectBounds[offset + 5] = boundsMax.z;
+    }
+
+    /**
+     * Замена матрицы объекта (загружается на GPU перед следующей отрисовкой)
+     */
+    public void setTransform(int object, Matrix4fc transform) {
+        transform.get(object * MATRIX_FLOATS, transforms);
+        updateObjectBounds(object, transform);
+        dirtyFirstObject = Math.min(dirtyFirstObject, object);
+        dirtyLastObject = Math.max(dirtyLastObject, object);
+    }
+
+    /**
+     * Отсечение объектов по пирамиде видимости. Невидимые объекты получают
+     * instanceCount = 0 в своей команде; буфер команд перезагружается,
+     * только если видимость изменилась.
+     *
+     * @return количество видимых объектов
+     */
+    public int cull(FrustumIntersection frustum) {
+        visibleCount = 0;
+        for (int object = 0; object < objectCount; object++) {
+            int offset = object * 6;
+            boolean visible = frustum.testAab(
+                objectBounds[offset], objectBounds[offset + 1], objectBounds[offset + 2],
+                objectBounds[offset + 3], objectBounds[offset + 4], objectBounds[offset + 5]
+            );
+            if (visible != objectVisible[object]) {
+                objectVisible[object] = visible;
+                commands.put(object * COMMAND_INTS + 1, visible ? 1 : 0);
+                commandsDirty = true;
+            }
+            if (visible) {
+                visibleCount++;
+            }
+        }
+        return visibleCount;
+    }
+
+    /**
+     * Отправка пакета в очередь рендеринга, если в нем есть видимые объекты
+     */
+    public void submit(RenderQueue queue) {
+        if (visibleCount > 0) {
+            queue.submit(this, 0, shaderProgram.getProgramId(), vaoId, false, true, 0.0f);
+        }
+    }
+
+    /**
+     * Рендеринг всех видимых объектов пакета
+     */
+    @Override
+    public void draw(int param, GLStateCache state) {
+        // Загрузка измененных матриц одним вызовом
+        if (dirtyLastObject >= 0) {
+            state.bindArrayBuffer(instanceVboId);
+            GL15.nglBufferSubData(
+                GL15.GL_ARRAY_BUFFER,
+                (long) dirtyFirstObject * MATRIX_BYTES,
+                (long) (dirtyLastObject - dirtyFirstObject + 1) * MATRIX_BYTES,
+                MemoryUtil.memAddress(transforms) + (long) dirtyFirstObject * MATRIX_BYTES
+            );
+            dirtyFirstObject = Integer.MAX_VALUE;
+            dirtyLastObject = -1;
+            stats.call();
+        }
+
+        if (indirect) {
+            state.bindIndirectBuffer(commandBufferId);
+            if (commandsDirty) {
+                GL15.glBufferSubData(GL40.GL_DRAW_INDIRECT_BUFFER, 0, commands);
+                commandsDirty = false;
+                stats.call();
+            }
+
+            // Все объекты одним вызовом
+            GL43.glMultiDrawElementsIndirect(GL11.GL_TRIANGLES, GL11.GL_UNSIGNED_INT, 0, objectCount, 0);
+            stats.draw();
+        } else {
+            // Запасной путь: атрибуты матрицы указывают на объект, вызов на объект
+            state.bindArrayBuffer(instanceVboId);
+            for (int object = 0; object < objectCount; object++) {
+                if (!objectVisible[object]) {
+                    continue;
+                }
+                int mesh = objectMesh[object];
+                pointModelAttributes(object);
+                GL32.glDrawElementsBaseVertex(GL11.GL_TRIANGLES, meshIndexCount[mesh], GL11.GL_UNSIGNED_INT,
+                    (long) meshFirstIndex[mesh] * Integer.BYTES, meshBaseVertex[mesh]);
+                stats.calls(4);
+                stats.draw();
+            }
+        }
+    }
+
+    /**
+     * Используется ли косвенная отрисовка одним вызовом
+     */
+    public boolean isIndirect() {
+        return indirect;
+    }
+
+    /**
+     * Количество объектов пакета
+     */
+    public int getObjectCount() {
+        return objectCount;
+    }
+
+    /**
+     * Количество видимых объектов после последнего отсечения
+     */
+    public int getVisibleCount() {
+        return visibleCount;
+    }
+
+    /**
+     * Освобождение ресурсов
+     */
+    public void cleanup() {
+        shaderProgram.cleanup();
+        if (built) {
+            GL15.glDeleteBuffers(vboId);
+            GL15.glDeleteBuffers(eboId);
+            GL15.glDeleteBuffers(instanceVboId);
+            if (indirect) {
+                GL15.glDeleteBuffers(commandBufferId);
+            }
+            GL30.glDeleteVertexArrays(vaoId);
+            MemoryUtil.memFree(transforms);
+            MemoryUtil.memFree(commands);
+        }
+    }
+}
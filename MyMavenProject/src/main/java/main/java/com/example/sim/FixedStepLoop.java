@@ -0,0 +1,338 @@
+package main.java.com.example.sim;
+
+import main.java.com.example.profiling.FrameProfiler;
+import main.java.com.example.profiling.SimulationTickEvent;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Симуляция с фиксированным шагом в отдельном потоке.
+ * Частота шагов не зависит от частоты кадров: после каждого шага поток
+ * симуляции публикует снимок мира через тройной буфер без блокировок,
+ * поток рендеринга забирает последний снимок и интерполирует внутри шага.
+ */
+public class FixedStepLoop implements Runnable {
+    private final Simulation simulation;
+    private final SimulationInput input;
+
+    // Ввод шага: копия общего ввода, чтобы шаг и его запись в журнал видели одни значения
+    private final SimulationInput tickInput = new SimulationInput();
+
+    // Длительность шага
+    private final long stepNanos;
+    private final float stepSeconds;
+
+    // Защита от "спирали смерти": максимум шагов за одно пробуждение
+    private final int maxStepsPerWake;
+
+    // Снимки мира: пишет поток симуляции, читает поток рендеринга
+    private final TripleBuffer<FrameSnapshot> snapshots = new TripleBuffer<>(FrameSnapshot::new);
+
+    // Счетчики потока рендеринга: последний показанный шаг, снимки,
+    // замененные до показа, и кадры без нового снимка
+    private long lastRenderedTick = -1;
+    private long skippedSnapshots;
+    private long repeatedFrames;
+
+    // Счетчики (пишет только поток симуляции)
+    private volatile long ticks;
+    private volatile long caughtUpTicks;
+    private volatile long droppedTicks;
+
+    // Профилировщик шагов (null - без замеров), задается до запуска
+    private FrameProfiler profiler;
+
+    // Журнал ввода шагов (null - без записи), задается до запуска
+    private InputRecorder recorder;
+
+    // Запросы сохранения и загрузки снимка мира: задает любой поток, выполняет поток симуляции
+    private volatile Path saveRequest;
+    private volatile Path loadRequest;
+    private WorldSnapshot worldSnapshot;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    /**
+     * Конструктор
+     *
+     * @param hz              частота симуляции (например, 60, 120 или 240)
+     * @param maxStepsPerWake максимум шагов, выполняемых подряд при отставании
+     */
+    public FixedStepLoop(Simulation simulation, SimulationInput input, int hz, int maxStepsPerWake) {
+        if (hz <= 0) {
+            throw new IllegalArgumentException("Частота симуляции должна быть положительной: " + hz);
+        }
+        this.simulation = simulation;
+        this.input = input;
+        this.stepNanos = 1_000_000_000L / hz;
+        this.stepSeconds = 1.0f / hz;
+        this.maxStepsPerWake = Math.max(1, maxStepsPerWake);
+    }
+
+    /**
+     * Подключение профилировщика длительности шагов (до запуска потока)
+     */
+    public void setProfiler(FrameProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * Подключение журнала ввода шагов (до запуска потока)
+     */
+    public void setRecorder(InputRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * Запуск потока симуляции
+     */
+    public void start() {
+        // Начальный снимок публикуется до запуска потока
+        FrameSnapshot snapshot = snapshots.getBack();
+        simulation.capture(snapshot);
+        snapshot.timeNanos = System.nanoTime();
+        snapshots.publish();
+        acquireSnapshot();
+
+        running = true;
+        thread = new Thread(this, "simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Остановка потока симуляции с ожиданием его завершения
+     */
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        long nextTick = System.nanoTime() + stepNanos;
+
+        while (running) {
+            long now = System.nanoTime();
+            if (now < nextTick) {
+                LockSupport.parkNanos(nextTick - now);
+                continue;
+            }
+
+            if (saveRequest != null || loadRequest != null) {
+                processSnapshotRequests();
+            }
+
+            // Выполняем накопившиеся шаги, но не больше maxStepsPerWake
+            int steps = 0;
+            while (now >= nextTick && steps < maxStepsPerWake) {
+                tick();
+                FrameSnapshot snapshot = snapshots.getBack();
+                simulation.capture(snapshot);
+                snapshot.timeNanos = nextTick;
+                snapshots.publish();
+
+                nextTick += stepNanos;
+                steps++;
+            }
+            ticks += steps;
+            if (steps > 1) {
+                caughtUpTicks += steps - 1;
+            }
+
+            // Если отставание осталось, пропускаем его вместо бесконечного догоняния
+            if (now >= nextTick) {
+                long behind = (now - nextTick) / stepNanos + 1;
+                droppedTicks += behind;
+                nextTick += behind * stepNanos;
+            }
+        }
+    }
+
+    /**
+     * Запрос сохранения снимка мира между шагами
+     */
+    public void requestSave(Path file) {
+        saveRequest = file;
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * Запрос загрузки снимка мира между шагами
+     */
+    public void requestLoad(Path file) {
+        loadRequest = file;
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * Выполнение запросов сохранения и загрузки снимка мира (поток симуляции).
+     * Ошибка выводится и не останавливает симуляцию: поврежденный снимок
+     * отклоняется до изменения состояния.
+     */
+    private void processSnapshotRequests() {
+        if (worldSnapshot == null) {
+            worldSnapshot = new WorldSnapshot();
+        }
+
+        Path save = saveRequest;
+        if (save != null) {
+            saveRequest = null;
+            long start = System.nanoTime();
+            try {
+                long bytes = worldSnapshot.save(simulation, save);
+                System.out.printf("Снимок мира сохранен: %s, %d байт за %.2f мс%n",
+                    save, bytes, (System.nanoTime() - start) / 1e6);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Не удалось сохранить снимок мира: " + save + ": " + e);
+            }
+        }
+
+        Path load = loadRequest;
+        if (load != null) {
+            loadRequest = null;
+            long start = System.nanoTime();
+            try {
+                worldSnapshot.load(simulation, load);
+                System.out.printf("Снимок мира загружен: %s, шаг %d за %.2f мс%n",
+                    load, simulation.getTick(), (System.nanoTime() - start) / 1e6);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Не удалось загрузить снимок мира: " + load + ": " + e);
+                return;
+            }
+
+            // Рендеринг сразу получает загруженное состояние
+            FrameSnapshot snapshot = snapshots.getBack();
+            simulation.capture(snapshot);
+            snapshot.timeNanos = System.nanoTime();
+            snapshots.publish();
+        }
+    }
+
+    /**
+     * Один шаг симуляции с замером длительности и событием JFR
+     */
+    private void tick() {
+        // При выключенной записи JFR объект события устраняется компилятором
+        SimulationTickEvent event = new SimulationTickEvent();
+        event.begin();
+        long start = System.nanoTime();
+
+        tickInput.setKeys(input.getKeys());
+        tickInput.setLook(input.getYaw(), input.getPitch());
+        simulation.tick(stepSeconds, tickInput);
+
+        if (profiler != null) {
+            profiler.mark(FrameProfiler.Stage.TICK, start);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.tick = simulation.getTick();
+            event.pairs = simulation.getBodies().getPairCount();
+            event.contacts = simulation.getBodies().getContactCount();
+            event.sleeping = simulation.getBodies().getSleepingCount();
+            event.commit();
+        }
+
+        if (recorder != null) {
+            recorder.append(tickInput, stepSeconds, recorder.isChecksumDue() ? simulation.checksum() : 0L);
+        }
+    }
+
+    /**
+     * Последний опубликованный снимок (поток рендеринга).
+     * Снимок остается неизменным до следующего вызова.
+     */
+    public FrameSnapshot acquireSnapshot() {
+        if (snapshots.update()) {
+            FrameSnapshot snapshot = snapshots.getFront();
+            if (lastRenderedTick >= 0 && snapshot.tick > lastRenderedTick + 1) {
+                skippedSnapshots += snapshot.tick - lastRenderedTick - 1;
+            }
+            lastRenderedTick = snapshot.tick;
+        } else {
+            repeatedFrames++;
+        }
+        return snapshots.getFront();
+    }
+
+    /**
+     * Доля шага, прошедшая к моменту nowNanos после шага снимка (от 0 до 1)
+     */
+    private float alpha(FrameSnapshot snapshot, long nowNanos) {
+        float alpha = (float) (nowNanos - snapshot.timeNanos) / stepNanos;
+        if (alpha < 0.0f) {
+            return 0.0f;
+        }
+        return Math.min(alpha, 1.0f);
+    }
+
+    /**
+     * Интерполированная для момента nowNanos позиция игрока.
+     * Рендеринг отстает от симуляции не больше чем на один шаг.
+     */
+    public void interpolatePlayerPosition(FrameSnapshot snapshot, long nowNanos, Vector3f dest) {
+        snapshot.previousPlayerPosition.lerp(snapshot.playerPosition, alpha(snapshot, nowNanos), dest);
+    }
+
+    /**
+     * Матрица вида снимка, сдвинутая к интерполированной позиции игрока:
+     * вид = R * T(-глаз), поэтому сдвиг глаза - это умножение справа на перенос
+     */
+    public static void interpolateViewMatrix(FrameSnapshot snapshot, Vector3f playerPosition, Matrix4f dest) {
+        Vector3f snapshotPosition = snapshot.playerPosition;
+        snapshot.viewMatrix.translate(
+            snapshotPosition.x - playerPosition.x,
+            snapshotPosition.y - playerPosition.y,
+            snapshotPosition.z - playerPosition.z,
+            dest
+        );
+    }
+
+    /**
+     * Количество выполненных шагов
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Количество шагов, выполненных сверх одного за пробуждение (догоняние)
+     */
+    public long getCaughtUpTicks() {
+        return caughtUpTicks;
+    }
+
+    /**
+     * Количество пропущенных шагов из-за защиты от спирали смерти
+     */
+    public long getDroppedTicks() {
+        return droppedTicks;
+    }
+
+    /**
+     * Количество снимков, замененных новыми до того, как их показал рендеринг
+     */
+    public long getSkippedSnapshots() {
+        return skippedSnapshots;
+    }
+
+    /**
+     * Количество кадров, для которых не было нового снимка
+     */
+    public long getRepeatedFrames() {
+        return repeatedFrames;
+    }
+}
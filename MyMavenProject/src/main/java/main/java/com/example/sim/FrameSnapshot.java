@@ -0,0 +1,65 @@
+package main.java.com.example.sim;
+
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+
+/**
+ * Снимок мира после шага симуляции, нужный для рендеринга.
+ * Заполняется потоком симуляции и после публикации через TripleBuffer
+ * только читается потоком рендеринга.
+ */
+public class FrameSnapshot {
+    // Номер шага и момент времени, к которому относится снимок
+    long tick;
+    long timeNanos;
+
+    // Позиция игрока до и после шага (для интерполяции)
+    final Vector3f previousPlayerPosition = new Vector3f();
+    final Vector3f playerPosition = new Vector3f();
+
+    // Камера симуляции после шага: позиция глаз и матрица вида
+    final Vector3f cameraPosition = new Vector3f();
+    final Matrix4f viewMatrix = new Matrix4f();
+
+    /**
+     * Номер шага
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Момент времени шага
+     */
+    public long getTimeNanos() {
+        return timeNanos;
+    }
+
+    /**
+     * Позиция игрока до шага
+     */
+    public Vector3f getPreviousPlayerPosition() {
+        return previousPlayerPosition;
+    }
+
+    /**
+     * Позиция игрока после шага
+     */
+    public Vector3f getPlayerPosition() {
+        return playerPosition;
+    }
+
+    /**
+     * Позиция камеры после шага
+     */
+    public Vector3f getCameraPosition() {
+        return cameraPosition;
+    }
+
+    /**
+     * Матрица вида камеры после шага
+     */
+    public Matrix4f getViewMatrix() {
+        return viewMatrix;
+    }
+}
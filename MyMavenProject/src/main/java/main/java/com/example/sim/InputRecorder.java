@@ -0,0 +1,145 @@
+package main.java.com.example.sim;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Запись ввода симуляции по шагам в двоичный журнал (.irec), который только дописывается.
+ * Журнал отображается в память областями по REGION_RECORDS записей: запись шага -
+ * несколько сохранений в память без системных вызовов. Количество записей в заголовке
+ * обновляется после каждой записи, поэтому журнал читается и после аварийного завершения.
+ *
+ * Все числа little-endian:
+ * <pre>
+ *  0  int   сигнатура "IREC"
+ *  4  int   версия формата
+ *  8  int   частота симуляции
+ * 12  int   интервал контрольных сумм состояния в шагах (0 - без них)
+ * 16  int   количество дополнительных тел мира
+ * 20  int   количество дополнительных сущностей
+ * 24  long  количество записей
+ * 32        записи по 24 байта:
+ *           int клавиши, float yaw, float pitch, float длительность шага,
+ *           long контрольная сумма состояния после шага (0 - не считалась)
+ * </pre>
+ * Контрольная сумма пишется в каждую checksumInterval-ю запись.
+ */
+public final class InputRecorder implements AutoCloseable {
+    static final int MAGIC = 0x43455249; // "IREC"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 32;
+    static final int RECORD_BYTES = 24;
+    static final int COUNT_OFFSET = 24;
+
+    // Записей в одной отображаемой области
+    private static final int REGION_RECORDS = 1 << 16;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final int checksumInterval;
+
+    // Текущая область записей и номер ее первой записи
+    private MappedByteBuffer region;
+    private long regionStart;
+
+    private long count;
+
+    /**
+     * Создание журнала (существующий файл перезаписывается)
+     *
+     * @param hz               частота симуляции
+     * @param checksumInterval интервал контрольных сумм в шагах (0 - без них)
+     * @param bodies           количество дополнительных тел мира при записи
+     * @param entities         количество дополнительных сущностей при записи
+     */
+    public InputRecorder(Path file, int hz, int checksumInterval, int bodies, int entities) throws IOException {
+        if (checksumInterval < 0) {
+            throw new IllegalArgumentException("Интервал контрольных сумм не может быть отрицательным: " + checksumInterval);
+        }
+        this.file = file;
+        this.checksumInterval = checksumInterval;
+        this.channel = FileChannel.open(file,
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(0, MAGIC)
+            .putInt(4, VERSION)
+            .putInt(8, hz)
+            .putInt(12, checksumInterval)
+            .putInt(16, bodies)
+            .putInt(20, entities)
+            .putLong(COUNT_OFFSET, 0L);
+        mapRegion(0);
+    }
+
+    /**
+     * Отображение области записей, начиная с записи first (файл растет при отображении)
+     */
+    private void mapRegion(long first) throws IOException {
+        region = channel.map(FileChannel.MapMode.READ_WRITE,
+            HEADER_BYTES + first * RECORD_BYTES, (long) REGION_RECORDS * RECORD_BYTES);
+        region.order(ByteOrder.LITTLE_ENDIAN);
+        regionStart = first;
+    }
+
+    /**
+     * Нужна ли контрольная сумма состояния для следующей записи
+     */
+    public boolean isChecksumDue() {
+        return checksumInterval > 0 && (count + 1) % checksumInterval == 0;
+    }
+
+    /**
+     * Запись ввода очередного шага. checksum учитывается, только если isChecksumDue().
+     */
+    public void append(SimulationInput input, float deltaTime, long checksum) {
+        if (count - regionStart == REGION_RECORDS) {
+            try {
+                mapRegion(count);
+            } catch (IOException e) {
+                throw new RuntimeException("Не удалось расширить журнал ввода: " + file, e);
+            }
+        }
+
+        int at = (int) (count - regionStart) * RECORD_BYTES;
+        region.putInt(at, input.getKeys())
+            .putFloat(at + 4, input.getYaw())
+            .putFloat(at + 8, input.getPitch())
+            .putFloat(at + 12, deltaTime)
+            .putLong(at + 16, isChecksumDue() ? checksum : 0L);
+
+        // Счетчик обновляется после записи: читатель не увидит недописанную запись
+        count++;
+        header.putLong(COUNT_OFFSET, count);
+    }
+
+    /**
+     * Количество записанных шагов
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Сброс журнала на диск и обрезка файла до записанных шагов
+     */
+    @Override
+    public void close() throws IOException {
+        header.force();
+        region.force();
+        try {
+            channel.truncate(HEADER_BYTES + count * RECORD_BYTES);
+        } catch (IOException e) {
+            // Некоторые системы не обрезают отображенный файл; хвост из нулей читатель пропускает
+            System.err.println("Журнал ввода не обрезан: " + e.getMessage());
+        }
+        channel.close();
+    }
+}
@@ -0,0 +1,125 @@
+package main.java.com.example.sim;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Воспроизведение журнала ввода, записанного InputRecorder: шаг за шагом
+ * возвращает клавиши, направление взгляда, длительность шага и контрольную
+ * сумму состояния. Журнал отображается в память только для чтения.
+ */
+public final class InputReplay implements InputSource {
+    private final MappedByteBuffer mapped;
+    private final int hz;
+    private final int checksumInterval;
+    private final int bodies;
+    private final int entities;
+    private final int count;
+
+    private InputReplay(MappedByteBuffer mapped, int hz, int checksumInterval, int bodies, int entities, int count) {
+        this.mapped = mapped;
+        this.hz = hz;
+        this.checksumInterval = checksumInterval;
+        this.bodies = bodies;
+        this.entities = entities;
+        this.count = count;
+    }
+
+    /**
+     * Открытие журнала ввода
+     */
+    public static InputReplay open(Path file) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Журнал ввода слишком велик: " + file);
+            }
+            // Отображение остается действительным после закрытия канала
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (mapped.capacity() < InputRecorder.HEADER_BYTES || mapped.getInt(0) != InputRecorder.MAGIC) {
+            throw new IOException("Файл не является журналом ввода: " + file);
+        }
+        if (mapped.getInt(4) != InputRecorder.VERSION) {
+            throw new IOException("Неподдерживаемая версия журнала ввода " + mapped.getInt(4) + ": " + file);
+        }
+
+        int hz = mapped.getInt(8);
+        int checksumInterval = mapped.getInt(12);
+        long count = mapped.getLong(InputRecorder.COUNT_OFFSET);
+        long available = (mapped.capacity() - InputRecorder.HEADER_BYTES) / InputRecorder.RECORD_BYTES;
+        if (hz <= 0 || checksumInterval < 0 || count < 0 || count > available) {
+            throw new IOException("Поврежденный заголовок журнала ввода: " + file);
+        }
+        return new InputReplay(mapped, hz, checksumInterval, mapped.getInt(16), mapped.getInt(20), (int) count);
+    }
+
+    private int offset(long tick) {
+        if (tick < 0 || tick >= count) {
+            throw new IllegalArgumentException("Шаг " + tick + " вне журнала ввода из " + count + " шагов");
+        }
+        return InputRecorder.HEADER_BYTES + (int) tick * InputRecorder.RECORD_BYTES;
+    }
+
+    @Override
+    public void apply(long tick, SimulationInput input) {
+        int at = offset(tick);
+        input.setKeys(mapped.getInt(at));
+        input.setLook(mapped.getFloat(at + 4), mapped.getFloat(at + 8));
+    }
+
+    /**
+     * Длительность шага tick при записи
+     */
+    public float getDeltaTime(long tick) {
+        return mapped.getFloat(offset(tick) + 12);
+    }
+
+    /**
+     * Есть ли в записи шага tick контрольная сумма состояния
+     */
+    public boolean hasChecksum(long tick) {
+        return checksumInterval > 0 && (tick + 1) % checksumInterval == 0;
+    }
+
+    /**
+     * Контрольная сумма состояния после шага tick при записи
+     */
+    public long getChecksum(long tick) {
+        return mapped.getLong(offset(tick) + 16);
+    }
+
+    /**
+     * Частота симуляции при записи
+     */
+    public int getHz() {
+        return hz;
+    }
+
+    /**
+     * Количество дополнительных тел мира при записи
+     */
+    public int getBodies() {
+        return bodies;
+    }
+
+    /**
+     * Количество дополнительных сущностей при записи
+     */
+    public int getEntities() {
+        return entities;
+    }
+
+    /**
+     * Количество записанных шагов
+     */
+    public int getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,11 @@
+package main.java.com.example.sim;
+
+/**
+ * Источник ввода для симуляции без окна (сценарий, запись).
+ */
+public interface InputSource {
+    /**
+     * Запись ввода для заданного шага симуляции
+     */
+    void apply(long tick, SimulationInput input);
+}
@@ -0,0 +1,99 @@
+package main.java.com.example.sim;
+
+import main.java.com.example.entity.EntityStore;
+import main.java.com.example.entity.Player;
+import main.java.com.example.physics.BodyBuffer;
+import main.java.com.example.render.Camera;
+
+/**
+ * Управление игроком по вводу шага: направление взгляда задает камера игрока,
+ * клавиши ускоряют его сущность, состояние сущности передается телу в общем
+ * блоке и возвращается после шага физики. Симуляция управляет одним игроком,
+ * сервер - игроком каждого клиента.
+ */
+public final class PlayerController {
+    private final Player player;
+    private final Camera camera;
+    private final BodyBuffer bodies;
+    private final int body;
+
+    /**
+     * Конструктор
+     *
+     * @param body индекс тела игрока в блоке тел
+     */
+    public PlayerController(Player player, Camera camera, BodyBuffer bodies, int body) {
+        this.player = player;
+        this.camera = camera;
+        this.bodies = bodies;
+        this.body = body;
+    }
+
+    /**
+     * До шага физики: направление взгляда, ускорение по клавишам
+     * и запись позиции и скорости сущности в тело
+     */
+    public void applyInput(float deltaTime, SimulationInput input) {
+        // Направление взгляда определяет направление движения
+        float yaw = input.getYaw();
+        float pitch = input.getPitch();
+        if (yaw != camera.getYaw() || pitch != camera.getPitch()) {
+            camera.setDirection(yaw, pitch);
+        }
+
+        // Перемещение игрока относительно камеры
+        int keys = input.getKeys();
+        if ((keys & SimulationInput.KEY_FORWARD) != 0) {
+            player.moveForward(deltaTime, camera);
+        }
+        if ((keys & SimulationInput.KEY_BACKWARD) != 0) {
+            player.moveBackward(deltaTime, camera);
+        }
+        if ((keys & SimulationInput.KEY_LEFT) != 0) {
+            player.moveLeft(deltaTime, camera);
+        }
+        if ((keys & SimulationInput.KEY_RIGHT) != 0) {
+            player.moveRight(deltaTime, camera);
+        }
+
+        EntityStore entities = player.getStore();
+        int index = entities.indexOf(player.getId());
+        bodies.setPosition(body,
+            entities.getPositionX(index), entities.getPositionY(index), entities.getPositionZ(index));
+        bodies.setVelocity(body,
+            entities.getVelocityX(index), entities.getVelocityY(index), entities.getVelocityZ(index));
+    }
+
+    /**
+     * После шага физики: позиция сущности из тела
+     */
+    public void readBody() {
+        EntityStore entities = player.getStore();
+        entities.setPosition(entities.indexOf(player.getId()),
+            bodies.getPositionX(body),
+            bodies.getPositionY(body),
+            bodies.getPositionZ(body)
+        );
+    }
+
+    /**
+     * Игрок
+     */
+    public Player getPlayer() {
+        return player;
+    }
+
+    /**
+     * Камера игрока
+     */
+    public Camera getCamera() {
+        return camera;
+    }
+
+    /**
+     * Индекс тела игрока в блоке тел
+     */
+    public int getBody() {
+        return body;
+    }
+}
@@ -0,0 +1,150 @@
+package main.java.com.example.sim;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Сценарий ввода: последовательность отрезков вида
+ * "длительность в шагах, клавиши, поворот, наклон", повторяемая по кругу.
+ *
+ * Формат файла сценария - по отрезку в строке:
+ * <pre>
+ * # шагов клавиши yaw pitch
+ * 120 W  -90 0
+ * 60  WD -45 0
+ * 30  -  -45 10
+ * </pre>
+ * Клавиши задаются буквами W, A, S, D; "-" означает, что ничего не нажато.
+ */
+public class ScriptedInput implements InputSource {
+    private final int[] durations;
+    private final int[] keys;
+    private final float[] yaws;
+    private final float[] pitches;
+
+    // Суммарная длительность сценария в шагах
+    private final long length;
+
+    // Текущий отрезок и шаг, на котором он закончится
+    private int segment;
+    private long segmentEnd;
+
+    private ScriptedInput(int[] durations, int[] keys, float[] yaws, float[] pitches) {
+        if (durations.length == 0) {
+            throw new IllegalArgumentException("Сценарий ввода пуст");
+        }
+        this.durations = durations;
+        this.keys = keys;
+        this.yaws = yaws;
+        this.pitches = pitches;
+
+        long total = 0;
+        for (int duration : durations) {
+            total += duration;
+        }
+        this.length = total;
+        this.segmentEnd = durations[0];
+    }
+
+    /**
+     * Встроенный сценарий: игрок ходит по кругу, стрейфится и осматривается
+     */
+    public static ScriptedInput walkAround() {
+        return new ScriptedInput(
+            new int[] {120, 60, 120, 60, 90, 90, 30},
+            new int[] {
+                SimulationInput.KEY_FORWARD,
+                SimulationInput.KEY_FORWARD | SimulationInput.KEY_RIGHT,
+                SimulationInput.KEY_FORWARD,
+                SimulationInput.KEY_LEFT,
+                SimulationInput.KEY_BACKWARD,
+                SimulationInput.KEY_FORWARD | SimulationInput.KEY_LEFT,
+                0
+            },
+            new float[] {-90.0f, -45.0f, 0.0f, 45.0f, 90.0f, 180.0f, 180.0f},
+            new float[] {0.0f, 0.0f, -10.0f, 0.0f, 15.0f, 0.0f, 30.0f}
+        );
+    }
+
+    /**
+     * Загрузка сценария из текстового файла
+     */
+    public static ScriptedInput load(Path path) throws IOException {
+        List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        List<String[]> segments = new ArrayList<>();
+        for (String line : lines) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            String[] parts = trimmed.split("\\s+");
+            if (parts.length != 4) {
+                throw new IOException("Неверная строка сценария ввода: " + line);
+            }
+            segments.add(parts);
+        }
+
+        int count = segments.size();
+        int[] durations = new int[count];
+        int[] keys = new int[count];
+        float[] yaws = new float[count];
+        float[] pitches = new float[count];
+        for (int i = 0; i < count; i++) {
+            String[] parts = segments.get(i);
+            try {
+                durations[i] = Integer.parseInt(parts[0]);
+                yaws[i] = Float.parseFloat(parts[2]);
+                pitches[i] = Float.parseFloat(parts[3]);
+            } catch (NumberFormatException e) {
+                throw new IOException("Неверное число в сценарии ввода: " + String.join(" ", parts), e);
+            }
+            if (durations[i] <= 0) {
+                throw new IOException("Длительность отрезка должна быть положительной: " + parts[0]);
+            }
+            keys[i] = parseKeys(parts[1]);
+        }
+        return new ScriptedInput(durations, keys, yaws, pitches);
+    }
+
+    /**
+     * Разбор клавиш отрезка (W, A, S, D или "-")
+     */
+    private static int parseKeys(String text) throws IOException {
+        if (text.equals("-")) {
+            return 0;
+        }
+        int keys = 0;
+        for (int i = 0; i < text.length(); i++) {
+            switch (Character.toUpperCase(text.charAt(i))) {
+                case 'W' -> keys |= SimulationInput.KEY_FORWARD;
+                case 'S' -> keys |= SimulationInput.KEY_BACKWARD;
+                case 'A' -> keys |= SimulationInput.KEY_LEFT;
+                case 'D' -> keys |= SimulationInput.KEY_RIGHT;
+                default -> throw new IOException("Неизвестная клавиша в сценарии ввода: " + text);
+            }
+        }
+        return keys;
+    }
+
+    @Override
+    public void apply(long tick, SimulationInput input) {
+        // Сценарий повторяется по кругу; шаги обычно идут подряд, поэтому
+        // достаточно переходить к следующему отрезку, когда текущий закончился
+        long position = tick % length;
+        if (position < segmentEnd - durations[segment]) {
+            segment = 0;
+            segmentEnd = durations[0];
+        }
+        while (position >= segmentEnd) {
+            segment++;
+            segmentEnd += durations[segment];
+        }
+
+        input.setKeys(keys[segment]);
+        input.setLook(yaws[segment], pitches[segment]);
+    }
+}
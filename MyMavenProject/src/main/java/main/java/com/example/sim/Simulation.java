@@ -0,0 +1,186 @@
+package main.java.com.example.sim;
+
+import main.java.com.example.entity.EntityStore;
+import main.java.com.example.entity.EntitySystem;
+import main.java.com.example.entity.MovementSystem;
+import main.java.com.example.entity.Player;
+import main.java.com.example.entity.PlayerControlSystem;
+import main.java.com.example.physics.BodyBuffer;
+import main.java.com.example.physics.PhysicsEngine;
+import main.java.com.example.render.Camera;
+import org.joml.Vector3f;
+
+/**
+ * Игровая симуляция: ввод, физика и логика игрока за один шаг.
+ * Не зависит от окна и OpenGL.
+ */
+public class Simulation {
+    // Высота глаз игрока над его позицией
+    public static final float EYE_HEIGHT = 1.8f;
+
+    // Вместимость общего с физическим движком блока тел по умолчанию
+    public static final int MAX_BODIES = 1024;
+
+    private final PhysicsEngine physicsEngine;
+    private final Player player;
+
+    // Хранилище сущностей игрока и системы, обновляющие его каждый шаг
+    private final EntityStore entities;
+    private final EntitySystem[] systems = {new MovementSystem(), new PlayerControlSystem()};
+
+    // Камера симуляции задает направление движения игрока
+    private final Camera camera;
+
+    // Общий с физическим движком блок тел и управление игроком по вводу
+    private final BodyBuffer bodies;
+    private final PlayerController controller;
+
+    // Позиция игрока до последнего шага (для интерполяции на стороне рендеринга)
+    private final Vector3f previousPlayerPosition = new Vector3f();
+
+    private long tick;
+
+    /**
+     * Конструктор (физический движок должен быть уже инициализирован)
+     */
+    public Simulation(PhysicsEngine physicsEngine, Player player) {
+        this(physicsEngine, player, MAX_BODIES);
+    }
+
+    /**
+     * Конструктор с заданной вместимостью блока тел
+     */
+    public Simulation(PhysicsEngine physicsEngine, Player player, int maxBodies) {
+        this.physicsEngine = physicsEngine;
+        this.player = player;
+        this.entities = player.getStore();
+        this.camera = new Camera(new Vector3f(player.getPosition()), new Vector3f(0, 0, -1));
+
+        // Состояние тел хранится в общей с C памяти
+        bodies = physicsEngine.createBodies(maxBodies);
+        Vector3f position = player.getPosition();
+        controller = new PlayerController(player, camera, bodies, bodies.add(position.x, position.y, position.z));
+        previousPlayerPosition.set(position);
+    }
+
+    /**
+     * Один шаг симуляции
+     */
+    public void tick(float deltaTime, SimulationInput input) {
+        previousPlayerPosition.set(player.getPosition());
+
+        // Обновление позиции игрока с учетом физики: состояние пишется
+        // в общий блок, мир продвигается одним вызовом, результат читается на месте
+        controller.applyInput(deltaTime, input);
+        physicsEngine.step(deltaTime);
+        controller.readBody();
+
+        // Обновление всех сущностей хранилища, включая игрока
+        for (EntitySystem system : systems) {
+            system.update(entities, deltaTime);
+        }
+
+        tick++;
+    }
+
+    /**
+     * Запись текущего состояния для рендеринга: позиции игрока
+     * и камеры на высоте его глаз вместе с матрицей вида
+     */
+    void capture(FrameSnapshot snapshot) {
+        snapshot.tick = tick;
+        snapshot.previousPlayerPosition.set(previousPlayerPosition);
+        Vector3f position = snapshot.playerPosition.set(player.getPosition());
+
+        camera.setPosition(position.x, position.y + EYE_HEIGHT, position.z);
+        snapshot.cameraPosition.set(camera.getPosition());
+        snapshot.viewMatrix.set(camera.getViewMatrix());
+    }
+
+    /**
+     * Восстановление состояния симуляции после загрузки снимка мира: хранилище
+     * сущностей и блок тел уже заменены, движок сбрасывает свои внутренние структуры
+     */
+    void restore(long tick, float yaw, float pitch, float previousX, float previousY, float previousZ) {
+        this.tick = tick;
+        camera.setDirection(yaw, pitch);
+        previousPlayerPosition.set(previousX, previousY, previousZ);
+        physicsEngine.resetBodies();
+    }
+
+    /**
+     * Позиция игрока до последнего шага
+     */
+    Vector3f getPreviousPlayerPosition() {
+        return previousPlayerPosition;
+    }
+
+    /**
+     * Контрольная сумма состояния (FNV-1a по битам позиций и скоростей всех
+     * сущностей и тел) для сверки воспроизведения журнала ввода с записью
+     */
+    public long checksum() {
+        long hash = 0xcbf29ce484222325L;
+        hash = mix(hash, (int) tick);
+        for (int i = 0; i < entities.getCount(); i++) {
+            hash = mix(hash, entities.getPositionX(i));
+            hash = mix(hash, entities.getPositionY(i));
+            hash = mix(hash, entities.getPositionZ(i));
+            hash = mix(hash, entities.getVelocityX(i));
+            hash = mix(hash, entities.getVelocityY(i));
+            hash = mix(hash, entities.getVelocityZ(i));
+        }
+        for (int i = 0; i < bodies.getCount(); i++) {
+            hash = mix(hash, bodies.getPositionX(i));
+            hash = mix(hash, bodies.getPositionY(i));
+            hash = mix(hash, bodies.getPositionZ(i));
+            hash = mix(hash, bodies.getVelocityX(i));
+            hash = mix(hash, bodies.getVelocityY(i));
+            hash = mix(hash, bodies.getVelocityZ(i));
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, float value) {
+        return mix(hash, Float.floatToRawIntBits(value));
+    }
+
+    private static long mix(long hash, int value) {
+        return (hash ^ (value & 0xFFFFFFFFL)) * 0x100000001b3L;
+    }
+
+    /**
+     * Количество выполненных шагов
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Игрок
+     */
+    public Player getPlayer() {
+        return player;
+    }
+
+    /**
+     * Хранилище сущностей симуляции
+     */
+    public EntityStore getEntities() {
+        return entities;
+    }
+
+    /**
+     * Камера симуляции
+     */
+    public Camera getCamera() {
+        return camera;
+    }
+
+    /**
+     * Общий блок тел
+     */
+    public BodyBuffer getBodies() {
+        return bodies;
+    }
+}
@@ -0,0 +1,54 @@
+package main.java.com.example.sim;
+
+/**
+ * Ввод, передаваемый из потока окна в поток симуляции.
+ * Поток окна записывает состояние клавиш и направление взгляда,
+ * поток симуляции читает их в начале каждого шага.
+ */
+public class SimulationInput {
+    // Биты клавиш движения
+    public static final int KEY_FORWARD = 1;
+    public static final int KEY_BACKWARD = 1 << 1;
+    public static final int KEY_LEFT = 1 << 2;
+    public static final int KEY_RIGHT = 1 << 3;
+
+    private volatile int keys;
+    private volatile float yaw = -90.0f;
+    private volatile float pitch;
+
+    /**
+     * Установка нажатых клавиш движения (комбинация битов KEY_*)
+     */
+    public void setKeys(int keys) {
+        this.keys = keys;
+    }
+
+    /**
+     * Нажатые клавиши движения
+     */
+    public int getKeys() {
+        return keys;
+    }
+
+    /**
+     * Установка направления взгляда в градусах
+     */
+    public void setLook(float yaw, float pitch) {
+        this.yaw = yaw;
+        this.pitch = pitch;
+    }
+
+    /**
+     * Угол поворота камеры в градусах
+     */
+    public float getYaw() {
+        return yaw;
+    }
+
+    /**
+     * Угол наклона камеры в градусах
+     */
+    public float getPitch() {
+        return pitch;
+    }
+}
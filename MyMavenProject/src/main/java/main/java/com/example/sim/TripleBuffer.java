@@ -0,0 +1,67 @@
+package main.java.com.example.sim;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Тройной буфер без блокировок для одного писателя и одного читателя.
+ * Писатель заполняет задний слот и меняет его местами со средним,
+ * читатель забирает средний слот, если он обновился. Ни одна сторона
+ * не ждет другую, а читатель всегда видит последний целиком записанный слот.
+ */
+public class TripleBuffer<T> {
+    // Младшие биты - индекс среднего слота, флаг - в нем новые данные
+    private static final int INDEX_MASK = 3;
+    private static final int FRESH = 4;
+
+    private final Object[] slots = new Object[3];
+    private final AtomicInteger middle = new AtomicInteger(1);
+
+    // Слот писателя и слот читателя; каждый меняет только своя сторона
+    private int back = 0;
+    private int front = 2;
+
+    /**
+     * Конструктор: три слота создаются заранее
+     */
+    public TripleBuffer(Supplier<T> factory) {
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = factory.get();
+        }
+    }
+
+    /**
+     * Слот для записи (поток писателя)
+     */
+    @SuppressWarnings("unchecked")
+    public T getBack() {
+        return (T) slots[back];
+    }
+
+    /**
+     * Публикация записанного слота (поток писателя)
+     */
+    public void publish() {
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * Переход к последнему опубликованному слоту (поток читателя).
+     * Возвращает false, если после прошлого вызова ничего не публиковалось.
+     */
+    public boolean update() {
+        if ((middle.get() & FRESH) == 0) {
+            return false;
+        }
+        front = middle.getAndSet(front) & INDEX_MASK;
+        return true;
+    }
+
+    /**
+     * Слот для чтения (поток читателя)
+     */
+    @SuppressWarnings("unchecked")
+    public T getFront() {
+        return (T) slots[front];
+    }
+}
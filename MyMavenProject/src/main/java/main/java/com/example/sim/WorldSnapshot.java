@@ -0,0 +1,196 @@
+package main.java.com.example.sim;
+
+import main.java.com.example.entity.EntityStore;
+import main.java.com.example.physics.BodyBuffer;
+import org.joml.Vector3f;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Сохранение и загрузка полного состояния симуляции (.wsnap) через FileChannel.
+ * Массивы тел пишутся и читаются сборным вызовом прямо из общего с движком блока,
+ * без вызовов JNI по полям; заголовок и хранилище сущностей проходят через
+ * переиспользуемый прямой буфер. Экземпляр не потокобезопасен.
+ *
+ * Все числа little-endian:
+ * <pre>
+ *  0  int      сигнатура "WSNP"
+ *  4  int      версия формата
+ *  8  long     номер шага
+ * 16  float    yaw камеры
+ * 20  float    pitch камеры
+ * 24  float[3] позиция игрока до последнего шага
+ * 36  int      количество тел
+ * 40  int      размер блока сущностей в байтах
+ * 44  int      резерв
+ * 48           блок сущностей (EntityStore.writeSnapshot)
+ *              блок тел: заголовок блока тел и массивы занятых тел (BodyBuffer.writeSnapshot)
+ * </pre>
+ * Шаги покоя и спящие острова тел лежат в блоке тел и сохраняются вместе с ним.
+ * Сетка широкой фазы не сохраняется: пары тел разрешаются в порядке (a, b),
+ * который не зависит от истории сетки, поэтому мир, продолженный после загрузки
+ * снимка, совпадает с миром, продолженным после его сохранения. Сохранение
+ * не меняет состояние симуляции.
+ */
+public final class WorldSnapshot {
+    public static final String EXTENSION = ".wsnap";
+
+    private static final int MAGIC = 0x504E5357; // "WSNP"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 48;
+
+    // Заголовок и блок сущностей (растет под размер хранилища)
+    private ByteBuffer scratch = allocate(64 * 1024);
+
+    public WorldSnapshot() {
+        if (ByteOrder.nativeOrder() != ByteOrder.LITTLE_ENDIAN) {
+            throw new IllegalStateException("Формат снимка мира рассчитан на little-endian платформу");
+        }
+    }
+
+    private static ByteBuffer allocate(int size) {
+        return ByteBuffer.allocateDirect(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Сохранение состояния симуляции. Файл пишется во временный и переименовывается,
+     * поэтому прерванное сохранение не портит предыдущий снимок.
+     * Вызывается из потока симуляции между шагами.
+     *
+     * @return размер снимка в байтах
+     */
+    public long save(Simulation simulation, Path file) throws IOException {
+        EntityStore entities = simulation.getEntities();
+        BodyBuffer bodies = simulation.getBodies();
+        int entityBytes = entities.snapshotSize();
+        ByteBuffer header = prepare(HEADER_BYTES + entityBytes);
+
+        Vector3f previous = simulation.getPreviousPlayerPosition();
+        header.putInt(MAGIC)
+            .putInt(VERSION)
+            .putLong(simulation.getTick())
+            .putFloat(simulation.getCamera().getYaw())
+            .putFloat(simulation.getCamera().getPitch())
+            .putFloat(previous.x)
+            .putFloat(previous.y)
+            .putFloat(previous.z)
+            .putInt(bodies.getCount())
+            .putInt(entityBytes)
+            .putInt(0);
+        entities.writeSnapshot(header);
+        header.flip();
+
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+                bodies.writeSnapshot(channel);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        return HEADER_BYTES + entityBytes + bodies.snapshotSize();
+    }
+
+    /**
+     * Замена состояния симуляции снимком. Блок тел симуляции должен вмещать
+     * все тела снимка (см. readBodyCount). Вызывается из потока симуляции между шагами.
+     * Размер файла и блок сущностей проверяются до изменений: поврежденный или
+     * обрезанный снимок отклоняется с IOException, не затронув симуляцию.
+     */
+    public void load(Simulation simulation, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = readHeader(channel, file);
+            long tick = header.getLong(8);
+            float yaw = header.getFloat(16);
+            float pitch = header.getFloat(20);
+            float previousX = header.getFloat(24);
+            float previousY = header.getFloat(28);
+            float previousZ = header.getFloat(32);
+            int bodyCount = header.getInt(36);
+            int entityBytes = header.getInt(40);
+
+            BodyBuffer bodies = simulation.getBodies();
+            if (bodyCount > bodies.getCapacity()) {
+                throw new IOException("Снимок из " + bodyCount + " тел не помещается в блок вместимостью "
+                    + bodies.getCapacity() + ": " + file);
+            }
+            if (channel.size() != HEADER_BYTES + (long) entityBytes + BodyBuffer.snapshotSize(bodyCount)) {
+                throw new IOException("Размер снимка мира не совпадает с заголовком: " + file);
+            }
+
+            ByteBuffer block = prepare(entityBytes);
+            readFully(channel, block, file);
+            block.flip();
+            try {
+                EntityStore.checkSnapshot(block, entityBytes);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Поврежденный блок сущностей снимка мира: " + file, e);
+            }
+
+            // Снимок проверен: тела читаются прямо в общий блок, затем заменяются сущности
+            bodies.readSnapshot(channel, bodyCount);
+            simulation.getEntities().readSnapshot(block);
+            simulation.restore(tick, yaw, pitch, previousX, previousY, previousZ);
+        }
+    }
+
+    /**
+     * Количество тел в снимке: вместимость блока тел для загрузки
+     */
+    public int readBodyCount(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return readHeader(channel, file).getInt(36);
+        }
+    }
+
+    /**
+     * Чтение и проверка заголовка снимка
+     */
+    private ByteBuffer readHeader(FileChannel channel, Path file) throws IOException {
+        ByteBuffer header = prepare(HEADER_BYTES);
+        readFully(channel, header, file);
+        if (header.getInt(0) != MAGIC) {
+            throw new IOException("Файл не является снимком мира: " + file);
+        }
+        if (header.getInt(4) != VERSION) {
+            throw new IOException("Неподдерживаемая версия снимка мира " + header.getInt(4) + ": " + file);
+        }
+        if (header.getLong(8) < 0 || header.getInt(36) < 0 || header.getInt(40) < 0) {
+            throw new IOException("Поврежденный заголовок снимка мира: " + file);
+        }
+        return header;
+    }
+
+    /**
+     * Буфер на size байт с позицией 0 (растет по мере надобности)
+     */
+    private ByteBuffer prepare(int size) {
+        if (scratch.capacity() < size) {
+            scratch = allocate(Math.max(size, scratch.capacity() * 2));
+        }
+        return scratch.clear().limit(size);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, Path file) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Снимок мира обрывается: " + file);
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+// Микробенчмарк интегрирования тел: тел в секунду для 1k, 100k и 1M тел
+// скалярным ядром, лучшим SIMD-ядром в одном потоке и в нескольких потоках.
+// Перед замерами результат SIMD-ядра сверяется со скалярным.
+//
+// Использование: integrator_bench [потоков] [секунд на замер]
+// (по умолчанию - число процессоров и 1 секунда)
+
+#define _POSIX_C_SOURCE 200809L
+
+#include <math.h>
+#include <stdint.h>
+#include <stdio.h>
+#include <stdlib.h>
+#include <string.h>
+#include <time.h>
+#include <unistd.h>
+#include "integrator.h"
+
+#define FLAG_ACTIVE 1
+#define FLAG_GROUNDED 2
+#define FLAG_SLEEPING 4
+
+static const IntegratorParams params = {
+    9.81f, 50.0f, 0.5f, 0.0f, 0.3f, 0.8f, FLAG_ACTIVE, FLAG_GROUNDED, FLAG_SLEEPING
+};
+
+static const float DELTA_TIME = 1.0f / 60.0f;
+
+// Тела в одном блоке, как в общем с Java блоке памяти
+typedef struct {
+    BodyArrays arrays;
+    void* memory;
+    int count;
+} Bodies;
+
+static int64_t nowNanos(void) {
+    struct timespec ts;
+    clock_gettime(CLOCK_MONOTONIC, &ts);
+    return (int64_t) ts.tv_sec * 1000000000LL + ts.tv_nsec;
+}
+
+// Детерминированные псевдослучайные числа в [0, 1)
+static float nextRandom(uint32_t* state) {
+    *state = *state * 1664525u + 1013904223u;
+    return (float) (*state >> 8) / 16777216.0f;
+}
+
+static int allocateBodies(Bodies* bodies, int count) {
+    bodies->count = count;
+    bodies->memory = aligned_alloc(64, (size_t) count * 7 * sizeof(float) + 64);
+    if (bodies->memory == NULL) {
+        return 0;
+    }
+    float* base = (float*) bodies->memory;
+    bodies->arrays.posX = base;
+    bodies->arrays.posY = base + count;
+    bodies->arrays.posZ = base + 2 * (size_t) count;
+    bodies->arrays.velX = base + 3 * (size_t) count;
+    bodies->arrays.velY = base + 4 * (size_t) count;
+    bodies->arrays.velZ = base + 5 * (size_t) count;
+    bodies->arrays.flags = (int*) (base + 6 * (size_t) count);
+    return 1;
+}
+
+// Тела над землей и на ней; каждое шестнадцатое неактивно, каждое тринадцатое спит
+static void resetBodies(Bodies* bodies) {
+    uint32_t state = 12345;
+    for (int i = 0; i < bodies->count; i++) {
+        bodies->arrays.posX[i] = nextRandom(&state) * 100.0f - 50.0f;
+        bodies->arrays.posY[i] = nextRandom(&state) * 10.0f;
+        bodies->arrays.posZ[i] = nextRandom(&state) * 100.0f - 50.0f;
+        bodies->arrays.velX[i] = nextRandom(&state) * 2.0f - 1.0f;
+        bodies->arrays.velY[i] = nextRandom(&state) * 2.0f - 1.0f;
+        bodies->arrays.velZ[i] = nextRandom(&state) * 2.0f - 1.0f;
+        bodies->arrays.flags[i] = (i % 16 == 15) ? 0 : FLAG_ACTIVE;
+        if (i % 13 == 12) {
+            bodies->arrays.flags[i] |= FLAG_SLEEPING;
+        }
+    }
+}
+
+// Сверка лучшего ядра со скалярным на 100 шагах
+static int verifyKernel(int count) {
+    Bodies expected;
+    Bodies actual;
+    if (!allocateBodies(&expected, count) || !allocateBodies(&actual, count)) {
+        return 0;
+    }
+    resetBodies(&expected);
+    resetBodies(&actual);
+
+    for (int step = 0; step < 100; step++) {
+        integrateRangeScalar(&expected.arrays, &params, 0, count, DELTA_TIME);
+        integrateRange(&actual.arrays, &params, 0, count, DELTA_TIME);
+    }
+
+    size_t bytes = (size_t) count * 7 * sizeof(float);
+    int same = memcmp(expected.memory, actual.memory, bytes) == 0;
+    free(expected.memory);
+    free(actual.memory);
+    return same;
+}
+
+typedef enum { MODE_SCALAR, MODE_SIMD, MODE_THREADS } Mode;
+
+// Тел в секунду: шаги повторяются, пока не пройдет seconds секунд
+static double measure(Bodies* bodies, Mode mode, double seconds) {
+    resetBodies(bodies);
+    int64_t budget = (int64_t) (seconds * 1e9);
+    int64_t start = nowNanos();
+    int64_t elapsed = 0;
+    long steps = 0;
+
+    while (elapsed < budget) {
+        for (int repeat = 0; repeat < 8; repeat++) {
+            switch (mode) {
+                case MODE_SCALAR:
+                    integrateRangeScalar(&bodies->arrays, &params, 0, bodies->count, DELTA_TIME);
+                    break;
+                case MODE_SIMD:
+                    integrateRange(&bodies->arrays, &params, 0, bodies->count, DELTA_TIME);
+                    break;
+                case MODE_THREADS:
+                    integrateBodies(&bodies->arrays, &params, bodies->count, DELTA_TIME);
+                    break;
+            }
+        }
+        steps += 8;
+        elapsed = nowNanos() - start;
+    }
+    return (double) steps * bodies->count * 1e9 / elapsed;
+}
+
+int main(int argc, char** argv) {
+    int threads = argc > 1 ? atoi(argv[1]) : (int) sysconf(_SC_NPROCESSORS_ONLN);
+    double seconds = argc > 2 ? atof(argv[2]) : 1.0;
+    static const int counts[] = {1000, 100000, 1000000};
+
+    if (integratorSetThreads(threads) < 0) {
+        printf("Не удалось запустить %d потоков интегрирования\n", threads);
+    }
+    printf("Ядро: %s, потоков: %d\n", integratorKernelName(), integratorThreads());
+
+    if (!verifyKernel(100003)) {
+        printf("ОШИБКА: результат ядра %s не совпадает со скалярным\n", integratorKernelName());
+        return 1;
+    }
+    printf("Результат ядра %s совпадает со скалярным\n\n", integratorKernelName());
+
+    printf("%10s %16s %16s %16s\n", "тел", "скалярное, M/с", "SIMD, M/с", "потоки, M/с");
+    for (size_t i = 0; i < sizeof(counts) / sizeof(counts[0]); i++) {
+        Bodies bodies;
+        if (!allocateBodies(&bodies, counts[i])) {
+            printf("Не удалось выделить память для %d тел\n", counts[i]);
+            return 1;
+        }
+        double scalar = measure(&bodies, MODE_SCALAR, seconds);
+        double simd = measure(&bodies, MODE_SIMD, seconds);
+        double parallel = measure(&bodies, MODE_THREADS, seconds);
+        printf("%10d %16.1f %16.1f %16.1f\n", counts[i], scalar / 1e6, simd / 1e6, parallel / 1e6);
+        free(bodies.memory);
+    }
+
+    integratorShutdown();
+    return 0;
+}
@@ -0,0 +1,413 @@
+#include <stdint.h>
+#include <stdlib.h>
+#include <string.h>
+#include <math.h>
+#include "broadphase.h"
+
+// Пустая ячейка хэш-таблицы (упакованный ключ никогда не принимает это значение)
+#define EMPTY_KEY INT64_MIN
+
+// Тело не находится в сетке
+#define NO_CELL -1
+
+// Ячейка пространственного хэша со списком тел
+typedef struct {
+    int64_t key;
+    int count;
+    int capacity;
+    int* bodies;
+    int occupiedSlot; // позиция в списке непустых ячеек
+} Cell;
+
+// Таблица ячеек с открытой адресацией
+static Cell* cells;
+static int tableSize;
+static int usedCells;
+
+// Плотный список индексов непустых ячеек: поиск пар не обходит всю таблицу
+static int* occupied;
+static int occupiedCount;
+
+// Ячейка и позиция в ее списке для каждого тела
+static int64_t* bodyKey;
+static int* bodyCell;
+static int* bodySlot;
+static int bodyCapacity;
+
+// Найденные пары
+static BodyPair* pairs;
+static int pairCapacity;
+
+static float cellSize = 1.0f;
+
+// Упаковка координат ячейки в ключ (по 21 бит на ось)
+static int64_t packKey(int cx, int cy, int cz) {
+    return ((int64_t) (cx & 0x1FFFFF) << 42)
+         | ((int64_t) (cy & 0x1FFFFF) << 21)
+         | (int64_t) (cz & 0x1FFFFF);
+}
+
+// Восстановление знаковой координаты ячейки из 21 бита ключа
+static int unpackAxis(int64_t bits) {
+    int value = (int) (bits & 0x1FFFFF);
+    return value >= 0x100000 ? value - 0x200000 : value;
+}
+
+// Смещения соседних ячеек, лексикографически больших (0, 0, 0)
+static const int FORWARD_NEIGHBORS[13][3] = {
+    { 1, -1, -1}, { 1, -1,  0}, { 1, -1,  1},
+    { 1,  0, -1}, { 1,  0,  0}, { 1,  0,  1},
+    { 1,  1, -1}, { 1,  1,  0}, { 1,  1,  1},
+    { 0,  1, -1}, { 0,  1,  0}, { 0,  1,  1},
+    { 0,  0,  1}
+};
+
+// Перемешивание ключа для равномерного распределения по таблице
+static uint32_t hashKey(int64_t key) {
+    uint64_t h = (uint64_t) key;
+    h ^= h >> 33;
+    h *= 0xff51afd7ed558ccdULL;
+    h ^= h >> 33;
+    h *= 0xc4ceb9fe1a85ec53ULL;
+    h ^= h >> 33;
+    return (uint32_t) h;
+}
+
+// Поиск ячейки по ключу, возвращает индекс или NO_CELL
+static int findCell(int64_t key) {
+    int mask = tableSize - 1;
+    int index = (int) (hashKey(key) & (uint32_t) mask);
+    while (cells[index].key != EMPTY_KEY) {
+        if (cells[index].key == key) {
+            return index;
+        }
+        index = (index + 1) & mask;
+    }
+    return NO_CELL;
+}
+
+// Поиск или создание ячейки по ключу
+static int findOrCreateCell(int64_t key) {
+    int mask = tableSize - 1;
+    int index = (int) (hashKey(key) & (uint32_t) mask);
+    while (cells[index].key != EMPTY_KEY) {
+        if (cells[index].key == key) {
+            return index;
+        }
+        index = (index + 1) & mask;
+    }
+    cells[index].key = key;
+    cells[index].count = 0;
+    usedCells++;
+    return index;
+}
+
+// Добавление тела в ячейку. Возвращает 0, если не удалось выделить память:
+// тогда тело остается вне сетки (bodyCell = NO_CELL)
+static int insertBody(int body, int64_t key) {
+    int index = findOrCreateCell(key);
+    Cell* cell = &cells[index];
+
+    if (cell->count == cell->capacity) {
+        int newCapacity = cell->capacity == 0 ? 4 : cell->capacity * 2;
+        int* grown = (int*) realloc(cell->bodies, (size_t) newCapacity * sizeof(int));
+        if (grown == NULL) {
+            bodyCell[body] = NO_CELL;
+            return 0;
+        }
+        cell->bodies = grown;
+        cell->capacity = newCapacity;
+    }
+
+    if (cell->count == 0) {
+        cell->occupiedSlot = occupiedCount;
+        occupied[occupiedCount++] = index;
+    }
+
+    bodyKey[body] = key;
+    bodyCell[body] = index;
+    bodySlot[body] = cell->count;
+    cell->bodies[cell->count++] = body;
+    return 1;
+}
+
+// Удаление тела из его ячейки (последнее тело ячейки занимает освободившееся место)
+static void removeBody(int body) {
+    Cell* cell = &cells[bodyCell[body]];
+    int slot = bodySlot[body];
+    int last = cell->bodies[--cell->count];
+
+    cell->bodies[slot] = last;
+    bodySlot[last] = slot;
+    bodyCell[body] = NO_CELL;
+
+    // Опустевшая ячейка уходит из списка непустых: ее место занимает последняя
+    if (cell->count == 0) {
+        int moved = occupied[--occupiedCount];
+        occupied[cell->occupiedSlot] = moved;
+        cells[moved].occupiedSlot = cell->occupiedSlot;
+    }
+}
+
+// Очистка всех ячеек: используется, когда таблица заполнена пустыми ячейками
+static void clearCells(void) {
+    for (int i = 0; i < tableSize; i++) {
+        cells[i].key = EMPTY_KEY;
+        cells[i].count = 0;
+    }
+    for (int i = 0; i < bodyCapacity; i++) {
+        bodyCell[i] = NO_CELL;
+    }
+    usedCells = 0;
+    occupiedCount = 0;
+}
+
+// Порядок пар по (a, b)
+static int comparePairs(const void* left, const void* right) {
+    const BodyPair* p = (const BodyPair*) left;
+    const BodyPair* q = (const BodyPair*) right;
+    if (p->a != q->a) {
+        return p->a < q->a ? -1 : 1;
+    }
+    return (p->b > q->b) - (p->b < q->b);
+}
+
+// Добавление пары (a < b) в результат, возвращает новое количество пар
+// или -1, если не удалось выделить память
+static int addPair(int count, int a, int b) {
+    if (count == pairCapacity) {
+        int newCapacity = pairCapacity == 0 ? 1024 : pairCapacity * 2;
+        BodyPair* grown = (BodyPair*) realloc(pairs, (size_t) newCapacity * sizeof(BodyPair));
+        if (grown == NULL) {
+            return -1;
+        }
+        pairs = grown;
+        pairCapacity = newCapacity;
+    }
+    pairs[count].a = a < b ? a : b;
+    pairs[count].b = a < b ? b : a;
+    return count + 1;
+}
+
+// Инициализация широкой фазы
+int broadphaseInit(int capacity) {
+    broadphaseFree();
+
+    // Таблица в 4 раза больше количества тел, размер - степень двойки
+    tableSize = 1024;
+    while (tableSize < capacity * 4) {
+        tableSize <<= 1;
+    }
+
+    cells = (Cell*) calloc((size_t) tableSize, sizeof(Cell));
+    bodyKey = (int64_t*) calloc((size_t) capacity, sizeof(int64_t));
+    bodyCell = (int*) malloc((size_t) capacity * sizeof(int));
+    bodySlot = (int*) calloc((size_t) capacity, sizeof(int));
+    // Непустых ячеек не больше, чем тел
+    occupied = (int*) malloc((size_t) capacity * sizeof(int));
+    if (cells == NULL || bodyKey == NULL || bodyCell == NULL || bodySlot == NULL || occupied == NULL) {
+        broadphaseFree();
+        return 0;
+    }
+
+    bodyCapacity = capacity;
+    clearCells();
+    return 1;
+}
+
+// Освобождение ресурсов широкой фазы
+void broadphaseFree(void) {
+    if (cells != NULL) {
+        for (int i = 0; i < tableSize; i++) {
+            free(cells[i].bodies);
+        }
+    }
+    free(cells);
+    free(bodyKey);
+    free(bodyCell);
+    free(bodySlot);
+    free(occupied);
+    free(pairs);
+
+    cells = NULL;
+    bodyKey = NULL;
+    bodyCell = NULL;
+    bodySlot = NULL;
+    occupied = NULL;
+    pairs = NULL;
+    pairCapacity = 0;
+    tableSize = 0;
+    bodyCapacity = 0;
+    usedCells = 0;
+    occupiedCount = 0;
+}
+
+// Удаление всех тел из сетки
+void broadphaseReset(void) {
+    if (cells != NULL) {
+        clearCells();
+    }
+}
+
+// Установка размера ячейки сетки
+void broadphaseSetCellSize(float size) {
+    if (size > 0.0f && size != cellSize) {
+        cellSize = size;
+        if (cells != NULL) {
+            clearCells();
+        }
+    }
+}
+
+// Инкрементальное обновление пространственного хэша и поиск пар-кандидатов
+int broadphaseUpdate(
+    const float* posX, const float* posY, const float* posZ,
+    const int* flags, int activeFlag, int sleepingFlag, int count, float radius
+) {
+    if (cells == NULL) {
+        return 0;
+    }
+    if (count > bodyCapacity) {
+        count = bodyCapacity;
+    }
+
+    // Пустые ячейки не удаляются; при заполнении таблицы наполовину она перестраивается
+    if (usedCells > tableSize / 2) {
+        clearCells();
+    }
+
+    float inverseCell = 1.0f / cellSize;
+
+    // Перемещение в сетке только тех тел, которые сменили ячейку
+    int awakeCount = 0;
+    int sleepingCount = 0;
+    for (int i = 0; i < count; i++) {
+        if (!(flags[i] & activeFlag)) {
+            if (bodyCell[i] != NO_CELL) {
+                removeBody(i);
+            }
+            continue;
+        }
+        if (flags[i] & sleepingFlag) {
+            sleepingCount++;
+        } else {
+            awakeCount++;
+        }
+
+        int64_t key = packKey(
+            (int) floorf(posX[i] * inverseCell),
+            (int) floorf(posY[i] * inverseCell),
+            (int) floorf(posZ[i] * inverseCell)
+        );
+
+        if (bodyCell[i] != NO_CELL) {
+            if (bodyKey[i] == key) {
+                continue;
+            }
+            removeBody(i);
+        }
+        if (!insertBody(i, key)) {
+            return -1;
+        }
+    }
+
+    // Поиск пар по занятым ячейкам: тела внутри ячейки и в 13 "следующих"
+    // соседних ячейках, чтобы каждая пара ячеек просматривалась один раз.
+    // Когда спящих тел больше, чем бодрствующих, пары ищутся только от
+    // бодрствующих тел: спящих соседей они ищут также в 13 "предыдущих" ячейках,
+    // а ячейки только со спящими телами пропускаются целиком
+    int fromAwake = awakeCount < sleepingCount;
+    int neighborCount = fromAwake ? 26 : 13;
+    float extent = 2.0f * radius;
+    int pairCount = 0;
+    for (int c = 0; c < occupiedCount; c++) {
+        Cell* cell = &cells[occupied[c]];
+
+        if (fromAwake) {
+            int awake = 0;
+            for (int k = 0; k < cell->count && !awake; k++) {
+                awake = !(flags[cell->bodies[k]] & sleepingFlag);
+            }
+            if (!awake) {
+                continue;
+            }
+        }
+
+        int cx = unpackAxis(cell->key >> 42);
+        int cy = unpackAxis(cell->key >> 21);
+        int cz = unpackAxis(cell->key);
+
+        // Пары внутри ячейки
+        for (int k = 0; k < cell->count; k++) {
+            int i = cell->bodies[k];
+            for (int m = k + 1; m < cell->count; m++) {
+                int j = cell->bodies[m];
+                if (flags[i] & flags[j] & sleepingFlag) {
+                    continue;
+                }
+                if (fabsf(posX[j] - posX[i]) < extent
+                    && fabsf(posY[j] - posY[i]) < extent
+                    && fabsf(posZ[j] - posZ[i]) < extent) {
+                    pairCount = addPair(pairCount, i, j);
+                    if (pairCount < 0) {
+                        return -1;
+                    }
+                }
+            }
+        }
+
+        // Пары с соседними ячейками: в "предыдущих" - только бодрствующего тела со спящим
+        for (int n = 0; n < neighborCount; n++) {
+            int forward = n < 13;
+            const int* offset = FORWARD_NEIGHBORS[forward ? n : n - 13];
+            int sign = forward ? 1 : -1;
+            int index = findCell(packKey(
+                cx + sign * offset[0],
+                cy + sign * offset[1],
+                cz + sign * offset[2]
+            ));
+            if (index == NO_CELL || cells[index].count == 0) {
+                continue;
+            }
+
+            Cell* other = &cells[index];
+            for (int k = 0; k < cell->count; k++) {
+                int i = cell->bodies[k];
+                int sleepingI = flags[i] & sleepingFlag;
+                if (sleepingI && fromAwake) {
+                    continue;
+                }
+                float x = posX[i];
+                float y = posY[i];
+                float z = posZ[i];
+                for (int m = 0; m < other->count; m++) {
+                    int j = other->bodies[m];
+                    int sleepingJ = flags[j] & sleepingFlag;
+                    if (forward ? sleepingI && sleepingJ : !sleepingJ) {
+                        continue;
+                    }
+                    if (fabsf(posX[j] - x) < extent
+                        && fabsf(posY[j] - y) < extent
+                        && fabsf(posZ[j] - z) < extent) {
+                        pairCount = addPair(pairCount, i, j);
+                        if (pairCount < 0) {
+                            return -1;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // Порядок обхода ячеек зависит от истории сетки; сортировка делает порядок
+    // разрешения контактов функцией только набора пар (как в Broadphase.java)
+    if (pairCount > 1) {
+        qsort(pairs, (size_t) pairCount, sizeof(BodyPair), comparePairs);
+    }
+    return pairCount;
+}
+
+// Найденные пары
+const BodyPair* broadphasePairs(void) {
+    return pairs;
+}
@@ -0,0 +1,36 @@
+#ifndef BROADPHASE_H
+#define BROADPHASE_H
+
+// Пара тел-кандидатов на столкновение (a < b)
+typedef struct {
+    int a;
+    int b;
+} BodyPair;
+
+// Инициализация широкой фазы для заданного количества тел
+int broadphaseInit(int capacity);
+
+// Освобождение ресурсов широкой фазы
+void broadphaseFree(void);
+
+// Удаление всех тел из сетки (после замены состояния тел извне)
+void broadphaseReset(void);
+
+// Установка размера ячейки сетки (должен быть не меньше диаметра тела)
+void broadphaseSetCellSize(float cellSize);
+
+// Инкрементальное обновление пространственного хэша и поиск пар-кандидатов.
+// В сетке перемещаются только тела, сменившие ячейку; пары ищутся от
+// бодрствующих тел, пары из двух спящих тел (оба с sleepingFlag) не возвращаются.
+// Пары упорядочены по (a, b) независимо от истории сетки.
+// Возвращает количество найденных пар или -1, если не удалось выделить память
+// (сетка остается согласованной, тела без памяти не попадают в нее до следующего вызова).
+int broadphaseUpdate(
+    const float* posX, const float* posY, const float* posZ,
+    const int* flags, int activeFlag, int sleepingFlag, int count, float radius
+);
+
+// Найденные пары по возрастанию (a, b) (действительны до следующего вызова broadphaseUpdate)
+const BodyPair* broadphasePairs(void);
+
+#endif /* BROADPHASE_H */
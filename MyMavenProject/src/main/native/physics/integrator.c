@@ -0,0 +1,389 @@
+#include <math.h>
+#include <pthread.h>
+#include <stdint.h>
+#include <stdlib.h>
+#include "integrator.h"
+
+#if defined(__x86_64__) || defined(__i386__)
+#include <immintrin.h>
+#define INTEGRATOR_X86 1
+#endif
+
+// Порог квадрата касательной скорости для трения (как EPSILON в world.c)
+#define TANGENT_EPSILON_SQUARED (0.0001f * 0.0001f)
+
+// Меньше этого количества тел на поток работа не делится
+#define MIN_BODIES_PER_THREAD 8192
+
+// Границы частей кратны 16 телам: 64 байта массива float, без общих строк кэша
+#define SPLIT_ALIGNMENT 16
+
+// Скалярное ядро. Циклы без ветвлений по данным, поэтому компилятор
+// может векторизовать его и на платформах без явного SIMD-ядра.
+void integrateRangeScalar(const BodyArrays* bodies, const IntegratorParams* params,
+                          int begin, int end, float deltaTime) {
+    float* restrict posX = bodies->posX;
+    float* restrict posY = bodies->posY;
+    float* restrict posZ = bodies->posZ;
+    float* restrict velX = bodies->velX;
+    float* restrict velY = bodies->velY;
+    float* restrict velZ = bodies->velZ;
+    int* restrict flags = bodies->flags;
+
+    float gravityStep = params->gravity * deltaTime;
+    float minVelocity = -params->maxFallSpeed;
+    float contactHeight = params->groundHeight + params->radius;
+    float bounce = -(1.0f + params->restitution);
+
+    int awakeMask = params->activeFlag | params->sleepingFlag;
+
+    for (int i = begin; i < end; i++) {
+        int bodyFlags = flags[i];
+        if ((bodyFlags & awakeMask) != params->activeFlag) {
+            continue;
+        }
+
+        float vy = velY[i] - gravityStep;
+        vy = vy < minVelocity ? minVelocity : vy;
+        float vx = velX[i];
+        float vz = velZ[i];
+
+        float px = posX[i] + vx * deltaTime;
+        float py = posY[i] + vy * deltaTime;
+        float pz = posZ[i] + vz * deltaTime;
+
+        float distance = py - params->groundHeight;
+        int contact = distance < params->radius;
+        int resting = contact && vy <= 0.0f;
+        int sliding = resting && (vx * vx + vz * vz) > TANGENT_EPSILON_SQUARED;
+
+        py = contact ? contactHeight : py;
+        vy = resting ? vy + bounce * vy : vy;
+        vx = sliding ? vx - vx * params->friction : vx;
+        vz = sliding ? vz - vz * params->friction : vz;
+
+        posX[i] = px;
+        posY[i] = py;
+        posZ[i] = pz;
+        velX[i] = vx;
+        velY[i] = vy;
+        velZ[i] = vz;
+        flags[i] = (bodyFlags & ~params->groundedFlag) | (contact ? params->groundedFlag : 0);
+    }
+}
+
+#ifdef INTEGRATOR_X86
+
+// Ядро SSE2: по 4 тела за итерацию (SSE2 есть на любом x86-64)
+__attribute__((target("sse2")))
+static void integrateRangeSse2(const BodyArrays* bodies, const IntegratorParams* params,
+                               int begin, int end, float deltaTime) {
+    const __m128 dt = _mm_set1_ps(deltaTime);
+    const __m128 gravityStep = _mm_set1_ps(params->gravity * deltaTime);
+    const __m128 minVelocity = _mm_set1_ps(-params->maxFallSpeed);
+    const __m128 groundHeight = _mm_set1_ps(params->groundHeight);
+    const __m128 radius = _mm_set1_ps(params->radius);
+    const __m128 contactHeight = _mm_set1_ps(params->groundHeight + params->radius);
+    const __m128 bounce = _mm_set1_ps(-(1.0f + params->restitution));
+    const __m128 friction = _mm_set1_ps(params->friction);
+    const __m128 tangentEpsilon = _mm_set1_ps(TANGENT_EPSILON_SQUARED);
+    const __m128 zero = _mm_setzero_ps();
+    const __m128i activeFlag = _mm_set1_epi32(params->activeFlag);
+    const __m128i awakeMask = _mm_set1_epi32(params->activeFlag | params->sleepingFlag);
+    const __m128i groundedFlag = _mm_set1_epi32(params->groundedFlag);
+
+    int i = begin;
+    for (; i + 4 <= end; i += 4) {
+        __m128i oldFlags = _mm_loadu_si128((const __m128i*) (bodies->flags + i));
+        __m128 active = _mm_castsi128_ps(_mm_cmpeq_epi32(_mm_and_si128(oldFlags, awakeMask), activeFlag));
+
+        __m128 oldPx = _mm_loadu_ps(bodies->posX + i);
+        __m128 oldPy = _mm_loadu_ps(bodies->posY + i);
+        __m128 oldPz = _mm_loadu_ps(bodies->posZ + i);
+        __m128 oldVx = _mm_loadu_ps(bodies->velX + i);
+        __m128 oldVy = _mm_loadu_ps(bodies->velY + i);
+        __m128 oldVz = _mm_loadu_ps(bodies->velZ + i);
+
+        __m128 vy = _mm_max_ps(_mm_sub_ps(oldVy, gravityStep), minVelocity);
+        __m128 px = _mm_add_ps(oldPx, _mm_mul_ps(oldVx, dt));
+        __m128 py = _mm_add_ps(oldPy, _mm_mul_ps(vy, dt));
+        __m128 pz = _mm_add_ps(oldPz, _mm_mul_ps(oldVz, dt));
+
+        __m128 contact = _mm_cmplt_ps(_mm_sub_ps(py, groundHeight), radius);
+        __m128 resting = _mm_and_ps(contact, _mm_cmple_ps(vy, zero));
+        __m128 tangent = _mm_add_ps(_mm_mul_ps(oldVx, oldVx), _mm_mul_ps(oldVz, oldVz));
+        __m128 sliding = _mm_and_ps(resting, _mm_cmpgt_ps(tangent, tangentEpsilon));
+
+        py = _mm_or_ps(_mm_and_ps(contact, contactHeight), _mm_andnot_ps(contact, py));
+        vy = _mm_add_ps(vy, _mm_and_ps(resting, _mm_mul_ps(bounce, vy)));
+        __m128 vx = _mm_sub_ps(oldVx, _mm_and_ps(sliding, _mm_mul_ps(oldVx, friction)));
+        __m128 vz = _mm_sub_ps(oldVz, _mm_and_ps(sliding, _mm_mul_ps(oldVz, friction)));
+
+        // Неактивные и спящие тела сохраняют прежние значения
+        #define SELECT_PS(mask, a, b) _mm_or_ps(_mm_and_ps(mask, a), _mm_andnot_ps(mask, b))
+        _mm_storeu_ps(bodies->posX + i, SELECT_PS(active, px, oldPx));
+        _mm_storeu_ps(bodies->posY + i, SELECT_PS(active, py, oldPy));
+        _mm_storeu_ps(bodies->posZ + i, SELECT_PS(active, pz, oldPz));
+        _mm_storeu_ps(bodies->velX + i, SELECT_PS(active, vx, oldVx));
+        _mm_storeu_ps(bodies->velY + i, SELECT_PS(active, vy, oldVy));
+        _mm_storeu_ps(bodies->velZ + i, SELECT_PS(active, vz, oldVz));
+        #undef SELECT_PS
+
+        __m128i grounded = _mm_and_si128(_mm_castps_si128(_mm_and_ps(active, contact)), groundedFlag);
+        __m128i clear = _mm_and_si128(_mm_castps_si128(active), groundedFlag);
+        __m128i newFlags = _mm_or_si128(_mm_andnot_si128(clear, oldFlags), grounded);
+        _mm_storeu_si128((__m128i*) (bodies->flags + i), newFlags);
+    }
+
+    integrateRangeScalar(bodies, params, i, end, deltaTime);
+}
+
+// Ядро AVX2: по 8 тел за итерацию
+__attribute__((target("avx2")))
+static void integrateRangeAvx2(const BodyArrays* bodies, const IntegratorParams* params,
+                               int begin, int end, float deltaTime) {
+    const __m256 dt = _mm256_set1_ps(deltaTime);
+    const __m256 gravityStep = _mm256_set1_ps(params->gravity * deltaTime);
+    const __m256 minVelocity = _mm256_set1_ps(-params->maxFallSpeed);
+    const __m256 groundHeight = _mm256_set1_ps(params->groundHeight);
+    const __m256 radius = _mm256_set1_ps(params->radius);
+    const __m256 contactHeight = _mm256_set1_ps(params->groundHeight + params->radius);
+    const __m256 bounce = _mm256_set1_ps(-(1.0f + params->restitution));
+    const __m256 friction = _mm256_set1_ps(params->friction);
+    const __m256 tangentEpsilon = _mm256_set1_ps(TANGENT_EPSILON_SQUARED);
+    const __m256 zero = _mm256_setzero_ps();
+    const __m256i activeFlag = _mm256_set1_epi32(params->activeFlag);
+    const __m256i awakeMask = _mm256_set1_epi32(params->activeFlag | params->sleepingFlag);
+    const __m256i groundedFlag = _mm256_set1_epi32(params->groundedFlag);
+
+    int i = begin;
+    for (; i + 8 <= end; i += 8) {
+        __m256i oldFlags = _mm256_loadu_si256((const __m256i*) (bodies->flags + i));
+        __m256 active = _mm256_castsi256_ps(
+            _mm256_cmpeq_epi32(_mm256_and_si256(oldFlags, awakeMask), activeFlag));
+
+        __m256 oldPx = _mm256_loadu_ps(bodies->posX + i);
+        __m256 oldPy = _mm256_loadu_ps(bodies->posY + i);
+        __m256 oldPz = _mm256_loadu_ps(bodies->posZ + i);
+        __m256 oldVx = _mm256_loadu_ps(bodies->velX + i);
+        __m256 oldVy = _mm256_loadu_ps(bodies->velY + i);
+        __m256 oldVz = _mm256_loadu_ps(bodies->velZ + i);
+
+        __m256 vy = _mm256_max_ps(_mm256_sub_ps(oldVy, gravityStep), minVelocity);
+        __m256 px = _mm256_add_ps(oldPx, _mm256_mul_ps(oldVx, dt));
+        __m256 py = _mm256_add_ps(oldPy, _mm256_mul_ps(vy, dt));
+        __m256 pz = _mm256_add_ps(oldPz, _mm256_mul_ps(oldVz, dt));
+
+        __m256 contact = _mm256_cmp_ps(_mm256_sub_ps(py, groundHeight), radius, _CMP_LT_OQ);
+        __m256 resting = _mm256_and_ps(contact, _mm256_cmp_ps(vy, zero, _CMP_LE_OQ));
+        __m256 tangent = _mm256_add_ps(_mm256_mul_ps(oldVx, oldVx), _mm256_mul_ps(oldVz, oldVz));
+        __m256 sliding = _mm256_and_ps(resting, _mm256_cmp_ps(tangent, tangentEpsilon, _CMP_GT_OQ));
+
+        py = _mm256_blendv_ps(py, contactHeight, contact);
+        vy = _mm256_add_ps(vy, _mm256_and_ps(resting, _mm256_mul_ps(bounce, vy)));
+        __m256 vx = _mm256_sub_ps(oldVx, _mm256_and_ps(sliding, _mm256_mul_ps(oldVx, friction)));
+        __m256 vz = _mm256_sub_ps(oldVz, _mm256_and_ps(sliding, _mm256_mul_ps(oldVz, friction)));
+
+        // Неактивные и спящие тела сохраняют прежние значения
+        _mm256_storeu_ps(bodies->posX + i, _mm256_blendv_ps(oldPx, px, active));
+        _mm256_storeu_ps(bodies->posY + i, _mm256_blendv_ps(oldPy, py, active));
+        _mm256_storeu_ps(bodies->posZ + i, _mm256_blendv_ps(oldPz, pz, active));
+        _mm256_storeu_ps(bodies->velX + i, _mm256_blendv_ps(oldVx, vx, active));
+        _mm256_storeu_ps(bodies->velY + i, _mm256_blendv_ps(oldVy, vy, active));
+        _mm256_storeu_ps(bodies->velZ + i, _mm256_blendv_ps(oldVz, vz, active));
+
+        __m256i grounded = _mm256_and_si256(_mm256_castps_si256(_mm256_and_ps(active, contact)), groundedFlag);
+        __m256i clear = _mm256_and_si256(_mm256_castps_si256(active), groundedFlag);
+        __m256i newFlags = _mm256_or_si256(_mm256_andnot_si256(clear, oldFlags), grounded);
+        _mm256_storeu_si256((__m256i*) (bodies->flags + i), newFlags);
+    }
+
+    integrateRangeScalar(bodies, params, i, end, deltaTime);
+}
+
+#endif /* INTEGRATOR_X86 */
+
+// Выбранное ядро
+typedef void (*IntegrateKernel)(const BodyArrays*, const IntegratorParams*, int, int, float);
+
+static IntegrateKernel kernel;
+static const char* kernelName = "scalar";
+static pthread_once_t kernelOnce = PTHREAD_ONCE_INIT;
+
+static void selectKernel(void) {
+    kernel = integrateRangeScalar;
+#ifdef INTEGRATOR_X86
+    __builtin_cpu_init();
+    if (__builtin_cpu_supports("avx2")) {
+        kernel = integrateRangeAvx2;
+        kernelName = "avx2";
+    } else if (__builtin_cpu_supports("sse2")) {
+        kernel = integrateRangeSse2;
+        kernelName = "sse2";
+    }
+#endif
+}
+
+void integrateRange(const BodyArrays* bodies, const IntegratorParams* params,
+                    int begin, int end, float deltaTime) {
+    pthread_once(&kernelOnce, selectKernel);
+    kernel(bodies, params, begin, end, deltaTime);
+}
+
+const char* integratorKernelName(void) {
+    pthread_once(&kernelOnce, selectKernel);
+    return kernelName;
+}
+
+// Пул рабочих потоков. Вызывающий поток выполняет часть 0,
+// рабочие потоки - части 1..threadCount-1.
+static pthread_mutex_t poolMutex = PTHREAD_MUTEX_INITIALIZER;
+static pthread_cond_t startCondition = PTHREAD_COND_INITIALIZER;
+static pthread_cond_t doneCondition = PTHREAD_COND_INITIALIZER;
+static pthread_t* workers;
+static int threadCount = 1;
+static int shuttingDown;
+
+// Текущее задание (защищено poolMutex)
+static long generation;
+static long workerStartGeneration;
+static int pending;
+static const BodyArrays* jobBodies;
+static const IntegratorParams* jobParams;
+static int jobCount;
+static int jobParts;
+static float jobDeltaTime;
+
+// Границы части part из parts для count тел
+static void partRange(int count, int parts, int part, int* begin, int* end) {
+    int size = (count + parts - 1) / parts;
+    size = (size + SPLIT_ALIGNMENT - 1) & ~(SPLIT_ALIGNMENT - 1);
+    *begin = part * size < count ? part * size : count;
+    *end = *begin + size < count ? *begin + size : count;
+}
+
+static void* workerMain(void* arg) {
+    int part = (int) (intptr_t) arg;
+
+    // Задания, выданные до создания потока, его не касаются
+    pthread_mutex_lock(&poolMutex);
+    long seen = workerStartGeneration;
+    pthread_mutex_unlock(&poolMutex);
+
+    for (;;) {
+        pthread_mutex_lock(&poolMutex);
+        while (generation == seen && !shuttingDown) {
+            pthread_cond_wait(&startCondition, &poolMutex);
+        }
+        if (shuttingDown) {
+            pthread_mutex_unlock(&poolMutex);
+            return NULL;
+        }
+        seen = generation;
+        const BodyArrays* bodies = jobBodies;
+        const IntegratorParams* params = jobParams;
+        int count = jobCount;
+        int parts = jobParts;
+        float deltaTime = jobDeltaTime;
+        pthread_mutex_unlock(&poolMutex);
+
+        if (part < parts) {
+            int begin;
+            int end;
+            partRange(count, parts, part, &begin, &end);
+            integrateRange(bodies, params, begin, end, deltaTime);
+        }
+
+        pthread_mutex_lock(&poolMutex);
+        if (--pending == 0) {
+            pthread_cond_signal(&doneCondition);
+        }
+        pthread_mutex_unlock(&poolMutex);
+    }
+}
+
+void integrateBodies(const BodyArrays* bodies, const IntegratorParams* params,
+                     int count, float deltaTime) {
+    int parts = (count + MIN_BODIES_PER_THREAD - 1) / MIN_BODIES_PER_THREAD;
+    if (parts > threadCount) {
+        parts = threadCount;
+    }
+    if (parts <= 1) {
+        integrateRange(bodies, params, 0, count, deltaTime);
+        return;
+    }
+
+    pthread_mutex_lock(&poolMutex);
+    jobBodies = bodies;
+    jobParams = params;
+    jobCount = count;
+    jobParts = parts;
+    jobDeltaTime = deltaTime;
+    pending = threadCount - 1;
+    generation++;
+    pthread_cond_broadcast(&startCondition);
+    pthread_mutex_unlock(&poolMutex);
+
+    int begin;
+    int end;
+    partRange(count, parts, 0, &begin, &end);
+    integrateRange(bodies, params, begin, end, deltaTime);
+
+    pthread_mutex_lock(&poolMutex);
+    while (pending > 0) {
+        pthread_cond_wait(&doneCondition, &poolMutex);
+    }
+    pthread_mutex_unlock(&poolMutex);
+}
+
+void integratorShutdown(void) {
+    pthread_mutex_lock(&poolMutex);
+    shuttingDown = 1;
+    pthread_cond_broadcast(&startCondition);
+    pthread_mutex_unlock(&poolMutex);
+
+    for (int i = 1; i < threadCount; i++) {
+        pthread_join(workers[i - 1], NULL);
+    }
+    free(workers);
+    workers = NULL;
+    threadCount = 1;
+    shuttingDown = 0;
+}
+
+int integratorSetThreads(int threads) {
+    if (threads < 1) {
+        threads = 1;
+    }
+    if (threads == threadCount) {
+        return threadCount;
+    }
+
+    integratorShutdown();
+    if (threads == 1) {
+        return threadCount;
+    }
+
+    workerStartGeneration = generation;
+    workers = malloc(sizeof(pthread_t) * (threads - 1));
+    if (workers == NULL) {
+        return INTEGRATOR_ERROR_MEMORY;
+    }
+    for (int i = 1; i < threads; i++) {
+        if (pthread_create(&workers[i - 1], NULL, workerMain, (void*) (intptr_t) i) != 0) {
+            // Потоки, созданные до ошибки, уже работают и остаются в пуле
+            threadCount = i;
+            if (i == 1) {
+                free(workers);
+                workers = NULL;
+            }
+            return INTEGRATOR_ERROR_THREAD;
+        }
+    }
+    threadCount = threads;
+    return threadCount;
+}
+
+int integratorThreads(void) {
+    return threadCount;
+}
@@ -0,0 +1,63 @@
+#ifndef INTEGRATOR_H
+#define INTEGRATOR_H
+
+// Интегрирование многих тел за один вызов над структурой массивов:
+// гравитация, перемещение и столкновение с плоскостью земли.
+// Ядро выбирается при первом вызове по возможностям процессора
+// (AVX2, SSE2 или скалярный цикл), работа делится между потоками.
+
+// Состояние тел в виде структуры массивов (память принадлежит вызывающей стороне)
+typedef struct {
+    float* posX;
+    float* posY;
+    float* posZ;
+    float* velX;
+    float* velY;
+    float* velZ;
+    int* flags;
+} BodyArrays;
+
+// Параметры интегрирования
+typedef struct {
+    float gravity;
+    float maxFallSpeed;
+    float radius;       // радиус тела-сферы
+    float groundHeight; // плоскость земли Y = groundHeight
+    float restitution;
+    float friction;
+    int activeFlag;     // тела без этого флага не изменяются
+    int groundedFlag;   // выставляется телам, касающимся земли
+    int sleepingFlag;   // спящие тела не изменяются
+} IntegratorParams;
+
+// Интегрирование тел [begin, end) в текущем потоке лучшим доступным ядром
+void integrateRange(const BodyArrays* bodies, const IntegratorParams* params,
+                    int begin, int end, float deltaTime);
+
+// Скалярное ядро (эталон для проверки и сравнения)
+void integrateRangeScalar(const BodyArrays* bodies, const IntegratorParams* params,
+                          int begin, int end, float deltaTime);
+
+// Интегрирование count тел с разделением работы между потоками
+void integrateBodies(const BodyArrays* bodies, const IntegratorParams* params,
+                     int count, float deltaTime);
+
+// Ошибки integratorSetThreads
+#define INTEGRATOR_ERROR_MEMORY -1 // не удалось выделить память для потоков
+#define INTEGRATOR_ERROR_THREAD -2 // не удалось создать поток
+
+// Количество потоков интегрирования, включая вызывающий (1 - без рабочих потоков).
+// Возвращает установленное значение или код ошибки INTEGRATOR_ERROR_*;
+// при ошибке в пуле остаются потоки, успевшие запуститься (integratorThreads).
+int integratorSetThreads(int threads);
+
+// Текущее количество потоков интегрирования
+int integratorThreads(void);
+
+// Имя выбранного ядра: "avx2", "sse2" или "scalar"
+const char* integratorKernelName(void);
+
+// Остановка рабочих потоков
+void integratorShutdown(void);
+
+#endif /* INTEGRATOR_H */
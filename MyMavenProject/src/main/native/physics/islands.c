@@ -0,0 +1,228 @@
+#include <limits.h>
+#include <stdlib.h>
+#include "islands.h"
+
+// Нет тела / тело вне острова
+#define NO_BODY -1
+
+// Родитель в системе непересекающихся множеств (NO_BODY - тело не участвует в шаге)
+static int* parent;
+
+// Шагов подряд с энергией ниже порога (массив общего блока)
+static int* restFrames;
+
+// Наименьшее restFrames среди тел острова (по корню)
+static int* islandRestFrames;
+
+// Спящий остров тела (корень на момент засыпания, массив общего блока) и список тел острова
+static int* sleepIsland;
+static int* islandHead;
+static int* islandNext;
+
+static int capacity;
+static int activeFlag;
+static int sleepingFlag;
+
+int islandsInit(int bodyCapacity, int bodyActiveFlag, int bodySleepingFlag,
+                int* bodyRestFrames, int* bodySleepIsland) {
+    islandsFree();
+
+    parent = (int*) malloc((size_t) bodyCapacity * sizeof(int));
+    islandRestFrames = (int*) malloc((size_t) bodyCapacity * sizeof(int));
+    islandHead = (int*) malloc((size_t) bodyCapacity * sizeof(int));
+    islandNext = (int*) malloc((size_t) bodyCapacity * sizeof(int));
+    if (parent == NULL || islandRestFrames == NULL || islandHead == NULL || islandNext == NULL) {
+        islandsFree();
+        return 0;
+    }
+
+    restFrames = bodyRestFrames;
+    sleepIsland = bodySleepIsland;
+    capacity = bodyCapacity;
+    activeFlag = bodyActiveFlag;
+    sleepingFlag = bodySleepingFlag;
+    for (int i = 0; i < capacity; i++) {
+        restFrames[i] = 0;
+        sleepIsland[i] = NO_BODY;
+    }
+    islandsReset(0);
+    return 1;
+}
+
+void islandsReset(int count) {
+    if (parent == NULL) {
+        return;
+    }
+    if (count > capacity) {
+        count = capacity;
+    }
+    for (int i = 0; i < capacity; i++) {
+        parent[i] = NO_BODY;
+        islandHead[i] = NO_BODY;
+        islandNext[i] = NO_BODY;
+    }
+
+    // Списки строятся в том же порядке, что и при засыпании в islandsEndStep
+    for (int i = 0; i < capacity; i++) {
+        int root = sleepIsland[i];
+        if (i >= count || root < 0 || root >= count) {
+            sleepIsland[i] = NO_BODY;
+            continue;
+        }
+        islandNext[i] = islandHead[root];
+        islandHead[root] = i;
+    }
+}
+
+void islandsFree(void) {
+    free(parent);
+    free(islandRestFrames);
+    free(islandHead);
+    free(islandNext);
+
+    parent = NULL;
+    restFrames = NULL;
+    islandRestFrames = NULL;
+    sleepIsland = NULL;
+    islandHead = NULL;
+    islandNext = NULL;
+    capacity = 0;
+}
+
+// Корень множества со сжатием пути делением пополам
+static int findRoot(int body) {
+    while (parent[body] != body) {
+        parent[body] = parent[parent[body]];
+        body = parent[body];
+    }
+    return body;
+}
+
+// Пробуждение всех тел спящего острова
+static void wakeIsland(int island, int* flags) {
+    int body = islandHead[island];
+    while (body != NO_BODY) {
+        int next = islandNext[body];
+        flags[body] &= ~sleepingFlag;
+        parent[body] = (flags[body] & activeFlag) ? body : NO_BODY;
+        restFrames[body] = 0;
+        sleepIsland[body] = NO_BODY;
+        islandNext[body] = NO_BODY;
+        body = next;
+    }
+}
+
+void islandsBeginStep(int* flags, int count) {
+    if (parent == NULL) {
+        return;
+    }
+    if (count > capacity) {
+        count = capacity;
+    }
+
+    // Тело спящего острова, с которого Java сняла флаг сна, будит весь остров
+    for (int i = 0; i < count; i++) {
+        if (sleepIsland[i] != NO_BODY && !(flags[i] & sleepingFlag)) {
+            wakeIsland(sleepIsland[i], flags);
+        }
+    }
+
+    for (int i = 0; i < count; i++) {
+        int awake = (flags[i] & (activeFlag | sleepingFlag)) == activeFlag;
+        parent[i] = awake ? i : NO_BODY;
+    }
+}
+
+void islandsWake(int body, int* flags) {
+    if (parent == NULL || !(flags[body] & sleepingFlag)) {
+        return;
+    }
+    if (sleepIsland[body] != NO_BODY) {
+        wakeIsland(sleepIsland[body], flags);
+        return;
+    }
+    // Флаг сна выставлен извне, без острова
+    flags[body] &= ~sleepingFlag;
+    parent[body] = (flags[body] & activeFlag) ? body : NO_BODY;
+    restFrames[body] = 0;
+}
+
+void islandsAddContact(int a, int b) {
+    if (parent == NULL || parent[a] == NO_BODY || parent[b] == NO_BODY) {
+        return;
+    }
+    int rootA = findRoot(a);
+    int rootB = findRoot(b);
+    if (rootA == rootB) {
+        return;
+    }
+    // Корнем становится меньший индекс: острова не зависят от порядка пар
+    if (rootA < rootB) {
+        parent[rootB] = rootA;
+    } else {
+        parent[rootA] = rootB;
+    }
+}
+
+IslandStats islandsEndStep(const BodyArrays* bodies, int count) {
+    IslandStats stats = {0, 0, 0};
+    if (parent == NULL) {
+        return stats;
+    }
+    if (count > capacity) {
+        count = capacity;
+    }
+
+    // Шаги покоя каждого бодрствующего тела
+    for (int i = 0; i < count; i++) {
+        if (parent[i] == NO_BODY) {
+            if ((bodies->flags[i] & activeFlag) && (bodies->flags[i] & sleepingFlag)) {
+                stats.sleeping++;
+            }
+            continue;
+        }
+        float energy = bodies->velX[i] * bodies->velX[i]
+                     + bodies->velY[i] * bodies->velY[i]
+                     + bodies->velZ[i] * bodies->velZ[i];
+        restFrames[i] = energy < SLEEP_ENERGY ? restFrames[i] + 1 : 0;
+        islandRestFrames[i] = INT_MAX;
+        islandHead[i] = NO_BODY;
+    }
+
+    // Остров готов ко сну, когда готово его наименее спокойное тело
+    for (int i = 0; i < count; i++) {
+        if (parent[i] == NO_BODY) {
+            continue;
+        }
+        int root = findRoot(i);
+        parent[i] = root;
+        if (root == i) {
+            stats.islands++;
+        }
+        if (restFrames[i] < islandRestFrames[root]) {
+            islandRestFrames[root] = restFrames[i];
+        }
+    }
+
+    // Засыпание готовых островов: тела собираются в список по корню
+    for (int i = 0; i < count; i++) {
+        int root = parent[i];
+        if (root == NO_BODY) {
+            continue;
+        }
+        if (islandRestFrames[root] < SLEEP_FRAMES) {
+            stats.awake++;
+            continue;
+        }
+        bodies->flags[i] |= sleepingFlag;
+        bodies->velX[i] = 0.0f;
+        bodies->velY[i] = 0.0f;
+        bodies->velZ[i] = 0.0f;
+        sleepIsland[i] = root;
+        islandNext[i] = islandHead[root];
+        islandHead[root] = i;
+        stats.sleeping++;
+    }
+
+    return stats;
+}
@@ -0,0 +1,51 @@
+#ifndef ISLANDS_H
+#define ISLANDS_H
+
+#include "integrator.h"
+
+// Засыпание тел и острова контактов.
+// Тело готово уснуть, когда его энергия движения (v^2) ниже порога
+// SLEEP_FRAMES шагов подряд. Острова - группы тел, связанных контактами
+// за шаг (система непересекающихся множеств); остров засыпает, когда
+// готовы все его тела, и просыпается целиком.
+
+// Порог энергии движения на единицу массы, м^2/с^2
+#define SLEEP_ENERGY 0.01f
+
+// Количество шагов подряд ниже порога до засыпания
+#define SLEEP_FRAMES 30
+
+// Счетчики за шаг
+typedef struct {
+    int awake;    // активные тела, не спящие после шага
+    int sleeping; // спящие тела после шага
+    int islands;  // острова из бодрствующих тел за шаг
+} IslandStats;
+
+// Инициализация для заданного количества тел и флагов тела.
+// Шаги покоя и спящие острова тел хранятся в массивах вызывающей стороны
+// (общий блок тел), поэтому сохраняются вместе с ним
+int islandsInit(int capacity, int activeFlag, int sleepingFlag, int* restFrames, int* sleepIsland);
+
+// Освобождение ресурсов
+void islandsFree(void);
+
+// Восстановление списков спящих островов по массиву спящих островов
+// после замены состояния count тел извне
+void islandsReset(int count);
+
+// Начало шага: будит острова, с тел которых флаг сна снят извне,
+// и делает каждое бодрствующее тело отдельным островом
+void islandsBeginStep(int* flags, int count);
+
+// Пробуждение тела вместе с его островом (тело в контакте с бодрствующим)
+void islandsWake(int body, int* flags);
+
+// Объединение островов двух тел в контакте
+void islandsAddContact(int a, int b);
+
+// Конец шага: счетчики шагов покоя и засыпание островов,
+// у спящих тел скорость обнуляется
+IslandStats islandsEndStep(const BodyArrays* bodies, int count);
+
+#endif /* ISLANDS_H */
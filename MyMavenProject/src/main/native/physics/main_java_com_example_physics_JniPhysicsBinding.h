@@ -0,0 +1,85 @@
+/* DO NOT EDIT THIS FILE - it is machine generated */
+#include <jni.h>
+/* Header for class main_java_com_example_physics_JniPhysicsBinding */
+
+#ifndef _Included_main_java_com_example_physics_JniPhysicsBinding
+#define _Included_main_java_com_example_physics_JniPhysicsBinding
+#ifdef __cplusplus
+extern "C" {
+#endif
+/*
+ * Class:     main_java_com_example_physics_JniPhysicsBinding
+ * Method:    initNative
+ * Signature: ()V
+ */
+JNIEXPORT void JNICALL Java_main_java_com_example_physics_JniPhysicsBinding_initNative
+  (JNIEnv *, jobject);
+
+/*
+ * Class:     main_java_com_example_physics_JniPhysicsBinding
+ * Method:    cleanupNative
+ * Signature: ()V
+ */
+JNIEXPORT void JNICALL Java_main_java_com_example_physics_JniPhysicsBinding_cleanupNative
+  (JNIEnv *, jobject);
+
+/*
+ * Class:     main_java_com_example_physics_JniPhysicsBinding
+ * Method:    updateNative
+ * Signature: (F)V
+ */
+JNIEXPORT void JNICALL Java_main_java_com_example_physics_JniPhysicsBinding_updateNative
+  (JNIEnv *, jobject, jfloat);
+
+/*
+ * Class:     main_java_com_example_physics_JniPhysicsBinding
+ * Method:    updatePlayerNative
+ * Signature: (FFFFFFF)[F
+ */
+JNIEXPORT jfloatArray JNICALL Java_main_java_com_example_physics_JniPhysicsBinding_updatePlayerNative
+  (JNIEnv *, jobject, jfloat, jfloat, jfloat, jfloat, jfloat, jfloat, jfloat);
+
+/*
+ * Class:     main_java_com_example_physics_JniPhysicsBinding
+ * Method:    checkCollisionNative
+ * Signature: (FFF)Z
+ */
+JNIEXPORT jboolean JNICALL Java_main_java_com_example_physics_JniPhysicsBinding_checkCollisionNative
+  (JNIEnv *, jobject, jfloat, jfloat, jfloat);
+
+/*
+ * Class:     main_java_com_example_physics_JniPhysicsBinding
+ * Method:    registerBodiesNative
+ * Signature: (Ljava/nio/ByteBuffer;I)V
+ */
+JNIEXPORT void JNICALL Java_main_java_com_example_physics_JniPhysicsBinding_registerBodiesNative
+  (JNIEnv *, jobject, jobject, jint);
+
+/*
+ * Class:     main_java_com_example_physics_JniPhysicsBinding
+ * Method:    stepBodiesNative
+ * Signature: (F)V
+ */
+JNIEXPORT void JNICALL Java_main_java_com_example_physics_JniPhysicsBinding_stepBodiesNative
+  (JNIEnv *, jobject, jfloat);
+
+/*
+ * Class:     main_java_com_example_physics_JniPhysicsBinding
+ * Method:    resetBodiesNative
+ * Signature: ()V
+ */
+JNIEXPORT void JNICALL Java_main_java_com_example_physics_JniPhysicsBinding_resetBodiesNative
+  (JNIEnv *, jobject);
+
+/*
+ * Class:     main_java_com_example_physics_JniPhysicsBinding
+ * Method:    setIntegratorThreadsNative
+ * Signature: (I)I
+ */
+JNIEXPORT jint JNICALL Java_main_java_com_example_physics_JniPhysicsBinding_setIntegratorThreadsNative
+  (JNIEnv *, jobject, jint);
+
+#ifdef __cplusplus
+}
+#endif
+#endif
@@ -3,7 +3,9 @@
 #include <math.h>
 #include <jni.h>
 #include "physics.h"
-#include "main_java_com_example_physics_PhysicsEngine.h"
+#include "world.h"
+#include "integrator.h"
+#include "main_java_com_example_physics_JniPhysicsBinding.h"
 
 // Константы физики
 #define GRAVITY 9.81f
@@ -61,6 +63,7 @@ void initPhysics() {
 
 // Освобождение ресурсов физического движка
 void cleanupPhysics() {
+    releaseWorld();
     printf("Физический движок освобожден\n");
 }
 
@@ -202,37 +205,31 @@ int checkCollision(float posX, float posY, float posZ) {
     return groundCollision.isColliding;
 }
 
+// Настройка количества потоков интегрирования тел
+int configureIntegrator(int threads) {
+    int applied = integratorSetThreads(threads);
+    printf("Интегрирование тел: ядро %s, потоков: %d\n", integratorKernelName(), integratorThreads());
+    return applied;
+}
+
 // JNI функции
 
-JNIEXPORT void JNICALL Java_main_java_com_example_physics_PhysicsEngine_initPhysics
+JNIEXPORT void JNICALL Java_main_java_com_example_physics_JniPhysicsBinding_initNative
   (JNIEnv *env, jobject obj) {
     initPhysics();
 }
 
-JNIEXPORT void JNICALL Java_main_java_com_example_physics_PhysicsEngine_cleanupPhysics
+JNIEXPORT void JNICALL Java_main_java_com_example_physics_JniPhysicsBinding_cleanupNative
   (JNIEnv *env, jobject obj) {
     cleanupPhysics();
 }
 
-JNIEXPORT jfloatArray JNICALL Java_main_java_com_example_physics_PhysicsEngine_updatePhysics
+JNIEXPORT void JNICALL Java_main_java_com_example_physics_JniPhysicsBinding_updateNative
   (JNIEnv *env, jobject obj, jfloat deltaTime) {
     updatePhysics(deltaTime);
-
-    jfloatArray result = (*env)->NewFloatArray(env, 6);
-    if (result == NULL) {
-        return NULL; // OutOfMemoryError
-    }
-
-    float values[6] = {
-        player.position.x, player.position.y, player.position.z,
-        player.velocity.x, player.velocity.y, player.velocity.z
-    };
-
-    (*env)->SetFloatArrayRegion(env, result, 0, 6, values);
-    return result;
 }
 
-JNIEXPORT jfloatArray JNICALL Java_main_java_com_example_physics_PhysicsEngine_updatePlayerPhysics
+JNIEXPORT jfloatArray JNICALL Java_main_java_com_example_physics_JniPhysicsBinding_updatePlayerNative
   (JNIEnv *env, jobject obj, jfloat posX, jfloat posY, jfloat posZ,
    jfloat velX, jfloat velY, jfloat velZ, jfloat deltaTime) {
     float outPosition[3];
@@ -248,7 +245,46 @@ JNIEXPORT jfloatArray JNICALL Java_main_java_com_example_physics_PhysicsEngine_u
     return result;
 }
 
-JNIEXPORT jboolean JNICALL Java_main_java_com_example_physics_PhysicsEngine_checkCollision
+JNIEXPORT jboolean JNICALL Java_main_java_com_example_physics_JniPhysicsBinding_checkCollisionNative
   (JNIEnv *env, jobject obj, jfloat posX, jfloat posY, jfloat posZ) {
     return checkCollision(posX, posY, posZ);
 }
+
+JNIEXPORT void JNICALL Java_main_java_com_example_physics_JniPhysicsBinding_registerBodiesNative
+  (JNIEnv *env, jobject obj, jobject buffer, jint capacity) {
+    void* memory = (*env)->GetDirectBufferAddress(env, buffer);
+    if (memory == NULL) {
+        (*env)->ThrowNew(env, (*env)->FindClass(env, "java/lang/IllegalArgumentException"),
+            "Ожидается прямой ByteBuffer");
+        return;
+    }
+
+    if ((*env)->GetDirectBufferCapacity(env, buffer) < WORLD_MEMORY_SIZE(capacity)) {
+        (*env)->ThrowNew(env, (*env)->FindClass(env, "java/lang/IllegalArgumentException"),
+            "Размер буфера меньше требуемого для заданной вместимости");
+        return;
+    }
+
+    if (!registerWorld(memory, capacity)) {
+        (*env)->ThrowNew(env, (*env)->FindClass(env, "java/lang/IllegalStateException"),
+            "Не удалось выделить память для широкой фазы и островов");
+    }
+}
+
+JNIEXPORT void JNICALL Java_main_java_com_example_physics_JniPhysicsBinding_stepBodiesNative
+  (JNIEnv *env, jobject obj, jfloat deltaTime) {
+    if (!stepWorld(deltaTime)) {
+        (*env)->ThrowNew(env, (*env)->FindClass(env, "java/lang/IllegalStateException"),
+            "Не удалось выделить память для широкой фазы");
+    }
+}
+
+JNIEXPORT void JNICALL Java_main_java_com_example_physics_JniPhysicsBinding_resetBodiesNative
+  (JNIEnv *env, jobject obj) {
+    resetWorld();
+}
+
+JNIEXPORT jint JNICALL Java_main_java_com_example_physics_JniPhysicsBinding_setIntegratorThreadsNative
+  (JNIEnv *env, jobject obj, jint threads) {
+    return configureIntegrator(threads);
+}
@@ -51,6 +51,10 @@ void updatePlayerPhysics(
 // Проверка коллизии
 int checkCollision(float posX, float posY, float posZ);
 
+// Настройка количества потоков интегрирования тел, возвращает установленное значение
+// или код ошибки INTEGRATOR_ERROR_* (integrator.h)
+int configureIntegrator(int threads);
+
 // Применение гравитации к объекту
 void applyGravity(PhysicsObject* object, float deltaTime);
 
@@ -0,0 +1,215 @@
+#include <stdio.h>
+#include <stdint.h>
+#include <string.h>
+#include <math.h>
+#include <time.h>
+#include "world.h"
+#include "broadphase.h"
+#include "integrator.h"
+#include "islands.h"
+
+// Константы физики (совпадают с параметрами игрока в physics.c)
+#define GRAVITY 9.81f
+#define EPSILON 0.0001f
+#define MAX_FALL_SPEED 50.0f
+#define BODY_RADIUS 0.5f
+#define RESTITUTION 0.3f
+#define FRICTION 0.8f
+
+// Плоскость земли Y = GROUND_HEIGHT
+#define GROUND_HEIGHT 0.0f
+
+// Представление общего блока памяти в виде структуры массивов
+typedef struct {
+    int* header;
+    float* posX;
+    float* posY;
+    float* posZ;
+    float* velX;
+    float* velY;
+    float* velZ;
+    int* flags;
+    int capacity;
+} World;
+
+static World world;
+
+// Параметры интегрирования тел общего блока
+static const IntegratorParams integratorParams = {
+    GRAVITY, MAX_FALL_SPEED, BODY_RADIUS, GROUND_HEIGHT,
+    RESTITUTION, FRICTION, BODY_FLAG_ACTIVE, BODY_FLAG_GROUNDED, BODY_FLAG_SLEEPING
+};
+
+// Монотонное время в наносекундах
+static int64_t nowNanos(void) {
+    struct timespec ts;
+    clock_gettime(CLOCK_MONOTONIC, &ts);
+    return (int64_t) ts.tv_sec * 1000000000LL + ts.tv_nsec;
+}
+
+// Запись 64-битного значения в заголовок (выравнивание блока не гарантировано)
+static void writeHeaderLong(int index, int64_t value) {
+    memcpy(world.header + index, &value, sizeof(value));
+}
+
+// Разрешение столкновения двух тел-сфер одинаковой массы
+static int resolveBodyContact(int a, int b) {
+    float dx = world.posX[b] - world.posX[a];
+    float dy = world.posY[b] - world.posY[a];
+    float dz = world.posZ[b] - world.posZ[a];
+    float distanceSquared = dx * dx + dy * dy + dz * dz;
+    float minDistance = 2.0f * BODY_RADIUS;
+
+    if (distanceSquared >= minDistance * minDistance) {
+        return 0;
+    }
+
+    // Бодрствующее тело будит спящее вместе с его островом
+    islandsWake(a, world.flags);
+    islandsWake(b, world.flags);
+    islandsAddContact(a, b);
+
+    // Нормаль контакта от a к b
+    float distance = sqrtf(distanceSquared);
+    float nx = 0.0f;
+    float ny = 1.0f;
+    float nz = 0.0f;
+    if (distance > EPSILON) {
+        nx = dx / distance;
+        ny = dy / distance;
+        nz = dz / distance;
+    }
+
+    // Разведение тел поровну
+    float correction = (minDistance - distance) * 0.5f;
+    world.posX[a] -= nx * correction;
+    world.posY[a] -= ny * correction;
+    world.posZ[a] -= nz * correction;
+    world.posX[b] += nx * correction;
+    world.posY[b] += ny * correction;
+    world.posZ[b] += nz * correction;
+
+    // Импульс, если тела сближаются
+    float relativeVelocity =
+        (world.velX[b] - world.velX[a]) * nx +
+        (world.velY[b] - world.velY[a]) * ny +
+        (world.velZ[b] - world.velZ[a]) * nz;
+    if (relativeVelocity < 0.0f) {
+        float j = -(1.0f + RESTITUTION) * relativeVelocity * 0.5f;
+        world.velX[a] -= nx * j;
+        world.velY[a] -= ny * j;
+        world.velZ[a] -= nz * j;
+        world.velX[b] += nx * j;
+        world.velY[b] += ny * j;
+        world.velZ[b] += nz * j;
+    }
+
+    return 1;
+}
+
+// Регистрация общего блока памяти
+int registerWorld(void* memory, int capacity) {
+    world.header = (int*) memory;
+    world.capacity = capacity;
+
+    float* arrays = (float*) (world.header + WORLD_HEADER_INTS);
+    world.posX = arrays;
+    world.posY = arrays + capacity;
+    world.posZ = arrays + 2 * capacity;
+    world.velX = arrays + 3 * capacity;
+    world.velY = arrays + 4 * capacity;
+    world.velZ = arrays + 5 * capacity;
+    world.flags = (int*) (arrays + 6 * capacity);
+    int* restFrames = (int*) (arrays + 7 * capacity);
+    int* sleepIsland = (int*) (arrays + 8 * capacity);
+
+    world.header[WORLD_HEADER_CAPACITY] = capacity;
+
+    // Размер ячейки сетки равен диаметру тела
+    broadphaseSetCellSize(2.0f * BODY_RADIUS);
+    if (!broadphaseInit(capacity)
+        || !islandsInit(capacity, BODY_FLAG_ACTIVE, BODY_FLAG_SLEEPING, restFrames, sleepIsland)) {
+        // Без широкой фазы и островов шаг шел бы без столкновений тел и засыпания:
+        // блок не регистрируется, stepWorld ничего не делает
+        broadphaseFree();
+        islandsFree();
+        memset(&world, 0, sizeof(world));
+        return 0;
+    }
+
+    printf("Зарегистрирован общий блок тел: %d тел\n", capacity);
+    return 1;
+}
+
+// Шаг симуляции всех активных тел общего блока
+int stepWorld(float deltaTime) {
+    if (world.header == NULL) {
+        return 1;
+    }
+
+    int64_t stepStart = nowNanos();
+
+    int count = world.header[WORLD_HEADER_COUNT];
+    if (count > world.capacity) {
+        count = world.capacity;
+    }
+
+    // Тела, разбуженные со стороны Java, будят свои острова
+    islandsBeginStep(world.flags, count);
+
+    // Гравитация, перемещение и столкновение с землей всех бодрствующих тел разом
+    BodyArrays arrays = {
+        world.posX, world.posY, world.posZ,
+        world.velX, world.velY, world.velZ,
+        world.flags
+    };
+    integrateBodies(&arrays, &integratorParams, count, deltaTime);
+
+    // Широкая фаза: пары-кандидаты из пространственного хэша
+    int64_t broadphaseStart = nowNanos();
+    int pairCount = broadphaseUpdate(
+        world.posX, world.posY, world.posZ,
+        world.flags, BODY_FLAG_ACTIVE, BODY_FLAG_SLEEPING, count, BODY_RADIUS
+    );
+    int64_t broadphaseEnd = nowNanos();
+    if (pairCount < 0) {
+        return 0;
+    }
+
+    // Узкая фаза: столкновения тел-сфер
+    const BodyPair* pairs = broadphasePairs();
+    int contactCount = 0;
+    for (int i = 0; i < pairCount; i++) {
+        contactCount += resolveBodyContact(pairs[i].a, pairs[i].b);
+    }
+
+    // Засыпание островов, остававшихся в покое SLEEP_FRAMES шагов
+    IslandStats islands = islandsEndStep(&arrays, count);
+
+    world.header[WORLD_HEADER_PAIR_COUNT] = pairCount;
+    world.header[WORLD_HEADER_CONTACT_COUNT] = contactCount;
+    world.header[WORLD_HEADER_AWAKE_COUNT] = islands.awake;
+    world.header[WORLD_HEADER_SLEEPING_COUNT] = islands.sleeping;
+    world.header[WORLD_HEADER_ISLAND_COUNT] = islands.islands;
+    writeHeaderLong(WORLD_HEADER_BROADPHASE_NANOS, broadphaseEnd - broadphaseStart);
+    writeHeaderLong(WORLD_HEADER_STEP_NANOS, nowNanos() - stepStart);
+    return 1;
+}
+
+// Сброс внутреннего состояния движка после замены содержимого блока
+void resetWorld(void) {
+    if (world.header == NULL) {
+        return;
+    }
+    int count = world.header[WORLD_HEADER_COUNT];
+    broadphaseReset();
+    islandsReset(count);
+}
+
+// Освобождение ресурсов мира
+void releaseWorld(void) {
+    broadphaseFree();
+    islandsFree();
+    integratorShutdown();
+    memset(&world, 0, sizeof(world));
+}
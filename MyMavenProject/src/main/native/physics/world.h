@@ -0,0 +1,54 @@
+#ifndef WORLD_H
+#define WORLD_H
+
+// Раскладка общего блока памяти с состоянием тел.
+// Должна совпадать с BodyBuffer.java.
+//
+// [заголовок: WORLD_HEADER_INTS значений int]
+// [posX: float * capacity] [posY] [posZ]
+// [velX: float * capacity] [velY] [velZ]
+// [flags: int * capacity]
+// [restFrames: int * capacity] [sleepIsland: int * capacity] (состояние засыпания, islands.h)
+
+// Размер заголовка в int
+#define WORLD_HEADER_INTS 16
+
+// Индексы полей заголовка
+#define WORLD_HEADER_CAPACITY 0
+#define WORLD_HEADER_COUNT 1
+#define WORLD_HEADER_PAIR_COUNT 2        // пары-кандидаты широкой фазы за шаг
+#define WORLD_HEADER_CONTACT_COUNT 3     // пары, оказавшиеся в контакте
+#define WORLD_HEADER_BROADPHASE_NANOS 4  // int64: время широкой фазы, нс
+#define WORLD_HEADER_STEP_NANOS 6        // int64: время всего шага, нс
+#define WORLD_HEADER_AWAKE_COUNT 8       // активные тела, не спящие после шага
+#define WORLD_HEADER_SLEEPING_COUNT 9    // спящие тела после шага
+#define WORLD_HEADER_ISLAND_COUNT 10     // острова из бодрствующих тел за шаг
+
+// Количество массивов по capacity элементов после заголовка
+#define WORLD_ARRAY_COUNT 9
+
+// Флаги тела
+#define BODY_FLAG_ACTIVE 1   // тело участвует в симуляции
+#define BODY_FLAG_GROUNDED 2 // тело касается земли (выставляется движком)
+#define BODY_FLAG_SLEEPING 4 // тело спит: не интегрируется, пока его не разбудят
+
+// Размер блока памяти в байтах для заданной вместимости
+#define WORLD_MEMORY_SIZE(capacity) \
+    ((WORLD_HEADER_INTS + WORLD_ARRAY_COUNT * (capacity)) * 4)
+
+// Регистрация общего блока памяти (память принадлежит вызывающей стороне).
+// Возвращает 0, если не удалось выделить память для широкой фазы или островов
+int registerWorld(void* memory, int capacity);
+
+// Шаг симуляции всех активных тел общего блока.
+// Возвращает 0, если широкой фазе не хватило памяти (шаг прерван после интегрирования)
+int stepWorld(float deltaTime);
+
+// Сброс внутреннего состояния движка (сетка широкой фазы, острова)
+// после замены содержимого блока целиком, например при загрузке снимка
+void resetWorld(void);
+
+// Освобождение ресурсов мира (память блока принадлежит вызывающей стороне)
+void releaseWorld(void);
+
+#endif /* WORLD_H */